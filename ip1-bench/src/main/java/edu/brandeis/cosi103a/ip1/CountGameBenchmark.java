@@ -0,0 +1,76 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the count-based {@link CountGame}, for comparison with the
+ * list-based {@link GameBenchmark} and the byte-array {@link CompactGameBenchmark}
+ * at the same player counts. Allocation should be zero bytes per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CountGameBenchmark {
+    /** The number of players in each game */
+    @Param({"2", "3", "4", "5", "6"})
+    int players;
+
+    /** Generator shared by all games on this benchmark thread */
+    SplittableRandom random;
+    /** The game being played, reused across games */
+    CountGame game;
+
+    /**
+     * Creates the generator and starts the first game.
+     */
+    @Setup
+    public void setUp() {
+        random = new SplittableRandom(42);
+        game = new CountGame(CardCatalog.STANDARD, players);
+        game.reset(random);
+    }
+
+    /**
+     * Plays one turn, starting a new game in place whenever the current one ends.
+     *
+     * @return the number of turns played in the current game
+     */
+    @Benchmark
+    public int playTurn() {
+        if (game.isGameOver()) {
+            game.reset(random);
+        }
+        game.playTurn();
+        return game.getTurnCount();
+    }
+
+    /**
+     * Resets and plays one complete game.
+     *
+     * @return the first player's final Automation Points
+     */
+    @Benchmark
+    public int playGame() {
+        game.reset(random);
+        while (!game.isGameOver()) {
+            game.playTurn();
+        }
+        return game.getPoints(0);
+    }
+}
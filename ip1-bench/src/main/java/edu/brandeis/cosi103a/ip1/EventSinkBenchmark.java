@@ -0,0 +1,88 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures what game-event logging costs a {@link CompactGame}: nothing
+ * ({@code none}) versus the asynchronous file writer ({@code file}) and the
+ * shared runtime counters with decision timing ({@code metrics}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSinkBenchmark {
+    /** Which sink the game logs to */
+    @Param({"none", "file", "metrics"})
+    String sink;
+
+    /** Generator shared by all games on this benchmark thread */
+    SplittableRandom random;
+    /** The game being played, reused across games */
+    CompactGame game;
+    /** The file sink, when logging to a file */
+    AsyncFileEventSink fileSink;
+    /** The log file, when logging to a file */
+    Path file;
+
+    /**
+     * Creates the game and attaches the selected sink.
+     *
+     * @throws IOException if the log file cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException {
+        random = new SplittableRandom(42);
+        game = new CompactGame(CardCatalog.STANDARD);
+        if (sink.equals("file")) {
+            file = Files.createTempFile("events", ".log");
+            fileSink = new AsyncFileEventSink(file, CardCatalog.STANDARD);
+            game.setEventSink(fileSink);
+        } else if (sink.equals("metrics")) {
+            game.setEventSink(new GameMetrics(CardCatalog.STANDARD));
+        }
+    }
+
+    /**
+     * Closes and deletes the log file.
+     *
+     * @throws IOException if the log cannot be written or deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        if (fileSink != null) {
+            fileSink.close();
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Resets and plays one complete game.
+     *
+     * @return the first player's final Automation Points
+     */
+    @Benchmark
+    public int playGame() {
+        game.reset(random);
+        return game.playGame().getPoints(0);
+    }
+}
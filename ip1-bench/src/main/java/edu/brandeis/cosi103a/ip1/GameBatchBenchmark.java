@@ -0,0 +1,81 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares single-threaded runners on the same job, a run of two-player games
+ * with the built-in heuristic: one {@link domination} object graph per game
+ * ({@code objects}, what {@link Simulator#playBatch} does), one reused
+ * {@link CompactGame} ({@code compact}), and a {@link GameBatch} of 64 or 1024
+ * games in lockstep ({@code batch64}, {@code batch1024}). Scores are games per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBatchBenchmark {
+    /** Games per benchmark invocation */
+    static final int GAMES = 4096;
+
+    /** Which runner plays the games */
+    @Param({"objects", "compact", "batch64", "batch1024"})
+    String runner;
+
+    /** Generator shared by all games on this benchmark thread */
+    SplittableRandom random;
+    /** The reused game, for {@code compact} */
+    CompactGame game;
+    /** The batch, for the {@code batch} runners */
+    GameBatch batch;
+
+    /**
+     * Creates the selected runner.
+     */
+    @Setup
+    public void setUp() {
+        random = new SplittableRandom(42);
+        if (runner.equals("compact")) {
+            game = new CompactGame(CardCatalog.STANDARD);
+        } else if (runner.startsWith("batch")) {
+            batch = new GameBatch(CardCatalog.STANDARD, 2, Integer.parseInt(runner.substring(5)));
+        }
+    }
+
+    /**
+     * Plays {@link #GAMES} games.
+     *
+     * @return the number of games the first seat won
+     */
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public long playGames() {
+        if (batch != null) {
+            return batch.play(GAMES, random).getWins(0);
+        }
+        if (game == null) {
+            return Simulator.playBatch(GAMES, random).getWins(0);
+        }
+        long wins = 0;
+        for (int i = 0; i < GAMES; i++) {
+            game.reset(random);
+            wins += game.playGame().getWinner() == 0 ? 1 : 0;
+        }
+        return wins;
+    }
+}
@@ -0,0 +1,52 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks a whole silent game, including setup, for two to six players.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    /** The number of players in each game */
+    @Param({"2", "3", "4", "5", "6"})
+    int players;
+
+    /** Generator shared by all games on this benchmark thread */
+    SplittableRandom random;
+
+    /**
+     * Creates the generator.
+     */
+    @Setup
+    public void setUp() {
+        random = new SplittableRandom(42);
+    }
+
+    /**
+     * Sets up and plays one complete silent game.
+     *
+     * @return the game's result
+     */
+    @Benchmark
+    public GameResult playGame() {
+        return new domination(random, true, players).playGame();
+    }
+}
@@ -0,0 +1,126 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the per-turn player operations: the cleanup/reshuffle/deal cycle
+ * of {@link Player#endTurn()} and the coin count of the dealt hand. The cycle
+ * is also run on three {@link ArrayList} piles the way {@link Player} used to
+ * ({@code listEndTurn}), as the baseline for its shared pile array.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+    /** Total deck size: the 10-card starter deck, or a late-game deck */
+    @Param({"10", "40"})
+    int deckSize;
+
+    /** The player under test */
+    Player player;
+    /** Generator for the list baseline's shuffles */
+    SplittableRandom listRandom;
+    /** The list baseline's draw pile */
+    List<Card> listDraw;
+    /** The list baseline's discard pile */
+    List<Card> listDiscard;
+    /** The list baseline's hand */
+    List<Card> listHand;
+
+    /**
+     * Builds a player holding the starter deck plus enough extra treasure
+     * to reach {@link #deckSize} cards.
+     */
+    @Setup
+    public void setUp() {
+        Supply supply = new Supply();
+        player = new Player("Bench", new SplittableRandom(42));
+        for (int i = 10; i < deckSize; i++) {
+            player.addCardToDeck(new CryptocurrencyCard("Ethereum", 3, 2));
+        }
+        player.setupStarterDeck(supply);
+
+        listRandom = new SplittableRandom(42);
+        listDraw = new ArrayList<>();
+        listDiscard = new ArrayList<>();
+        listHand = new ArrayList<>();
+        for (int i = 0; i < deckSize; i++) {
+            listDiscard.add(CardCatalog.STANDARD.getCard(i < 7 ? CardCatalog.BITCOIN
+                : i < 10 ? CardCatalog.METHOD : CardCatalog.ETHEREUM));
+        }
+    }
+
+    /**
+     * One end-of-turn cycle: discard the hand, reshuffle when the draw pile
+     * is empty, and deal a new hand of five.
+     *
+     * @return the player, so the work cannot be eliminated
+     */
+    @Benchmark
+    public Player endTurn() {
+        player.cleanup();
+        player.endTurn();
+        return player;
+    }
+
+    /**
+     * The same cycle on list piles: append the hand to the discard pile, move
+     * the discards onto the draw pile and shuffle it when it is empty, and deal
+     * five cards off the tail.
+     *
+     * @return the hand, so the work cannot be eliminated
+     */
+    @Benchmark
+    public List<Card> listEndTurn() {
+        listDiscard.addAll(listHand);
+        listHand.clear();
+        if (listDraw.isEmpty() && !listDiscard.isEmpty()) {
+            listDraw.addAll(listDiscard);
+            listDiscard.clear();
+            Collections.shuffle(listDraw, listRandom);
+        }
+        for (int i = 0; i < 5 && !listDraw.isEmpty(); i++) {
+            listHand.add(listDraw.remove(listDraw.size() - 1));
+        }
+        return listHand;
+    }
+
+    /**
+     * Sums the coins in the current hand.
+     *
+     * @return the available coins
+     */
+    @Benchmark
+    public int getAvailableCoins() {
+        return player.getAvailableCoins();
+    }
+
+    /**
+     * Reads the Automation Points of the whole deck.
+     *
+     * @return the player's AP
+     */
+    @Benchmark
+    public int getAutomationPoints() {
+        return player.getAutomationPoints();
+    }
+}
@@ -0,0 +1,88 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks branching from a mid-game position: saving a {@link domination}
+ * game into a reused {@link GameSnapshot} and restoring it, loading the same
+ * snapshot into a {@link CompactGame}, and copying the game straight into one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+    /** Turns played before the position is taken; decks grow as the game goes on */
+    @Param({"10", "40"})
+    int turns;
+
+    /** The game being branched */
+    domination game;
+    /** The compact game the position is loaded into */
+    CompactGame compact;
+    /** The reused snapshot */
+    GameSnapshot snapshot;
+
+    /**
+     * Plays the game up to the benchmarked position and takes its snapshot.
+     */
+    @Setup
+    public void setUp() {
+        game = new domination(new SplittableRandom(42), true);
+        for (int i = 0; i < turns; i++) {
+            game.playTurn();
+        }
+        snapshot = game.snapshot();
+        compact = new CompactGame(CardCatalog.STANDARD);
+    }
+
+    /**
+     * Saves the whole position and puts the game back into it.
+     *
+     * @return the game, so the work cannot be eliminated
+     */
+    @Benchmark
+    public domination snapshotAndRestore() {
+        game.snapshot(snapshot);
+        game.restore(snapshot);
+        return game;
+    }
+
+    /**
+     * Loads the position into the compact engine.
+     *
+     * @return the compact game, so the work cannot be eliminated
+     */
+    @Benchmark
+    public CompactGame copyIntoCompact() {
+        compact.copyFrom(snapshot);
+        return compact;
+    }
+
+    /**
+     * Copies the position into the compact engine without a snapshot, as a
+     * search does for its root.
+     *
+     * @return the compact game, so the work cannot be eliminated
+     */
+    @Benchmark
+    public CompactGame dominationCopyInto() {
+        game.copyInto(compact);
+        return compact;
+    }
+}
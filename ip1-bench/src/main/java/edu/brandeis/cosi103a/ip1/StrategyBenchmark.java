@@ -0,0 +1,52 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the buy decision of the built-in strategy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyBenchmark {
+    /** Coins available to {@link domination#chooseBestCard(int)} */
+    @Param({"2", "5", "8"})
+    int coins;
+
+    /** A freshly set-up game used for the buy decision */
+    domination game;
+
+    /**
+     * Creates a game in its initial state.
+     */
+    @Setup
+    public void setUp() {
+        game = new domination(new SplittableRandom(42), true);
+    }
+
+    /**
+     * Chooses the card to buy with a fixed number of coins.
+     *
+     * @return the chosen card
+     */
+    @Benchmark
+    public Card chooseBestCard() {
+        return game.chooseBestCard(coins);
+    }
+}
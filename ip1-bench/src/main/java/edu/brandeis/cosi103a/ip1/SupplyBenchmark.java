@@ -0,0 +1,57 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks purchasing from the {@link Supply}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SupplyBenchmark {
+    /** The card to buy: the largest pile, and the pile that ends the game */
+    @Param({"Bitcoin", "Framework"})
+    String cardName;
+
+    /** The supply being bought from */
+    Supply supply;
+
+    /**
+     * Creates a full supply.
+     */
+    @Setup
+    public void setUp() {
+        supply = new Supply();
+    }
+
+    /**
+     * Buys one card. When the pile runs out, the supply is replaced by a full one;
+     * that cost is amortized over the pile size (8 to 60 purchases).
+     *
+     * @return the purchased card
+     */
+    @Benchmark
+    public Card buyCard() {
+        Card card = supply.buyCard(cardName);
+        if (card == null) {
+            supply = new Supply();
+            card = supply.buyCard(cardName);
+        }
+        return card;
+    }
+}
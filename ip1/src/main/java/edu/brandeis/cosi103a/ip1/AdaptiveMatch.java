@@ -0,0 +1,255 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Head-to-head match between two strategies that stops as soon as the result is
+ * settled. Games are played on the same mirrored deals as {@link Tournament}, in
+ * rounds of one batch of deals per worker thread. After each round the results are
+ * folded into streaming statistics and the configured {@link StopRule} decides
+ * whether one strategy is significantly stronger; if not, the next round is played,
+ * up to a cap on the number of games. Rounds always cover the same deal numbers,
+ * so a match is repeatable for a given seed and thread count.
+ *
+ * <p>Stopping as soon as a test passes makes a false verdict more likely than a
+ * single test at the end would. The SPRT is built for that. The two interval
+ * rules instead look only when the number of deals has doubled since their last
+ * look (and at the cap), and the k-th look (from 1) tests at error rate
+ * {@code (1 - confidence) / 2^k}. These rates sum to less than
+ * {@code 1 - confidence}, so over the whole match the chance of naming a
+ * stronger strategy when there is none stays below it.
+ */
+final class AdaptiveMatch {
+    /** How the match decides that the difference between the strategies is significant */
+    enum StopRule {
+        /**
+         * The normal confidence interval of the mean per-deal score excludes 0.5.
+         * Per-deal scores average both seatings of a deal, so the common random
+         * numbers of the mirrored games narrow the interval. Checked only at the
+         * doubling looks described in the class comment.
+         */
+        MEAN,
+        /**
+         * The Wilson interval of the first strategy's share of decisive games
+         * excludes 0.5. Checked only at the doubling looks described in the class
+         * comment.
+         */
+        WILSON,
+        /**
+         * Wald's sequential probability ratio test over decisive games of "the first
+         * strategy wins {@link #SPRT_MARGIN} more than half" against "the second
+         * does", with both error rates set to one minus the confidence. Unlike
+         * repeatedly checking an interval, this keeps its error rates however
+         * often it is checked.
+         */
+        SPRT
+    }
+    
+    /** Deals each worker plays per round */
+    static final int BATCH = 100;
+    /** Distance from one half of the win rates the SPRT tells apart */
+    static final double SPRT_MARGIN = 0.05;
+    
+    /** The card types in play */
+    private final CardCatalog catalog;
+    /** The first strategy */
+    private final Strategy first;
+    /** The second strategy */
+    private final Strategy second;
+    /** Most deals to play; each deal is two games */
+    private final long maxDeals;
+    /** Confidence required to stop, e.g. 0.95 */
+    private final double confidence;
+    /** The stopping rule */
+    private final StopRule rule;
+    /** The number of worker threads */
+    private final int threads;
+    
+    /**
+     * Constructs a match on the standard card set.
+     *
+     * @param first the first strategy
+     * @param second the second strategy
+     * @param maxGames the most games to play, rounded up to an even number
+     * @param confidence the confidence required to stop early, in (0.5, 1)
+     * @param rule how to decide that the difference is significant
+     * @param threads the number of worker threads, at least 1
+     */
+    AdaptiveMatch(Strategy first, Strategy second, long maxGames, double confidence, StopRule rule, int threads) {
+        if (!(confidence > 0.5 && confidence < 1)) {
+            throw new IllegalArgumentException("confidence must be in (0.5, 1): " + confidence);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.catalog = CardCatalog.STANDARD;
+        this.first = first;
+        this.second = second;
+        this.maxDeals = (maxGames + 1) / 2;
+        this.confidence = confidence;
+        this.rule = rule;
+        this.threads = threads;
+    }
+    
+    /**
+     * Plays rounds until the stopping rule is met or the cap is reached.
+     *
+     * @param seed the seed all deals are derived from
+     * @return the verdict and statistics
+     */
+    MatchResult run(long seed) {
+        double z = RunningStats.normalQuantile(1 - (1 - confidence) / 2);
+        // Wald's bound for equal error rates alpha = beta = 1 - confidence
+        double bound = Math.log(confidence / (1 - confidence));
+        double winStep = Math.log((0.5 + SPRT_MARGIN) / (0.5 - SPRT_MARGIN));
+        
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Tally total = new Tally();
+            MatchResult.Verdict verdict = MatchResult.Verdict.UNDECIDED;
+            long next = 0;
+            // Deals after which an interval rule next looks, and the looks taken so far
+            long nextLook = BATCH;
+            int looks = 0;
+            while (next < maxDeals && verdict == MatchResult.Verdict.UNDECIDED) {
+                List<Future<Tally>> futures = new ArrayList<>();
+                for (int t = 0; t < threads && next < maxDeals; t++) {
+                    long from = next;
+                    long to = Math.min(maxDeals, from + BATCH);
+                    futures.add(pool.submit(() -> playDeals(seed, from, to)));
+                    next = to;
+                }
+                for (Future<Tally> future : futures) {
+                    total.merge(future.get());
+                }
+                if (rule == StopRule.SPRT) {
+                    verdict = decide(total, z, winStep, bound);
+                } else if (next >= nextLook || next >= maxDeals) {
+                    // Look k spends (1 - confidence) / 2^k of the error rate, two-sided
+                    looks++;
+                    double lookZ = -RunningStats.normalQuantile((1 - confidence) / Math.pow(2, looks + 1));
+                    verdict = decide(total, lookZ, winStep, bound);
+                    nextLook = 2 * next;
+                }
+            }
+            return new MatchResult(first.getName(), second.getName(), rule, verdict, 2 * total.scores.getCount(),
+                2 * maxDeals, total.wins, total.losses, total.scores, z, (total.wins - total.losses) * winStep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Match interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Match failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Applies the stopping rule to the results so far.
+     *
+     * @param total the results so far
+     * @param z the normal quantile the interval rules test at
+     * @param winStep the SPRT log-likelihood change for a win by the first strategy
+     * @param bound the SPRT decision threshold
+     * @return the verdict, {@link MatchResult.Verdict#UNDECIDED} to keep playing
+     */
+    private MatchResult.Verdict decide(Tally total, double z, double winStep, double bound) {
+        double signal;
+        switch (rule) {
+            case MEAN:
+                double mean = total.scores.getMean() - 0.5;
+                signal = Math.abs(mean) > z * total.scores.getStandardError() ? mean : 0;
+                break;
+            case WILSON:
+                long decisive = total.wins + total.losses;
+                signal = RunningStats.wilsonLower(total.wins, decisive, z) > 0.5 ? 1
+                    : RunningStats.wilsonUpper(total.wins, decisive, z) < 0.5 ? -1 : 0;
+                break;
+            default:
+                // With symmetric hypotheses a loss moves the ratio back by exactly one win
+                double ratio = (total.wins - total.losses) * winStep;
+                signal = ratio >= bound ? 1 : ratio <= -bound ? -1 : 0;
+                break;
+        }
+        return signal > 0 ? MatchResult.Verdict.FIRST_BETTER
+            : signal < 0 ? MatchResult.Verdict.SECOND_BETTER : MatchResult.Verdict.UNDECIDED;
+    }
+    
+    /**
+     * Plays a range of deals on the calling thread.
+     *
+     * @param seed the match seed
+     * @param from the first deal number, inclusive
+     * @param to the last deal number, exclusive
+     * @return the tallies for these deals
+     */
+    private Tally playDeals(long seed, long from, long to) {
+        Tally tally = new Tally();
+        CompactGame forward = new CompactGame(catalog, first, second);
+        CompactGame swapped = new CompactGame(catalog, second, first);
+        double[] scores = new double[2];
+        for (long deal = from; deal < to; deal++) {
+            Tournament.playDeal(forward, swapped, seed, deal, scores);
+            for (double score : scores) {
+                if (score == 1) {
+                    tally.wins++;
+                } else if (score == 0) {
+                    tally.losses++;
+                }
+            }
+            tally.scores.add((scores[0] + scores[1]) / 2);
+        }
+        return tally;
+    }
+    
+    /**
+     * Running results of the first strategy.
+     */
+    private static final class Tally {
+        /** Per-deal scores */
+        final RunningStats scores = new RunningStats();
+        /** Games won */
+        long wins;
+        /** Games lost */
+        long losses;
+        
+        /**
+         * Adds another tally into this one.
+         *
+         * @param other the tally to merge in
+         */
+        void merge(Tally other) {
+            scores.merge(other.scores);
+            wins += other.wins;
+            losses += other.losses;
+        }
+    }
+    
+    /**
+     * Entry point for an adaptive match between the built-in strategies.
+     * Usage: {@code AdaptiveMatch [maxGames] [confidence] [MEAN|WILSON|SPRT] [threads] [seed]}.
+     *
+     * @param args optional game cap (default 100000), confidence (default 0.95),
+     *        stopping rule (default SPRT), thread count and seed
+     */
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        double confidence = args.length > 1 ? Double.parseDouble(args[1]) : 0.95;
+        StopRule rule = args.length > 2 ? StopRule.valueOf(args[2]) : StopRule.SPRT;
+        int threads = args.length > 3
+            ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        
+        AdaptiveMatch match = new AdaptiveMatch(
+            ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY, games, confidence, rule, threads);
+        long start = System.nanoTime();
+        MatchResult result = match.run(seed);
+        System.out.println(result);
+        System.out.printf("%.1f ms%n", (System.nanoTime() - start) / 1e6);
+    }
+}
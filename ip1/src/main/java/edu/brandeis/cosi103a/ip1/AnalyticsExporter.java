@@ -0,0 +1,89 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes {@link GameAnalytics} snapshots to a file at a fixed period from a
+ * background daemon thread, as JSON if the file name ends in {@code .json} and
+ * as CSV otherwise. Each snapshot replaces the last one atomically, so a reader
+ * polling the file never sees half of one.
+ */
+final class AnalyticsExporter implements AutoCloseable {
+    /** The analytics being exported */
+    private final GameAnalytics analytics;
+    /** The snapshot file */
+    private final Path file;
+    /** Whether snapshots are JSON rather than CSV */
+    private final boolean json;
+    /** The exporting thread, or null if only the final snapshot is written */
+    private final ScheduledExecutorService scheduler;
+    
+    /**
+     * Starts exporting.
+     *
+     * @param analytics the analytics to export
+     * @param file where to write snapshots
+     * @param periodMillis the time between snapshots, in milliseconds, or 0 to
+     *                     write only the final one on {@link #close()}
+     */
+    AnalyticsExporter(GameAnalytics analytics, Path file, long periodMillis) {
+        this.analytics = analytics;
+        this.file = file;
+        json = file.getFileName().toString().endsWith(".json");
+        if (periodMillis > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "analytics-exporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::exportQuietly, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+    
+    /**
+     * Writes one snapshot. Runs on the exporting thread, or on the caller's
+     * thread from {@link #close()}.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    synchronized void export() throws IOException {
+        String text = json ? analytics.toJson() : analytics.toCsv();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, text);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Stops exporting and writes a final snapshot.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        export();
+    }
+    
+    /**
+     * Writes a periodic snapshot. A failed write is reported and the next
+     * period tries again, since throwing would cancel every later snapshot.
+     */
+    private void exportQuietly() {
+        try {
+            export();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("[analytics] cannot write " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes game events to a file as console-style text, without doing any I/O on the
+ * game thread. Events are formatted into one of a small ring of large preallocated
+ * buffers; when a buffer fills up it is handed to a background writer thread, which
+ * writes it to the file in a single call and returns it to the ring. The game thread
+ * only waits if every buffer is queued for writing, i.e. when the disk cannot keep up.
+ *
+ * <p>Each sink has a single producer: use one sink per game thread. Text is
+ * written as UTF-8, and an event too long for the current buffer continues in
+ * the next one. Call {@link #close()} to write the remaining events and release
+ * the file.
+ */
+class AsyncFileEventSink implements GameEventSink, AutoCloseable {
+    /** Default size of each buffer */
+    static final int DEFAULT_BUFFER_SIZE = 1 << 18;
+    /** Smallest allowed buffer size, below which nearly every event would need a hand-off */
+    static final int MIN_BUFFER_SIZE = 64;
+    /** Number of buffers in the ring */
+    private static final int BUFFERS = 4;
+    /** Marker telling the writer thread to stop */
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+    
+    /** The card types in play, for card names */
+    private final CardCatalog catalog;
+    /** The file being written */
+    private final FileChannel channel;
+    /** Buffers ready to be filled */
+    private final BlockingQueue<ByteBuffer> free;
+    /** Filled buffers waiting to be written, followed by {@link #END} on close */
+    private final BlockingQueue<ByteBuffer> full;
+    /** The background writer */
+    private final Thread writer;
+    /** Reused buffer for formatting one event */
+    private final StringBuilder text = new StringBuilder(128);
+    /** The buffer currently being filled */
+    private ByteBuffer current;
+    /** The first write failure seen by the writer thread, if any */
+    private volatile IOException failure;
+    /** Whether {@link #close()} has run */
+    private boolean closed;
+    
+    /**
+     * Opens (or truncates) a file and starts the writer thread.
+     *
+     * @param file the file to write
+     * @param catalog the card types in play
+     * @throws IOException if the file cannot be opened
+     */
+    AsyncFileEventSink(Path file, CardCatalog catalog) throws IOException {
+        this(file, catalog, DEFAULT_BUFFER_SIZE);
+    }
+    
+    /**
+     * Opens (or truncates) a file and starts the writer thread.
+     *
+     * @param file the file to write
+     * @param catalog the card types in play
+     * @param bufferSize the size of each ring buffer, which is also the typical write size
+     * @throws IOException if the file cannot be opened
+     * @throws IllegalArgumentException if bufferSize is below {@link #MIN_BUFFER_SIZE}
+     */
+    AsyncFileEventSink(Path file, CardCatalog catalog, int bufferSize) throws IOException {
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Buffer size must be at least " + MIN_BUFFER_SIZE + ": " + bufferSize);
+        }
+        this.catalog = catalog;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        free = new ArrayBlockingQueue<>(BUFFERS);
+        full = new ArrayBlockingQueue<>(BUFFERS + 1);
+        for (int i = 1; i < BUFFERS; i++) {
+            free.add(ByteBuffer.allocateDirect(bufferSize));
+        }
+        current = ByteBuffer.allocateDirect(bufferSize);
+        writer = new Thread(this::drain, "game-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    @Override
+    public void gameStarted(int players) {
+        GameText.appendGameStarted(text);
+        emit();
+    }
+    
+    @Override
+    public void turnStarted(int turn, int seat) {
+        GameText.appendTurnStarted(text, seat);
+        emit();
+    }
+    
+    @Override
+    public void handRevealed(int seat, byte[] hand, int size) {
+        GameText.appendHand(text, catalog, hand, size);
+        emit();
+    }
+    
+    @Override
+    public void coinsCounted(int seat, int coins) {
+        GameText.appendCoins(text, coins);
+        emit();
+    }
+    
+    @Override
+    public void cardBought(int seat, int cardId) {
+        GameText.appendBought(text, catalog, cardId);
+        emit();
+    }
+    
+    @Override
+    public void nothingBought(int seat) {
+        GameText.appendNothingBought(text);
+        emit();
+    }
+    
+    @Override
+    public void gameEnded(GameResult result) {
+        GameText.appendGameOver(text, result);
+        emit();
+    }
+    
+    /**
+     * Hands the partially filled buffer to the writer thread without waiting for the write.
+     */
+    void flush() {
+        if (current.position() > 0) {
+            swapBuffer();
+        }
+    }
+    
+    /**
+     * Writes all remaining events, stops the writer thread and closes the file.
+     *
+     * @throws IOException if any write failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+            full.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing event log", e);
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+    
+    /**
+     * Encodes the formatted event as UTF-8 into the current buffer and clears the
+     * formatter. Unpaired surrogates are written as '?', as a UTF-8 encoder would.
+     */
+    private void emit() {
+        if (closed) {
+            throw new IllegalStateException("Event sink is closed");
+        }
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                put(c);
+            } else if (c < 0x800) {
+                put(0xC0 | c >> 6);
+                put(0x80 | c & 0x3F);
+            } else if (!Character.isSurrogate(c)) {
+                put(0xE0 | c >> 12);
+                put(0x80 | c >> 6 & 0x3F);
+                put(0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                put(0xF0 | codePoint >> 18);
+                put(0x80 | codePoint >> 12 & 0x3F);
+                put(0x80 | codePoint >> 6 & 0x3F);
+                put(0x80 | codePoint & 0x3F);
+            } else {
+                put('?');
+            }
+        }
+        text.setLength(0);
+    }
+    
+    /**
+     * Appends one byte to the current buffer, handing the buffer off first if it is full.
+     *
+     * @param b the byte, in the low eight bits
+     */
+    private void put(int b) {
+        if (!current.hasRemaining()) {
+            swapBuffer();
+        }
+        current.put((byte) b);
+    }
+    
+    /**
+     * Queues the current buffer for writing and takes an empty one from the ring.
+     */
+    private void swapBuffer() {
+        if (failure != null) {
+            throw new UncheckedIOException("Writing event log failed", failure);
+        }
+        try {
+            current.flip();
+            full.put(current);
+            current = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while logging", e);
+        }
+        current.clear();
+    }
+    
+    /**
+     * Writer thread loop: writes each filled buffer and returns it to the ring.
+     * After a failure it keeps recycling buffers so the game thread never blocks forever.
+     */
+    private void drain() {
+        try {
+            while (true) {
+                ByteBuffer buffer = full.take();
+                if (buffer == END) {
+                    return;
+                }
+                if (failure == null) {
+                    try {
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                free.put(buffer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * A {@link CardScorer} compiled into a lookup table from available coins to the card to buy.
+ * The table holds one entry per coin amount up to the catalog's highest cost (more coins
+ * than that buy the same card) for the current set of empty supply piles. It is
+ * filled once when a game is set up; when a pile runs out, only the entries that
+ * chose that card are recomputed. Choosing a card is then a single array lookup.
+ */
+final class BuyTable {
+    /** The card types in play */
+    private final CardCatalog catalog;
+    /** The scorer's score for each card ID, computed once */
+    private final int[] scores;
+    /** The card ID to buy for each coin amount, or -1 to buy nothing */
+    private final byte[] choices;
+    /** Bit i is set when the supply pile of card ID i is empty */
+    private long emptyPiles;
+    
+    /**
+     * Compiles a scorer into a table with every supply pile available.
+     *
+     * @param catalog the card types in play, at most 64
+     * @param scorer the strategy to compile
+     */
+    BuyTable(CardCatalog catalog, CardScorer scorer) {
+        if (catalog.size() > Long.SIZE) {
+            throw new IllegalArgumentException("BuyTable supports at most 64 card types");
+        }
+        this.catalog = catalog;
+        scores = new int[catalog.size()];
+        for (int id = 0; id < scores.length; id++) {
+            scores[id] = scorer.score(catalog, id);
+        }
+        choices = new byte[catalog.getMaxCost() + 1];
+        reset();
+    }
+    
+    /**
+     * Compiles a strategy into a table when it buys by fixed scores.
+     *
+     * @param catalog the card types in play
+     * @param strategy the strategy to compile
+     * @return the strategy's table, or null if it has no {@link CardScorer}
+     */
+    static BuyTable compile(CardCatalog catalog, Strategy strategy) {
+        CardScorer scorer = strategy.getScorer();
+        return scorer == null ? null : new BuyTable(catalog, scorer);
+    }
+    
+    /**
+     * Marks every supply pile as available again and refills the table.
+     */
+    void reset() {
+        emptyPiles = 0;
+        for (int coins = 0; coins < choices.length; coins++) {
+            choices[coins] = (byte) computeChoice(coins);
+        }
+    }
+    
+    /**
+     * Chooses the card to buy.
+     *
+     * @param availableCoins the number of coins available to spend
+     * @return the card ID to buy, or -1 if nothing should be bought
+     */
+    int choose(int availableCoins) {
+        if (availableCoins < 0) {
+            return -1;
+        }
+        return choices[Math.min(availableCoins, choices.length - 1)];
+    }
+    
+    /**
+     * Records that a supply pile has run out, recomputing the entries that chose it.
+     *
+     * @param id the ID of the card whose pile is now empty
+     */
+    void pileEmptied(int id) {
+        long bit = 1L << id;
+        if ((emptyPiles & bit) != 0) {
+            return;
+        }
+        emptyPiles |= bit;
+        for (int coins = 0; coins < choices.length; coins++) {
+            if (choices[coins] == id) {
+                choices[coins] = (byte) computeChoice(coins);
+            }
+        }
+    }
+    
+    /**
+     * Gets the set of empty supply piles this table reflects.
+     *
+     * @return a bitmask with bit i set when card ID i is sold out
+     */
+    long getEmptyPiles() {
+        return emptyPiles;
+    }
+    
+    /**
+     * Finds the highest-scoring affordable card among the non-empty piles.
+     * Ties go to the cheaper card.
+     *
+     * @param coins the number of coins available
+     * @return the chosen card ID, or -1 if no card qualifies
+     */
+    private int computeChoice(int coins) {
+        int bestCard = -1;
+        int bestValue = -1;
+        int affordable = catalog.getAffordableCount(coins);
+        for (int i = 0; i < affordable; i++) {
+            int id = catalog.getCardByCost(i);
+            if ((emptyPiles & (1L << id)) == 0 && scores[id] > bestValue) {
+                bestValue = scores[id];
+                bestCard = id;
+            }
+        }
+        return bestCard;
+    }
+}
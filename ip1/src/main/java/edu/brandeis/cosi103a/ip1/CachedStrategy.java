@@ -0,0 +1,278 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoizes the decisions of an expensive strategy, such as {@link MctsStrategy},
+ * by position. The opening is the same in every game (the starter deck only
+ * splits into a few first hands) and endgames with a handful of Frameworks left
+ * recur often, so a strategy that searches or computes expectations can answer
+ * those positions once and look them up afterwards.
+ *
+ * <p>A position is keyed by the current player's card counts by type (hand,
+ * draw and discard piles together), the supply counts, the coins in hand and
+ * the number of players, packed a byte each into two longs. Cached play is
+ * therefore exactly the wrapped strategy's for strategies that decide on no
+ * more than that; for others, such as searches that also look at the
+ * opponents, the first answer for a key is reused for every position that
+ * shares it. Positions with a count above 255 are decided without the cache.
+ *
+ * <p>One instance is shared by every game on every thread, like any strategy.
+ * The cache is split into segments by key hash, each a least-recently-used
+ * {@link LinkedHashMap} guarded by its own lock and holding an equal share of
+ * the capacity. The wrapped strategy runs outside any lock, so two threads
+ * missing on the same key may both compute it.
+ */
+final class CachedStrategy implements Strategy {
+    /** Number of independently locked segments */
+    private static final int SEGMENTS = 16;
+    /** Most card types whose counts fit in a key, with the coins and players */
+    static final int MAX_TYPES = 7;
+    
+    /** The strategy whose decisions are cached */
+    private final Strategy strategy;
+    /** The card types in play */
+    private final CardCatalog catalog;
+    /** The cache segments, each in least-recently-used order */
+    private final Segment[] segments = new Segment[SEGMENTS];
+    /** Decisions found in the cache */
+    private final LongAdder hits = new LongAdder();
+    /** Decisions computed and added to the cache */
+    private final LongAdder misses = new LongAdder();
+    /** Entries dropped to stay within capacity */
+    private final LongAdder evictions = new LongAdder();
+    /** Decisions computed without the cache because a count did not fit the key */
+    private final LongAdder bypasses = new LongAdder();
+    
+    /**
+     * A position key: one byte per value, in the order of the class comment.
+     */
+    private static final class Key {
+        /** The first eight bytes */
+        final long high;
+        /** The remaining bytes */
+        final long low;
+        
+        /**
+         * Constructs a key.
+         *
+         * @param high the first eight bytes
+         * @param low the remaining bytes
+         */
+        Key(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && ((Key) other).high == high && ((Key) other).low == low;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Long.hashCode(Tournament.mix(high ^ Tournament.mix(low)));
+        }
+    }
+    
+    /**
+     * One bounded, least-recently-used part of the cache.
+     */
+    private final class Segment extends LinkedHashMap<Key, Integer> {
+        /** Segments are never serialized; declared to keep the lint clean */
+        private static final long serialVersionUID = 1L;
+        /** Most entries this segment holds */
+        private final int capacity;
+        
+        /**
+         * Constructs an empty segment.
+         *
+         * @param capacity the most entries to hold
+         */
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Integer> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * Wraps a strategy in a cache.
+     *
+     * @param strategy the strategy to memoize
+     * @param catalog the card types in play, at most {@link #MAX_TYPES} of them
+     * @param capacity the most positions to remember, at least 1
+     * @throws IllegalArgumentException if the capacity is not positive or the
+     *                                  catalog has too many types for a key
+     */
+    CachedStrategy(Strategy strategy, CardCatalog catalog, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        if (catalog.size() > MAX_TYPES) {
+            throw new IllegalArgumentException("Cannot key positions of " + catalog.size() + " card types");
+        }
+        this.strategy = strategy;
+        this.catalog = catalog;
+        int share = (capacity + SEGMENTS - 1) / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(share);
+        }
+    }
+    
+    @Override
+    public int chooseCard(GameView view) {
+        Key key = keyOf(view);
+        if (key == null) {
+            bypasses.increment();
+            return strategy.chooseCard(view);
+        }
+        Segment segment = segments[key.hashCode() & (SEGMENTS - 1)];
+        Integer cached;
+        synchronized (segment) {
+            cached = segment.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        int card = strategy.chooseCard(view);
+        synchronized (segment) {
+            segment.put(key, card);
+        }
+        return card;
+    }
+    
+    /**
+     * Returns the wrapped strategy's scorer, so that engines still compile a
+     * scored strategy into a {@link BuyTable}, which needs no cache.
+     *
+     * @return the wrapped strategy's scorer, or null
+     */
+    @Override
+    public CardScorer getScorer() {
+        return strategy.getScorer();
+    }
+    
+    @Override
+    public String getName() {
+        return strategy.getName();
+    }
+    
+    /**
+     * Gets the number of decisions answered from the cache.
+     *
+     * @return the hit count
+     */
+    long getHits() {
+        return hits.sum();
+    }
+    
+    /**
+     * Gets the number of decisions the wrapped strategy computed for the cache.
+     *
+     * @return the miss count
+     */
+    long getMisses() {
+        return misses.sum();
+    }
+    
+    /**
+     * Gets the number of positions dropped to stay within capacity.
+     *
+     * @return the eviction count
+     */
+    long getEvictions() {
+        return evictions.sum();
+    }
+    
+    /**
+     * Gets the number of decisions made without the cache.
+     *
+     * @return the number of positions whose counts did not fit a key
+     */
+    long getBypasses() {
+        return bypasses.sum();
+    }
+    
+    /**
+     * Gets the share of cacheable decisions answered from the cache.
+     *
+     * @return hits over hits plus misses, or 0 before any decision
+     */
+    double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+    
+    /**
+     * Counts the cached positions.
+     *
+     * @return the number of entries over all segments
+     */
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+    
+    /**
+     * Summarizes the cache's effect.
+     *
+     * @return the hit rate and counters
+     */
+    @Override
+    public String toString() {
+        return String.format("cache(%s) hit rate=%.3f hits=%d misses=%d evictions=%d bypasses=%d size=%d",
+            getName(), getHitRate(), getHits(), getMisses(), getEvictions(), getBypasses(), size());
+    }
+    
+    /**
+     * Builds the key of the current player's position.
+     *
+     * @param view the game as seen by the current player
+     * @return the key, or null if some count does not fit in a byte
+     */
+    private Key keyOf(GameView view) {
+        int types = catalog.size();
+        long high = 0;
+        long low = 0;
+        int overflow = 0;
+        // Values 0-7 go into the high long and the rest into the low one
+        for (int i = 0; i < 2 * types + 2; i++) {
+            int value;
+            if (i < types) {
+                value = view.getHandCount(i) + view.getDrawCount(i) + view.getDiscardCount(i);
+            } else if (i < 2 * types) {
+                value = view.getSupplyCount(i - types);
+            } else if (i == 2 * types) {
+                value = view.getAvailableCoins();
+            } else {
+                value = view.getPlayerCount();
+            }
+            overflow |= value;
+            if (i < Long.BYTES) {
+                high = (high << 8) | (value & 0xff);
+            } else {
+                low = (low << 8) | (value & 0xff);
+            }
+        }
+        return (overflow & ~0xff) != 0 ? null : new Key(high, low);
+    }
+}
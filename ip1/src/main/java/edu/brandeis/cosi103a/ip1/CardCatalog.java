@@ -0,0 +1,518 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable registry of the card types in a game.
+ * Each card type is identified by a small int ID (its index in the catalog), so
+ * piles and supplies can be stored as primitive arrays of IDs or counts
+ * instead of lists of {@link Card} objects. The catalog also records the game's
+ * fixed rules that refer to specific cards: the starter deck and the card whose
+ * pile ends the game when it runs out.
+ *
+ * <p>Catalogs are read from card files (see {@code standard.cards} next to this
+ * class for the format), so card-set variants need no recompiling. Cards never
+ * change once made, so the catalog holds one shared {@link Card} per type and
+ * the object engine's piles hold references to those instead of copies.
+ */
+final class CardCatalog {
+    /** Kind of a card that scores Automation Points */
+    static final byte AUTOMATION = 0;
+    /** Kind of a card that provides coins */
+    static final byte CRYPTOCURRENCY = 1;
+    /** The number of players the catalog's supply quantities are given for */
+    static final int BASE_PLAYERS = 2;
+    
+    /** ID of Method in the standard catalog */
+    static final int METHOD = 0;
+    /** ID of Module in the standard catalog */
+    static final int MODULE = 1;
+    /** ID of Framework in the standard catalog */
+    static final int FRAMEWORK = 2;
+    /** ID of Bitcoin in the standard catalog */
+    static final int BITCOIN = 3;
+    /** ID of Ethereum in the standard catalog */
+    static final int ETHEREUM = 4;
+    /** ID of Dogecoin in the standard catalog */
+    static final int DOGECOIN = 5;
+    
+    /** The standard card set, loaded from the bundled {@code standard.cards} */
+    static final CardCatalog STANDARD = loadStandard();
+    
+    /** Card names, indexed by ID */
+    private final String[] names;
+    /** Card kinds ({@link #AUTOMATION} or {@link #CRYPTOCURRENCY}), indexed by ID */
+    private final byte[] kinds;
+    /** Purchase costs, indexed by ID */
+    private final int[] costs;
+    /** Automation Points, indexed by ID (0 for cryptocurrency cards) */
+    private final int[] points;
+    /** Coin values, indexed by ID (0 for automation cards) */
+    private final int[] coins;
+    /** Initial supply quantities, indexed by ID */
+    private final int[] quantities;
+    /** Card IDs of the starter deck, in the order they are bought */
+    private final byte[] starterDeck;
+    /** ID of the card whose exhaustion ends the game */
+    private final int endCard;
+    /** Highest cost of any card */
+    private final int maxCost;
+    /** Card IDs sorted by ascending cost (ties by ID) */
+    private final int[] byCost;
+    /** For each number of coins up to {@link #maxCost}, how many entries of {@link #byCost} are affordable */
+    private final int[] affordableCount;
+    /** Card IDs by name, used only when translating from names */
+    private final Map<String, Integer> ids;
+    /** The shared Card object of each type, indexed by ID */
+    private final Card[] cards;
+    
+    /**
+     * Constructs a catalog. All per-card arrays must have the same length,
+     * which may not exceed {@link Byte#MAX_VALUE} card types.
+     *
+     * @param names the card names
+     * @param kinds the card kinds
+     * @param costs the purchase costs
+     * @param values the Automation Points or coin value of each card, depending on kind
+     * @param quantities the initial supply quantities
+     * @param starterDeck the card IDs each player starts with, in purchase order
+     * @param endCard the ID of the card whose exhaustion ends the game
+     * @throws IllegalArgumentException if the arrays disagree in length, a card
+     *                                  name repeats, or a card ID is out of range
+     */
+    CardCatalog(String[] names, byte[] kinds, int[] costs, int[] values, int[] quantities,
+                byte[] starterDeck, int endCard) {
+        int size = names.length;
+        if (size > Byte.MAX_VALUE || kinds.length != size || costs.length != size
+                || values.length != size || quantities.length != size) {
+            throw new IllegalArgumentException("Inconsistent card catalog definition");
+        }
+        if (endCard < 0 || endCard >= size) {
+            throw new IllegalArgumentException("Invalid end card: " + endCard);
+        }
+        this.names = names.clone();
+        this.kinds = kinds.clone();
+        this.costs = costs.clone();
+        this.quantities = quantities.clone();
+        this.starterDeck = starterDeck.clone();
+        this.endCard = endCard;
+        points = new int[size];
+        coins = new int[size];
+        ids = new HashMap<>();
+        int max = 0;
+        for (int id = 0; id < size; id++) {
+            if (kinds[id] == AUTOMATION) {
+                points[id] = values[id];
+            } else {
+                coins[id] = values[id];
+            }
+            max = Math.max(max, costs[id]);
+            if (ids.putIfAbsent(names[id], id) != null) {
+                throw new IllegalArgumentException("Duplicate card name: " + names[id]);
+            }
+        }
+        maxCost = max;
+        byCost = new int[size];
+        for (int id = 0; id < size; id++) {
+            // Insertion sort: catalogs are tiny and this runs once
+            int i = id;
+            while (i > 0 && costs[byCost[i - 1]] > costs[id]) {
+                byCost[i] = byCost[i - 1];
+                i--;
+            }
+            byCost[i] = id;
+        }
+        affordableCount = new int[max + 1];
+        for (int coins = 0, n = 0; coins <= max; coins++) {
+            while (n < size && costs[byCost[n]] <= coins) {
+                n++;
+            }
+            affordableCount[coins] = n;
+        }
+        for (byte id : starterDeck) {
+            if (id < 0 || id >= size) {
+                throw new IllegalArgumentException("Invalid starter card: " + id);
+            }
+        }
+        cards = new Card[size];
+        for (int id = 0; id < size; id++) {
+            cards[id] = newCard(id);
+        }
+    }
+    
+    /**
+     * Reads a catalog from a card file.
+     *
+     * @param file the card file
+     * @return the catalog
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    static CardCatalog load(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(reader, file.toString());
+        }
+    }
+    
+    /**
+     * Reads a catalog in the card file format. Each non-blank line that does
+     * not start with {@code #} is one of
+     * <ul>
+     *   <li>{@code card <name> <automation|cryptocurrency> <cost> <value> <quantity>},
+     *       defining the next card ID; the value is Automation Points or coins
+     *       depending on the kind, and the quantity is for a two-player game</li>
+     *   <li>{@code starter <name> <copies>}, appending copies of a card to the starter deck</li>
+     *   <li>{@code end <name>}, naming the card whose empty pile ends the game</li>
+     * </ul>
+     *
+     * @param reader the card file's lines
+     * @param source the file's name, for error messages
+     * @return the catalog
+     * @throws IOException if the input cannot be read or is malformed
+     */
+    static CardCatalog parse(BufferedReader reader, String source) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<Byte> kinds = new ArrayList<>();
+        List<int[]> numbers = new ArrayList<>();
+        List<String> starter = new ArrayList<>();
+        String end = null;
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] words = trimmed.split("\\s+");
+            String where = source + ":" + lineNumber + ": ";
+            try {
+                if (words[0].equals("card") && words.length == 6) {
+                    names.add(words[1]);
+                    kinds.add(parseKind(words[2], where));
+                    numbers.add(new int[] {
+                        parseCount(words[3], where), parseCount(words[4], where), parseCount(words[5], where)});
+                } else if (words[0].equals("starter") && words.length == 3) {
+                    for (int i = parseCount(words[2], where); i > 0; i--) {
+                        starter.add(words[1]);
+                    }
+                } else if (words[0].equals("end") && words.length == 2 && end == null) {
+                    end = words[1];
+                } else {
+                    throw new IOException(where + "unexpected line: " + trimmed);
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException(where + "bad number in: " + trimmed, e);
+            }
+        }
+        if (names.isEmpty() || end == null) {
+            throw new IOException(source + ": needs at least one card line and an end line");
+        }
+        
+        int size = names.size();
+        byte[] kindArray = new byte[size];
+        int[] costs = new int[size];
+        int[] values = new int[size];
+        int[] quantities = new int[size];
+        for (int id = 0; id < size; id++) {
+            kindArray[id] = kinds.get(id);
+            costs[id] = numbers.get(id)[0];
+            values[id] = numbers.get(id)[1];
+            quantities[id] = numbers.get(id)[2];
+        }
+        byte[] starterDeck = new byte[starter.size()];
+        for (int i = 0; i < starterDeck.length; i++) {
+            starterDeck[i] = (byte) idIn(names, starter.get(i), source);
+        }
+        try {
+            return new CardCatalog(names.toArray(new String[0]), kindArray, costs, values, quantities,
+                starterDeck, idIn(names, end, source));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(source + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Parses a card kind.
+     *
+     * @param word {@code automation} or {@code cryptocurrency}
+     * @param where the error message prefix
+     * @return {@link #AUTOMATION} or {@link #CRYPTOCURRENCY}
+     * @throws IOException if the word is neither
+     */
+    private static byte parseKind(String word, String where) throws IOException {
+        switch (word) {
+            case "automation":
+                return AUTOMATION;
+            case "cryptocurrency":
+                return CRYPTOCURRENCY;
+            default:
+                throw new IOException(where + "unknown card kind: " + word);
+        }
+    }
+    
+    /**
+     * Parses a non-negative number.
+     *
+     * @param word the number
+     * @param where the error message prefix
+     * @return the number
+     * @throws IOException if the number is negative
+     */
+    private static int parseCount(String word, String where) throws IOException {
+        int value = Integer.parseInt(word);
+        if (value < 0) {
+            throw new IOException(where + "negative number: " + word);
+        }
+        return value;
+    }
+    
+    /**
+     * Finds a card among the names read so far.
+     *
+     * @param names the card names, in ID order
+     * @param name the name to find
+     * @param source the file's name, for error messages
+     * @return the card ID
+     * @throws IOException if no card has that name
+     */
+    private static int idIn(List<String> names, String name, String source) throws IOException {
+        int id = names.indexOf(name);
+        if (id < 0) {
+            throw new IOException(source + ": unknown card: " + name);
+        }
+        return id;
+    }
+    
+    /**
+     * Loads the bundled standard card set and checks that it agrees with the
+     * ID constants.
+     *
+     * @return the standard catalog
+     */
+    private static CardCatalog loadStandard() {
+        String resource = "standard.cards";
+        try (InputStream in = CardCatalog.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + resource);
+            }
+            CardCatalog catalog = parse(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)),
+                resource);
+            String[] expected = {"Method", "Module", "Framework", "Bitcoin", "Ethereum", "Dogecoin"};
+            for (int id = 0; id < expected.length; id++) {
+                if (catalog.indexOf(expected[id]) != id) {
+                    throw new IllegalStateException(resource + " does not list " + expected[id] + " as card " + id);
+                }
+            }
+            return catalog;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Gets the number of card types.
+     *
+     * @return the number of card IDs
+     */
+    int size() {
+        return names.length;
+    }
+    
+    /**
+     * Looks up a card ID by name.
+     *
+     * @param name the card name
+     * @return the card's ID, or -1 if no card has that name
+     */
+    int indexOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+    
+    /**
+     * Gets the name of a card type.
+     *
+     * @param id the card ID
+     * @return the card's name
+     */
+    String getName(int id) {
+        return names[id];
+    }
+    
+    /**
+     * Checks whether a card type is an Automation card.
+     *
+     * @param id the card ID
+     * @return true for Automation cards, false for Cryptocurrency cards
+     */
+    boolean isAutomation(int id) {
+        return kinds[id] == AUTOMATION;
+    }
+    
+    /**
+     * Gets the purchase cost of a card type.
+     *
+     * @param id the card ID
+     * @return the cost in coins
+     */
+    int getCost(int id) {
+        return costs[id];
+    }
+    
+    /**
+     * Gets the Automation Points of a card type.
+     *
+     * @param id the card ID
+     * @return the APs, or 0 for Cryptocurrency cards
+     */
+    int getPoints(int id) {
+        return points[id];
+    }
+    
+    /**
+     * Gets the coin value of a card type.
+     *
+     * @param id the card ID
+     * @return the coins provided when played, or 0 for Automation cards
+     */
+    int getCoinValue(int id) {
+        return coins[id];
+    }
+    
+    /**
+     * Gets the initial supply quantity of a card type.
+     *
+     * @param id the card ID
+     * @return the number of copies in a fresh supply
+     */
+    int getQuantity(int id) {
+        return quantities[id];
+    }
+    
+    /**
+     * Gets the initial supply quantity of a card type for a game with the given
+     * number of players. Quantities grow in proportion to the player count,
+     * rounding up, so every pile lasts about as many rounds as in a
+     * {@link #BASE_PLAYERS}-player game.
+     *
+     * @param id the card ID
+     * @param players the number of players
+     * @return the number of copies in a fresh supply
+     */
+    int getQuantity(int id, int players) {
+        return (quantities[id] * players + BASE_PLAYERS - 1) / BASE_PLAYERS;
+    }
+    
+    /**
+     * Gets the highest cost of any card type.
+     *
+     * @return the maximum cost in coins
+     */
+    int getMaxCost() {
+        return maxCost;
+    }
+    
+    /**
+     * Gets how many card types cost at most the given number of coins. Those
+     * are exactly the first entries of the cost-ordered index
+     * ({@link #getCardByCost(int)}).
+     *
+     * @param coins the number of coins available
+     * @return the number of affordable card types
+     */
+    int getAffordableCount(int coins) {
+        if (coins < 0) {
+            return 0;
+        }
+        return coins > maxCost ? byCost.length : affordableCount[coins];
+    }
+    
+    /**
+     * Gets a card from the cost-ordered index.
+     *
+     * @param index the position in ascending cost order
+     * @return the card ID at that position
+     */
+    int getCardByCost(int index) {
+        return byCost[index];
+    }
+    
+    /**
+     * Gets the number of cards in the starter deck.
+     *
+     * @return the starter deck size
+     */
+    int getStarterSize() {
+        return starterDeck.length;
+    }
+    
+    /**
+     * Gets a card of the starter deck.
+     *
+     * @param index the position in the starter deck, in purchase order
+     * @return the card ID at that position
+     */
+    int getStarterCard(int index) {
+        return starterDeck[index];
+    }
+    
+    /**
+     * Gets the card whose exhaustion ends the game.
+     *
+     * @return the end card's ID
+     */
+    int getEndCard() {
+        return endCard;
+    }
+    
+    /**
+     * Gets the shared {@link Card} object of a card type. Cards never change
+     * once made, so every pile can hold this one instance.
+     *
+     * @param id the card ID
+     * @return the card type's flyweight
+     */
+    Card getCard(int id) {
+        return cards[id];
+    }
+    
+    /**
+     * Finds the ID of a card object. The catalog's own cards are found by
+     * identity without hashing; other cards by name.
+     *
+     * @param card the card
+     * @return the card's ID, or -1 if no card has its name
+     */
+    int idOf(Card card) {
+        for (int id = 0; id < cards.length; id++) {
+            if (cards[id] == card) {
+                return id;
+            }
+        }
+        return indexOf(card.getName());
+    }
+    
+    /**
+     * Creates a new {@link Card} object for a card type. The engines use the
+     * shared {@link #getCard(int)} instead.
+     *
+     * @param id the card ID
+     * @return a new AutomationCard or CryptocurrencyCard with this type's properties
+     */
+    Card newCard(int id) {
+        return kinds[id] == AUTOMATION
+            ? new AutomationCard(names[id], costs[id], points[id])
+            : new CryptocurrencyCard(names[id], costs[id], coins[id]);
+    }
+}
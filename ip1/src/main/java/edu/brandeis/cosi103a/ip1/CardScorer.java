@@ -0,0 +1,27 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * A buy strategy expressed as a fixed preference score per card type.
+ * The card bought is the affordable, non-empty card with the highest score;
+ * because that choice depends only on the available coins and on which piles
+ * are empty, any CardScorer can be compiled into a {@link BuyTable}.
+ */
+@FunctionalInterface
+interface CardScorer {
+    /**
+     * The built-in heuristic: Automation cards by point value first, then
+     * Cryptocurrency cards by cost.
+     */
+    CardScorer GREEDY = (catalog, id) -> catalog.isAutomation(id)
+        ? catalog.getPoints(id) * 100 : catalog.getCost(id);
+    
+    /**
+     * Scores a card type.
+     *
+     * @param catalog the card types in play
+     * @param id the card ID to score
+     * @return the preference for buying this card (higher is better), or a
+     *         negative number if the card should never be bought
+     */
+    int score(CardCatalog catalog, int id);
+}
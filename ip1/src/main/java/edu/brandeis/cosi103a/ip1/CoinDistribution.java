@@ -0,0 +1,237 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exact probability distribution of the coins in a player's next hand.
+ *
+ * <p>A hand of {@link CompactGame#HAND_SIZE} cards is dealt from the top of a
+ * shuffled pile, so the number of copies of each card type in it follows a
+ * multivariate hypergeometric distribution over the pile's composition. Only
+ * coin values matter, so card types with equal coin values are pooled and the
+ * distribution of the coin total is built by convolving one binomial-weighted
+ * term per coin value. The rules for the next deal are those of
+ * {@link Player#endTurn()}: the draw pile is used if it has any cards, and a
+ * short draw pile deals a short hand; only an empty draw pile is replaced by
+ * the reshuffled discard pile.
+ *
+ * <p>Results are memoized by pooled composition, so a strategy can ask on every
+ * decision at the cost of a map lookup. The calculator is thread-safe; the
+ * returned arrays are shared and must not be modified.
+ */
+final class CoinDistribution {
+    /** Bits of the memo key given to each coin value's card count */
+    private final int bitsPerValue;
+    /** Coin-value group of each card ID */
+    private final int[] group;
+    /** Coin value of each group */
+    private final int[] groupCoins;
+    /** Largest coin value of any card */
+    private final int maxCoins;
+    /** Distributions by packed pooled composition */
+    private final ConcurrentHashMap<Long, double[]> cache = new ConcurrentHashMap<>();
+    
+    /**
+     * Constructs a calculator for the cards of a catalog.
+     *
+     * @param catalog the card types in play
+     * @throws IllegalArgumentException if the catalog has more than six distinct coin values
+     */
+    CoinDistribution(CardCatalog catalog) {
+        group = new int[catalog.size()];
+        int[] values = new int[catalog.size()];
+        int groups = 0;
+        int max = 0;
+        for (int id = 0; id < catalog.size(); id++) {
+            int coins = catalog.getCoinValue(id);
+            int g = 0;
+            while (g < groups && values[g] != coins) {
+                g++;
+            }
+            if (g == groups) {
+                values[groups++] = coins;
+            }
+            group[id] = g;
+            max = Math.max(max, coins);
+        }
+        if (groups > 6) {
+            throw new IllegalArgumentException("Too many distinct coin values: " + groups);
+        }
+        groupCoins = Arrays.copyOf(values, groups);
+        maxCoins = max;
+        bitsPerValue = Math.min(20, 63 / groups);
+    }
+    
+    /**
+     * Gets the coin distribution of a hand dealt from a shuffled pile.
+     *
+     * @param counts the number of cards of each type in the pile, indexed by card ID
+     * @return the probability of each coin total, indexed by coins
+     */
+    double[] deal(int[] counts) {
+        long key = 0;
+        int total = 0;
+        for (int id = 0; id < counts.length; id++) {
+            key += (long) counts[id] << (group[id] * bitsPerValue);
+            total += counts[id];
+        }
+        return lookup(key, total);
+    }
+    
+    /**
+     * Gets the coin distribution of the hand dealt at the end of a turn, given
+     * the piles after cleanup.
+     *
+     * @param drawCounts the number of cards of each type in the draw pile
+     * @param discardCounts the number of cards of each type in the discard pile,
+     *        including the hand just discarded and any card just bought
+     * @return the probability of each coin total, indexed by coins
+     */
+    double[] nextHand(int[] drawCounts, int[] discardCounts) {
+        for (int count : drawCounts) {
+            if (count > 0) {
+                return deal(drawCounts);
+            }
+        }
+        return deal(discardCounts);
+    }
+    
+    /**
+     * Gets the coin distribution of the current player's next hand if they buy
+     * a given card this turn. Once a composition has been seen this is a scan
+     * of the view's pile counts and one map lookup.
+     *
+     * @param view the game, on the current player's turn
+     * @param cardToBuy the ID of the card bought this turn, or -1 for none
+     * @return the probability of each coin total, indexed by coins
+     */
+    double[] nextHand(GameView view, int cardToBuy) {
+        int types = group.length;
+        long key = 0;
+        int total = 0;
+        for (int id = 0; id < types; id++) {
+            int count = view.getDrawCount(id);
+            key += (long) count << (group[id] * bitsPerValue);
+            total += count;
+        }
+        if (total == 0) {
+            // Empty draw pile: the hand, the purchase and the discards are reshuffled
+            for (int id = 0; id < types; id++) {
+                int count = view.getDiscardCount(id) + view.getHandCount(id) + (id == cardToBuy ? 1 : 0);
+                key += (long) count << (group[id] * bitsPerValue);
+                total += count;
+            }
+        }
+        return lookup(key, total);
+    }
+    
+    /**
+     * Gets the number of pooled compositions computed so far.
+     *
+     * @return the number of memoized distributions
+     */
+    int getCacheSize() {
+        return cache.size();
+    }
+    
+    /**
+     * Gets the probability of at least the given number of coins.
+     *
+     * @param distribution a coin distribution
+     * @param coins the coin threshold
+     * @return the probability that the coin total is at least {@code coins}
+     */
+    static double atLeast(double[] distribution, int coins) {
+        double p = 0;
+        for (int c = Math.max(coins, 0); c < distribution.length; c++) {
+            p += distribution[c];
+        }
+        return p;
+    }
+    
+    /**
+     * Gets the expected number of coins.
+     *
+     * @param distribution a coin distribution
+     * @return the mean coin total
+     */
+    static double mean(double[] distribution) {
+        double sum = 0;
+        for (int c = 1; c < distribution.length; c++) {
+            sum += c * distribution[c];
+        }
+        return sum;
+    }
+    
+    /**
+     * Looks up or computes the distribution of a packed pooled composition.
+     *
+     * @param key the card count of each coin value, packed {@link #bitsPerValue} bits apiece
+     * @param total the number of cards in the pile
+     * @return the distribution
+     * @throws IllegalArgumentException if the pile is too large to pack
+     */
+    private double[] lookup(long key, int total) {
+        if (total >= 1 << bitsPerValue) {
+            throw new IllegalArgumentException("Pile too large: " + total + " cards");
+        }
+        double[] distribution = cache.get(key);
+        if (distribution == null) {
+            distribution = compute(key, total);
+            double[] raced = cache.putIfAbsent(key, distribution);
+            if (raced != null) {
+                distribution = raced;
+            }
+        }
+        return distribution;
+    }
+    
+    /**
+     * Computes the coin distribution of a hand dealt from a pooled composition.
+     * {@code ways[k][c]} counts the ways to choose {@code k} cards from the
+     * groups seen so far with {@code c} coins between them.
+     *
+     * @param key the packed composition
+     * @param total the number of cards in the pile
+     * @return the distribution
+     */
+    private double[] compute(long key, int total) {
+        int hand = Math.min(CompactGame.HAND_SIZE, total);
+        int mask = (1 << bitsPerValue) - 1;
+        double[][] ways = new double[hand + 1][hand * maxCoins + 1];
+        ways[0][0] = 1;
+        for (int g = 0; g < groupCoins.length; g++) {
+            int n = (int) (key >>> (g * bitsPerValue)) & mask;
+            if (n == 0) {
+                continue;
+            }
+            int value = groupCoins[g];
+            // Go from the fullest hands down so each group is added once
+            for (int k = hand; k > 0; k--) {
+                double choose = 1;
+                for (int j = 1; j <= Math.min(k, n); j++) {
+                    choose = choose * (n - j + 1) / j;
+                    double[] from = ways[k - j];
+                    double[] to = ways[k];
+                    for (int c = 0; c + j * value < to.length; c++) {
+                        to[c + j * value] += choose * from[c];
+                    }
+                }
+            }
+        }
+        double hands = 0;
+        for (double w : ways[hand]) {
+            hands += w;
+        }
+        int top = ways[hand].length - 1;
+        while (top > 0 && ways[hand][top] == 0) {
+            top--;
+        }
+        double[] distribution = new double[top + 1];
+        for (int c = 0; c <= top; c++) {
+            distribution[c] = ways[hand][c] / hands;
+        }
+        return distribution;
+    }
+}
@@ -0,0 +1,676 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.random.RandomGenerator;
+
+/**
+ * A game of two or more players held entirely in primitive arrays, for batch simulation.
+ * Cards are byte-sized IDs from a {@link CardCatalog}, each pile is a byte array
+ * with a size counter, and the supply is an int array of counts indexed by card ID.
+ * All arrays are sized for the largest possible deck when the game is created and
+ * reused by {@link #reset(RandomGenerator)}, so playing turns and whole games allocates nothing.
+ *
+ * <p>Each seat has its own {@link Strategy}; strategies with a {@link CardScorer}
+ * are compiled into a {@link BuyTable}. Turns pass around the table by seat index
+ * and scores are kept as cards are gained, so the cost of a turn does not depend
+ * on the number of players. With {@link ScoredStrategy#GREEDY} in every
+ * seat, the rules, the buy heuristic and the order in which random numbers are
+ * drawn mirror {@link domination}, so a CompactGame and a domination seeded with
+ * the same generator play exactly the same game.
+ */
+final class CompactGame implements GameView {
+    /** The number of cards dealt each turn */
+    static final int HAND_SIZE = 5;
+    
+    /** The card types in play */
+    private final CardCatalog catalog;
+    /** The number of players */
+    private final int players;
+    /** Remaining supply count for each card ID */
+    private final int[] supply;
+    /** Draw pile card IDs per player; the top of the pile is the highest index */
+    private final byte[][] drawPile;
+    /** Number of cards in each player's draw pile */
+    private final int[] drawSize;
+    /** Discard pile card IDs per player, in the order they were discarded */
+    private final byte[][] discardPile;
+    /** Number of cards in each player's discard pile */
+    private final int[] discardSize;
+    /** Hand card IDs per player, in the order they were dealt */
+    private final byte[][] hand;
+    /** Number of cards in each player's hand */
+    private final int[] handSize;
+    /** Automation Points in each player's deck */
+    private final int[] points;
+    /** The buy strategy of each seat */
+    private final Strategy[] strategies;
+    /** Each seat's strategy as a coins-to-card lookup table, or null if it has none */
+    private final BuyTable[] buyTables;
+    /** Random number generator each seat shuffles with */
+    private final RandomGenerator[] shufflers;
+    /** Where game events go */
+    private GameEventSink events = GameEventSink.NONE;
+    /** Whether the event sink wants each buy decision timed */
+    private boolean timing;
+    /** The seat whose turn it is */
+    private int currentSeat;
+    /** The number of turns played so far */
+    private int turnCount;
+    
+    /**
+     * Constructs a game over the given catalog that uses the built-in buy heuristic.
+     * Call {@link #reset(RandomGenerator)} before playing.
+     *
+     * @param catalog the card types in play
+     */
+    CompactGame(CardCatalog catalog) {
+        this(catalog, ScoredStrategy.GREEDY, ScoredStrategy.GREEDY);
+    }
+    
+    /**
+     * Constructs a game for the given number of players, all of whom use the
+     * built-in buy heuristic. Call {@link #reset(RandomGenerator)} before playing.
+     *
+     * @param catalog the card types in play
+     * @param players the number of players, at least 2
+     */
+    CompactGame(CardCatalog catalog, int players) {
+        this(catalog, Collections.nCopies(players, ScoredStrategy.GREEDY).toArray(new Strategy[0]));
+    }
+    
+    /**
+     * Constructs a game over the given catalog with one player per strategy, in
+     * seat order. The supply is scaled to the number of players.
+     * Call {@link #reset(RandomGenerator)} before playing.
+     *
+     * @param catalog the card types in play
+     * @param strategies the strategy of each seat, at least two
+     */
+    CompactGame(CardCatalog catalog, Strategy... strategies) {
+        if (strategies.length < 2) {
+            throw new IllegalArgumentException("A game needs at least two players");
+        }
+        this.catalog = catalog;
+        this.players = strategies.length;
+        this.strategies = strategies.clone();
+        buyTables = new BuyTable[players];
+        for (int seat = 0; seat < players; seat++) {
+            buyTables[seat] = BuyTable.compile(catalog, strategies[seat]);
+        }
+        shufflers = new RandomGenerator[players];
+        int types = catalog.size();
+        // A deck can never hold more than the starter deck plus every card in the supply
+        int capacity = catalog.getStarterSize();
+        for (int id = 0; id < types; id++) {
+            capacity += catalog.getQuantity(id, players);
+        }
+        supply = new int[types];
+        drawPile = new byte[players][capacity];
+        discardPile = new byte[players][capacity];
+        hand = new byte[players][HAND_SIZE];
+        drawSize = new int[players];
+        discardSize = new int[players];
+        handSize = new int[players];
+        points = new int[players];
+    }
+    
+    /**
+     * Starts a new game: refills the supply, gives every player a starter deck,
+     * deals the first hands and picks the starting player.
+     *
+     * @param random the random number generator for this game
+     */
+    void reset(RandomGenerator random) {
+        Arrays.fill(shufflers, random);
+        setUp();
+        currentSeat = domination.chooseStartingSeat(random, players);
+    }
+    
+    /**
+     * Starts a new game in which each seat shuffles with its own generator and the
+     * starting seat is given. Replaying a game with the two generators' seeds and
+     * the strategies swapped deals the other strategy exactly the same cards.
+     * Only for two-player games.
+     *
+     * @param first the generator seat 0 shuffles with
+     * @param second the generator seat 1 shuffles with
+     * @param startingSeat the seat that takes the first turn
+     */
+    void reset(RandomGenerator first, RandomGenerator second, int startingSeat) {
+        if (players != 2) {
+            throw new IllegalStateException("Not a two-player game");
+        }
+        shufflers[0] = first;
+        shufflers[1] = second;
+        setUp();
+        currentSeat = startingSeat;
+    }
+    
+    /**
+     * Refills the supply, buys and deals every starter deck with the seats' shufflers
+     * and resets the buy tables.
+     */
+    private void setUp() {
+        for (int id = 0; id < supply.length; id++) {
+            supply[id] = catalog.getQuantity(id, players);
+        }
+        for (int seat = 0; seat < players; seat++) {
+            drawSize[seat] = 0;
+            discardSize[seat] = 0;
+            handSize[seat] = 0;
+            points[seat] = 0;
+            for (int i = 0; i < catalog.getStarterSize(); i++) {
+                int id = catalog.getStarterCard(i);
+                if (supply[id] > 0) {
+                    supply[id]--;
+                    gain(seat, id);
+                }
+            }
+            reshuffle(seat);
+            dealHand(seat);
+        }
+        for (BuyTable table : buyTables) {
+            if (table != null) {
+                table.reset();
+            }
+        }
+        for (int id = 0; id < supply.length; id++) {
+            if (supply[id] == 0) {
+                pileEmptied(id);
+            }
+        }
+        turnCount = 0;
+    }
+    
+    /**
+     * Executes one turn for the current player: buy, cleanup, draw, and pass the turn.
+     */
+    void playTurn() {
+        int coins = startTurn();
+        if (timing) {
+            long start = System.nanoTime();
+            int card = chooseBestCard(coins);
+            events.decisionTimed(currentSeat, System.nanoTime() - start);
+            finishTurn(card);
+        } else {
+            finishTurn(chooseBestCard(coins));
+        }
+    }
+    
+    /**
+     * Executes one turn for the current player, buying the given card instead of
+     * asking the seat's strategy. Used by searches that try out moves.
+     *
+     * @param cardToBuy the ID of an affordable card with a non-empty pile, or -1 to buy nothing
+     */
+    void playTurn(int cardToBuy) {
+        startTurn();
+        finishTurn(cardToBuy);
+    }
+    
+    /**
+     * Reports the start of the current player's turn and counts their coins.
+     *
+     * @return the current player's available coins
+     */
+    private int startTurn() {
+        int seat = currentSeat;
+        int coins = getAvailableCoins(seat);
+        if (events != GameEventSink.NONE) {
+            events.turnStarted(turnCount, seat);
+            events.handRevealed(seat, hand[seat], handSize[seat]);
+            events.coinsCounted(seat, coins);
+        }
+        return coins;
+    }
+    
+    /**
+     * Buys a card for the current player, cleans up, deals the next hand and
+     * passes the turn.
+     *
+     * @param cardToBuy the ID of the card to buy, or -1 to buy nothing
+     */
+    private void finishTurn(int cardToBuy) {
+        int seat = currentSeat;
+        boolean logging = events != GameEventSink.NONE;
+        if (cardToBuy >= 0) {
+            if (--supply[cardToBuy] == 0) {
+                pileEmptied(cardToBuy);
+            }
+            gain(seat, cardToBuy);
+            if (logging) {
+                events.cardBought(seat, cardToBuy);
+            }
+        } else if (logging) {
+            events.nothingBought(seat);
+        }
+        
+        // Cleanup: the hand goes to the discard pile in the order it was dealt
+        System.arraycopy(hand[seat], 0, discardPile[seat], discardSize[seat], handSize[seat]);
+        discardSize[seat] += handSize[seat];
+        handSize[seat] = 0;
+        
+        if (drawSize[seat] == 0 && discardSize[seat] > 0) {
+            reshuffle(seat);
+            if (logging) {
+                events.reshuffled(seat);
+            }
+        }
+        dealHand(seat);
+        
+        currentSeat = seat + 1 == players ? 0 : seat + 1;
+        turnCount++;
+    }
+    
+    /**
+     * Plays turns until the game ends.
+     *
+     * @return the final scores and length of the game
+     */
+    GameResult playGame() {
+        events.gameStarted(players);
+        while (!isGameOver()) {
+            playTurn();
+        }
+        GameResult result = new GameResult(points.clone(), turnCount);
+        events.gameEnded(result);
+        return result;
+    }
+    
+    /**
+     * Makes this game an exact copy of another game's position: supply, every
+     * pile in order, scores, the current seat and the turn count. Strategies,
+     * shufflers and the event sink are not copied. Nothing is allocated.
+     *
+     * @param other a game over the same catalog with the same number of players
+     * @throws IllegalArgumentException if the games are not compatible
+     */
+    void copyFrom(CompactGame other) {
+        if (other.catalog != catalog || other.players != players) {
+            throw new IllegalArgumentException("Games differ in catalog or player count");
+        }
+        System.arraycopy(other.supply, 0, supply, 0, supply.length);
+        for (int seat = 0; seat < players; seat++) {
+            System.arraycopy(other.drawPile[seat], 0, drawPile[seat], 0, other.drawSize[seat]);
+            System.arraycopy(other.discardPile[seat], 0, discardPile[seat], 0, other.discardSize[seat]);
+            System.arraycopy(other.hand[seat], 0, hand[seat], 0, other.handSize[seat]);
+        }
+        System.arraycopy(other.drawSize, 0, drawSize, 0, players);
+        System.arraycopy(other.discardSize, 0, discardSize, 0, players);
+        System.arraycopy(other.handSize, 0, handSize, 0, players);
+        System.arraycopy(other.points, 0, points, 0, players);
+        currentSeat = other.currentSeat;
+        turnCount = other.turnCount;
+        for (BuyTable table : buyTables) {
+            if (table != null) {
+                table.reset();
+            }
+        }
+        for (int id = 0; id < supply.length; id++) {
+            if (supply[id] == 0) {
+                pileEmptied(id);
+            }
+        }
+    }
+    
+    /**
+     * Makes this game's position the one in a snapshot, recomputing the scores
+     * from the piles. As with {@link #copyFrom(CompactGame)}, strategies,
+     * shufflers and the event sink stay as they are and nothing is allocated.
+     *
+     * @param snapshot a snapshot for this game's catalog and number of players
+     * @throws IllegalArgumentException if the snapshot has a different shape
+     */
+    void copyFrom(GameSnapshot snapshot) {
+        snapshot.checkShape(catalog, players);
+        for (int id = 0; id < supply.length; id++) {
+            supply[id] = snapshot.getSupplyCount(id);
+        }
+        byte[] cards = snapshot.getCards();
+        for (int seat = 0; seat < players; seat++) {
+            drawSize[seat] = snapshot.getSize(seat, GameSnapshot.DRAW);
+            discardSize[seat] = snapshot.getSize(seat, GameSnapshot.DISCARD);
+            handSize[seat] = snapshot.getSize(seat, GameSnapshot.HAND);
+            System.arraycopy(cards, snapshot.offset(seat, GameSnapshot.DRAW), drawPile[seat], 0, drawSize[seat]);
+            System.arraycopy(cards, snapshot.offset(seat, GameSnapshot.DISCARD), discardPile[seat], 0, discardSize[seat]);
+            System.arraycopy(cards, snapshot.offset(seat, GameSnapshot.HAND), hand[seat], 0, handSize[seat]);
+        }
+        positionLoaded(snapshot.getCurrentSeat(), snapshot.getTurnCount());
+    }
+    
+    /**
+     * Gets one of a seat's pile arrays, for another engine to write its
+     * position straight into this game. The writer then sets the pile sizes
+     * with {@link #setPileSize(int, int, int)}, the supply with
+     * {@link #setSupplyCount(int, int)}, and finishes with
+     * {@link #positionLoaded(int, int)}.
+     *
+     * @param seat the seat
+     * @param pile {@link GameSnapshot#DRAW}, {@link GameSnapshot#DISCARD} or {@link GameSnapshot#HAND}
+     * @return the pile's card IDs, in list order, with room for any deck
+     */
+    byte[] getPile(int seat, int pile) {
+        return pile == GameSnapshot.DRAW ? drawPile[seat] : pile == GameSnapshot.DISCARD ? discardPile[seat] : hand[seat];
+    }
+    
+    /**
+     * Sets the number of cards in one of a seat's piles.
+     *
+     * @param seat the seat
+     * @param pile {@link GameSnapshot#DRAW}, {@link GameSnapshot#DISCARD} or {@link GameSnapshot#HAND}
+     * @param size the number of cards
+     */
+    void setPileSize(int seat, int pile, int size) {
+        int[] sizes = pile == GameSnapshot.DRAW ? drawSize : pile == GameSnapshot.DISCARD ? discardSize : handSize;
+        sizes[seat] = size;
+    }
+    
+    /**
+     * Sets the remaining supply of a card type.
+     *
+     * @param id the card ID
+     * @param count the number of copies left
+     */
+    void setSupplyCount(int id, int count) {
+        supply[id] = count;
+    }
+    
+    /**
+     * Finishes loading a position whose supply and piles have been written:
+     * recomputes the scores from the piles and tells the buy tables which piles
+     * are empty.
+     *
+     * @param seat the seat to move
+     * @param turns the number of turns played so far
+     */
+    void positionLoaded(int seat, int turns) {
+        for (int p = 0; p < players; p++) {
+            points[p] = sumPoints(drawPile[p], drawSize[p]) + sumPoints(discardPile[p], discardSize[p])
+                + sumPoints(hand[p], handSize[p]);
+        }
+        currentSeat = seat;
+        turnCount = turns;
+        for (BuyTable table : buyTables) {
+            if (table != null) {
+                table.reset();
+            }
+        }
+        for (int id = 0; id < supply.length; id++) {
+            if (supply[id] == 0) {
+                pileEmptied(id);
+            }
+        }
+    }
+    
+    /**
+     * Overwrites a snapshot with this game's position.
+     *
+     * @param into a snapshot for this game's catalog and number of players
+     * @throws IllegalArgumentException if the snapshot has a different shape
+     */
+    void snapshot(GameSnapshot into) {
+        into.checkShape(catalog, players);
+        for (int id = 0; id < supply.length; id++) {
+            into.setSupplyCount(id, supply[id]);
+        }
+        byte[] cards = into.getCards();
+        for (int seat = 0; seat < players; seat++) {
+            System.arraycopy(drawPile[seat], 0, cards, into.offset(seat, GameSnapshot.DRAW), drawSize[seat]);
+            System.arraycopy(discardPile[seat], 0, cards, into.offset(seat, GameSnapshot.DISCARD), discardSize[seat]);
+            System.arraycopy(hand[seat], 0, cards, into.offset(seat, GameSnapshot.HAND), handSize[seat]);
+            into.setSize(seat, GameSnapshot.DRAW, drawSize[seat]);
+            into.setSize(seat, GameSnapshot.DISCARD, discardSize[seat]);
+            into.setSize(seat, GameSnapshot.HAND, handSize[seat]);
+        }
+        into.setTurn(currentSeat, turnCount);
+    }
+    
+    /**
+     * Makes every seat shuffle with the given generator from now on, e.g. after
+     * loading a position with {@link #copyFrom(GameSnapshot)}.
+     *
+     * @param random the generator for all later shuffles
+     */
+    void setShuffler(RandomGenerator random) {
+        Arrays.fill(shufflers, random);
+    }
+    
+    /**
+     * Counts the copies of a card in a run of card IDs.
+     *
+     * @param cards the card IDs
+     * @param size the number of cards to look at
+     * @param id the card ID to count
+     * @return the number of copies
+     */
+    private static int count(byte[] cards, int size, int id) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (cards[i] == id) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Sums the Automation Points of a run of card IDs.
+     *
+     * @param cards the card IDs
+     * @param size the number of cards to count
+     * @return the total AP
+     */
+    private int sumPoints(byte[] cards, int size) {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += catalog.getPoints(cards[i]);
+        }
+        return total;
+    }
+    
+    /**
+     * Replaces everything one player cannot see with a random arrangement that is
+     * consistent with what they can see, and makes every seat shuffle with the
+     * given generator from now on. The observer's own draw pile is shuffled; each
+     * other player's hand and draw pile are pooled, shuffled and the hand dealt
+     * again. Discard piles and the observer's hand are public and stay as they are.
+     *
+     * @param observer the seat whose knowledge is kept
+     * @param random the generator for the new arrangement and all later shuffles
+     */
+    void determinize(int observer, RandomGenerator random) {
+        Arrays.fill(shufflers, random);
+        for (int seat = 0; seat < players; seat++) {
+            byte[] draw = drawPile[seat];
+            int size = drawSize[seat];
+            if (seat != observer) {
+                // The hand was dealt from the top of the draw pile, so put it back there
+                for (int i = handSize[seat] - 1; i >= 0; i--) {
+                    draw[size++] = hand[seat][i];
+                }
+            }
+            for (int i = size; i > 1; i--) {
+                int j = random.nextInt(i);
+                byte tmp = draw[i - 1];
+                draw[i - 1] = draw[j];
+                draw[j] = tmp;
+            }
+            drawSize[seat] = size;
+            if (seat != observer) {
+                dealHand(seat);
+            }
+        }
+    }
+    
+    /**
+     * Sets the destination of this game's events. The sink stays in place across
+     * {@link #reset(RandomGenerator)}; it is {@link GameEventSink#NONE} by default.
+     *
+     * @param sink the event sink
+     */
+    void setEventSink(GameEventSink sink) {
+        events = sink;
+        timing = sink.timesDecisions();
+    }
+    
+    /**
+     * Checks if the end card's supply pile is empty.
+     *
+     * @return true if the game has ended
+     */
+    boolean isGameOver() {
+        return supply[catalog.getEndCard()] == 0;
+    }
+    
+    /**
+     * Chooses the current player's card to buy, by table lookup when the seat's
+     * strategy has been compiled and by asking the strategy otherwise.
+     *
+     * @param availableCoins the number of coins available to spend
+     * @return the ID of the card to buy, or -1 if nothing should be bought
+     * @throws IllegalStateException if the strategy picks a card it cannot buy
+     */
+    int chooseBestCard(int availableCoins) {
+        BuyTable table = buyTables[currentSeat];
+        if (table != null) {
+            return table.choose(availableCoins);
+        }
+        int id = strategies[currentSeat].chooseCard(this);
+        if (id >= 0 && (id >= supply.length || supply[id] == 0 || catalog.getCost(id) > availableCoins)) {
+            throw new IllegalStateException(strategies[currentSeat].getName() + " chose an unavailable card: " + id);
+        }
+        return id;
+    }
+    
+    /**
+     * Sums the coin values of the cards in a player's hand.
+     *
+     * @param seat the player's seat
+     * @return the available coins
+     */
+    int getAvailableCoins(int seat) {
+        byte[] cards = hand[seat];
+        int coins = 0;
+        for (int i = 0; i < handSize[seat]; i++) {
+            coins += catalog.getCoinValue(cards[i]);
+        }
+        return coins;
+    }
+    
+    @Override
+    public int getAvailableCoins() {
+        return getAvailableCoins(currentSeat);
+    }
+    
+    @Override
+    public int getHandCount(int id) {
+        return count(hand[currentSeat], handSize[currentSeat], id);
+    }
+    
+    @Override
+    public int getDrawCount(int id) {
+        return count(drawPile[currentSeat], drawSize[currentSeat], id);
+    }
+    
+    @Override
+    public int getDiscardCount(int id) {
+        return count(discardPile[currentSeat], discardSize[currentSeat], id);
+    }
+    
+    @Override
+    public CardCatalog getCatalog() {
+        return catalog;
+    }
+    
+    @Override
+    public int getPlayerCount() {
+        return players;
+    }
+    
+    @Override
+    public int getPoints(int seat) {
+        return points[seat];
+    }
+    
+    @Override
+    public int getSupplyCount(int id) {
+        return supply[id];
+    }
+    
+    @Override
+    public int getCurrentSeat() {
+        return currentSeat;
+    }
+    
+    @Override
+    public int getTurnCount() {
+        return turnCount;
+    }
+    
+    @Override
+    public void copyInto(CompactGame target) {
+        target.copyFrom(this);
+    }
+    
+    /**
+     * Tells every compiled buy table that a supply pile has run out.
+     *
+     * @param id the ID of the emptied card
+     */
+    private void pileEmptied(int id) {
+        for (BuyTable table : buyTables) {
+            if (table != null) {
+                table.pileEmptied(id);
+            }
+        }
+    }
+    
+    /**
+     * Adds a newly acquired card to a player's discard pile.
+     *
+     * @param seat the player's seat
+     * @param id the card ID
+     */
+    private void gain(int seat, int id) {
+        discardPile[seat][discardSize[seat]++] = (byte) id;
+        points[seat] += catalog.getPoints(id);
+    }
+    
+    /**
+     * Moves the discard pile onto the draw pile and shuffles it, drawing the same
+     * random numbers as {@link java.util.Collections#shuffle(java.util.List, RandomGenerator)}.
+     *
+     * @param seat the player's seat
+     */
+    private void reshuffle(int seat) {
+        byte[] draw = drawPile[seat];
+        int size = drawSize[seat];
+        System.arraycopy(discardPile[seat], 0, draw, size, discardSize[seat]);
+        size += discardSize[seat];
+        discardSize[seat] = 0;
+        drawSize[seat] = size;
+        RandomGenerator shuffler = shufflers[seat];
+        for (int i = size; i > 1; i--) {
+            int j = shuffler.nextInt(i);
+            byte tmp = draw[i - 1];
+            draw[i - 1] = draw[j];
+            draw[j] = tmp;
+        }
+    }
+    
+    /**
+     * Deals up to a full hand from the top of a player's draw pile.
+     *
+     * @param seat the player's seat
+     */
+    private void dealHand(int seat) {
+        int count = Math.min(HAND_SIZE, drawSize[seat]);
+        byte[] draw = drawPile[seat];
+        byte[] cards = hand[seat];
+        for (int i = 0; i < count; i++) {
+            cards[i] = draw[--drawSize[seat]];
+        }
+        handSize[seat] = count;
+    }
+}
@@ -0,0 +1,76 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.PrintStream;
+
+/**
+ * Prints game events as the text the game has always written to the console.
+ */
+class ConsoleEventSink implements GameEventSink {
+    /** Where the text goes */
+    private final PrintStream out;
+    /** The card types in play, for card names */
+    private final CardCatalog catalog;
+    /** Reused buffer for formatting one event */
+    private final StringBuilder text = new StringBuilder(128);
+    
+    /**
+     * Constructs a ConsoleEventSink.
+     *
+     * @param out the stream to print to
+     * @param catalog the card types in play
+     */
+    ConsoleEventSink(PrintStream out, CardCatalog catalog) {
+        this.out = out;
+        this.catalog = catalog;
+    }
+    
+    @Override
+    public void gameStarted(int players) {
+        GameText.appendGameStarted(text);
+        print();
+    }
+    
+    @Override
+    public void turnStarted(int turn, int seat) {
+        GameText.appendTurnStarted(text, seat);
+        print();
+    }
+    
+    @Override
+    public void handRevealed(int seat, byte[] hand, int size) {
+        GameText.appendHand(text, catalog, hand, size);
+        print();
+    }
+    
+    @Override
+    public void coinsCounted(int seat, int coins) {
+        GameText.appendCoins(text, coins);
+        print();
+    }
+    
+    @Override
+    public void cardBought(int seat, int cardId) {
+        GameText.appendBought(text, catalog, cardId);
+        print();
+    }
+    
+    @Override
+    public void nothingBought(int seat) {
+        GameText.appendNothingBought(text);
+        print();
+    }
+    
+    @Override
+    public void gameEnded(GameResult result) {
+        GameText.appendGameOver(text, result);
+        print();
+    }
+    
+    /**
+     * Writes the formatted event and clears the buffer.
+     */
+    private void print() {
+        out.print(text);
+        text.setLength(0);
+    }
+}
@@ -0,0 +1,501 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.random.RandomGenerator;
+
+/**
+ * A game of two or more players in which every pile is a vector of per-type card
+ * counts instead of an ordered list of cards. Nothing in the rules depends on the
+ * order of cards within a pile except which cards are drawn next, and drawing the
+ * top card of a uniformly shuffled pile is the same as drawing a card uniformly
+ * at random from its counts. So the draw pile is never shuffled: each card is
+ * sampled from the counts when it is dealt, and a reshuffle just adds the
+ * discard counts to the draw counts, at a cost proportional to the number of
+ * card types rather than the size of the deck.
+ *
+ * <p>Games follow the same rules and strategies as {@link CompactGame} and have
+ * the same distribution of outcomes, but draw their random numbers differently,
+ * so a CountGame does not replay a given seed move for move. Every pile of every
+ * seat lives in one flat {@code int} array per pile kind, {@code types} entries
+ * per seat, and the bulk operations on them are plain loops over contiguous
+ * ranges that the JIT compiler can vectorize. Playing turns and games allocates
+ * nothing.
+ */
+final class CountGame implements GameView {
+    /** The card types in play */
+    private final CardCatalog catalog;
+    /** The number of players */
+    private final int players;
+    /** The number of card types; each seat's counts take this many entries */
+    private final int types;
+    /** Coin value of each card ID */
+    private final int[] coinValues;
+    /** Remaining supply count for each card ID */
+    private final int[] supply;
+    /** Draw pile count of card {@code id} for {@code seat} at {@code seat * types + id} */
+    private final int[] draw;
+    /** Discard pile counts, laid out as {@link #draw} */
+    private final int[] discard;
+    /** Hand counts, laid out as {@link #draw} */
+    private final int[] hand;
+    /** Number of cards in each player's draw pile */
+    private final int[] drawSize;
+    /** Number of cards in each player's discard pile */
+    private final int[] discardSize;
+    /** Number of cards in each player's hand */
+    private final int[] handSize;
+    /** Automation Points in each player's deck */
+    private final int[] points;
+    /** The current hand as card IDs in ID order, filled only for the event sink */
+    private final byte[] revealed = new byte[CompactGame.HAND_SIZE];
+    /** The buy strategy of each seat */
+    private final Strategy[] strategies;
+    /** Each seat's strategy as a coins-to-card lookup table, or null if it has none */
+    private final BuyTable[] buyTables;
+    /** The generator all cards are drawn with */
+    private RandomGenerator random;
+    /** Where game events go */
+    private GameEventSink events = GameEventSink.NONE;
+    /** Whether the event sink wants each buy decision timed */
+    private boolean timing;
+    /** The seat whose turn it is */
+    private int currentSeat;
+    /** The number of turns played so far */
+    private int turnCount;
+    
+    /**
+     * Constructs a game for the given number of players, all of whom use the
+     * built-in buy heuristic. Call {@link #reset(RandomGenerator)} before playing.
+     *
+     * @param catalog the card types in play
+     * @param players the number of players, at least 2
+     */
+    CountGame(CardCatalog catalog, int players) {
+        this(catalog, Collections.nCopies(players, ScoredStrategy.GREEDY).toArray(new Strategy[0]));
+    }
+    
+    /**
+     * Constructs a game over the given catalog with one player per strategy, in
+     * seat order. The supply is scaled to the number of players.
+     * Call {@link #reset(RandomGenerator)} before playing.
+     *
+     * @param catalog the card types in play
+     * @param strategies the strategy of each seat, at least two
+     */
+    CountGame(CardCatalog catalog, Strategy... strategies) {
+        if (strategies.length < 2) {
+            throw new IllegalArgumentException("A game needs at least two players");
+        }
+        this.catalog = catalog;
+        this.players = strategies.length;
+        this.types = catalog.size();
+        this.strategies = strategies.clone();
+        buyTables = new BuyTable[players];
+        for (int seat = 0; seat < players; seat++) {
+            buyTables[seat] = BuyTable.compile(catalog, strategies[seat]);
+        }
+        coinValues = new int[types];
+        for (int id = 0; id < types; id++) {
+            coinValues[id] = catalog.getCoinValue(id);
+        }
+        supply = new int[types];
+        draw = new int[players * types];
+        discard = new int[players * types];
+        hand = new int[players * types];
+        drawSize = new int[players];
+        discardSize = new int[players];
+        handSize = new int[players];
+        points = new int[players];
+    }
+    
+    /**
+     * Starts a new game: refills the supply, gives every player a starter deck,
+     * deals the first hands and picks the starting player.
+     *
+     * @param random the random number generator for this game
+     */
+    void reset(RandomGenerator random) {
+        this.random = random;
+        for (int id = 0; id < types; id++) {
+            supply[id] = catalog.getQuantity(id, players);
+        }
+        Arrays.fill(draw, 0);
+        Arrays.fill(discard, 0);
+        Arrays.fill(hand, 0);
+        Arrays.fill(drawSize, 0);
+        Arrays.fill(discardSize, 0);
+        Arrays.fill(handSize, 0);
+        Arrays.fill(points, 0);
+        for (int seat = 0; seat < players; seat++) {
+            for (int i = 0; i < catalog.getStarterSize(); i++) {
+                int id = catalog.getStarterCard(i);
+                if (supply[id] > 0) {
+                    supply[id]--;
+                    gain(seat, id);
+                }
+            }
+            reshuffle(seat);
+            dealHand(seat);
+        }
+        for (BuyTable table : buyTables) {
+            if (table != null) {
+                table.reset();
+            }
+        }
+        for (int id = 0; id < types; id++) {
+            if (supply[id] == 0) {
+                pileEmptied(id);
+            }
+        }
+        turnCount = 0;
+        currentSeat = domination.chooseStartingSeat(random, players);
+    }
+    
+    /**
+     * Executes one turn for the current player: buy, cleanup, draw, and pass the turn.
+     */
+    void playTurn() {
+        int coins = startTurn();
+        if (timing) {
+            long start = System.nanoTime();
+            int card = chooseBestCard(coins);
+            events.decisionTimed(currentSeat, System.nanoTime() - start);
+            finishTurn(card);
+        } else {
+            finishTurn(chooseBestCard(coins));
+        }
+    }
+    
+    /**
+     * Executes one turn for the current player, buying the given card instead of
+     * asking the seat's strategy.
+     *
+     * @param cardToBuy the ID of an affordable card with a non-empty pile, or -1 to buy nothing
+     */
+    void playTurn(int cardToBuy) {
+        startTurn();
+        finishTurn(cardToBuy);
+    }
+    
+    /**
+     * Plays turns until the game ends.
+     *
+     * @return the final scores and length of the game
+     */
+    GameResult playGame() {
+        events.gameStarted(players);
+        while (!isGameOver()) {
+            playTurn();
+        }
+        GameResult result = new GameResult(points.clone(), turnCount);
+        events.gameEnded(result);
+        return result;
+    }
+    
+    /**
+     * Sets the destination of this game's events. Hands are reported in card ID
+     * order, since a count pile has no other.
+     *
+     * @param sink the event sink
+     */
+    void setEventSink(GameEventSink sink) {
+        events = sink;
+        timing = sink.timesDecisions();
+    }
+    
+    /**
+     * Checks if the end card's supply pile is empty.
+     *
+     * @return true if the game has ended
+     */
+    boolean isGameOver() {
+        return supply[catalog.getEndCard()] == 0;
+    }
+    
+    /**
+     * Chooses the current player's card to buy, by table lookup when the seat's
+     * strategy has been compiled and by asking the strategy otherwise.
+     *
+     * @param availableCoins the number of coins available to spend
+     * @return the ID of the card to buy, or -1 if nothing should be bought
+     * @throws IllegalStateException if the strategy picks a card it cannot buy
+     */
+    int chooseBestCard(int availableCoins) {
+        BuyTable table = buyTables[currentSeat];
+        if (table != null) {
+            return table.choose(availableCoins);
+        }
+        int id = strategies[currentSeat].chooseCard(this);
+        if (id >= 0 && (id >= types || supply[id] == 0 || catalog.getCost(id) > availableCoins)) {
+            throw new IllegalStateException(strategies[currentSeat].getName() + " chose an unavailable card: " + id);
+        }
+        return id;
+    }
+    
+    /**
+     * Sums the coin values of the cards in a player's hand.
+     *
+     * @param seat the player's seat
+     * @return the available coins
+     */
+    int getAvailableCoins(int seat) {
+        return dot(hand, seat * types, coinValues, types);
+    }
+    
+    @Override
+    public int getAvailableCoins() {
+        return getAvailableCoins(currentSeat);
+    }
+    
+    @Override
+    public int getHandCount(int id) {
+        return hand[currentSeat * types + id];
+    }
+    
+    @Override
+    public int getDrawCount(int id) {
+        return draw[currentSeat * types + id];
+    }
+    
+    @Override
+    public int getDiscardCount(int id) {
+        return discard[currentSeat * types + id];
+    }
+    
+    @Override
+    public CardCatalog getCatalog() {
+        return catalog;
+    }
+    
+    @Override
+    public int getPlayerCount() {
+        return players;
+    }
+    
+    @Override
+    public int getPoints(int seat) {
+        return points[seat];
+    }
+    
+    @Override
+    public int getSupplyCount(int id) {
+        return supply[id];
+    }
+    
+    @Override
+    public int getCurrentSeat() {
+        return currentSeat;
+    }
+    
+    @Override
+    public int getTurnCount() {
+        return turnCount;
+    }
+    
+    /**
+     * Writes this game's position into a compact game, each pile as its card IDs
+     * in ID order. A count pile has no order to keep, and a search
+     * {@link CompactGame#determinize determinizes} the copy before playing it,
+     * which shuffles every pile whose order matters.
+     *
+     * @param target a game over the same catalog with the same number of players
+     * @throws IllegalArgumentException if the games are not compatible
+     */
+    @Override
+    public void copyInto(CompactGame target) {
+        if (target.getCatalog() != catalog || target.getPlayerCount() != players) {
+            throw new IllegalArgumentException("Games differ in catalog or player count");
+        }
+        for (int id = 0; id < types; id++) {
+            target.setSupplyCount(id, supply[id]);
+        }
+        for (int seat = 0; seat < players; seat++) {
+            target.setPileSize(seat, GameSnapshot.DRAW, writeIds(draw, seat, target.getPile(seat, GameSnapshot.DRAW)));
+            target.setPileSize(seat, GameSnapshot.DISCARD,
+                writeIds(discard, seat, target.getPile(seat, GameSnapshot.DISCARD)));
+            target.setPileSize(seat, GameSnapshot.HAND, writeIds(hand, seat, target.getPile(seat, GameSnapshot.HAND)));
+        }
+        target.positionLoaded(currentSeat, turnCount);
+    }
+    
+    /**
+     * Gets the number of cards a player owns.
+     *
+     * @param seat the player's seat
+     * @return the size of the player's deck across all piles
+     */
+    int getDeckSize(int seat) {
+        return drawSize[seat] + discardSize[seat] + handSize[seat];
+    }
+    
+    /**
+     * Reports the start of the current player's turn and counts their coins.
+     *
+     * @return the current player's available coins
+     */
+    private int startTurn() {
+        int seat = currentSeat;
+        int coins = getAvailableCoins(seat);
+        if (events != GameEventSink.NONE) {
+            events.turnStarted(turnCount, seat);
+            events.handRevealed(seat, revealed, writeIds(hand, seat, revealed));
+            events.coinsCounted(seat, coins);
+        }
+        return coins;
+    }
+    
+    /**
+     * Buys a card for the current player, cleans up, deals the next hand and
+     * passes the turn.
+     *
+     * @param cardToBuy the ID of the card to buy, or -1 to buy nothing
+     */
+    private void finishTurn(int cardToBuy) {
+        int seat = currentSeat;
+        boolean logging = events != GameEventSink.NONE;
+        if (cardToBuy >= 0) {
+            if (--supply[cardToBuy] == 0) {
+                pileEmptied(cardToBuy);
+            }
+            gain(seat, cardToBuy);
+            if (logging) {
+                events.cardBought(seat, cardToBuy);
+            }
+        } else if (logging) {
+            events.nothingBought(seat);
+        }
+        
+        // Cleanup: the hand goes to the discard pile
+        moveAll(hand, discard, seat * types, types);
+        discardSize[seat] += handSize[seat];
+        handSize[seat] = 0;
+        
+        if (drawSize[seat] == 0 && discardSize[seat] > 0) {
+            reshuffle(seat);
+            if (logging) {
+                events.reshuffled(seat);
+            }
+        }
+        dealHand(seat);
+        
+        currentSeat = seat + 1 == players ? 0 : seat + 1;
+        turnCount++;
+    }
+    
+    /**
+     * Writes one of a seat's count piles out as card IDs in ID order.
+     *
+     * @param counts the pile counts, laid out as {@link #draw}
+     * @param seat the player's seat
+     * @param ids the array to fill; must hold the whole pile
+     * @return the number of cards written
+     */
+    private int writeIds(int[] counts, int seat, byte[] ids) {
+        int n = 0;
+        for (int id = 0; id < types; id++) {
+            for (int c = counts[seat * types + id]; c > 0; c--) {
+                ids[n++] = (byte) id;
+            }
+        }
+        return n;
+    }
+    
+    /**
+     * Tells every compiled buy table that a supply pile has run out.
+     *
+     * @param id the ID of the emptied card
+     */
+    private void pileEmptied(int id) {
+        for (BuyTable table : buyTables) {
+            if (table != null) {
+                table.pileEmptied(id);
+            }
+        }
+    }
+    
+    /**
+     * Adds a newly acquired card to a player's discard pile.
+     *
+     * @param seat the player's seat
+     * @param id the card ID
+     */
+    private void gain(int seat, int id) {
+        discard[seat * types + id]++;
+        discardSize[seat]++;
+        points[seat] += catalog.getPoints(id);
+    }
+    
+    /**
+     * Moves the discard pile onto the draw pile. The draw pile has no order, so
+     * there is nothing to shuffle.
+     *
+     * @param seat the player's seat
+     */
+    private void reshuffle(int seat) {
+        moveAll(discard, draw, seat * types, types);
+        drawSize[seat] += discardSize[seat];
+        discardSize[seat] = 0;
+    }
+    
+    /**
+     * Deals up to a full hand from a player's draw pile, sampling each card
+     * without replacement in proportion to the counts.
+     *
+     * @param seat the player's seat
+     */
+    private void dealHand(int seat) {
+        int count = Math.min(CompactGame.HAND_SIZE, drawSize[seat]);
+        int base = seat * types;
+        int size = drawSize[seat];
+        for (int i = 0; i < count; i++) {
+            int r = random.nextInt(size--);
+            // The card is the first type whose running total exceeds r; counting the
+            // totals at or below r scans every type but has no unpredictable branch
+            int id = base;
+            int total = 0;
+            for (int t = base; t < base + types - 1; t++) {
+                total += draw[t];
+                id += r >= total ? 1 : 0;
+            }
+            draw[id]--;
+            hand[id]++;
+        }
+        drawSize[seat] = size;
+        handSize[seat] = count;
+    }
+    
+    /**
+     * Adds a range of counts into another array at the same positions and clears
+     * the source range.
+     *
+     * @param from the counts to move
+     * @param to the counts to add them to
+     * @param offset the first position
+     * @param length the number of positions
+     */
+    static void moveAll(int[] from, int[] to, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            to[i] += from[i];
+            from[i] = 0;
+        }
+    }
+    
+    /**
+     * Weights a range of counts by a per-type value and sums them, e.g. the coins
+     * in a hand.
+     *
+     * @param counts the counts
+     * @param offset the position of type 0's count
+     * @param values the value of each type
+     * @param length the number of types
+     * @return the weighted sum
+     */
+    static int dot(int[] counts, int offset, int[] values, int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += counts[offset + i] * values[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,333 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streaming outcome statistics for any number of games, collected as a
+ * {@link GameEventSink} so that results never have to be kept around. Like
+ * {@link GameMetrics}, one instance is shared by every game on every thread and
+ * every aggregate is a fixed-size set of {@link LongAdder}s, so memory is the
+ * same after a hundred games as after a hundred million. It tracks
+ * <ul>
+ *   <li>the final Automation Points of every player, and of the winners;</li>
+ *   <li>game lengths in turns, with quantiles;</li>
+ *   <li>the round in which each player first bought the end card (Framework
+ *       in the standard cards), and how many never did;</li>
+ *   <li>purchases of each card by round, where a player's first turn is round 0.</li>
+ * </ul>
+ * Games must be played one at a time per thread, as every engine here does: the
+ * little state a game in progress needs is kept per thread. Snapshots are
+ * written with {@link #toCsv()} and {@link #toJson()}, and periodically to a
+ * file by an {@link AnalyticsExporter}.
+ */
+final class GameAnalytics implements GameEventSink {
+    /** Sub-bucket bits of the histograms: exact up to 128, then within 1% */
+    private static final int PRECISION = 7;
+    /** Largest value the histograms track without clamping */
+    private static final long MAX_VALUE = 1 << 16;
+    /** Purchases in this round or later share the last round's counts */
+    static final int MAX_ROUND = 100;
+    /** Quantiles included in snapshots */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    
+    /** The card types in play */
+    private final CardCatalog catalog;
+    /** Final Automation Points of every player */
+    private final StreamingHistogram points = new StreamingHistogram(PRECISION, MAX_VALUE);
+    /** Final Automation Points of the winner of each untied game */
+    private final StreamingHistogram winningPoints = new StreamingHistogram(PRECISION, MAX_VALUE);
+    /** Turns per game */
+    private final StreamingHistogram turns = new StreamingHistogram(PRECISION, MAX_VALUE);
+    /** Round of each player's first end card purchase */
+    private final StreamingHistogram firstEndCard = new StreamingHistogram(PRECISION, MAX_VALUE);
+    /** Players who finished a game without buying the end card */
+    private final LongAdder neverBoughtEndCard = new LongAdder();
+    /** Tied games */
+    private final LongAdder ties = new LongAdder();
+    /** Copies bought, indexed by {@code id * (MAX_ROUND + 1) + round} */
+    private final LongAdder[] purchases;
+    /** The game in progress on each thread */
+    private final ThreadLocal<GameInProgress> current = ThreadLocal.withInitial(GameInProgress::new);
+    
+    /**
+     * The per-game state of the game a thread is playing.
+     */
+    private static final class GameInProgress {
+        /** Players in the game */
+        int players = 1;
+        /** Turns completed before the current one */
+        int turn;
+        /** Round of each seat's first end card purchase, or -1 */
+        int[] firstEndCard = new int[0];
+    }
+    
+    /**
+     * Constructs empty analytics for games over the given catalog.
+     *
+     * @param catalog the card types in play
+     */
+    GameAnalytics(CardCatalog catalog) {
+        this.catalog = catalog;
+        purchases = new LongAdder[catalog.size() * (MAX_ROUND + 1)];
+        for (int i = 0; i < purchases.length; i++) {
+            purchases[i] = new LongAdder();
+        }
+    }
+    
+    @Override
+    public void gameStarted(int players) {
+        GameInProgress game = current.get();
+        game.players = players;
+        game.turn = 0;
+        if (game.firstEndCard.length < players) {
+            game.firstEndCard = new int[players];
+        }
+        Arrays.fill(game.firstEndCard, -1);
+    }
+    
+    @Override
+    public void turnStarted(int turn, int seat) {
+        current.get().turn = turn;
+    }
+    
+    @Override
+    public void cardBought(int seat, int cardId) {
+        GameInProgress game = current.get();
+        int round = game.turn / game.players;
+        purchases[cardId * (MAX_ROUND + 1) + Math.min(round, MAX_ROUND)].increment();
+        if (cardId == catalog.getEndCard() && game.firstEndCard[seat] < 0) {
+            game.firstEndCard[seat] = round;
+        }
+    }
+    
+    @Override
+    public void gameEnded(GameResult result) {
+        GameInProgress game = current.get();
+        turns.record(result.getTurns());
+        for (int seat = 0; seat < result.getPlayerCount(); seat++) {
+            points.record(result.getPoints(seat));
+            int round = seat < game.firstEndCard.length ? game.firstEndCard[seat] : -1;
+            if (round >= 0) {
+                firstEndCard.record(round);
+            } else {
+                neverBoughtEndCard.increment();
+            }
+        }
+        int winner = result.getWinner();
+        if (winner >= 0) {
+            winningPoints.record(result.getPoints(winner));
+        } else {
+            ties.increment();
+        }
+    }
+    
+    /**
+     * Gets the number of games finished.
+     *
+     * @return the game count
+     */
+    long getGames() {
+        return turns.getCount();
+    }
+    
+    /**
+     * Gets the distribution of game lengths.
+     *
+     * @return the histogram of turns per game
+     */
+    StreamingHistogram getTurns() {
+        return turns;
+    }
+    
+    /**
+     * Gets the distribution of every player's final Automation Points.
+     *
+     * @return the histogram of final points
+     */
+    StreamingHistogram getPoints() {
+        return points;
+    }
+    
+    /**
+     * Gets the distribution of the winners' final Automation Points.
+     *
+     * @return the histogram of winning points, over untied games
+     */
+    StreamingHistogram getWinningPoints() {
+        return winningPoints;
+    }
+    
+    /**
+     * Gets the distribution of the round in which players first bought the end card.
+     *
+     * @return the histogram of rounds, over players who bought one
+     */
+    StreamingHistogram getFirstEndCardRounds() {
+        return firstEndCard;
+    }
+    
+    /**
+     * Gets the number of players who finished a game without the end card.
+     *
+     * @return the count
+     */
+    long getNeverBoughtEndCard() {
+        return neverBoughtEndCard.sum();
+    }
+    
+    /**
+     * Gets the number of copies of a card bought in a round.
+     *
+     * @param cardId the card ID
+     * @param round the round, where {@link #MAX_ROUND} also counts every later one
+     * @return the purchase count
+     */
+    long getPurchases(int cardId, int round) {
+        return purchases[cardId * (MAX_ROUND + 1) + round].sum();
+    }
+    
+    /**
+     * Zeroes every aggregate. A game that is under way is still counted in full
+     * when it ends, except for the purchases it made before the reset, which are
+     * tallied by round as they happen.
+     */
+    void reset() {
+        for (StreamingHistogram histogram : new StreamingHistogram[] {points, winningPoints, turns, firstEndCard}) {
+            histogram.reset();
+        }
+        neverBoughtEndCard.reset();
+        ties.reset();
+        for (LongAdder adder : purchases) {
+            adder.reset();
+        }
+    }
+    
+    /**
+     * Writes a snapshot as CSV with the columns {@code metric,key,value}. Each
+     * histogram gives its count, mean, max and quantiles followed by one row per
+     * non-empty bucket keyed by the bucket's lowest value; purchases give one row
+     * per card and non-empty round, under the metric {@code purchases.<card>}.
+     *
+     * @return the CSV text, with a header row
+     */
+    String toCsv() {
+        StringBuilder sb = new StringBuilder("metric,key,value\n");
+        sb.append("games,,").append(getGames()).append('\n');
+        sb.append("ties,,").append(ties.sum()).append('\n');
+        sb.append("firstEndCard,never,").append(neverBoughtEndCard.sum()).append('\n');
+        csv(sb, "turns", turns);
+        csv(sb, "points", points);
+        csv(sb, "winningPoints", winningPoints);
+        csv(sb, "firstEndCard", firstEndCard);
+        for (int id = 0; id < catalog.size(); id++) {
+            for (int round = 0; round <= MAX_ROUND; round++) {
+                long count = getPurchases(id, round);
+                if (count > 0) {
+                    sb.append("purchases.").append(catalog.getName(id)).append(',')
+                        .append(round).append(',').append(count).append('\n');
+                }
+            }
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Writes a snapshot as one JSON object. Histograms are objects with their
+     * summary statistics and a {@code buckets} array of {@code [lowestValue, count]}
+     * pairs; purchases map each card name to an array of counts by round.
+     *
+     * @return the JSON text
+     */
+    String toJson() {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"games\":").append(getGames());
+        sb.append(",\"ties\":").append(ties.sum());
+        sb.append(",\"endCard\":\"").append(catalog.getName(catalog.getEndCard())).append('"');
+        sb.append(",\"neverBoughtEndCard\":").append(neverBoughtEndCard.sum());
+        json(sb.append(",\"turns\":"), turns);
+        json(sb.append(",\"points\":"), points);
+        json(sb.append(",\"winningPoints\":"), winningPoints);
+        json(sb.append(",\"firstEndCard\":"), firstEndCard);
+        sb.append(",\"purchasesByRound\":{");
+        for (int id = 0; id < catalog.size(); id++) {
+            sb.append(id == 0 ? "\"" : ",\"").append(catalog.getName(id)).append("\":[");
+            for (int round = 0; round <= MAX_ROUND; round++) {
+                sb.append(round == 0 ? "" : ",").append(getPurchases(id, round));
+            }
+            sb.append(']');
+        }
+        return sb.append("}}").toString();
+    }
+    
+    /**
+     * Appends a histogram's CSV rows.
+     *
+     * @param sb where to append
+     * @param metric the metric column
+     * @param histogram the histogram
+     */
+    private static void csv(StringBuilder sb, String metric, StreamingHistogram histogram) {
+        sb.append(metric).append(",count,").append(histogram.getCount()).append('\n');
+        sb.append(metric).append(",mean,").append(format(histogram.getMean())).append('\n');
+        sb.append(metric).append(",max,").append(histogram.getMax()).append('\n');
+        for (double q : QUANTILES) {
+            sb.append(metric).append(",p").append(percent(q)).append(',')
+                .append(histogram.quantile(q)).append('\n');
+        }
+        long[] counts = histogram.getCounts();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                sb.append(metric).append(',').append(histogram.lowestValue(i)).append(',')
+                    .append(counts[i]).append('\n');
+            }
+        }
+    }
+    
+    /**
+     * Appends a histogram as a JSON object.
+     *
+     * @param sb where to append
+     * @param histogram the histogram
+     */
+    private static void json(StringBuilder sb, StreamingHistogram histogram) {
+        sb.append("{\"count\":").append(histogram.getCount());
+        sb.append(",\"mean\":").append(format(histogram.getMean()));
+        sb.append(",\"max\":").append(histogram.getMax());
+        for (double q : QUANTILES) {
+            sb.append(",\"p").append(percent(q)).append("\":").append(histogram.quantile(q));
+        }
+        sb.append(",\"buckets\":[");
+        long[] counts = histogram.getCounts();
+        boolean first = true;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                sb.append(first ? "[" : ",[").append(histogram.lowestValue(i)).append(',')
+                    .append(counts[i]).append(']');
+                first = false;
+            }
+        }
+        sb.append("]}");
+    }
+    
+    /**
+     * Formats a mean independently of the default locale.
+     *
+     * @param value the value
+     * @return the value with four decimals
+     */
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+    
+    /**
+     * Names a quantile as a whole percentile, e.g. 0.99 as 99.
+     *
+     * @param q the quantile
+     * @return the percentile
+     */
+    private static long percent(double q) {
+        return Math.round(q * 100);
+    }
+}
@@ -0,0 +1,454 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.random.RandomGenerator;
+
+/**
+ * A fixed number of silent games held side by side in structure-of-arrays form
+ * and advanced one turn at a time in lockstep. Piles are per-type card counts as
+ * in {@link CountGame}; the count of card {@code id} in one pile of seat
+ * {@code s} is stored for every game in a contiguous row at
+ * {@code (s * types + id) * size}, and supplies, scores, pile sizes, seats and
+ * turn counters are arrays indexed by game. Each phase of a turn (count coins,
+ * choose and buy, clean up, reshuffle, deal) is one loop over all games, so the
+ * per-game state the loop touches sits in a few dense arrays.
+ *
+ * <p>Buy decisions come from the seats' compiled {@link BuyTable}s, precomputed
+ * for every combination of empty supply piles, so a choice is one lookup keyed
+ * by the game's empty-pile mask and coins. Games follow exactly the rules of
+ * {@link CompactGame} with the same strategies, so outcomes have the same
+ * distribution, but all games draw from one generator in lockstep order and do
+ * not replay individual seeds.
+ */
+final class GameBatch {
+    /** Most card types the empty-pile tables support */
+    static final int MAX_TYPES = 10;
+    
+    /** The card types in play */
+    private final CardCatalog catalog;
+    /** The number of players */
+    private final int players;
+    /** The number of card types */
+    private final int types;
+    /** The number of game slots */
+    private final int size;
+    /** Coin value of each card ID */
+    private final int[] coinValues;
+    /** Entries per empty-pile mask in the choice tables: one per coin amount up to the highest cost */
+    private final int stride;
+    /** Card to buy per seat, indexed by {@code mask * stride + coins}, or -1 for none */
+    private final byte[][] choices;
+    /** Remaining supply of card {@code id} in game {@code g} at {@code id * size + g} */
+    private final int[] supply;
+    /** Draw pile counts at {@code (seat * types + id) * size + g} */
+    private final int[] draw;
+    /** Discard pile counts, laid out as {@link #draw} */
+    private final int[] discard;
+    /** Hand counts, laid out as {@link #draw} */
+    private final int[] hand;
+    /** Draw pile sizes at {@code seat * size + g} */
+    private final int[] drawSize;
+    /** Discard pile sizes, laid out as {@link #drawSize} */
+    private final int[] discardSize;
+    /** Hand sizes, laid out as {@link #drawSize} */
+    private final int[] handSize;
+    /** Automation Points, laid out as {@link #drawSize} */
+    private final int[] points;
+    /** Bit i is set when card ID i's supply pile is empty, per game */
+    private final int[] emptyPiles;
+    /** The seat to move, per game */
+    private final int[] currentSeat;
+    /** Turns played, per game */
+    private final int[] turnCount;
+    /** Whether the slot holds a game in progress */
+    private final boolean[] active;
+    /** Scratch: offset of the current seat's rows, per game */
+    private final int[] seatBase;
+    /** Scratch: the current player's coins, per game */
+    private final int[] coins;
+    /** Scratch: all bits set for games that take a turn this step, none for the rest */
+    private final int[] live;
+    /** Scratch: no bits set for games that reshuffle this step, all for the rest */
+    private final int[] keep;
+    
+    /**
+     * Constructs a batch of games in which every player uses the built-in buy heuristic.
+     *
+     * @param catalog the card types in play, at most {@link #MAX_TYPES}
+     * @param players the number of players, at least 2
+     * @param size the number of games played side by side
+     */
+    GameBatch(CardCatalog catalog, int players, int size) {
+        this(catalog, size, Collections.nCopies(players, ScoredStrategy.GREEDY).toArray(new Strategy[0]));
+    }
+    
+    /**
+     * Constructs a batch of games with one player per strategy, in seat order.
+     *
+     * @param catalog the card types in play, at most {@link #MAX_TYPES}
+     * @param size the number of games played side by side, at least 1
+     * @param strategies the strategy of each seat, at least two, each with a {@link CardScorer}
+     * @throws IllegalArgumentException if a strategy cannot be compiled into a table
+     *         or the catalog has too many card types
+     */
+    GameBatch(CardCatalog catalog, int size, Strategy... strategies) {
+        if (strategies.length < 2) {
+            throw new IllegalArgumentException("A game needs at least two players");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be at least 1");
+        }
+        if (catalog.size() > MAX_TYPES) {
+            throw new IllegalArgumentException("GameBatch supports at most " + MAX_TYPES + " card types");
+        }
+        this.catalog = catalog;
+        this.players = strategies.length;
+        this.types = catalog.size();
+        this.size = size;
+        coinValues = new int[types];
+        for (int id = 0; id < types; id++) {
+            coinValues[id] = catalog.getCoinValue(id);
+        }
+        stride = catalog.getMaxCost() + 1;
+        choices = new byte[players][];
+        for (int seat = 0; seat < players; seat++) {
+            choices[seat] = compileChoices(strategies[seat]);
+        }
+        supply = new int[types * size];
+        draw = new int[players * types * size];
+        discard = new int[players * types * size];
+        hand = new int[players * types * size];
+        drawSize = new int[players * size];
+        discardSize = new int[players * size];
+        handSize = new int[players * size];
+        points = new int[players * size];
+        emptyPiles = new int[size];
+        currentSeat = new int[size];
+        turnCount = new int[size];
+        active = new boolean[size];
+        seatBase = new int[size];
+        coins = new int[size];
+        live = new int[size];
+        keep = new int[size];
+    }
+    
+    /**
+     * Tabulates a strategy's choice for every set of empty piles and coin amount,
+     * by replaying the piles' exhaustion on its {@link BuyTable}.
+     *
+     * @param strategy the strategy
+     * @return the choices, indexed by {@code mask * stride + coins}
+     */
+    private byte[] compileChoices(Strategy strategy) {
+        if (BuyTable.compile(catalog, strategy) == null) {
+            throw new IllegalArgumentException(strategy.getName() + " has no CardScorer");
+        }
+        byte[] table = new byte[(1 << types) * stride];
+        for (int mask = 0; mask < 1 << types; mask++) {
+            BuyTable buy = BuyTable.compile(catalog, strategy);
+            for (int id = 0; id < types; id++) {
+                if ((mask & (1 << id)) != 0) {
+                    buy.pileEmptied(id);
+                }
+            }
+            for (int c = 0; c < stride; c++) {
+                table[mask * stride + c] = (byte) buy.choose(c);
+            }
+        }
+        return table;
+    }
+    
+    /**
+     * Plays the given number of games, restarting each slot as its game ends
+     * until all have been started, and tallies their outcomes.
+     *
+     * @param games the number of games to play
+     * @param random the generator for every game's draws
+     * @return the tallies
+     */
+    SimulationResult play(long games, RandomGenerator random) {
+        SimulationResult result = new SimulationResult(players);
+        long started = 0;
+        for (int g = 0; g < size; g++) {
+            active[g] = started < games;
+            if (active[g]) {
+                reset(g, random);
+                started++;
+            }
+        }
+        int running = (int) Math.min(size, games);
+        while (running > 0) {
+            step(random);
+            int end = catalog.getEndCard() * size;
+            for (int g = 0; g < size; g++) {
+                if (active[g] && supply[end + g] == 0) {
+                    result.record(new GameResult(getPoints(g), turnCount[g]));
+                    if (started < games) {
+                        reset(g, random);
+                        started++;
+                    } else {
+                        active[g] = false;
+                        running--;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Plays one turn of every game in progress. Slots whose game has ended are
+     * left as they are.
+     *
+     * @param random the generator for the deals
+     */
+    void step(RandomGenerator random) {
+        int rows = types * size;
+        int end = catalog.getEndCard() * size;
+        for (int g = 0; g < size; g++) {
+            seatBase[g] = currentSeat[g] * rows + g;
+            coins[g] = 0;
+            live[g] = active[g] && supply[end + g] > 0 ? -1 : 0;
+        }
+        
+        // Count coins, one card type at a time across all games
+        for (int id = 0; id < types; id++) {
+            int value = coinValues[id];
+            if (value == 0) {
+                continue;
+            }
+            int row = id * size;
+            for (int g = 0; g < size; g++) {
+                coins[g] += hand[seatBase[g] + row] * value;
+            }
+        }
+        
+        // Choose and buy
+        for (int g = 0; g < size; g++) {
+            if (live[g] == 0) {
+                continue;
+            }
+            int seat = currentSeat[g];
+            int card = choices[seat][emptyPiles[g] * stride + Math.min(coins[g], stride - 1)];
+            if (card >= 0) {
+                if (--supply[card * size + g] == 0) {
+                    emptyPiles[g] |= 1 << card;
+                }
+                discard[seatBase[g] + card * size]++;
+                discardSize[seat * size + g]++;
+                points[seat * size + g] += catalog.getPoints(card);
+            }
+        }
+        
+        // Cleanup: the hand goes to the discard pile
+        for (int id = 0; id < types; id++) {
+            int row = id * size;
+            for (int g = 0; g < size; g++) {
+                int i = seatBase[g] + row;
+                discard[i] += hand[i] & live[g];
+                hand[i] &= ~live[g];
+            }
+        }
+        for (int g = 0; g < size; g++) {
+            int i = currentSeat[g] * size + g;
+            discardSize[i] += handSize[i] & live[g];
+            handSize[i] &= ~live[g];
+        }
+        
+        // Reshuffle where the draw pile is empty
+        for (int g = 0; g < size; g++) {
+            keep[g] = drawSize[currentSeat[g] * size + g] == 0 ? ~live[g] : -1;
+        }
+        for (int id = 0; id < types; id++) {
+            int row = id * size;
+            for (int g = 0; g < size; g++) {
+                int i = seatBase[g] + row;
+                draw[i] += discard[i] & ~keep[g];
+                discard[i] &= keep[g];
+            }
+        }
+        for (int g = 0; g < size; g++) {
+            int i = currentSeat[g] * size + g;
+            drawSize[i] += discardSize[i] & ~keep[g];
+            discardSize[i] &= keep[g];
+        }
+        
+        // Deal, then pass the turn
+        for (int g = 0; g < size; g++) {
+            if (live[g] != 0) {
+                deal(g, currentSeat[g], random);
+                currentSeat[g] = currentSeat[g] + 1 == players ? 0 : currentSeat[g] + 1;
+                turnCount[g]++;
+            }
+        }
+    }
+    
+    /**
+     * Starts a new game in a slot: refills its supply, gives every player a
+     * starter deck, deals the first hands and picks the starting player.
+     *
+     * @param g the game slot
+     * @param random the generator for the deals and the starting player
+     */
+    void reset(int g, RandomGenerator random) {
+        active[g] = true;
+        emptyPiles[g] = 0;
+        for (int id = 0; id < types; id++) {
+            supply[id * size + g] = catalog.getQuantity(id, players);
+        }
+        for (int seat = 0; seat < players; seat++) {
+            int base = seat * types * size + g;
+            for (int id = 0; id < types; id++) {
+                int i = base + id * size;
+                draw[i] = 0;
+                discard[i] = 0;
+                hand[i] = 0;
+            }
+            int s = seat * size + g;
+            points[s] = 0;
+            int cards = 0;
+            for (int k = 0; k < catalog.getStarterSize(); k++) {
+                int id = catalog.getStarterCard(k);
+                if (supply[id * size + g] > 0) {
+                    supply[id * size + g]--;
+                    draw[base + id * size]++;
+                    points[s] += catalog.getPoints(id);
+                    cards++;
+                }
+            }
+            drawSize[s] = cards;
+            discardSize[s] = 0;
+            handSize[s] = 0;
+            deal(g, seat, random);
+        }
+        for (int id = 0; id < types; id++) {
+            if (supply[id * size + g] == 0) {
+                emptyPiles[g] |= 1 << id;
+            }
+        }
+        turnCount[g] = 0;
+        currentSeat[g] = domination.chooseStartingSeat(random, players);
+    }
+    
+    /**
+     * Deals up to a full hand from a player's draw pile, sampling each card
+     * without replacement in proportion to the counts.
+     *
+     * @param g the game slot
+     * @param seat the player's seat
+     * @param random the generator for the draws
+     */
+    private void deal(int g, int seat, RandomGenerator random) {
+        int s = seat * size + g;
+        int count = Math.min(CompactGame.HAND_SIZE, drawSize[s]);
+        int base = seat * types * size + g;
+        int last = base + (types - 1) * size;
+        int left = drawSize[s];
+        for (int k = 0; k < count; k++) {
+            int r = random.nextInt(left--);
+            // Branch-free search for the first type whose running total exceeds r
+            int i = base;
+            int total = 0;
+            for (int t = base; t < last; t += size) {
+                total += draw[t];
+                i += r >= total ? size : 0;
+            }
+            draw[i]--;
+            hand[i]++;
+        }
+        drawSize[s] = left;
+        handSize[s] = count;
+    }
+    
+    /**
+     * Gets the number of game slots.
+     *
+     * @return the batch size
+     */
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Checks whether a slot's game has ended.
+     *
+     * @param g the game slot
+     * @return true once the end card's supply pile is empty
+     */
+    boolean isGameOver(int g) {
+        return supply[catalog.getEndCard() * size + g] == 0;
+    }
+    
+    /**
+     * Gets the number of turns a slot's game has played.
+     *
+     * @param g the game slot
+     * @return the turn count
+     */
+    int getTurnCount(int g) {
+        return turnCount[g];
+    }
+    
+    /**
+     * Gets every player's Automation Points in a slot's game.
+     *
+     * @param g the game slot
+     * @return the points of each seat
+     */
+    int[] getPoints(int g) {
+        int[] result = new int[players];
+        for (int seat = 0; seat < players; seat++) {
+            result[seat] = points[seat * size + g];
+        }
+        return result;
+    }
+    
+    /**
+     * Gets the remaining supply of a card in a slot's game.
+     *
+     * @param g the game slot
+     * @param id the card ID
+     * @return the number of copies left
+     */
+    int getSupplyCount(int g, int id) {
+        return supply[id * size + g];
+    }
+    
+    /**
+     * Gets the number of cards a player owns in a slot's game.
+     *
+     * @param g the game slot
+     * @param seat the player's seat
+     * @return the size of the player's deck across all piles
+     */
+    int getDeckSize(int g, int seat) {
+        int s = seat * size + g;
+        return drawSize[s] + discardSize[s] + handSize[s];
+    }
+    
+    /**
+     * Counts a card in a player's piles in a slot's game.
+     *
+     * @param g the game slot
+     * @param seat the player's seat
+     * @param id the card ID
+     * @return the copies across the draw pile, discard pile and hand
+     */
+    int getCardCount(int g, int seat, int id) {
+        int i = (seat * types + id) * size + g;
+        return draw[i] + discard[i] + hand[i];
+    }
+    
+    /**
+     * Restarts every slot with a new game, e.g. before stepping the batch by hand.
+     *
+     * @param random the generator for the deals and starting players
+     */
+    void resetAll(RandomGenerator random) {
+        Arrays.fill(active, true);
+        for (int g = 0; g < size; g++) {
+            reset(g, random);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * Receives the structured events of a game as it is played.
+ * Events carry only primitives and arrays owned by the engine, which are valid
+ * only for the duration of the call. All methods default to doing nothing, so
+ * a sink overrides just the events it cares about. Engines check for
+ * {@link #NONE} once and skip building event arguments entirely when logging is off,
+ * and only read the clock for {@link #decisionTimed} when the sink
+ * {@link #timesDecisions() asks for it}.
+ */
+interface GameEventSink {
+    /** A sink that ignores every event */
+    GameEventSink NONE = new GameEventSink() { };
+    
+    /**
+     * Combines two sinks, e.g. to collect {@link GameMetrics} and
+     * {@link GameAnalytics} from the same games. Decisions are timed if either
+     * sink asks for it.
+     *
+     * @param first the sink that receives each event first
+     * @param second the sink that receives each event next
+     * @return a sink forwarding every event to both
+     */
+    static GameEventSink both(GameEventSink first, GameEventSink second) {
+        return new GameEventSink() {
+            @Override
+            public void gameStarted(int players) {
+                first.gameStarted(players);
+                second.gameStarted(players);
+            }
+            
+            @Override
+            public void turnStarted(int turn, int seat) {
+                first.turnStarted(turn, seat);
+                second.turnStarted(turn, seat);
+            }
+            
+            @Override
+            public void handRevealed(int seat, byte[] hand, int size) {
+                first.handRevealed(seat, hand, size);
+                second.handRevealed(seat, hand, size);
+            }
+            
+            @Override
+            public void coinsCounted(int seat, int coins) {
+                first.coinsCounted(seat, coins);
+                second.coinsCounted(seat, coins);
+            }
+            
+            @Override
+            public void cardBought(int seat, int cardId) {
+                first.cardBought(seat, cardId);
+                second.cardBought(seat, cardId);
+            }
+            
+            @Override
+            public void decisionTimed(int seat, long nanos) {
+                first.decisionTimed(seat, nanos);
+                second.decisionTimed(seat, nanos);
+            }
+            
+            @Override
+            public boolean timesDecisions() {
+                return first.timesDecisions() || second.timesDecisions();
+            }
+            
+            @Override
+            public void nothingBought(int seat) {
+                first.nothingBought(seat);
+                second.nothingBought(seat);
+            }
+            
+            @Override
+            public void reshuffled(int seat) {
+                first.reshuffled(seat);
+                second.reshuffled(seat);
+            }
+            
+            @Override
+            public void gameEnded(GameResult result) {
+                first.gameEnded(result);
+                second.gameEnded(result);
+            }
+        };
+    }
+    
+    /**
+     * Called when the game loop starts.
+     *
+     * @param players the number of players
+     */
+    default void gameStarted(int players) {
+    }
+    
+    /**
+     * Called at the start of each turn.
+     *
+     * @param turn the number of turns completed before this one
+     * @param seat the seat taking the turn (0 = Player 1)
+     */
+    default void turnStarted(int turn, int seat) {
+    }
+    
+    /**
+     * Called with the current player's hand at the start of the buy phase.
+     *
+     * @param seat the player's seat
+     * @param hand the card IDs in hand, in the order they were dealt
+     * @param size the number of valid entries in {@code hand}
+     */
+    default void handRevealed(int seat, byte[] hand, int size) {
+    }
+    
+    /**
+     * Called with the coins the current player can spend.
+     *
+     * @param seat the player's seat
+     * @param coins the coins in hand
+     */
+    default void coinsCounted(int seat, int coins) {
+    }
+    
+    /**
+     * Called when the current player buys a card.
+     *
+     * @param seat the player's seat
+     * @param cardId the ID of the card bought
+     */
+    default void cardBought(int seat, int cardId) {
+    }
+    
+    /**
+     * Called with the time the current player's strategy took to choose a card,
+     * if {@link #timesDecisions()} is true.
+     *
+     * @param seat the player's seat
+     * @param nanos the decision time in nanoseconds
+     */
+    default void decisionTimed(int seat, long nanos) {
+    }
+    
+    /**
+     * Tells the engine whether to time each buy decision. Engines ask once, when
+     * the sink is attached.
+     *
+     * @return true to receive {@link #decisionTimed} events
+     */
+    default boolean timesDecisions() {
+        return false;
+    }
+    
+    /**
+     * Called when the current player buys nothing.
+     *
+     * @param seat the player's seat
+     */
+    default void nothingBought(int seat) {
+    }
+    
+    /**
+     * Called when a player's discard pile is shuffled into a new draw pile.
+     *
+     * @param seat the player's seat
+     */
+    default void reshuffled(int seat) {
+    }
+    
+    /**
+     * Called once the game has ended and been scored.
+     *
+     * @param result the final scores and length of the game
+     */
+    default void gameEnded(GameResult result) {
+    }
+}
@@ -0,0 +1,271 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Runtime counters and histograms for games played under load, collected as a
+ * {@link GameEventSink}. One instance is meant to be shared by every game on
+ * every thread: all counters are {@link LongAdder}s, which stripe their updates
+ * across cells so that concurrent games never contend on a single counter.
+ * Attach it with {@code setEventSink} to each game to be measured; games without
+ * it pay nothing. The totals can be read directly, through JMX after
+ * {@link #register(String)}, or as periodic dumps from a {@link MetricsReporter}.
+ *
+ * <p>The game ends when the end card's supply pile runs out, so the depletion
+ * turn is the length of each finished game.
+ */
+final class GameMetrics implements GameEventSink, GameMetricsMBean {
+    /** Sub-bucket bits of the decision time histogram: within 1/16 of the true time */
+    private static final int TIME_PRECISION = 4;
+    /** Decision times at or above this, one minute in nanoseconds, share the last bucket */
+    private static final long MAX_DECISION_NANOS = 60_000_000_000L;
+    /** Sub-bucket bits of the depletion turn histogram: exact below 512 */
+    private static final int TURN_PRECISION = 9;
+    /** Depletion turns at or above this share the last bucket */
+    private static final int MAX_TURN = 512;
+    
+    /** The card types in play */
+    private final CardCatalog catalog;
+    /** Games finished */
+    private final LongAdder games = new LongAdder();
+    /** Turns started */
+    private final LongAdder turns = new LongAdder();
+    /** Discard piles reshuffled */
+    private final LongAdder reshuffles = new LongAdder();
+    /** Turns in which nothing was bought */
+    private final LongAdder passes = new LongAdder();
+    /** Copies bought, indexed by card ID */
+    private final LongAdder[] purchases;
+    /** Buy decision times in nanoseconds */
+    private final StreamingHistogram decisionTimes = new StreamingHistogram(TIME_PRECISION, MAX_DECISION_NANOS);
+    /** Depletion turns of finished games */
+    private final StreamingHistogram depletionTurns = new StreamingHistogram(TURN_PRECISION, MAX_TURN);
+    /** When the counters were last zeroed, for the rates */
+    private volatile long startNanos = System.nanoTime();
+    /** The name this instance is registered under, or null */
+    private ObjectName name;
+    
+    /**
+     * Constructs zeroed metrics for games over the given catalog.
+     *
+     * @param catalog the card types in play
+     */
+    GameMetrics(CardCatalog catalog) {
+        this.catalog = catalog;
+        purchases = new LongAdder[catalog.size()];
+        fill(purchases);
+    }
+    
+    @Override
+    public void turnStarted(int turn, int seat) {
+        turns.increment();
+    }
+    
+    @Override
+    public void cardBought(int seat, int cardId) {
+        purchases[cardId].increment();
+    }
+    
+    @Override
+    public void nothingBought(int seat) {
+        passes.increment();
+    }
+    
+    @Override
+    public void reshuffled(int seat) {
+        reshuffles.increment();
+    }
+    
+    @Override
+    public void decisionTimed(int seat, long nanos) {
+        decisionTimes.record(nanos);
+    }
+    
+    @Override
+    public boolean timesDecisions() {
+        return true;
+    }
+    
+    @Override
+    public void gameEnded(GameResult result) {
+        games.increment();
+        depletionTurns.record(result.getTurns());
+    }
+    
+    @Override
+    public long getGames() {
+        return games.sum();
+    }
+    
+    @Override
+    public long getTurns() {
+        return turns.sum();
+    }
+    
+    @Override
+    public long getReshuffles() {
+        return reshuffles.sum();
+    }
+    
+    @Override
+    public long getDecisions() {
+        return decisionTimes.getCount();
+    }
+    
+    @Override
+    public double getGamesPerSecond() {
+        return games.sum() / elapsedSeconds();
+    }
+    
+    @Override
+    public double getTurnsPerSecond() {
+        return turns.sum() / elapsedSeconds();
+    }
+    
+    @Override
+    public double getReshufflesPerGame() {
+        long finished = games.sum();
+        return finished == 0 ? 0 : (double) reshuffles.sum() / finished;
+    }
+    
+    @Override
+    public String[] getCardNames() {
+        String[] names = new String[catalog.size()];
+        for (int id = 0; id < names.length; id++) {
+            names[id] = catalog.getName(id);
+        }
+        return names;
+    }
+    
+    @Override
+    public long[] getPurchases() {
+        long[] counts = new long[purchases.length];
+        for (int id = 0; id < counts.length; id++) {
+            counts[id] = purchases[id].sum();
+        }
+        return counts;
+    }
+    
+    @Override
+    public long getPasses() {
+        return passes.sum();
+    }
+    
+    @Override
+    public double getMeanDecisionNanos() {
+        return decisionTimes.getMean();
+    }
+    
+    @Override
+    public long getDecisionNanosP50() {
+        return decisionTimes.quantile(0.5);
+    }
+    
+    @Override
+    public long getDecisionNanosP99() {
+        return decisionTimes.quantile(0.99);
+    }
+    
+    @Override
+    public double getMeanDepletionTurn() {
+        return depletionTurns.getMean();
+    }
+    
+    @Override
+    public long getDepletionTurnP50() {
+        return depletionTurns.quantile(0.5);
+    }
+    
+    @Override
+    public long getDepletionTurnP90() {
+        return depletionTurns.quantile(0.9);
+    }
+    
+    /**
+     * Zeroes every counter and restarts the rate clock, so that the rates from
+     * then on cover only the new interval, e.g. between JConsole readings.
+     */
+    @Override
+    public void reset() {
+        games.reset();
+        turns.reset();
+        reshuffles.reset();
+        passes.reset();
+        decisionTimes.reset();
+        depletionTurns.reset();
+        for (LongAdder adder : purchases) {
+            adder.reset();
+        }
+        startNanos = System.nanoTime();
+    }
+    
+    /**
+     * Registers these metrics with the platform MBean server, e.g. for JConsole.
+     *
+     * @param label the {@code name} key of the object name, to tell several instances apart
+     * @throws JMException if the name is invalid or already taken
+     */
+    synchronized void register(String label) throws JMException {
+        ObjectName objectName = new ObjectName("edu.brandeis.cosi103a.ip1:type=GameMetrics,name=" + label);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        name = objectName;
+    }
+    
+    /**
+     * Removes these metrics from the platform MBean server, if registered.
+     *
+     * @throws JMException if the server cannot unregister them
+     */
+    synchronized void unregister() throws JMException {
+        if (name != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            name = null;
+        }
+    }
+    
+    /**
+     * Summarizes the totals on one line, for periodic dumps.
+     *
+     * @return the counters, rates and percentiles
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("games=%d turns=%d games/s=%.1f turns/s=%.1f reshuffles/game=%.2f"
+                + " decision_ns(mean=%.0f p50=%d p99=%d) depletion_turn(mean=%.1f p50=%d p90=%d) buys:",
+            getGames(), getTurns(), getGamesPerSecond(), getTurnsPerSecond(), getReshufflesPerGame(),
+            getMeanDecisionNanos(), getDecisionNanosP50(), getDecisionNanosP99(),
+            getMeanDepletionTurn(), getDepletionTurnP50(), getDepletionTurnP90()));
+        for (int id = 0; id < purchases.length; id++) {
+            sb.append(' ').append(catalog.getName(id)).append('=').append(purchases[id].sum());
+        }
+        return sb.append(" pass=").append(passes.sum()).toString();
+    }
+    
+    /**
+     * Gets the time since the counters were last zeroed.
+     *
+     * @return the elapsed time in seconds, never zero
+     */
+    private double elapsedSeconds() {
+        return Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+    }
+    
+    /**
+     * Fills an array with zeroed adders.
+     *
+     * @param adders the array to fill
+     */
+    private static void fill(LongAdder[] adders) {
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * JMX management interface of {@link GameMetrics}. Every attribute is read from
+ * live counters, so a JMX console sees the totals of games still in progress.
+ * Standard MBean interfaces must be public.
+ */
+public interface GameMetricsMBean {
+    /**
+     * Gets the number of games finished.
+     *
+     * @return the game count
+     */
+    long getGames();
+    
+    /**
+     * Gets the number of turns started.
+     *
+     * @return the turn count
+     */
+    long getTurns();
+    
+    /**
+     * Gets the number of discard piles shuffled into new draw piles.
+     *
+     * @return the reshuffle count
+     */
+    long getReshuffles();
+    
+    /**
+     * Gets the number of buy decisions timed.
+     *
+     * @return the decision count
+     */
+    long getDecisions();
+    
+    /**
+     * Gets the games finished per second since the metrics were created or reset.
+     *
+     * @return the game rate
+     */
+    double getGamesPerSecond();
+    
+    /**
+     * Gets the turns started per second since the metrics were created or reset.
+     *
+     * @return the turn rate
+     */
+    double getTurnsPerSecond();
+    
+    /**
+     * Gets the average number of reshuffles per finished game.
+     *
+     * @return reshuffles per game
+     */
+    double getReshufflesPerGame();
+    
+    /**
+     * Gets the card names, in the order of {@link #getPurchases()}.
+     *
+     * @return the card names
+     */
+    String[] getCardNames();
+    
+    /**
+     * Gets the number of copies of each card bought.
+     *
+     * @return purchases by card ID
+     */
+    long[] getPurchases();
+    
+    /**
+     * Gets the number of turns in which nothing was bought.
+     *
+     * @return the pass count
+     */
+    long getPasses();
+    
+    /**
+     * Gets the mean buy decision time.
+     *
+     * @return the mean in nanoseconds
+     */
+    double getMeanDecisionNanos();
+    
+    /**
+     * Gets the median buy decision time, to within 1/16 of it.
+     *
+     * @return the lower bound of the median's histogram bucket, in nanoseconds
+     */
+    long getDecisionNanosP50();
+    
+    /**
+     * Gets the 99th percentile buy decision time, to within 1/16 of it.
+     *
+     * @return the lower bound of the percentile's histogram bucket, in nanoseconds
+     */
+    long getDecisionNanosP99();
+    
+    /**
+     * Gets the mean turn on which the end card's supply pile ran out.
+     *
+     * @return the mean depletion turn
+     */
+    double getMeanDepletionTurn();
+    
+    /**
+     * Gets the median turn on which the end card's supply pile ran out.
+     *
+     * @return the median depletion turn
+     */
+    long getDepletionTurnP50();
+    
+    /**
+     * Gets the 90th percentile of the turn on which the end card's supply pile ran out.
+     *
+     * @return the 90th percentile depletion turn
+     */
+    long getDepletionTurnP90();
+    
+    /**
+     * Zeroes every counter and restarts the rate clock.
+     */
+    void reset();
+}
@@ -0,0 +1,211 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams through a file written by {@link GameRecordWriter} by memory-mapping it.
+ * Records are decoded straight out of the mapped pages and handed to a
+ * {@link GameRecordVisitor} as primitives, so reading allocates nothing per game.
+ * Files larger than one mapping are read through a sliding window that is
+ * remapped whenever the next record would cross its end.
+ */
+class GameRecordReader implements AutoCloseable {
+    /** Default size of the mapped window */
+    static final long DEFAULT_WINDOW = 1L << 30;
+    
+    /** The file being read */
+    private final FileChannel channel;
+    /** The size of the mapped window */
+    private final long windowSize;
+    /** The number of card types, from the file header */
+    private final int cardTypes;
+    
+    /**
+     * Opens a record file and checks its header.
+     *
+     * @param file the file to read
+     * @throws IOException if the file cannot be read or is not a game record file
+     */
+    GameRecordReader(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW);
+    }
+    
+    /**
+     * Opens a record file with a custom mapping window size.
+     *
+     * @param file the file to read
+     * @param windowSize the number of bytes mapped at a time
+     * @throws IOException if the file cannot be read or is not a game record file
+     */
+    GameRecordReader(Path file, long windowSize) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.windowSize = Math.min(windowSize, Integer.MAX_VALUE);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                Math.min(channel.size(), GameRecordWriter.HEADER_SIZE));
+            if (header.remaining() < GameRecordWriter.HEADER_SIZE
+                    || header.getInt() != GameRecordWriter.MAGIC
+                    || header.get() != GameRecordWriter.VERSION) {
+                throw new IOException("Not a game record file: " + file);
+            }
+            cardTypes = header.get();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Gets the number of card types the recorded games used.
+     *
+     * @return the catalog size from the file header
+     */
+    int getCardTypes() {
+        return cardTypes;
+    }
+    
+    /**
+     * Streams every record in the file to a visitor.
+     *
+     * @param visitor the receiver of the decoded games
+     * @return the number of games read
+     * @throws IOException if the file cannot be mapped or a record is truncated
+     */
+    long read(GameRecordVisitor visitor) throws IOException {
+        try {
+            return readRecords(visitor);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated game record at end of file", e);
+        }
+    }
+    
+    /**
+     * Decodes every record in the file.
+     *
+     * @param visitor the receiver of the decoded games
+     * @return the number of games read
+     * @throws IOException if the file cannot be mapped or a record is truncated
+     */
+    private long readRecords(GameRecordVisitor visitor) throws IOException {
+        long fileSize = channel.size();
+        long windowStart = GameRecordWriter.HEADER_SIZE;
+        MappedByteBuffer window = map(windowStart, fileSize);
+        long games = 0;
+        while (windowStart + window.position() < fileSize) {
+            // Fixed part of the header plus three varints of at most 5 bytes each
+            if (window.remaining() < 25 && windowStart + window.limit() < fileSize) {
+                windowStart += window.position();
+                window = map(windowStart, fileSize);
+            }
+            int recordStart = window.position();
+            long seed = window.getLong();
+            int players = window.get();
+            int startingSeat = window.get();
+            int turns = getVarint(window);
+            int events = getVarint(window);
+            int length = getVarint(window);
+            if (window.remaining() < length) {
+                if (windowStart + window.limit() >= fileSize) {
+                    throw new IOException("Truncated game record at offset " + (windowStart + recordStart));
+                }
+                if (recordStart == 0) {
+                    throw new IOException("Game record larger than the mapping window at offset " + windowStart);
+                }
+                // Remap so the whole record fits, then re-read it
+                windowStart += recordStart;
+                window = map(windowStart, fileSize);
+                continue;
+            }
+            
+            visitor.gameStarted(seed, players, startingSeat, turns);
+            int turn = -1;
+            for (int i = 0; i < events; i++) {
+                turn += getVarint(window);
+                int code = getVarint(window);
+                visitor.cardBought(turn, (startingSeat + turn) % players, code % cardTypes, code / cardTypes);
+            }
+            visitor.gameEnded();
+            games++;
+        }
+        return games;
+    }
+    
+    /**
+     * Closes the file. Mapped windows stay valid until they are garbage collected.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    /**
+     * Maps a window of the file.
+     *
+     * @param start the file offset of the window
+     * @param fileSize the size of the file
+     * @return the mapped window, positioned at its start
+     * @throws IOException if the mapping fails
+     */
+    private MappedByteBuffer map(long start, long fileSize) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, fileSize - start));
+    }
+    
+    /**
+     * Reads an unsigned LEB128 varint.
+     *
+     * @param buffer the buffer to read from
+     * @return the decoded value
+     */
+    private static int getVarint(MappedByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+    
+    /**
+     * Prints summary statistics of a record file.
+     * Usage: {@code GameRecordReader <file>}.
+     *
+     * @param args the record file
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        long[] totals = new long[2];
+        long start = System.nanoTime();
+        long games;
+        try (GameRecordReader reader = new GameRecordReader(Path.of(args[0]))) {
+            games = reader.read(new GameRecordVisitor() {
+                @Override
+                public void gameStarted(long seed, int players, int startingSeat, int turns) {
+                    totals[0] += turns;
+                }
+                
+                @Override
+                public void cardBought(int turn, int seat, int cardId, int coins) {
+                    totals[1]++;
+                }
+                
+                @Override
+                public void gameEnded() {
+                }
+            });
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Games: %d, average length: %.2f turns, purchases: %d%n",
+            games, games == 0 ? 0.0 : (double) totals[0] / games, totals[1]);
+        System.out.printf("Read in %.2f s (%.0f games/s)%n", seconds, games / seconds);
+    }
+}
@@ -0,0 +1,33 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * Receives the contents of binary game records as a {@link GameRecordReader}
+ * streams through them. All data arrives as primitives, so reading allocates
+ * nothing per game or per event.
+ */
+interface GameRecordVisitor {
+    /**
+     * Called at the start of each recorded game.
+     *
+     * @param seed the seed the game was played from
+     * @param players the number of players
+     * @param startingSeat the seat that took the first turn
+     * @param turns the number of turns the game lasted
+     */
+    void gameStarted(long seed, int players, int startingSeat, int turns);
+    
+    /**
+     * Called for each purchase, in turn order.
+     *
+     * @param turn the turn number, starting at 0
+     * @param seat the seat that bought the card
+     * @param cardId the ID of the card bought
+     * @param coins the coins the player had available that turn
+     */
+    void cardBought(int turn, int seat, int cardId, int coins);
+    
+    /**
+     * Called after the last purchase of a game.
+     */
+    void gameEnded();
+}
@@ -0,0 +1,241 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Records games in a compact binary format by listening to their events.
+ *
+ * <p>A record file starts with a header: the magic bytes {@code DGRC}, a format
+ * version byte and the number of card types. Games follow back to back, each as
+ * <pre>
+ *   seed          8 bytes, big-endian; replays the game via domination(long, boolean)
+ *   players       1 byte
+ *   startingSeat  1 byte
+ *   turns         varint
+ *   events        varint (number of purchases)
+ *   length        varint (bytes of purchase data that follow)
+ *   purchases     per purchase: varint turn delta, varint (coins * cardTypes + cardId)
+ * </pre>
+ * where varints are unsigned LEB128 and the turn delta counts from the previous
+ * purchase (from turn -1 for the first). The seat of each purchase follows from
+ * the starting seat and the turn number. With the standard cards a purchase on
+ * consecutive turns takes two bytes.
+ *
+ * <p>Call {@link #beginGame(long)} with the game's seed before it starts, attach
+ * the writer as the game's {@link GameEventSink}, and {@link #close()} it when done.
+ * Records are buffered and written to the end of the file in large blocks.
+ */
+class GameRecordWriter implements GameEventSink, AutoCloseable {
+    /** File magic number, "DGRC" */
+    static final int MAGIC = 0x44475243;
+    /** Current format version */
+    static final byte VERSION = 1;
+    /** Size of the file header in bytes */
+    static final int HEADER_SIZE = 6;
+    /** Size of the output buffer */
+    private static final int BUFFER_SIZE = 1 << 20;
+    
+    /** The card types of the recorded games */
+    private final CardCatalog catalog;
+    /** The file being appended to */
+    private final FileChannel channel;
+    /** Completed records waiting to be written */
+    private final ByteBuffer out;
+    /** Purchase data of the game in progress */
+    private byte[] events = new byte[256];
+    /** Number of bytes used in {@link #events} */
+    private int eventBytes;
+    /** Number of purchases in the game in progress */
+    private int eventCount;
+    /** Seed of the game in progress */
+    private long seed;
+    /** Seat that took the first turn of the game in progress, or -1 before it */
+    private int startingSeat;
+    /** Turn number of the previous purchase */
+    private int lastTurn;
+    /** The current turn number */
+    private int turn;
+    /** Coins available on the current turn */
+    private int coins;
+    
+    /**
+     * Opens a record file for appending, writing the file header if it is new.
+     *
+     * @param file the file to append to
+     * @param catalog the card types of the games that will be recorded
+     * @throws IOException if the file cannot be opened, or holds records of another format
+     */
+    GameRecordWriter(Path file, CardCatalog catalog) throws IOException {
+        this.catalog = catalog;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try {
+            if (channel.size() == 0) {
+                out.putInt(MAGIC).put(VERSION).put((byte) catalog.size());
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                channel.read(header, 0);
+                header.flip();
+                if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC
+                        || header.get() != VERSION || header.get() != catalog.size()) {
+                    throw new IOException("Not a compatible game record file: " + file);
+                }
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Starts recording a new game.
+     *
+     * @param gameSeed the seed the game is played from
+     */
+    void beginGame(long gameSeed) {
+        seed = gameSeed;
+        eventBytes = 0;
+        eventCount = 0;
+        startingSeat = -1;
+        lastTurn = -1;
+    }
+    
+    @Override
+    public void turnStarted(int turnNumber, int seat) {
+        if (startingSeat < 0) {
+            startingSeat = seat;
+        }
+        turn = turnNumber;
+    }
+    
+    @Override
+    public void coinsCounted(int seat, int availableCoins) {
+        coins = availableCoins;
+    }
+    
+    @Override
+    public void cardBought(int seat, int cardId) {
+        if (events.length - eventBytes < 10) {
+            events = Arrays.copyOf(events, events.length * 2);
+        }
+        eventBytes = putVarint(events, eventBytes, turn - lastTurn);
+        eventBytes = putVarint(events, eventBytes, coins * catalog.size() + cardId);
+        lastTurn = turn;
+        eventCount++;
+    }
+    
+    @Override
+    public void gameEnded(GameResult result) {
+        int needed = 8 + 2 + 15 + eventBytes;
+        if (out.remaining() < needed) {
+            flush();
+        }
+        if (out.remaining() < needed) {
+            throw new IllegalStateException("Game record too large: " + needed + " bytes");
+        }
+        out.putLong(seed);
+        out.put((byte) result.getPlayerCount());
+        out.put((byte) Math.max(startingSeat, 0));
+        putVarint(out, result.getTurns());
+        putVarint(out, eventCount);
+        putVarint(out, eventBytes);
+        out.put(events, 0, eventBytes);
+    }
+    
+    /**
+     * Writes all buffered records to the file.
+     */
+    void flush() {
+        out.flip();
+        try {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing game records failed", e);
+        } finally {
+            out.clear();
+        }
+    }
+    
+    /**
+     * Writes all buffered records and closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+    
+    /**
+     * Appends an unsigned LEB128 varint to an array.
+     *
+     * @param bytes the array, with at least 5 bytes free at {@code pos}
+     * @param pos where to write
+     * @param value the non-negative value
+     * @return the position after the varint
+     */
+    static int putVarint(byte[] bytes, int pos, int value) {
+        while ((value & ~0x7f) != 0) {
+            bytes[pos++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        bytes[pos++] = (byte) value;
+        return pos;
+    }
+    
+    /**
+     * Appends an unsigned LEB128 varint to a buffer.
+     *
+     * @param buffer the buffer
+     * @param value the non-negative value
+     */
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7f) != 0) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+    
+    /**
+     * Plays and records games with the built-in strategy.
+     * Usage: {@code GameRecordWriter <file> [games] [seed]}.
+     *
+     * @param args the record file, optional number of games (default 100000) and root seed
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args[0]);
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 100_000;
+        SplittableRandom seeds = new SplittableRandom(args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime());
+        
+        long start = System.nanoTime();
+        CompactGame game = new CompactGame(CardCatalog.STANDARD);
+        try (GameRecordWriter writer = new GameRecordWriter(file, CardCatalog.STANDARD)) {
+            game.setEventSink(writer);
+            for (long i = 0; i < games; i++) {
+                long seed = seeds.nextLong();
+                writer.beginGame(seed);
+                game.reset(new SplittableRandom(seed));
+                game.playGame();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Recorded %d games in %.2f s%n", games, seconds);
+    }
+}
@@ -0,0 +1,70 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * The outcome of a single completed game: each player's final Automation Points
+ * and the number of turns the game lasted.
+ */
+class GameResult {
+    /** Final Automation Points, indexed by seat (0 = Player 1) */
+    private final int[] points;
+    /** The number of turns played before the game ended */
+    private final int turns;
+    
+    /**
+     * Constructs a GameResult.
+     *
+     * @param points the final Automation Points of each player, indexed by seat
+     * @param turns the number of turns played
+     */
+    GameResult(int[] points, int turns) {
+        this.points = points;
+        this.turns = turns;
+    }
+    
+    /**
+     * Gets the final Automation Points of the player in the given seat.
+     *
+     * @param seat the seat index (0 = Player 1)
+     * @return that player's Automation Points
+     */
+    int getPoints(int seat) {
+        return points[seat];
+    }
+    
+    /**
+     * Gets the number of players in the game.
+     *
+     * @return the number of seats
+     */
+    int getPlayerCount() {
+        return points.length;
+    }
+    
+    /**
+     * Gets the number of turns the game lasted.
+     *
+     * @return the number of turns played
+     */
+    int getTurns() {
+        return turns;
+    }
+    
+    /**
+     * Determines the winning seat.
+     *
+     * @return the seat with strictly the most Automation Points, or -1 if the game is a tie
+     */
+    int getWinner() {
+        int winner = 0;
+        boolean tie = false;
+        for (int seat = 1; seat < points.length; seat++) {
+            if (points[seat] > points[winner]) {
+                winner = seat;
+                tie = false;
+            } else if (points[seat] == points[winner]) {
+                tie = true;
+            }
+        }
+        return tie ? -1 : winner;
+    }
+}
@@ -0,0 +1,227 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many concurrent games for external bots over a line-based TCP protocol
+ * on the loopback interface. Each connection is a {@link GameSession} on its own
+ * virtual thread. The protocol, one ASCII line per message:
+ * <pre>
+ * S: HELLO domination 1
+ * C: PLAY [seed]                      start a game; the client plays seat 0
+ * S: GAME &lt;seed&gt; &lt;startingSeat&gt;
+ * S: TURN &lt;turn&gt; &lt;coins&gt; &lt;yourAP&gt; &lt;opponentAP&gt;   once per client turn
+ * C: BUY &lt;card&gt; | PASS             answered with ERR and re-read if illegal
+ * S: END &lt;yourAP&gt; &lt;opponentAP&gt; &lt;turns&gt; WIN|LOSS|TIE
+ * C: QUIT                             at any prompt
+ * S: BYE
+ * </pre>
+ * At most {@code maxSessions} sessions run at once; further connections wait in
+ * the listen backlog until a session ends, so a flood of clients slows down
+ * instead of exhausting memory. A client that sends nothing for the idle timeout
+ * is told {@code ERR idle timeout} and disconnected.
+ */
+final class GameServer implements AutoCloseable {
+    /** The listening socket */
+    private final ServerSocket serverSocket;
+    /** Runs one virtual thread per session */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    /** One permit per session that may still start */
+    private final Semaphore permits;
+    /** Read timeout for clients, in milliseconds */
+    private final int idleTimeoutMillis;
+    /** The strategy playing against every client */
+    private final Strategy opponent;
+    /** Source of per-session seed generators; only the acceptor thread uses it */
+    private final SplittableRandom seeds;
+    /** Sessions currently running */
+    private final Set<GameSession> active = ConcurrentHashMap.newKeySet();
+    /** Sessions that have ended */
+    private final AtomicLong sessionsServed = new AtomicLong();
+    /** Games that have been played to the end */
+    private final AtomicLong gamesPlayed = new AtomicLong();
+    /** The thread accepting connections, once started */
+    private Thread acceptor;
+    /** Whether {@link #close()} has been called */
+    private volatile boolean closed;
+    
+    /**
+     * Binds a server to a loopback port.
+     *
+     * @param port the port, or 0 for any free port
+     * @param maxSessions the most sessions that may run at once
+     * @param idleTimeoutMillis how long a client may stay silent, in milliseconds
+     * @param opponent the strategy playing against every client
+     * @param seed the seed for games that clients start without one
+     * @throws IOException if the port cannot be bound
+     */
+    GameServer(int port, int maxSessions, int idleTimeoutMillis, Strategy opponent, long seed) throws IOException {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("maxSessions must be at least 1");
+        }
+        this.serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        this.permits = new Semaphore(maxSessions);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.opponent = opponent;
+        this.seeds = new SplittableRandom(seed);
+    }
+    
+    /**
+     * Starts accepting connections.
+     */
+    void start() {
+        acceptor = Thread.ofPlatform().name("game-server-acceptor").start(this::acceptLoop);
+    }
+    
+    /**
+     * Accepts connections while session permits are available.
+     */
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            Socket socket = null;
+            GameSession session = null;
+            try {
+                socket = serverSocket.accept();
+                socket.setSoTimeout(idleTimeoutMillis);
+                socket.setTcpNoDelay(true);
+                session = new GameSession(this, new LineChannel(socket), opponent, seeds.split());
+                active.add(session);
+                executor.execute(session);
+            } catch (IOException | RejectedExecutionException e) {
+                // The connection failed during setup, or close() shut the executor down under it
+                if (session != null) {
+                    active.remove(session);
+                }
+                closeQuietly(socket);
+                permits.release();
+            }
+        }
+    }
+    
+    /**
+     * Closes a connection that never became a running session.
+     *
+     * @param socket the accepted socket, or null if none was accepted
+     */
+    private static void closeQuietly(Socket socket) {
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Nothing more to do with a broken socket
+        }
+    }
+    
+    /**
+     * Called by a session when it ends, freeing its permit.
+     *
+     * @param session the session that ended
+     */
+    void sessionEnded(GameSession session) {
+        active.remove(session);
+        sessionsServed.incrementAndGet();
+        permits.release();
+    }
+    
+    /**
+     * Called by a session when a game ends.
+     */
+    void gamePlayed() {
+        gamesPlayed.incrementAndGet();
+    }
+    
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the local port
+     */
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+    
+    /**
+     * Gets the number of sessions running now.
+     *
+     * @return the active session count
+     */
+    int getActiveSessions() {
+        return active.size();
+    }
+    
+    /**
+     * Gets the number of sessions that have ended.
+     *
+     * @return the ended session count
+     */
+    long getSessionsServed() {
+        return sessionsServed.get();
+    }
+    
+    /**
+     * Gets the number of games played to the end.
+     *
+     * @return the game count
+     */
+    long getGamesPlayed() {
+        return gamesPlayed.get();
+    }
+    
+    /**
+     * Stops accepting connections, disconnects every client and waits for the
+     * sessions to end.
+     *
+     * @throws IOException if the listening socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        if (acceptor != null) {
+            acceptor.interrupt();
+        }
+        for (GameSession session : active) {
+            session.close();
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Runs a server until the process is killed.
+     *
+     * @param args optional port, maximum sessions and idle timeout in seconds
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7103;
+        int maxSessions = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int idleSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        GameServer server = new GameServer(port, maxSessions, idleSeconds * 1000,
+            ScoredStrategy.GREEDY, new SplittableRandom().nextLong());
+        server.start();
+        System.out.println("Listening on port " + server.getPort());
+    }
+}
@@ -0,0 +1,172 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * One client connection to a {@link GameServer}, run on its own virtual thread.
+ * The client plays seat 0 of a {@link CompactGame} against the server's strategy;
+ * the game object is reused for every game of the session, so a session's memory
+ * is fixed no matter how many games it plays.
+ */
+final class GameSession implements Runnable {
+    /** The server that owns this session */
+    private final GameServer server;
+    /** The client connection */
+    private final LineChannel channel;
+    /** Seeds for games the client starts without one */
+    private final RandomGenerator seeds;
+    /** The game played in this session; the client holds seat 0 */
+    private final CompactGame game;
+    
+    /**
+     * Thrown out of a game when the client quits in the middle of it.
+     */
+    private static final class QuitException extends RuntimeException {
+        /** Version of the serialized form, which is never used */
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * Constructs the signal, without a stack trace.
+         */
+        QuitException() {
+            super("Client quit", null, false, false);
+        }
+    }
+    
+    /**
+     * Constructs a session.
+     *
+     * @param server the server that owns this session
+     * @param channel the client connection
+     * @param opponent the strategy playing seat 1
+     * @param seeds the generator for unseeded games
+     */
+    GameSession(GameServer server, LineChannel channel, Strategy opponent, RandomGenerator seeds) {
+        this.server = server;
+        this.channel = channel;
+        this.seeds = seeds;
+        this.game = new CompactGame(CardCatalog.STANDARD, new RemoteSeat(), opponent);
+    }
+    
+    /**
+     * Serves commands until the client quits, disconnects or goes idle.
+     */
+    @Override
+    public void run() {
+        try {
+            channel.writeLine("HELLO domination 1");
+            String line;
+            while ((line = channel.readLine()) != null) {
+                if (line.equals("QUIT")) {
+                    channel.writeLine("BYE");
+                    return;
+                } else if (line.equals("PLAY")) {
+                    play(seeds.nextLong());
+                } else if (line.startsWith("PLAY ")) {
+                    long seed;
+                    try {
+                        seed = Long.parseLong(line.substring(5));
+                    } catch (NumberFormatException e) {
+                        channel.writeLine("ERR bad seed");
+                        continue;
+                    }
+                    play(seed);
+                } else {
+                    channel.writeLine("ERR expected PLAY or QUIT");
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            try {
+                channel.writeLine("ERR idle timeout");
+            } catch (IOException ignored) {
+                // The client is gone as well
+            }
+        } catch (IOException | UncheckedIOException | QuitException e) {
+            // The client disconnected, misbehaved or quit mid-game
+        } finally {
+            close();
+            server.sessionEnded(this);
+        }
+    }
+    
+    /**
+     * Plays one game with the client in seat 0.
+     *
+     * @param seed the seed fixing the shuffles and the starting seat
+     * @throws IOException if the connection fails
+     */
+    private void play(long seed) throws IOException {
+        game.reset(new SplittableRandom(seed));
+        channel.writeLine("GAME " + seed + " " + game.getCurrentSeat());
+        GameResult result;
+        try {
+            result = game.playGame();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        int winner = result.getWinner();
+        channel.writeLine("END " + result.getPoints(0) + " " + result.getPoints(1) + " " + result.getTurns()
+            + (winner < 0 ? " TIE" : winner == 0 ? " WIN" : " LOSS"));
+        server.gamePlayed();
+    }
+    
+    /**
+     * Closes the client connection; a session blocked on it then ends.
+     */
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing more to do with a broken socket
+        }
+    }
+    
+    /**
+     * The client's seat: each buy decision is a TURN prompt answered over the socket.
+     */
+    private final class RemoteSeat implements Strategy {
+        @Override
+        public int chooseCard(GameView view) {
+            try {
+                channel.writeLine("TURN " + view.getTurnCount() + " " + view.getAvailableCoins()
+                    + " " + view.getPoints(0) + " " + view.getPoints(1));
+                while (true) {
+                    String line = channel.readLine();
+                    if (line == null) {
+                        throw new EOFException("Connection closed mid-game");
+                    }
+                    if (line.equals("PASS")) {
+                        return -1;
+                    }
+                    if (line.equals("QUIT")) {
+                        channel.writeLine("BYE");
+                        throw new QuitException();
+                    }
+                    if (line.startsWith("BUY ")) {
+                        CardCatalog catalog = view.getCatalog();
+                        int id = catalog.indexOf(line.substring(4));
+                        if (id >= 0 && catalog.getCost(id) <= view.getAvailableCoins()
+                                && view.getSupplyCount(id) > 0) {
+                            return id;
+                        }
+                        channel.writeLine("ERR cannot buy " + line.substring(4));
+                    } else {
+                        channel.writeLine("ERR expected BUY or PASS");
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public String getName() {
+            return "Remote";
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.Arrays;
+
+/**
+ * A complete game position in flat primitive arrays: the supply counts, every
+ * player's draw pile, discard pile and hand as card IDs in order, the seat to
+ * move and the turn count. Each pile has a fixed region of one byte array, sized
+ * for the largest possible deck, so taking, copying and restoring a snapshot are
+ * array blits that allocate nothing once the snapshot exists.
+ *
+ * <p>Snapshots are filled by {@link domination#snapshot(GameSnapshot)} and read
+ * back by {@link domination#restore(GameSnapshot)} and
+ * {@link CompactGame#copyFrom(GameSnapshot)}. They hold no random state: a game
+ * restored from a snapshot continues with its own generator.
+ */
+final class GameSnapshot {
+    /** Pile index of the draw pile; its top is the highest index */
+    static final int DRAW = 0;
+    /** Pile index of the discard pile, in discard order */
+    static final int DISCARD = 1;
+    /** Pile index of the hand, in deal order */
+    static final int HAND = 2;
+    /** Number of piles per player */
+    private static final int PILES = 3;
+    
+    /** The card types in play */
+    private final CardCatalog catalog;
+    /** The number of players */
+    private final int players;
+    /** The most cards any one pile can hold */
+    private final int capacity;
+    /** Remaining supply count for each card ID */
+    private final int[] supply;
+    /** Card IDs of every pile; pile p of seat s starts at {@code (s * 3 + p) * capacity} */
+    private final byte[] cards;
+    /** Number of cards in each pile, indexed by {@code s * 3 + p} */
+    private final int[] sizes;
+    /** The seat whose turn it is */
+    private int currentSeat;
+    /** The number of turns played so far */
+    private int turnCount;
+    
+    /**
+     * Constructs an empty snapshot for games of the given shape.
+     *
+     * @param catalog the card types in play
+     * @param players the number of players
+     */
+    GameSnapshot(CardCatalog catalog, int players) {
+        this.catalog = catalog;
+        this.players = players;
+        // A deck can never hold more than the starter deck plus every card in the supply
+        int deck = catalog.getStarterSize();
+        for (int id = 0; id < catalog.size(); id++) {
+            deck += catalog.getQuantity(id, players);
+        }
+        this.capacity = deck;
+        supply = new int[catalog.size()];
+        cards = new byte[players * PILES * capacity];
+        sizes = new int[players * PILES];
+    }
+    
+    /**
+     * Copies another snapshot of the same shape into this one.
+     *
+     * @param other the snapshot to copy
+     * @throws IllegalArgumentException if the snapshots differ in catalog or player count
+     */
+    void copyFrom(GameSnapshot other) {
+        checkShape(other.catalog, other.players);
+        System.arraycopy(other.supply, 0, supply, 0, supply.length);
+        System.arraycopy(other.cards, 0, cards, 0, cards.length);
+        System.arraycopy(other.sizes, 0, sizes, 0, sizes.length);
+        currentSeat = other.currentSeat;
+        turnCount = other.turnCount;
+    }
+    
+    /**
+     * Checks that a game has this snapshot's shape.
+     *
+     * @param gameCatalog the game's catalog
+     * @param gamePlayers the game's number of players
+     * @throws IllegalArgumentException if the shapes differ
+     */
+    void checkShape(CardCatalog gameCatalog, int gamePlayers) {
+        if (gameCatalog != catalog || gamePlayers != players) {
+            throw new IllegalArgumentException("Snapshot is for a different catalog or player count");
+        }
+    }
+    
+    /**
+     * Gets the card types in play.
+     *
+     * @return the catalog
+     */
+    CardCatalog getCatalog() {
+        return catalog;
+    }
+    
+    /**
+     * Gets the number of players.
+     *
+     * @return the player count
+     */
+    int getPlayerCount() {
+        return players;
+    }
+    
+    /**
+     * Gets the seat whose turn it is.
+     *
+     * @return the current seat
+     */
+    int getCurrentSeat() {
+        return currentSeat;
+    }
+    
+    /**
+     * Gets the number of turns played.
+     *
+     * @return the turn count
+     */
+    int getTurnCount() {
+        return turnCount;
+    }
+    
+    /**
+     * Sets the seat to move and the turn count.
+     *
+     * @param seat the seat whose turn it is
+     * @param turns the number of turns played
+     */
+    void setTurn(int seat, int turns) {
+        currentSeat = seat;
+        turnCount = turns;
+    }
+    
+    /**
+     * Gets the remaining supply count of a card.
+     *
+     * @param id the card ID
+     * @return the number of copies left
+     */
+    int getSupplyCount(int id) {
+        return supply[id];
+    }
+    
+    /**
+     * Sets the remaining supply count of a card.
+     *
+     * @param id the card ID
+     * @param count the number of copies left
+     */
+    void setSupplyCount(int id, int count) {
+        supply[id] = count;
+    }
+    
+    /**
+     * Gets the array holding every pile's card IDs. Pile {@code pile} of
+     * {@code seat} starts at {@link #offset(int, int)}.
+     *
+     * @return the shared card array
+     */
+    byte[] getCards() {
+        return cards;
+    }
+    
+    /**
+     * Gets where a pile starts in {@link #getCards()}.
+     *
+     * @param seat the player's seat
+     * @param pile {@link #DRAW}, {@link #DISCARD} or {@link #HAND}
+     * @return the pile's first index
+     */
+    int offset(int seat, int pile) {
+        return (seat * PILES + pile) * capacity;
+    }
+    
+    /**
+     * Gets the number of cards in a pile.
+     *
+     * @param seat the player's seat
+     * @param pile {@link #DRAW}, {@link #DISCARD} or {@link #HAND}
+     * @return the pile's size
+     */
+    int getSize(int seat, int pile) {
+        return sizes[seat * PILES + pile];
+    }
+    
+    /**
+     * Sets the number of cards in a pile.
+     *
+     * @param seat the player's seat
+     * @param pile {@link #DRAW}, {@link #DISCARD} or {@link #HAND}
+     * @param size the pile's size
+     */
+    void setSize(int seat, int pile, int size) {
+        sizes[seat * PILES + pile] = size;
+    }
+    
+    /**
+     * Compares the positions of two snapshots: equal snapshots have the same
+     * supply, the same cards in the same order in every pile, and the same turn.
+     *
+     * @param o the object to compare with
+     * @return true if the positions are identical
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GameSnapshot)) {
+            return false;
+        }
+        GameSnapshot other = (GameSnapshot) o;
+        if (other.catalog != catalog || other.players != players || other.currentSeat != currentSeat
+                || other.turnCount != turnCount || !Arrays.equals(other.supply, supply)
+                || !Arrays.equals(other.sizes, sizes)) {
+            return false;
+        }
+        for (int pile = 0; pile < sizes.length; pile++) {
+            int from = pile * capacity;
+            if (!Arrays.equals(cards, from, from + sizes[pile], other.cards, from, from + sizes[pile])) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public int hashCode() {
+        int hash = 31 * Arrays.hashCode(supply) + Arrays.hashCode(sizes);
+        return 31 * (31 * hash + currentSeat) + turnCount;
+    }
+}
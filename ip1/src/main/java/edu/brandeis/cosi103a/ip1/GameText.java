@@ -0,0 +1,146 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * Formats game events as the human-readable text the game has always printed.
+ * Every method appends complete lines to a caller-supplied StringBuilder, so
+ * sinks can reuse one builder and format without allocating.
+ */
+final class GameText {
+    /** Line terminator, matching {@link java.io.PrintStream#println()} */
+    private static final String NL = System.lineSeparator();
+    /** Bucket count of a default-sized HashMap, which decides handToString's order */
+    private static final int HASH_BUCKETS = 16;
+    
+    /**
+     * Not instantiable.
+     */
+    private GameText() {
+    }
+    
+    /**
+     * Appends the line that opens a game.
+     *
+     * @param sb the builder to append to
+     */
+    static void appendGameStarted(StringBuilder sb) {
+        sb.append("Starting Dominion game...").append(NL);
+    }
+    
+    /**
+     * Appends the turn header.
+     *
+     * @param sb the builder to append to
+     * @param seat the seat taking the turn
+     */
+    static void appendTurnStarted(StringBuilder sb, int seat) {
+        sb.append("\n=== Player ").append(seat + 1).append("'s Turn ===").append(NL);
+    }
+    
+    /**
+     * Appends the hand line, e.g. {@code Hand: Bitcoinx2 Methodx3 }.
+     * Cards are listed in the order {@link domination#handToString(java.util.List)}
+     * lists them: by the name's bucket in a default-sized HashMap, and within a
+     * bucket by first appearance in the hand.
+     *
+     * @param sb the builder to append to
+     * @param catalog the card types in play
+     * @param hand the card IDs in hand, in deal order
+     * @param size the number of cards in hand
+     */
+    static void appendHand(StringBuilder sb, CardCatalog catalog, byte[] hand, int size) {
+        sb.append("Hand: ");
+        for (int bucket = 0; bucket < HASH_BUCKETS; bucket++) {
+            for (int i = 0; i < size; i++) {
+                int id = hand[i];
+                if (bucketOf(catalog.getName(id)) != bucket || !isFirstOccurrence(hand, i)) {
+                    continue;
+                }
+                int count = 0;
+                for (int j = i; j < size; j++) {
+                    if (hand[j] == id) {
+                        count++;
+                    }
+                }
+                sb.append(catalog.getName(id)).append('x').append(count).append(' ');
+            }
+        }
+        sb.append(NL);
+    }
+    
+    /**
+     * Appends the available coins line.
+     *
+     * @param sb the builder to append to
+     * @param coins the coins in hand
+     */
+    static void appendCoins(StringBuilder sb, int coins) {
+        sb.append("Available coins: ").append(coins).append(NL);
+    }
+    
+    /**
+     * Appends the purchase line.
+     *
+     * @param sb the builder to append to
+     * @param catalog the card types in play
+     * @param cardId the card bought
+     */
+    static void appendBought(StringBuilder sb, CardCatalog catalog, int cardId) {
+        sb.append("Bought: ").append(catalog.getName(cardId)).append(NL);
+    }
+    
+    /**
+     * Appends the line for a turn without a purchase.
+     *
+     * @param sb the builder to append to
+     */
+    static void appendNothingBought(StringBuilder sb) {
+        sb.append("No affordable cards to buy").append(NL);
+    }
+    
+    /**
+     * Appends the final scores and the winner.
+     *
+     * @param sb the builder to append to
+     * @param result the finished game
+     */
+    static void appendGameOver(StringBuilder sb, GameResult result) {
+        sb.append("\n=== Game Over ===").append(NL);
+        for (int seat = 0; seat < result.getPlayerCount(); seat++) {
+            sb.append("Player ").append(seat + 1).append(" Automation Points: ")
+                .append(result.getPoints(seat)).append(NL);
+        }
+        int winner = result.getWinner();
+        if (winner < 0) {
+            sb.append("It's a tie!").append(NL);
+        } else {
+            sb.append("Player ").append(winner + 1).append(" wins!").append(NL);
+        }
+    }
+    
+    /**
+     * Computes the bucket a key lands in within a default-sized HashMap.
+     *
+     * @param name the key
+     * @return the bucket index
+     */
+    private static int bucketOf(String name) {
+        int h = name.hashCode();
+        return (h ^ (h >>> 16)) & (HASH_BUCKETS - 1);
+    }
+    
+    /**
+     * Checks whether a hand position holds the first copy of its card.
+     *
+     * @param hand the card IDs in hand
+     * @param index the position to check
+     * @return true if no earlier position holds the same card
+     */
+    private static boolean isFirstOccurrence(byte[] hand, int index) {
+        for (int j = 0; j < index; j++) {
+            if (hand[j] == hand[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
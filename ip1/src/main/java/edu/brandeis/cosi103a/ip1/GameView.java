@@ -0,0 +1,93 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * Read-only view of a game in progress, as seen by the player whose turn it is.
+ * Every method answers from the game's own state without allocating, so a
+ * {@link Strategy} can query it freely on every decision.
+ */
+interface GameView {
+    /**
+     * Gets the card types in play.
+     *
+     * @return the card catalog
+     */
+    CardCatalog getCatalog();
+    
+    /**
+     * Gets the number of players in the game.
+     *
+     * @return the number of seats
+     */
+    int getPlayerCount();
+    
+    /**
+     * Gets the seat whose turn it is.
+     *
+     * @return the current seat (0 = Player 1)
+     */
+    int getCurrentSeat();
+    
+    /**
+     * Gets the number of turns played so far.
+     *
+     * @return the number of completed turns
+     */
+    int getTurnCount();
+    
+    /**
+     * Gets the coins available to the current player this turn.
+     *
+     * @return the coin total of the current hand
+     */
+    int getAvailableCoins();
+    
+    /**
+     * Counts copies of a card in the current player's hand.
+     *
+     * @param id the card ID
+     * @return the number of copies in hand
+     */
+    int getHandCount(int id);
+    
+    /**
+     * Counts copies of a card in the current player's draw pile.
+     *
+     * @param id the card ID
+     * @return the number of copies left to draw
+     */
+    int getDrawCount(int id);
+    
+    /**
+     * Counts copies of a card in the current player's discard pile.
+     *
+     * @param id the card ID
+     * @return the number of copies waiting to be reshuffled
+     */
+    int getDiscardCount(int id);
+    
+    /**
+     * Gets the remaining supply count of a card type.
+     *
+     * @param id the card ID
+     * @return the number of copies left to buy
+     */
+    int getSupplyCount(int id);
+    
+    /**
+     * Gets a player's total Automation Points.
+     *
+     * @param seat the player's seat
+     * @return the AP total of that player's deck
+     */
+    int getPoints(int seat);
+    
+    /**
+     * Copies the complete game state, including cards no player can see, into a
+     * {@link CompactGame} that a search can play forward. Every engine must
+     * support this, since any seat may be given a searching strategy.
+     *
+     * @param target a game over the same catalog with the same number of players
+     * @throws IllegalArgumentException if the games are not compatible
+     */
+    void copyInto(CompactGame target);
+}
@@ -0,0 +1,570 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A golden corpus of fully traced games, for proving that engine changes keep
+ * every game the same. Each game is stored with its seed, players and
+ * strategies, and then every turn: the seat, the hand in the order it was
+ * dealt, the coins counted and the card bought. {@link #check(boolean)} replays
+ * the seeds on the current {@link domination} (or {@link CompactGame}) engine,
+ * compares every event against the trace as it happens, and reports the first
+ * turn where they part ways. Each game is then replayed once more with no event
+ * sink, the way {@link Simulator} and the benchmarks play, and its final turn
+ * count and points are compared with the trace.
+ *
+ * <p>A trace file is gzip-compressed. It starts with the magic bytes
+ * {@code DGTR}, a format version byte and the number of card types, then the
+ * number of games as an int, and holds the games back to back, each as
+ * <pre>
+ *   seed        8 bytes, big-endian; the game shuffles with new SplittableRandom(seed)
+ *   players     1 byte
+ *   strategies  1 byte per seat, an index into {@link #STRATEGIES}
+ *   turns       varint
+ *   points      varint per seat, the final Automation Points
+ *   length      varint (bytes of turn data that follow)
+ *   turn data   per turn: seat, hand size and card IDs (1 byte each), varint coins,
+ *               and 1 byte for the card bought plus one (0 for nothing)
+ * </pre>
+ * with varints as in {@link GameRecordWriter}.
+ */
+final class GoldenTrace {
+    /** File magic number, "DGTR" */
+    static final int MAGIC = 0x44475452;
+    /** Current format version */
+    static final byte VERSION = 1;
+    /** The strategies a traced seat can play, by index */
+    static final Strategy[] STRATEGIES = {ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY};
+    /** Largest number of players in a recorded corpus */
+    private static final int MAX_PLAYERS = 4;
+    
+    /** The card types of the traced games */
+    private final CardCatalog catalog;
+    /** Number of games in the trace */
+    private final int games;
+    /** The game records, without the file header */
+    private final byte[] data;
+    
+    /**
+     * Where a replayed game first differed from its trace.
+     */
+    static final class Divergence {
+        /** Index of the game in the trace */
+        final int game;
+        /** The game's seed */
+        final long seed;
+        /** The strategy of each seat */
+        final Strategy[] strategies;
+        /** The turn where the replay differed, or the turn count if it differed at the end */
+        final int turn;
+        /** What differed, with the traced and replayed values */
+        final String detail;
+        
+        /**
+         * Constructs a divergence report.
+         *
+         * @param game the game's index in the trace
+         * @param seed the game's seed
+         * @param strategies the strategy of each seat
+         * @param turn the first differing turn
+         * @param detail what differed
+         */
+        Divergence(int game, long seed, Strategy[] strategies, int turn, String detail) {
+            this.game = game;
+            this.seed = seed;
+            this.strategies = strategies;
+            this.turn = turn;
+            this.detail = detail;
+        }
+        
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Game ").append(game).append(" (seed ").append(seed);
+            for (Strategy strategy : strategies) {
+                sb.append(", ").append(strategy.getName());
+            }
+            return sb.append(") diverges at turn ").append(turn).append(": ").append(detail).toString();
+        }
+    }
+    
+    /**
+     * Thrown by the checking sink to stop a game at its first difference. It
+     * carries no stack trace, since it is expected and only ever caught.
+     */
+    private static final class DivergenceFound extends RuntimeException {
+        /** Version of the serialized form, which is never used */
+        private static final long serialVersionUID = 1L;
+        /** The turn where the replay differed */
+        final int turn;
+        
+        /**
+         * Constructs the signal.
+         *
+         * @param turn the first differing turn
+         * @param message what differed
+         */
+        DivergenceFound(int turn, String message) {
+            super(message, null, false, false);
+            this.turn = turn;
+        }
+    }
+    
+    /**
+     * Constructs a trace from decoded records.
+     *
+     * @param catalog the card types of the traced games
+     * @param games the number of games
+     * @param data the game records
+     */
+    private GoldenTrace(CardCatalog catalog, int games, byte[] data) {
+        this.catalog = catalog;
+        this.games = games;
+        this.data = data;
+    }
+    
+    /**
+     * Plays and traces a corpus of games on the {@link domination} engine. Each
+     * game gets its own seed, two to four players, and a strategy per seat, all
+     * drawn from the root seed.
+     *
+     * @param catalog the card types to play with
+     * @param games the number of games
+     * @param rootSeed the seed the games' setups are drawn from
+     * @return the trace
+     */
+    static GoldenTrace record(CardCatalog catalog, int games, long rootSeed) {
+        SplittableRandom setups = new SplittableRandom(rootSeed);
+        Recorder recorder = new Recorder();
+        for (int g = 0; g < games; g++) {
+            long seed = setups.nextLong();
+            Strategy[] strategies = new Strategy[2 + setups.nextInt(MAX_PLAYERS - 1)];
+            byte[] indexes = new byte[strategies.length];
+            for (int seat = 0; seat < strategies.length; seat++) {
+                indexes[seat] = (byte) setups.nextInt(STRATEGIES.length);
+                strategies[seat] = STRATEGIES[indexes[seat]];
+            }
+            recorder.begin(seed, indexes);
+            domination game = new domination(new SplittableRandom(seed), true, catalog, strategies);
+            game.setEventSink(recorder);
+            game.playGame();
+        }
+        return new GoldenTrace(catalog, games, recorder.out.toByteArray());
+    }
+    
+    /**
+     * Reads a trace file.
+     *
+     * @param file the file to read
+     * @param catalog the card types of the traced games
+     * @return the trace
+     * @throws IOException if the file cannot be read or is not a compatible trace
+     */
+    static GoldenTrace load(Path file, CardCatalog catalog) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(in, file.toString(), catalog);
+        }
+    }
+    
+    /**
+     * Reads a trace from a stream, e.g. a test resource.
+     *
+     * @param in the compressed trace, left open
+     * @param source the name of the stream, for error messages
+     * @param catalog the card types of the traced games
+     * @return the trace
+     * @throws IOException if the stream cannot be read or is not a compatible trace
+     */
+    static GoldenTrace load(InputStream in, String source, CardCatalog catalog) throws IOException {
+        DataInputStream data = new DataInputStream(new GZIPInputStream(in));
+        try {
+            if (data.readInt() != MAGIC || data.readByte() != VERSION || data.readByte() != catalog.size()) {
+                throw new IOException("Not a compatible golden trace: " + source);
+            }
+            int games = data.readInt();
+            byte[] records = data.readAllBytes();
+            validate(records, games, source);
+            return new GoldenTrace(catalog, games, records);
+        } catch (EOFException e) {
+            throw new IOException("Truncated golden trace: " + source, e);
+        }
+    }
+    
+    /**
+     * Walks the records of a trace, so that a damaged file is rejected when it
+     * is loaded rather than misreported as a divergence.
+     *
+     * @param records the game records
+     * @param games the number of games the header promises
+     * @param source the name of the trace, for error messages
+     * @throws IOException if the records are truncated, have extra bytes, have
+     *                     fewer than two or more than {@link #MAX_PLAYERS} players,
+     *                     or name an unknown strategy
+     */
+    private static void validate(byte[] records, int games, String source) throws IOException {
+        Checker cursor = new Checker(records);
+        try {
+            for (int g = 0; g < games; g++) {
+                cursor.readLong();
+                int players = cursor.readByte();
+                if (players < 2 || players > MAX_PLAYERS) {
+                    throw new IOException(source + ": game " + g + " has " + players + " players");
+                }
+                for (int seat = 0; seat < players; seat++) {
+                    if (cursor.readByte() >= STRATEGIES.length) {
+                        throw new IOException(source + ": game " + g + " names an unknown strategy");
+                    }
+                }
+                for (int i = 0; i <= players; i++) {
+                    cursor.readVarint();
+                }
+                int length = cursor.readVarint();
+                cursor.pos += length;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Truncated golden trace: " + source, e);
+        }
+        if (cursor.pos != records.length) {
+            throw new IOException(source + ": " + (records.length - cursor.pos) + " bytes after the last game");
+        }
+    }
+    
+    /**
+     * Writes the trace to a file, replacing it.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    void save(Path file) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            DataOutputStream header = new DataOutputStream(out);
+            header.writeInt(MAGIC);
+            header.writeByte(VERSION);
+            header.writeByte(catalog.size());
+            header.writeInt(games);
+            header.flush();
+            out.write(data);
+        }
+    }
+    
+    /**
+     * Gets the number of traced games.
+     *
+     * @return the game count
+     */
+    int getGames() {
+        return games;
+    }
+    
+    /**
+     * Replays every traced game on the current code and compares it turn by turn,
+     * then plays it again silently and compares the result. Replay stops at the
+     * first difference.
+     *
+     * @param compact true to replay on {@link CompactGame}, false on {@link domination}
+     * @return the first difference, or null if every game replays exactly
+     */
+    Divergence check(boolean compact) {
+        Checker checker = new Checker(data);
+        for (int g = 0; g < games; g++) {
+            long seed = checker.readLong();
+            Strategy[] strategies = new Strategy[checker.readByte()];
+            for (int seat = 0; seat < strategies.length; seat++) {
+                strategies[seat] = STRATEGIES[checker.readByte()];
+            }
+            checker.turns = checker.readVarint();
+            for (int seat = 0; seat < strategies.length; seat++) {
+                checker.points[seat] = checker.readVarint();
+            }
+            int length = checker.readVarint();
+            int end = checker.pos + length;
+            try {
+                replay(compact, seed, strategies, checker);
+            } catch (DivergenceFound e) {
+                return new Divergence(g, seed, strategies, e.turn, e.getMessage());
+            }
+            checker.pos = end;
+            
+            // The silent path skips every logging branch, so compare its outcome too
+            GameResult result = replay(compact, seed, strategies, GameEventSink.NONE);
+            if (result.getTurns() != checker.turns) {
+                return new Divergence(g, seed, strategies, Math.min(checker.turns, result.getTurns()),
+                    "silent replay: turns " + checker.turns + " replayed as " + result.getTurns());
+            }
+            for (int seat = 0; seat < strategies.length; seat++) {
+                if (result.getPoints(seat) != checker.points[seat]) {
+                    return new Divergence(g, seed, strategies, checker.turns, "silent replay: points of seat "
+                        + seat + " " + checker.points[seat] + " replayed as " + result.getPoints(seat));
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Plays one traced game.
+     *
+     * @param compact true to play on {@link CompactGame}, false on {@link domination}
+     * @param seed the game's seed
+     * @param strategies the strategy of each seat
+     * @param sink the sink to send the game's events to, or {@link GameEventSink#NONE}
+     * @return the game's result
+     */
+    private GameResult replay(boolean compact, long seed, Strategy[] strategies, GameEventSink sink) {
+        if (compact) {
+            CompactGame game = new CompactGame(catalog, strategies);
+            game.setEventSink(sink);
+            game.reset(new SplittableRandom(seed));
+            return game.playGame();
+        }
+        domination game = new domination(new SplittableRandom(seed), true, catalog, strategies);
+        game.setEventSink(sink);
+        return game.playGame();
+    }
+    
+    /**
+     * Records a golden trace, or checks the current engine against one.
+     * Usage: {@code GoldenTrace record <file> [games] [seed]} or
+     * {@code GoldenTrace check <file> [compact]}.
+     *
+     * @param args the mode, the trace file, and for {@code record} the number of
+     *             games (default 1000) and root seed (default 0), or for
+     *             {@code check} the word {@code compact} to replay on {@link CompactGame}
+     * @throws IOException if the trace cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args[1]);
+        long start = System.nanoTime();
+        if (args[0].equals("record")) {
+            int games = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+            record(CardCatalog.STANDARD, games, seed).save(file);
+            System.out.printf("Recorded %d games in %.2f s%n", games, (System.nanoTime() - start) / 1e9);
+            return;
+        }
+        GoldenTrace trace = load(file, CardCatalog.STANDARD);
+        Divergence divergence = trace.check(args.length > 2 && args[2].equals("compact"));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(divergence == null ? "All " + trace.getGames() + " games replay exactly" : divergence);
+        System.out.printf("Checked in %.2f s (%.0f games/s)%n", seconds, trace.getGames() / seconds);
+        if (divergence != null) {
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Compares a replayed game's events against its trace, reading the trace as
+     * a cursor over the records. Any difference stops the game by throwing
+     * {@link DivergenceFound}.
+     */
+    private static final class Checker implements GameEventSink {
+        /** The game records */
+        private final byte[] data;
+        /** Read position in {@link #data} */
+        int pos;
+        /** Traced length of the game being replayed */
+        int turns;
+        /** Traced final points of the game being replayed, by seat */
+        final int[] points = new int[MAX_PLAYERS];
+        /** The turn being replayed */
+        private int turn;
+        
+        /**
+         * Constructs a checker positioned at the first record.
+         *
+         * @param data the game records
+         */
+        Checker(byte[] data) {
+            this.data = data;
+        }
+        
+        @Override
+        public void turnStarted(int turnNumber, int seat) {
+            turn = turnNumber;
+            if (turn >= turns) {
+                throw new DivergenceFound(turn, "traced game ended after " + turns + " turns");
+            }
+            expect("seat", readByte(), seat);
+        }
+        
+        @Override
+        public void handRevealed(int seat, byte[] hand, int size) {
+            int traced = readByte();
+            if (traced != size || !Arrays.equals(data, pos, pos + size, hand, 0, size)) {
+                throw new DivergenceFound(turn, "hand " + Arrays.toString(Arrays.copyOfRange(data, pos, pos + traced))
+                    + " replayed as " + Arrays.toString(Arrays.copyOf(hand, size)));
+            }
+            pos += size;
+        }
+        
+        @Override
+        public void coinsCounted(int seat, int coins) {
+            expect("coins", readVarint(), coins);
+        }
+        
+        @Override
+        public void cardBought(int seat, int cardId) {
+            expect("card bought", readByte() - 1, cardId);
+        }
+        
+        @Override
+        public void nothingBought(int seat) {
+            expect("card bought", readByte() - 1, -1);
+        }
+        
+        @Override
+        public void gameEnded(GameResult result) {
+            turn = result.getTurns();
+            expect("turns", turns, turn);
+            for (int seat = 0; seat < result.getPlayerCount(); seat++) {
+                expect("points of seat " + seat, points[seat], result.getPoints(seat));
+            }
+        }
+        
+        /**
+         * Stops the game if a replayed value differs from the traced one.
+         *
+         * @param what the name of the value
+         * @param traced the traced value
+         * @param replayed the replayed value
+         */
+        private void expect(String what, int traced, int replayed) {
+            if (traced != replayed) {
+                throw new DivergenceFound(turn, what + " " + traced + " replayed as " + replayed);
+            }
+        }
+        
+        /**
+         * Reads one unsigned byte.
+         *
+         * @return the byte's value
+         */
+        int readByte() {
+            return data[pos++] & 0xff;
+        }
+        
+        /**
+         * Reads a big-endian long.
+         *
+         * @return the value
+         */
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value = (value << 8) | readByte();
+            }
+            return value;
+        }
+        
+        /**
+         * Reads an unsigned LEB128 varint.
+         *
+         * @return the decoded value
+         */
+        int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+    
+    /**
+     * Collects the trace of each game from its events.
+     */
+    private static final class Recorder implements GameEventSink {
+        /** Finished game records */
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        /** Scratch space for a record's header */
+        private final byte[] header = new byte[8 + 1 + MAX_PLAYERS + 5 * (MAX_PLAYERS + 2)];
+        /** Turn data of the game in progress */
+        private byte[] turns = new byte[1024];
+        /** Number of bytes used in {@link #turns} */
+        private int size;
+        /** Seed of the game in progress */
+        private long seed;
+        /** Strategy index of each seat of the game in progress */
+        private byte[] strategies;
+        
+        /**
+         * Starts tracing a new game.
+         *
+         * @param gameSeed the seed the game is played from
+         * @param seatStrategies the strategy index of each seat
+         */
+        void begin(long gameSeed, byte[] seatStrategies) {
+            seed = gameSeed;
+            strategies = seatStrategies;
+            size = 0;
+        }
+        
+        @Override
+        public void turnStarted(int turn, int seat) {
+            // A hand, a varint and three bytes at most
+            if (turns.length - size < 64) {
+                turns = Arrays.copyOf(turns, turns.length * 2);
+            }
+            turns[size++] = (byte) seat;
+        }
+        
+        @Override
+        public void handRevealed(int seat, byte[] hand, int handSize) {
+            if (turns.length - size < handSize + 16) {
+                turns = Arrays.copyOf(turns, Math.max(turns.length * 2, size + handSize + 16));
+            }
+            turns[size++] = (byte) handSize;
+            System.arraycopy(hand, 0, turns, size, handSize);
+            size += handSize;
+        }
+        
+        @Override
+        public void coinsCounted(int seat, int coins) {
+            size = GameRecordWriter.putVarint(turns, size, coins);
+        }
+        
+        @Override
+        public void cardBought(int seat, int cardId) {
+            turns[size++] = (byte) (cardId + 1);
+        }
+        
+        @Override
+        public void nothingBought(int seat) {
+            turns[size++] = 0;
+        }
+        
+        @Override
+        public void gameEnded(GameResult result) {
+            int pos = 0;
+            for (int i = Long.BYTES - 1; i >= 0; i--) {
+                header[pos++] = (byte) (seed >>> (8 * i));
+            }
+            header[pos++] = (byte) strategies.length;
+            for (byte strategy : strategies) {
+                header[pos++] = strategy;
+            }
+            pos = GameRecordWriter.putVarint(header, pos, result.getTurns());
+            for (int seat = 0; seat < result.getPlayerCount(); seat++) {
+                pos = GameRecordWriter.putVarint(header, pos, result.getPoints(seat));
+            }
+            pos = GameRecordWriter.putVarint(header, pos, size);
+            out.write(header, 0, pos);
+            out.write(turns, 0, size);
+        }
+    }
+}
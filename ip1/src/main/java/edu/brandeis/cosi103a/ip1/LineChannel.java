@@ -0,0 +1,99 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A socket that exchanges short ASCII lines, used by both ends of the game
+ * protocol. Lines are read into a fixed buffer, so a peer that never sends a
+ * newline cannot make this side allocate without bound.
+ */
+final class LineChannel implements AutoCloseable {
+    /** Longest line accepted, excluding the newline */
+    static final int MAX_LINE = 128;
+    
+    /** The underlying socket */
+    private final Socket socket;
+    /** Buffered socket input */
+    private final InputStream in;
+    /** Buffered socket output, flushed after every line */
+    private final OutputStream out;
+    /** Scratch buffer for the line being read */
+    private final byte[] line = new byte[MAX_LINE];
+    
+    /**
+     * Wraps a connected socket.
+     *
+     * @param socket the connected socket
+     * @throws IOException if the socket's streams cannot be opened
+     */
+    LineChannel(Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new BufferedInputStream(socket.getInputStream(), 512);
+        this.out = new BufferedOutputStream(socket.getOutputStream(), 512);
+    }
+    
+    /**
+     * Reads one line, without its terminating newline or carriage return.
+     *
+     * @return the line, or null if the peer closed the connection
+     * @throws IOException if the line is too long, the read times out, or the socket fails
+     */
+    String readLine() throws IOException {
+        int length = 0;
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                if (length == 0) {
+                    return null;
+                }
+                throw new EOFException("Connection closed mid-line");
+            }
+            if (length == MAX_LINE) {
+                throw new IOException("Line longer than " + MAX_LINE + " bytes");
+            }
+            line[length++] = (byte) b;
+        }
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, StandardCharsets.US_ASCII);
+    }
+    
+    /**
+     * Writes one line and flushes it.
+     *
+     * @param text the line, without a newline
+     * @throws IOException if the socket fails
+     */
+    void writeLine(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.US_ASCII));
+        out.write('\n');
+        out.flush();
+    }
+    
+    /**
+     * Gets the underlying socket.
+     *
+     * @return the socket
+     */
+    Socket getSocket() {
+        return socket;
+    }
+    
+    /**
+     * Closes the socket.
+     *
+     * @throws IOException if the socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
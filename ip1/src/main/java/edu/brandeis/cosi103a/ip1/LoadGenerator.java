@@ -0,0 +1,185 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local load generator for a {@link GameServer}. Opens many sessions at once,
+ * each on a virtual thread playing one game with the greedy strategy over the
+ * socket, and reports sessions per second and turn latency percentiles.
+ */
+final class LoadGenerator {
+    /** Client read timeout, in milliseconds */
+    private static final int TIMEOUT_MILLIS = 30_000;
+    
+    /** The server's host name */
+    private final String host;
+    /** The server's port */
+    private final int port;
+    
+    /**
+     * Constructs a load generator for a server.
+     *
+     * @param host the server's host name
+     * @param port the server's port
+     */
+    LoadGenerator(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+    
+    /**
+     * Plays one game in each of the given number of sessions.
+     *
+     * @param sessions the number of sessions to open
+     * @param concurrency the most sessions open at once
+     * @param seed the seed the games' seeds are drawn from
+     * @return the measured throughput and latencies
+     * @throws InterruptedException if interrupted while waiting for sessions
+     */
+    LoadReport run(int sessions, int concurrency, long seed) throws InterruptedException {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        Semaphore open = new Semaphore(concurrency);
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger failures = new AtomicInteger();
+        
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sessions; i++) {
+                long gameSeed = seeds.nextLong();
+                open.acquire();
+                executor.execute(() -> {
+                    try {
+                        latencies.add(playSession(gameSeed));
+                    } catch (IOException | RuntimeException e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        open.release();
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        int turns = 0;
+        for (long[] session : latencies) {
+            turns += session.length;
+        }
+        long[] all = new long[turns];
+        int offset = 0;
+        for (long[] session : latencies) {
+            System.arraycopy(session, 0, all, offset, session.length);
+            offset += session.length;
+        }
+        return new LoadReport(latencies.size(), failures.get(), elapsed, all);
+    }
+    
+    /**
+     * Connects, plays one greedy game and quits.
+     *
+     * @param seed the game's seed
+     * @return the latency of each of the client's turns after its first, in nanoseconds
+     * @throws IOException if the connection fails or the server breaks the protocol
+     */
+    long[] playSession(long seed) throws IOException {
+        Socket socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(TIMEOUT_MILLIS);
+        try (LineChannel channel = new LineChannel(socket)) {
+            expect(channel, "HELLO");
+            channel.writeLine("PLAY " + seed);
+            expect(channel, "GAME");
+            
+            CardCatalog catalog = CardCatalog.STANDARD;
+            BuyTable table = new BuyTable(catalog, CardScorer.GREEDY);
+            long[] latencies = new long[64];
+            int count = 0;
+            long sent = 0;
+            int choice = -1;
+            int coins = 0;
+            while (true) {
+                String line = expect(channel, null);
+                long received = System.nanoTime();
+                if (line.startsWith("ERR")) {
+                    // The pile ran out since we last looked; pick again without it
+                    table.pileEmptied(choice);
+                } else if (sent != 0) {
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = received - sent;
+                }
+                if (line.startsWith("END")) {
+                    channel.writeLine("QUIT");
+                    expect(channel, "BYE");
+                    return Arrays.copyOf(latencies, count);
+                }
+                if (line.startsWith("TURN")) {
+                    coins = Integer.parseInt(line.split(" ")[2]);
+                } else if (!line.startsWith("ERR") || choice < 0) {
+                    throw new IOException("Unexpected line from server: " + line);
+                }
+                choice = table.choose(coins);
+                sent = System.nanoTime();
+                channel.writeLine(choice < 0 ? "PASS" : "BUY " + catalog.getName(choice));
+            }
+        }
+    }
+    
+    /**
+     * Reads a line and checks its first word.
+     *
+     * @param channel the connection
+     * @param word the expected first word, or null to accept any line
+     * @return the line
+     * @throws IOException if the connection closed or the line starts with another word
+     */
+    private static String expect(LineChannel channel, String word) throws IOException {
+        String line = channel.readLine();
+        if (line == null) {
+            throw new IOException("Server closed the connection");
+        }
+        if (word != null && !line.startsWith(word)) {
+            throw new IOException("Expected " + word + " but got: " + line);
+        }
+        return line;
+    }
+    
+    /**
+     * Runs a load test, starting an in-process server unless a port is given.
+     *
+     * @param args optional session count, concurrency, seed and server port
+     * @throws IOException if the in-process server cannot be started
+     * @throws InterruptedException if interrupted while waiting for sessions
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : new SplittableRandom().nextLong();
+        GameServer server = null;
+        int port;
+        if (args.length > 3) {
+            port = Integer.parseInt(args[3]);
+        } else {
+            server = new GameServer(0, concurrency, TIMEOUT_MILLIS, ScoredStrategy.GREEDY, seed);
+            server.start();
+            port = server.getPort();
+        }
+        try {
+            String host = InetAddress.getLoopbackAddress().getHostAddress();
+            System.out.println(new LoadGenerator(host, port).run(sessions, concurrency, seed));
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+}
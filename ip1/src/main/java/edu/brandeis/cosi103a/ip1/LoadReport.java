@@ -0,0 +1,95 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.Arrays;
+
+/**
+ * Throughput and turn latency measured by a {@link LoadGenerator} run.
+ */
+class LoadReport {
+    /** Number of sessions that played their game to the end */
+    private final int sessions;
+    /** Number of sessions that failed */
+    private final int failures;
+    /** Wall-clock duration of the run, in nanoseconds */
+    private final long elapsedNanos;
+    /** Every measured turn latency in nanoseconds, sorted */
+    private final long[] latencies;
+    
+    /**
+     * Constructs a report.
+     *
+     * @param sessions the number of completed sessions
+     * @param failures the number of failed sessions
+     * @param elapsedNanos the duration of the run, in nanoseconds
+     * @param latencies the measured turn latencies in nanoseconds, in any order; sorted in place
+     */
+    LoadReport(int sessions, int failures, long elapsedNanos, long[] latencies) {
+        this.sessions = sessions;
+        this.failures = failures;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = latencies;
+        Arrays.sort(latencies);
+    }
+    
+    /**
+     * Gets the number of sessions that played their game to the end.
+     *
+     * @return the completed session count
+     */
+    int getSessions() {
+        return sessions;
+    }
+    
+    /**
+     * Gets the number of sessions that failed.
+     *
+     * @return the failed session count
+     */
+    int getFailures() {
+        return failures;
+    }
+    
+    /**
+     * Gets the number of turns whose latency was measured.
+     *
+     * @return the turn count
+     */
+    int getTurns() {
+        return latencies.length;
+    }
+    
+    /**
+     * Gets the completed sessions per second of wall-clock time.
+     *
+     * @return the session rate
+     */
+    double getSessionsPerSecond() {
+        return sessions / (elapsedNanos / 1e9);
+    }
+    
+    /**
+     * Gets a turn latency percentile: the time from the client sending its buy to
+     * receiving its next prompt, which includes the server's own turn.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the latency in nanoseconds, or 0 if nothing was measured
+     */
+    long getLatencyPercentile(double percentile) {
+        if (latencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+        return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Sessions: %d (%d failed) in %.2f s, %.0f sessions/s%n",
+            sessions, failures, elapsedNanos / 1e9, getSessionsPerSecond()));
+        sb.append(String.format("Turn latency: p50 %.1f us, p99 %.1f us, max %.1f us (%d turns)",
+            getLatencyPercentile(50) / 1e3, getLatencyPercentile(99) / 1e3,
+            getLatencyPercentile(100) / 1e3, latencies.length));
+        return sb.toString();
+    }
+}
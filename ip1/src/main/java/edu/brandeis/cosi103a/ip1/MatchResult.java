@@ -0,0 +1,179 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * Outcome of an {@link AdaptiveMatch}: how many games were played before the
+ * match stopped, which strategy (if either) was found to be stronger, and the
+ * statistics the decision was based on.
+ */
+final class MatchResult {
+    /** What the match concluded */
+    enum Verdict {
+        /** The first strategy wins more than half its games */
+        FIRST_BETTER,
+        /** The second strategy wins more than half its games */
+        SECOND_BETTER,
+        /** The game cap was reached without a significant difference */
+        UNDECIDED
+    }
+    
+    /** The first strategy's name */
+    private final String first;
+    /** The second strategy's name */
+    private final String second;
+    /** The rule that decided when to stop */
+    private final AdaptiveMatch.StopRule rule;
+    /** The verdict */
+    private final Verdict verdict;
+    /** Number of games played */
+    private final long games;
+    /** Most games the match would have played */
+    private final long maxGames;
+    /** Games won by the first strategy */
+    private final long wins;
+    /** Games lost by the first strategy */
+    private final long losses;
+    /** The first strategy's per-deal scores */
+    private final RunningStats scores;
+    /** Normal quantile of the configured confidence */
+    private final double z;
+    /** Log-likelihood ratio of the sequential probability ratio test */
+    private final double logLikelihoodRatio;
+    
+    /**
+     * Constructs a result.
+     *
+     * @param first the first strategy's name
+     * @param second the second strategy's name
+     * @param rule the rule that decided when to stop
+     * @param verdict the verdict
+     * @param games the number of games played
+     * @param maxGames the most games the match would have played
+     * @param wins games won by the first strategy
+     * @param losses games lost by the first strategy
+     * @param scores the first strategy's per-deal scores
+     * @param z the normal quantile of the configured confidence
+     * @param logLikelihoodRatio the final log-likelihood ratio of the SPRT
+     */
+    MatchResult(String first, String second, AdaptiveMatch.StopRule rule, Verdict verdict, long games,
+                long maxGames, long wins, long losses, RunningStats scores, double z, double logLikelihoodRatio) {
+        this.first = first;
+        this.second = second;
+        this.rule = rule;
+        this.verdict = verdict;
+        this.games = games;
+        this.maxGames = maxGames;
+        this.wins = wins;
+        this.losses = losses;
+        this.scores = scores;
+        this.z = z;
+        this.logLikelihoodRatio = logLikelihoodRatio;
+    }
+    
+    /**
+     * Gets what the match concluded.
+     *
+     * @return the verdict
+     */
+    Verdict getVerdict() {
+        return verdict;
+    }
+    
+    /**
+     * Gets the number of games played.
+     *
+     * @return the game count
+     */
+    long getGames() {
+        return games;
+    }
+    
+    /**
+     * Gets the number of games the cap allowed but stopping early made unnecessary.
+     *
+     * @return the games saved
+     */
+    long getGamesSaved() {
+        return maxGames - games;
+    }
+    
+    /**
+     * Gets the games won by the first strategy.
+     *
+     * @return the first strategy's wins
+     */
+    long getWins() {
+        return wins;
+    }
+    
+    /**
+     * Gets the games lost by the first strategy.
+     *
+     * @return the first strategy's losses
+     */
+    long getLosses() {
+        return losses;
+    }
+    
+    /**
+     * Gets the first strategy's win rate, counting ties as half a win.
+     *
+     * @return the mean per-deal score
+     */
+    double getWinRate() {
+        return scores.getCount() == 0 ? 0.5 : scores.getMean();
+    }
+    
+    /**
+     * Gets the half-width of the confidence interval of {@link #getWinRate()},
+     * from the variance of the per-deal scores.
+     *
+     * @return the interval half-width
+     */
+    double getHalfWidth() {
+        return z * scores.getStandardError();
+    }
+    
+    /**
+     * Gets the lower bound of the Wilson interval of the first strategy's share
+     * of decisive games.
+     *
+     * @return the lower bound
+     */
+    double getWilsonLower() {
+        return RunningStats.wilsonLower(wins, wins + losses, z);
+    }
+    
+    /**
+     * Gets the upper bound of the Wilson interval of the first strategy's share
+     * of decisive games.
+     *
+     * @return the upper bound
+     */
+    double getWilsonUpper() {
+        return RunningStats.wilsonUpper(wins, wins + losses, z);
+    }
+    
+    /**
+     * Gets the log-likelihood ratio of "the first strategy is better" over
+     * "the second strategy is better" after the last game.
+     *
+     * @return the SPRT statistic
+     */
+    double getLogLikelihoodRatio() {
+        return logLikelihoodRatio;
+    }
+    
+    /**
+     * Summarizes the match.
+     *
+     * @return the verdict, game counts and statistics
+     */
+    @Override
+    public String toString() {
+        return String.format("%s vs %s: %s by %s after %d of %d games (%d saved)%n"
+                + "  win rate %.4f+/-%.4f, record %d-%d-%d, Wilson [%.4f, %.4f], SPRT LLR %.2f",
+            first, second, verdict, rule, games, maxGames, getGamesSaved(),
+            getWinRate(), getHalfWidth(), wins, losses, games - wins - losses,
+            getWilsonLower(), getWilsonUpper(), logLikelihoodRatio);
+    }
+}
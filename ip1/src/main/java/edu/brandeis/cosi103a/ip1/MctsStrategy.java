@@ -0,0 +1,434 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buy strategy that searches with information-set Monte Carlo tree search.
+ * Each iteration copies the game into a {@link CompactGame}, reshuffles every
+ * card the deciding player cannot see ({@link CompactGame#determinize}), walks a
+ * tree of buy decisions with UCB1, and finishes the game with a fast greedy
+ * rollout. Every seat in the tree picks the moves that are best for itself.
+ *
+ * <p>The search is root-parallel: each worker grows its own tree, so workers
+ * share nothing while searching, and adds its root visit counts to lock-free
+ * counters that pick the move. A decision stops at its time budget or after
+ * a maximum number of rollouts, whichever comes first. The game being decided
+ * is read through {@link GameView#copyInto}, which every engine implements.
+ */
+final class MctsStrategy implements Strategy, AutoCloseable {
+    /** UCB1 exploration constant */
+    private static final double EXPLORATION = 0.7;
+    /** How many rollouts a worker plays between clock checks */
+    private static final int CLOCK_INTERVAL = 16;
+    
+    /** Time budget per decision, in nanoseconds */
+    private final long budgetNanos;
+    /** Most rollouts per decision, across all workers */
+    private final long maxRollouts;
+    /** Number of search workers per decision */
+    private final int threads;
+    /** Seed that, with the turn number, seeds each decision's workers */
+    private final long seed;
+    /** Runs the workers, or null when searching on the caller's thread */
+    private final ExecutorService pool;
+    /** Each pool thread's reusable search state */
+    private final ThreadLocal<Worker> workers = new ThreadLocal<>();
+    
+    /** Rollouts played over all decisions */
+    private final LongAdder rollouts = new LongAdder();
+    /** Decisions made */
+    private final LongAdder decisions = new LongAdder();
+    /** Wall-clock time spent deciding, in nanoseconds */
+    private final LongAdder searchNanos = new LongAdder();
+    
+    /**
+     * Constructs a strategy that searches until its time budget runs out.
+     *
+     * @param budgetNanos time budget per decision, in nanoseconds
+     * @param threads the number of search workers per decision
+     */
+    MctsStrategy(long budgetNanos, int threads) {
+        this(budgetNanos, Long.MAX_VALUE, threads, 0);
+    }
+    
+    /**
+     * Constructs a strategy.
+     *
+     * @param budgetNanos time budget per decision, in nanoseconds
+     * @param maxRollouts most rollouts per decision, across all workers
+     * @param threads the number of search workers per decision, at least 1
+     * @param seed the seed for the searches' random numbers
+     */
+    MctsStrategy(long budgetNanos, long maxRollouts, int threads, long seed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.budgetNanos = budgetNanos;
+        this.maxRollouts = maxRollouts;
+        this.threads = threads;
+        this.seed = seed;
+        this.pool = threads == 1 ? null : Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "mcts-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @Override
+    public int chooseCard(GameView view) {
+        long start = System.nanoTime();
+        CardCatalog catalog = view.getCatalog();
+        AtomicLongArray visits = new AtomicLongArray(catalog.size() + 1);
+        long decisionSeed = Tournament.mix(seed ^ Tournament.mix(view.getTurnCount()));
+        
+        long played;
+        if (pool == null) {
+            played = search(view, start, maxRollouts, new SplittableRandom(decisionSeed), visits);
+        } else {
+            List<Callable<Long>> tasks = new ArrayList<>();
+            for (int w = 0; w < threads; w++) {
+                long share = maxRollouts / threads + (w < maxRollouts % threads ? 1 : 0);
+                SplittableRandom random = new SplittableRandom(decisionSeed + w);
+                tasks.add(() -> search(view, start, share, random, visits));
+            }
+            played = 0;
+            try {
+                for (Future<Long> future : pool.invokeAll(tasks)) {
+                    played += future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Search interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search failed", e.getCause());
+            }
+        }
+        
+        int best = 0;
+        for (int slot = 1; slot < visits.length(); slot++) {
+            if (visits.get(slot) > visits.get(best)) {
+                best = slot;
+            }
+        }
+        if (played == 0) {
+            // No time for even one rollout: fall back to the heuristic
+            best = ScoredStrategy.GREEDY.chooseCard(view) + 1;
+        }
+        rollouts.add(played);
+        decisions.increment();
+        searchNanos.add(System.nanoTime() - start);
+        return best - 1;
+    }
+    
+    /**
+     * Grows one search tree from the view's position and adds its root visit
+     * counts to the shared counters.
+     *
+     * @param view the position to search from
+     * @param start when the decision started, in {@link System#nanoTime()} units
+     * @param limit the most rollouts to play
+     * @param random this worker's generator
+     * @param visits the shared root visit counts, indexed by action slot
+     * @return the number of rollouts played
+     */
+    private long search(GameView view, long start, long limit, SplittableRandom random, AtomicLongArray visits) {
+        Worker worker = workerFor(view);
+        CompactGame root = worker.root;
+        view.copyInto(root);
+        int observer = view.getCurrentSeat();
+        Node tree = new Node(observer, root.getCatalog().size() + 1);
+        
+        long played = 0;
+        while (played < limit && (played % CLOCK_INTERVAL != 0 || System.nanoTime() - start < budgetNanos)) {
+            CompactGame game = worker.game;
+            game.copyFrom(root);
+            game.determinize(observer, random);
+            worker.iterate(tree, game, random);
+            played++;
+        }
+        for (int slot = 0; slot < tree.visits.length; slot++) {
+            if (tree.visits[slot] > 0) {
+                visits.addAndGet(slot, tree.visits[slot]);
+            }
+        }
+        return played;
+    }
+    
+    /**
+     * Gets the calling thread's search state, creating it on first use or when
+     * the game's shape has changed.
+     *
+     * @param view the game being searched
+     * @return the thread's worker
+     */
+    private Worker workerFor(GameView view) {
+        Worker worker = workers.get();
+        if (worker == null || worker.root.getCatalog() != view.getCatalog()
+                || worker.root.getPlayerCount() != view.getPlayerCount()) {
+            worker = new Worker(view.getCatalog(), view.getPlayerCount());
+            workers.set(worker);
+        }
+        return worker;
+    }
+    
+    /**
+     * Gets the number of rollouts played over all decisions.
+     *
+     * @return the rollout count
+     */
+    long getRollouts() {
+        return rollouts.sum();
+    }
+    
+    /**
+     * Gets the number of decisions made.
+     *
+     * @return the decision count
+     */
+    long getDecisions() {
+        return decisions.sum();
+    }
+    
+    /**
+     * Gets the rollouts played per second of decision time.
+     *
+     * @return the rollout rate, or 0 before the first decision
+     */
+    double getRolloutsPerSecond() {
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : rollouts.sum() / (nanos / 1e9);
+    }
+    
+    /**
+     * Gets the average wall-clock time per decision.
+     *
+     * @return the mean decision time in nanoseconds, or 0 before the first decision
+     */
+    double getAverageDecisionNanos() {
+        long count = decisions.sum();
+        return count == 0 ? 0 : (double) searchNanos.sum() / count;
+    }
+    
+    @Override
+    public String getName() {
+        return "MCTS";
+    }
+    
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * A node of the search tree: the decision of the seat to move after a
+     * sequence of buys. Statistics are kept per action slot, where slot 0 is
+     * buying nothing and slot {@code id + 1} is buying card {@code id}.
+     */
+    private static final class Node {
+        /** The seat that decides at this node */
+        final int seat;
+        /** Child nodes by action slot, created on an action's second visit */
+        final Node[] children;
+        /** Times each action was chosen */
+        final int[] visits;
+        /** Summed rewards of each action, for the deciding seat */
+        final double[] rewards;
+        /** Times each action was legal when this node was reached */
+        final int[] available;
+        
+        /**
+         * Constructs a node with no statistics.
+         *
+         * @param seat the seat that decides here
+         * @param slots the number of action slots
+         */
+        Node(int seat, int slots) {
+            this.seat = seat;
+            children = new Node[slots];
+            visits = new int[slots];
+            rewards = new double[slots];
+            available = new int[slots];
+        }
+    }
+    
+    /**
+     * A search thread's reusable games and path buffer.
+     */
+    private static final class Worker {
+        /** The position being searched, copied from the real game once per decision */
+        final CompactGame root;
+        /** The game each iteration plays out; every seat rolls out greedily */
+        final CompactGame game;
+        /** Nodes visited by the current iteration */
+        private Node[] pathNodes = new Node[64];
+        /** Action slots chosen by the current iteration */
+        private int[] pathSlots = new int[64];
+        /** Scratch list of legal action slots */
+        private final int[] legal;
+        
+        /**
+         * Constructs a worker for games of a given shape.
+         *
+         * @param catalog the card types in play
+         * @param players the number of players
+         */
+        Worker(CardCatalog catalog, int players) {
+            Strategy[] greedy = Collections.nCopies(players, ScoredStrategy.GREEDY).toArray(new Strategy[0]);
+            root = new CompactGame(catalog, greedy);
+            game = new CompactGame(catalog, greedy);
+            legal = new int[catalog.size() + 1];
+        }
+        
+        /**
+         * Runs one iteration: select down the tree, expand one action, roll out
+         * and back up the result.
+         *
+         * @param tree the root node
+         * @param game a determinized copy of the position
+         * @param random the worker's generator
+         */
+        void iterate(Node tree, CompactGame game, SplittableRandom random) {
+            int depth = 0;
+            Node node = tree;
+            while (!game.isGameOver()) {
+                int slot = select(node, game, random);
+                if (depth == pathNodes.length) {
+                    pathNodes = Arrays.copyOf(pathNodes, depth * 2);
+                    pathSlots = Arrays.copyOf(pathSlots, depth * 2);
+                }
+                pathNodes[depth] = node;
+                pathSlots[depth] = slot;
+                depth++;
+                boolean expanded = node.visits[slot] == 0;
+                game.playTurn(slot - 1);
+                if (expanded) {
+                    break;
+                }
+                Node child = node.children[slot];
+                if (child == null) {
+                    child = new Node(game.getCurrentSeat(), node.children.length);
+                    node.children[slot] = child;
+                }
+                node = child;
+            }
+            while (!game.isGameOver()) {
+                game.playTurn();
+            }
+            for (int i = 0; i < depth; i++) {
+                Node visited = pathNodes[i];
+                visited.visits[pathSlots[i]]++;
+                visited.rewards[pathSlots[i]] += reward(game, visited.seat);
+            }
+        }
+        
+        /**
+         * Picks an action at a node: an untried legal action if there is one,
+         * otherwise the legal action with the best UCB1 score.
+         *
+         * @param node the node
+         * @param game the determinized position at the node
+         * @param random the worker's generator
+         * @return the chosen action slot
+         */
+        private int select(Node node, CompactGame game, SplittableRandom random) {
+            CardCatalog catalog = game.getCatalog();
+            int coins = game.getAvailableCoins();
+            int count = 0;
+            legal[count++] = 0;
+            for (int i = 0; i < catalog.getAffordableCount(coins); i++) {
+                int id = catalog.getCardByCost(i);
+                if (game.getSupplyCount(id) > 0) {
+                    legal[count++] = id + 1;
+                }
+            }
+            int untried = 0;
+            for (int i = 0; i < count; i++) {
+                node.available[legal[i]]++;
+                if (node.visits[legal[i]] == 0) {
+                    legal[untried++] = legal[i];
+                }
+            }
+            if (untried > 0) {
+                return legal[random.nextInt(untried)];
+            }
+            int best = legal[0];
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                int slot = legal[i];
+                double score = node.rewards[slot] / node.visits[slot]
+                    + EXPLORATION * Math.sqrt(Math.log(node.available[slot]) / node.visits[slot]);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = slot;
+                }
+            }
+            return best;
+        }
+        
+        /**
+         * Scores a finished game for one seat: 1 for a win, 1/k for a k-way tie
+         * for the most points, 0 otherwise.
+         *
+         * @param game the finished game
+         * @param seat the seat to score
+         * @return the reward
+         */
+        private static double reward(CompactGame game, int seat) {
+            int best = Integer.MIN_VALUE;
+            int tied = 0;
+            for (int s = 0; s < game.getPlayerCount(); s++) {
+                int points = game.getPoints(s);
+                if (points > best) {
+                    best = points;
+                    tied = 1;
+                } else if (points == best) {
+                    tied++;
+                }
+            }
+            return game.getPoints(seat) == best ? 1.0 / tied : 0;
+        }
+    }
+    
+    /**
+     * Plays MCTS against the greedy heuristic on mirrored deals and reports the
+     * win rate, decision latency and rollouts per second.
+     * Usage: {@code MctsStrategy [games] [budgetMillis] [threads] [seed] [cacheSize]}.
+     *
+     * @param args optional game count, per-decision budget, search threads, seed,
+     *             and the number of positions to remember in a {@link CachedStrategy}
+     *             (0, the default, searches every decision)
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        double budgetMillis = args.length > 1 ? Double.parseDouble(args[1]) : 5;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : new SplittableRandom().nextLong();
+        int cacheSize = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        try (MctsStrategy mcts = new MctsStrategy((long) (budgetMillis * 1e6), Long.MAX_VALUE, threads, seed)) {
+            CachedStrategy cache = cacheSize > 0 ? new CachedStrategy(mcts, CardCatalog.STANDARD, cacheSize) : null;
+            Tournament tournament = new Tournament(List.of(cache != null ? cache : mcts, ScoredStrategy.GREEDY), games, 1);
+            System.out.println(tournament.run(seed));
+            System.out.printf("Decisions: %d, %.2f ms each, %.0f rollouts/s%n",
+                mcts.getDecisions(), mcts.getAverageDecisionNanos() / 1e6, mcts.getRolloutsPerSecond());
+            if (cache != null) {
+                System.out.println(cache);
+            }
+        }
+    }
+}
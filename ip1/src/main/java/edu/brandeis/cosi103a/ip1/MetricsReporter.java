@@ -0,0 +1,70 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints a {@link GameMetrics} snapshot at a fixed period from a background
+ * daemon thread. Each line gives the game and turn rates over the last period,
+ * followed by the running totals.
+ */
+final class MetricsReporter implements AutoCloseable {
+    /** The metrics being reported */
+    private final GameMetrics metrics;
+    /** Where snapshots are printed */
+    private final PrintStream out;
+    /** The reporting thread */
+    private final ScheduledExecutorService scheduler;
+    /** Games finished at the previous snapshot */
+    private long lastGames;
+    /** Turns started at the previous snapshot */
+    private long lastTurns;
+    /** Time of the previous snapshot */
+    private long lastNanos;
+    
+    /**
+     * Starts reporting.
+     *
+     * @param metrics the metrics to report
+     * @param out where to print snapshots
+     * @param periodMillis the time between snapshots, in milliseconds
+     */
+    MetricsReporter(GameMetrics metrics, PrintStream out, long periodMillis) {
+        this.metrics = metrics;
+        this.out = out;
+        lastNanos = System.nanoTime();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Prints one snapshot. Runs on the reporting thread, or on the caller's
+     * thread from {@link #close()}.
+     */
+    synchronized void report() {
+        long now = System.nanoTime();
+        long games = metrics.getGames();
+        long turns = metrics.getTurns();
+        double seconds = Math.max(now - lastNanos, 1) / 1e9;
+        out.printf("[metrics] interval games/s=%.1f turns/s=%.1f | %s%n",
+            (games - lastGames) / seconds, (turns - lastTurns) / seconds, metrics);
+        lastGames = games;
+        lastTurns = turns;
+        lastNanos = now;
+    }
+    
+    /**
+     * Stops reporting and prints a final snapshot.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        report();
+    }
+}
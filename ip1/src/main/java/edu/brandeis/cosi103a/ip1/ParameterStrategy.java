@@ -0,0 +1,145 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * A buy strategy defined by a vector of numbers, for {@link StrategyOptimizer} to
+ * tune. For a catalog of {@code n} card types the genes are
+ * <ul>
+ *   <li>{@code n} early-game weights, one per card ID;</li>
+ *   <li>{@code n} late-game weights;</li>
+ *   <li>{@code n} coin thresholds: a card is only bought with at least that many coins;</li>
+ *   <li>one phase switch: the game is late once the end card's pile is down to
+ *       at most this fraction of its starting size.</li>
+ * </ul>
+ * The card bought is the affordable, non-empty, unthrottled card with the
+ * highest weight for the current phase; cards with a negative weight are never
+ * bought, and ties go to the cheaper card, as in {@link BuyTable}. Since the
+ * choice depends on the game phase, the strategy has no {@link CardScorer} and
+ * engines ask it on every decision.
+ *
+ * <p>The genes can be replaced with {@link #setGenes(double[])}, so an
+ * optimizer's worker can keep one instance, and the games built around it, for
+ * every candidate it evaluates. Such an instance must then only be used by
+ * that worker.
+ */
+final class ParameterStrategy implements Strategy {
+    /** The card types the genes are for */
+    private final CardCatalog catalog;
+    /** The strategy's name */
+    private final String name;
+    /** The genes, laid out as described above */
+    private final double[] genes;
+    
+    /**
+     * Constructs a strategy from a gene vector.
+     *
+     * @param name the name shown in reports
+     * @param catalog the card types in play
+     * @param genes the genes, {@link #geneCount(CardCatalog)} of them; copied
+     * @throws IllegalArgumentException if there are the wrong number of genes
+     */
+    ParameterStrategy(String name, CardCatalog catalog, double[] genes) {
+        this.name = name;
+        this.catalog = catalog;
+        this.genes = new double[geneCount(catalog)];
+        setGenes(genes);
+    }
+    
+    /**
+     * Gets the length of a gene vector for a catalog.
+     *
+     * @param catalog the card types in play
+     * @return three genes per card type plus the phase switch
+     */
+    static int geneCount(CardCatalog catalog) {
+        return 3 * catalog.size() + 1;
+    }
+    
+    /**
+     * Gets the genes that make this strategy buy exactly like
+     * {@link ScoredStrategy#GREEDY}: the same weights in both phases, scaled
+     * into [0, 1], and no coin thresholds.
+     *
+     * @param catalog the card types in play
+     * @return the greedy gene vector
+     */
+    static double[] greedyGenes(CardCatalog catalog) {
+        int types = catalog.size();
+        double[] genes = new double[geneCount(catalog)];
+        double max = 1;
+        for (int id = 0; id < types; id++) {
+            max = Math.max(max, CardScorer.GREEDY.score(catalog, id));
+        }
+        for (int id = 0; id < types; id++) {
+            genes[id] = CardScorer.GREEDY.score(catalog, id) / max;
+            genes[types + id] = genes[id];
+        }
+        genes[3 * types] = 0.5;
+        return genes;
+    }
+    
+    /**
+     * Replaces the genes.
+     *
+     * @param values the new genes, {@link #geneCount(CardCatalog)} of them; copied
+     * @throws IllegalArgumentException if there are the wrong number of genes
+     */
+    void setGenes(double[] values) {
+        if (values.length != genes.length) {
+            throw new IllegalArgumentException("Expected " + genes.length + " genes, got " + values.length);
+        }
+        System.arraycopy(values, 0, genes, 0, genes.length);
+    }
+    
+    /**
+     * Gets a copy of the genes.
+     *
+     * @return the gene vector
+     */
+    double[] getGenes() {
+        return genes.clone();
+    }
+    
+    @Override
+    public int chooseCard(GameView view) {
+        int types = catalog.size();
+        int coins = view.getAvailableCoins();
+        int end = catalog.getEndCard();
+        boolean late = view.getSupplyCount(end)
+            <= genes[3 * types] * catalog.getQuantity(end, view.getPlayerCount());
+        int weights = late ? types : 0;
+        int bestCard = -1;
+        double bestValue = 0;
+        int affordable = catalog.getAffordableCount(coins);
+        for (int i = 0; i < affordable; i++) {
+            int id = catalog.getCardByCost(i);
+            double value = genes[weights + id];
+            if (value >= 0 && coins >= genes[2 * types + id] && view.getSupplyCount(id) > 0
+                    && (bestCard < 0 || value > bestValue)) {
+                bestValue = value;
+                bestCard = id;
+            }
+        }
+        return bestCard;
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Describes the genes by card name.
+     *
+     * @return the weights and thresholds of each card and the phase switch
+     */
+    @Override
+    public String toString() {
+        int types = catalog.size();
+        StringBuilder sb = new StringBuilder(name).append(':');
+        for (int id = 0; id < types; id++) {
+            sb.append(String.format(" %s=%.3f/%.3f@%.1f", catalog.getName(id),
+                genes[id], genes[types + id], genes[2 * types + id]));
+        }
+        return sb.append(String.format(" late<=%.2f", genes[3 * types])).toString();
+    }
+}
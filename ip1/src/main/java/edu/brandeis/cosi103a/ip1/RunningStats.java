@@ -0,0 +1,167 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * Streaming mean and variance of a series of observations (Welford's method),
+ * plus the few interval formulas the simulation runners need. Adding an
+ * observation is constant time and the accumulator never stores the series, so
+ * results can be folded in as games finish. Not thread-safe: give each worker
+ * its own accumulator and {@link #merge(RunningStats) merge} them.
+ */
+final class RunningStats {
+    /** Numerator coefficients of Acklam's normal quantile approximation, central region */
+    private static final double[] A = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+        1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+    /** Denominator coefficients, central region */
+    private static final double[] B = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+        6.680131188771972e+01, -1.328068155288572e+01};
+    /** Numerator coefficients, tails */
+    private static final double[] C = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+        -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+    /** Denominator coefficients, tails */
+    private static final double[] D = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+        3.754408661907416e+00};
+    /** Below this probability (and above one minus it) the tail formula is used */
+    private static final double TAIL = 0.02425;
+    
+    /** Number of observations */
+    private long count;
+    /** Mean of the observations */
+    private double mean;
+    /** Sum of squared deviations from the mean */
+    private double m2;
+    
+    /**
+     * Adds one observation.
+     *
+     * @param x the observed value
+     */
+    void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+    }
+    
+    /**
+     * Adds all observations of another accumulator into this one (Chan et al.'s
+     * pairwise update), as if they had been added here one by one.
+     *
+     * @param other the accumulator to merge in
+     */
+    void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+    }
+    
+    /**
+     * Gets the number of observations.
+     *
+     * @return the count
+     */
+    long getCount() {
+        return count;
+    }
+    
+    /**
+     * Gets the mean of the observations.
+     *
+     * @return the mean, or 0 if there are none
+     */
+    double getMean() {
+        return mean;
+    }
+    
+    /**
+     * Gets the sample variance of the observations.
+     *
+     * @return the unbiased variance, or 0 if there are fewer than two observations
+     */
+    double getVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+    
+    /**
+     * Gets the standard error of the mean.
+     *
+     * @return the standard error, or 0 if there are fewer than two observations
+     */
+    double getStandardError() {
+        return count < 2 ? 0 : Math.sqrt(getVariance() / count);
+    }
+    
+    /**
+     * Gets the quantile of the standard normal distribution, e.g. 1.96 for
+     * 0.975. Uses Acklam's rational approximation, accurate to about 1e-9.
+     *
+     * @param p the cumulative probability, strictly between 0 and 1
+     * @return the value below which a standard normal variable falls with probability {@code p}
+     * @throws IllegalArgumentException if {@code p} is not in (0, 1)
+     */
+    static double normalQuantile(double p) {
+        if (!(p > 0 && p < 1)) {
+            throw new IllegalArgumentException("Probability must be in (0, 1): " + p);
+        }
+        if (p < TAIL || p > 1 - TAIL) {
+            // Tails
+            double q = Math.sqrt(-2 * Math.log(p < TAIL ? p : 1 - p));
+            double x = (((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5])
+                / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+            return p < TAIL ? x : -x;
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((A[0] * r + A[1]) * r + A[2]) * r + A[3]) * r + A[4]) * r + A[5]) * q
+            / (((((B[0] * r + B[1]) * r + B[2]) * r + B[3]) * r + B[4]) * r + 1);
+    }
+    
+    /**
+     * Gets the lower bound of the Wilson score interval for a binomial proportion.
+     *
+     * @param successes the number of successes
+     * @param trials the number of trials
+     * @param z the normal quantile of the confidence level
+     * @return the lower bound, or 0 if there were no trials
+     */
+    static double wilsonLower(long successes, long trials, double z) {
+        return wilson(successes, trials, z, -1);
+    }
+    
+    /**
+     * Gets the upper bound of the Wilson score interval for a binomial proportion.
+     *
+     * @param successes the number of successes
+     * @param trials the number of trials
+     * @param z the normal quantile of the confidence level
+     * @return the upper bound, or 1 if there were no trials
+     */
+    static double wilsonUpper(long successes, long trials, double z) {
+        return wilson(successes, trials, z, 1);
+    }
+    
+    /**
+     * Computes one end of the Wilson score interval.
+     *
+     * @param successes the number of successes
+     * @param trials the number of trials
+     * @param z the normal quantile of the confidence level
+     * @param sign -1 for the lower bound, 1 for the upper
+     * @return the bound
+     */
+    private static double wilson(long successes, long trials, double z, int sign) {
+        if (trials == 0) {
+            return sign < 0 ? 0 : 1;
+        }
+        double n = trials;
+        double p = successes / n;
+        double z2 = z * z;
+        double centre = p + z2 / (2 * n);
+        double spread = z * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n));
+        return (centre + sign * spread) / (1 + z2 / n);
+    }
+}
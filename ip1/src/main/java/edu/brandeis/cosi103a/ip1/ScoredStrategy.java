@@ -0,0 +1,65 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * A {@link Strategy} that buys the affordable card with the highest {@link CardScorer} score.
+ */
+final class ScoredStrategy implements Strategy {
+    /** The built-in heuristic of {@link domination#chooseBestCard(int)} */
+    static final ScoredStrategy GREEDY = new ScoredStrategy("Greedy", CardScorer.GREEDY);
+    /** Buys Framework when it can, otherwise the most expensive Cryptocurrency card */
+    static final ScoredStrategy BIG_MONEY = new ScoredStrategy("BigMoney",
+        (catalog, id) -> id == catalog.getEndCard() ? 1000
+            : catalog.isAutomation(id) ? -1 : catalog.getCost(id));
+    
+    /** The strategy's name */
+    private final String name;
+    /** The per-card preference scores */
+    private final CardScorer scorer;
+    
+    /**
+     * Constructs a ScoredStrategy.
+     *
+     * @param name the name shown in reports
+     * @param scorer the per-card preference scores
+     */
+    ScoredStrategy(String name, CardScorer scorer) {
+        this.name = name;
+        this.scorer = scorer;
+    }
+    
+    /**
+     * Scans the affordable cards for the highest score. Engines normally use the
+     * compiled {@link BuyTable} instead; this is the path for callers without one.
+     *
+     * @param view the game as seen by the current player
+     * @return the best card ID, or -1 to buy nothing
+     */
+    @Override
+    public int chooseCard(GameView view) {
+        CardCatalog catalog = view.getCatalog();
+        int bestCard = -1;
+        int bestValue = -1;
+        int affordable = catalog.getAffordableCount(view.getAvailableCoins());
+        for (int i = 0; i < affordable; i++) {
+            int id = catalog.getCardByCost(i);
+            if (view.getSupplyCount(id) > 0) {
+                int cardScore = scorer.score(catalog, id);
+                if (cardScore > bestValue) {
+                    bestValue = cardScore;
+                    bestCard = id;
+                }
+            }
+        }
+        return bestCard;
+    }
+    
+    @Override
+    public CardScorer getScorer() {
+        return scorer;
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+}
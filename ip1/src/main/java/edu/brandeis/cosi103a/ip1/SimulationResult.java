@@ -0,0 +1,119 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * Aggregated statistics over a batch of simulated games.
+ * Instances are built by merging per-worker tallies, so all counters are plain longs.
+ */
+class SimulationResult {
+    /** Number of games won by each seat */
+    private final long[] wins;
+    /** Number of games that ended in a tie */
+    private long ties;
+    /** Number of games played */
+    private long games;
+    /** Sum of the lengths (in turns) of all games */
+    private long totalTurns;
+    
+    /**
+     * Constructs an empty result for games with the given number of players.
+     *
+     * @param players the number of seats per game
+     */
+    SimulationResult(int players) {
+        wins = new long[players];
+    }
+    
+    /**
+     * Records the outcome of one game.
+     *
+     * @param result the finished game's result
+     */
+    void record(GameResult result) {
+        int winner = result.getWinner();
+        if (winner < 0) {
+            ties++;
+        } else {
+            wins[winner]++;
+        }
+        games++;
+        totalTurns += result.getTurns();
+    }
+    
+    /**
+     * Adds all tallies from another result into this one.
+     *
+     * @param other the result to merge in
+     */
+    void merge(SimulationResult other) {
+        for (int seat = 0; seat < wins.length; seat++) {
+            wins[seat] += other.wins[seat];
+        }
+        ties += other.ties;
+        games += other.games;
+        totalTurns += other.totalTurns;
+    }
+    
+    /**
+     * Gets the number of games played.
+     *
+     * @return the game count
+     */
+    long getGames() {
+        return games;
+    }
+    
+    /**
+     * Gets the number of games won by the given seat.
+     *
+     * @param seat the seat index (0 = Player 1)
+     * @return the number of wins
+     */
+    long getWins(int seat) {
+        return wins[seat];
+    }
+    
+    /**
+     * Gets the fraction of games won by the given seat.
+     *
+     * @param seat the seat index (0 = Player 1)
+     * @return the win rate in [0, 1], or 0 if no games were played
+     */
+    double getWinRate(int seat) {
+        return games == 0 ? 0 : (double) wins[seat] / games;
+    }
+    
+    /**
+     * Gets the fraction of games that ended in a tie.
+     *
+     * @return the tie rate in [0, 1], or 0 if no games were played
+     */
+    double getTieRate() {
+        return games == 0 ? 0 : (double) ties / games;
+    }
+    
+    /**
+     * Gets the average number of turns per game.
+     *
+     * @return the mean game length, or 0 if no games were played
+     */
+    double getAverageTurns() {
+        return games == 0 ? 0 : (double) totalTurns / games;
+    }
+    
+    /**
+     * Formats the results as a short multi-line report.
+     *
+     * @return a human-readable summary
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Games played: ").append(games).append('\n');
+        for (int seat = 0; seat < wins.length; seat++) {
+            sb.append(String.format("Player %d win rate: %.4f%n", seat + 1, getWinRate(seat)));
+        }
+        sb.append(String.format("Tie rate: %.4f%n", getTieRate()));
+        sb.append(String.format("Average game length: %.2f turns", getAverageTurns()));
+        return sb.toString();
+    }
+}
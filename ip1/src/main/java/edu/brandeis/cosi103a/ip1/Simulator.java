@@ -0,0 +1,338 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
+import javax.management.JMException;
+
+/**
+ * Headless batch runner that plays many independent games in parallel.
+ * Games are split into fixed-size chunks that run on a pool of worker threads.
+ * Each chunk gets its own generator, split from one root seed in chunk order, and
+ * tallies its games locally; the per-chunk tallies are merged once at the end,
+ * so workers never share state and a run's totals depend only on the seed, not
+ * on the number of threads. Every game is seeded with a single 64-bit value
+ * drawn from its chunk's generator, so any game can be replayed on its own.
+ * In compact mode each chunk reuses a single {@link CompactGame} instead of
+ * building a {@link domination} object graph per game. Games use the standard
+ * card set unless another {@link CardCatalog} is given, e.g. one loaded from a
+ * card file.
+ */
+class Simulator {
+    /** Number of games per parallel task */
+    private static final int CHUNK = 10_000;
+    
+    /** The number of worker threads */
+    private final int threads;
+    /** Whether games are played on the primitive {@link CompactGame} representation */
+    private final boolean compact;
+    /** The number of players in each game */
+    private final int players;
+    /** The card types in play */
+    private final CardCatalog catalog;
+    /** Where every game's events go; shared by all workers */
+    private GameEventSink events = GameEventSink.NONE;
+    
+    /**
+     * Constructs a Simulator that uses one worker per available processor.
+     */
+    Simulator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Constructs a Simulator with the given number of worker threads.
+     *
+     * @param threads the number of worker threads, at least 1
+     */
+    Simulator(int threads) {
+        this(threads, false);
+    }
+    
+    /**
+     * Constructs a Simulator with the given number of worker threads and game representation.
+     *
+     * @param threads the number of worker threads, at least 1
+     * @param compact true to play games on {@link CompactGame}, false to use {@link domination}
+     */
+    Simulator(int threads, boolean compact) {
+        this(threads, compact, 2);
+    }
+    
+    /**
+     * Constructs a Simulator for games with the given number of players.
+     *
+     * @param threads the number of worker threads, at least 1
+     * @param compact true to play games on {@link CompactGame}, false to use {@link domination}
+     * @param players the number of players in each game, at least 2
+     */
+    Simulator(int threads, boolean compact, int players) {
+        this(threads, compact, players, CardCatalog.STANDARD);
+    }
+    
+    /**
+     * Constructs a Simulator for games over the given card set.
+     *
+     * @param threads the number of worker threads, at least 1
+     * @param compact true to play games on {@link CompactGame}, false to use {@link domination}
+     * @param players the number of players in each game, at least 2
+     * @param catalog the card types in play
+     */
+    Simulator(int threads, boolean compact, int players, CardCatalog catalog) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        if (players < 2) {
+            throw new IllegalArgumentException("players must be at least 2");
+        }
+        this.threads = threads;
+        this.compact = compact;
+        this.players = players;
+        this.catalog = catalog;
+    }
+    
+    /**
+     * Sends the events of every game to a sink, e.g. {@link GameMetrics}. All
+     * workers share the sink, so it must be thread-safe.
+     *
+     * @param sink the event sink, or {@link GameEventSink#NONE} for silent games
+     */
+    void setEventSink(GameEventSink sink) {
+        events = sink;
+    }
+    
+    /**
+     * Plays the given number of silent games from a random seed.
+     *
+     * @param games the total number of games to play
+     * @return the aggregated win rates, tie rate and average game length
+     */
+    SimulationResult run(long games) {
+        return run(games, new SplittableRandom().nextLong());
+    }
+    
+    /**
+     * Plays the given number of silent games and aggregates their outcomes.
+     *
+     * @param games the total number of games to play
+     * @param seed the root seed; the same seed gives the same totals
+     * @return the aggregated win rates, tie rate and average game length
+     */
+    SimulationResult run(long games, long seed) {
+        SplittableRandom root = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SimulationResult>> futures = new ArrayList<>();
+            for (long from = 0; from < games; from += CHUNK) {
+                long share = Math.min(CHUNK, games - from);
+                SplittableRandom chunkRandom = root.split();
+                futures.add(pool.submit(() -> compact
+                    ? playCompactBatch(share, chunkRandom, players, catalog, events)
+                    : playBatch(share, chunkRandom, players, catalog, events)));
+            }
+            SimulationResult total = new SimulationResult(players);
+            for (Future<SimulationResult> future : futures) {
+                total.merge(future.get());
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Plays a batch of games on the calling thread.
+     *
+     * @param games the number of games to play
+     * @param seeds the generator owned by the calling thread, which seeds each game
+     * @return the tallies for this batch
+     */
+    static SimulationResult playBatch(long games, RandomGenerator seeds) {
+        return playBatch(games, seeds, 2);
+    }
+    
+    /**
+     * Plays a batch of games with the given number of players on the calling thread.
+     *
+     * @param games the number of games to play
+     * @param seeds the generator owned by the calling thread, which seeds each game
+     * @param players the number of players in each game
+     * @return the tallies for this batch
+     */
+    static SimulationResult playBatch(long games, RandomGenerator seeds, int players) {
+        return playBatch(games, seeds, players, CardCatalog.STANDARD, GameEventSink.NONE);
+    }
+    
+    /**
+     * Plays a batch of games with the given number of players and card set on
+     * the calling thread, sending their events to a sink.
+     *
+     * @param games the number of games to play
+     * @param seeds the generator owned by the calling thread, which seeds each game
+     * @param players the number of players in each game
+     * @param catalog the card types in play
+     * @param sink where the games' events go
+     * @return the tallies for this batch
+     */
+    static SimulationResult playBatch(long games, RandomGenerator seeds, int players, CardCatalog catalog,
+                                      GameEventSink sink) {
+        Strategy[] strategies = new Strategy[players];
+        Arrays.fill(strategies, ScoredStrategy.GREEDY);
+        SimulationResult result = new SimulationResult(players);
+        for (long i = 0; i < games; i++) {
+            domination game = new domination(new SplittableRandom(seeds.nextLong()), true, catalog, strategies);
+            game.setEventSink(sink);
+            result.record(game.playGame());
+        }
+        return result;
+    }
+    
+    /**
+     * Plays a batch of games on the calling thread, reusing one {@link CompactGame}.
+     *
+     * @param games the number of games to play
+     * @param seeds the generator owned by the calling thread, which seeds each game
+     * @return the tallies for this batch
+     */
+    static SimulationResult playCompactBatch(long games, RandomGenerator seeds) {
+        return playCompactBatch(games, seeds, 2);
+    }
+    
+    /**
+     * Plays a batch of games with the given number of players on the calling
+     * thread, reusing one {@link CompactGame}.
+     *
+     * @param games the number of games to play
+     * @param seeds the generator owned by the calling thread, which seeds each game
+     * @param players the number of players in each game
+     * @return the tallies for this batch
+     */
+    static SimulationResult playCompactBatch(long games, RandomGenerator seeds, int players) {
+        return playCompactBatch(games, seeds, players, CardCatalog.STANDARD, GameEventSink.NONE);
+    }
+    
+    /**
+     * Plays a batch of games with the given number of players and card set on
+     * the calling thread, reusing one {@link CompactGame} and sending its events
+     * to a sink.
+     *
+     * @param games the number of games to play
+     * @param seeds the generator owned by the calling thread, which seeds each game
+     * @param players the number of players in each game
+     * @param catalog the card types in play
+     * @param sink where the games' events go
+     * @return the tallies for this batch
+     */
+    static SimulationResult playCompactBatch(long games, RandomGenerator seeds, int players, CardCatalog catalog,
+                                             GameEventSink sink) {
+        SimulationResult result = new SimulationResult(players);
+        CompactGame game = new CompactGame(catalog, players);
+        game.setEventSink(sink);
+        for (long i = 0; i < games; i++) {
+            game.reset(new SplittableRandom(seeds.nextLong()));
+            result.record(game.playGame());
+        }
+        return result;
+    }
+    
+    /**
+     * Entry point for batch simulation.
+     * Usage: {@code Simulator [games] [threads] [compact] [seed] [players] [metricsMillis] [cardFile]
+     * [--analytics file] [--analytics-period millis]}.
+     *
+     * @param args optional game count (default 100000), thread count, the word
+     *             {@code compact} to use the primitive game representation
+     *             (anything else for the object one), root seed, player count, and
+     *             a period in milliseconds to collect {@link GameMetrics}, publish
+     *             them over JMX and dump them to standard error (0 for none), and
+     *             a card file to play instead of the standard cards ({@code -}
+     *             for those). The options, which may appear anywhere, name a file
+     *             for {@link GameAnalytics} snapshots, JSON if it ends in
+     *             {@code .json} and CSV otherwise, and how often to rewrite it in
+     *             milliseconds (0, the default, writes it only at the end)
+     * @throws JMException if the metrics cannot be registered
+     * @throws IOException if the card file cannot be read or is malformed, or
+     *                     the analytics cannot be written
+     */
+    public static void main(String[] args) throws JMException, IOException {
+        List<String> positional = new ArrayList<>(Arrays.asList(args));
+        String analyticsFile = removeOption(positional, "--analytics");
+        String analyticsPeriod = removeOption(positional, "--analytics-period");
+        args = positional.toArray(new String[0]);
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int threads = args.length > 1
+            ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        boolean compact = args.length > 2 && args[2].equals("compact");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : new SplittableRandom().nextLong();
+        int players = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        long metricsMillis = args.length > 5 ? Long.parseLong(args[5]) : 0;
+        CardCatalog catalog = args.length > 6 && !args[6].equals("-")
+            ? CardCatalog.load(Path.of(args[6])) : CardCatalog.STANDARD;
+        Simulator simulator = new Simulator(threads, compact, players, catalog);
+        GameEventSink sink = GameEventSink.NONE;
+        GameMetrics metrics = null;
+        MetricsReporter reporter = null;
+        if (metricsMillis > 0) {
+            metrics = new GameMetrics(catalog);
+            metrics.register("simulator");
+            reporter = new MetricsReporter(metrics, System.err, metricsMillis);
+            sink = metrics;
+        }
+        AnalyticsExporter exporter = null;
+        if (analyticsFile != null) {
+            GameAnalytics analytics = new GameAnalytics(catalog);
+            long periodMillis = analyticsPeriod != null ? Long.parseLong(analyticsPeriod) : 0;
+            exporter = new AnalyticsExporter(analytics, Path.of(analyticsFile), periodMillis);
+            sink = sink == GameEventSink.NONE ? analytics : GameEventSink.both(sink, analytics);
+        }
+        simulator.setEventSink(sink);
+        
+        long start = System.nanoTime();
+        SimulationResult result = simulator.run(games, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (reporter != null) {
+            reporter.close();
+            metrics.unregister();
+        }
+        if (exporter != null) {
+            exporter.close();
+        }
+        
+        System.out.println("Seed: " + seed);
+        System.out.println(result);
+        System.out.printf("Elapsed: %.2f s (%.0f games/minute)%n", seconds, games / seconds * 60);
+    }
+    
+    /**
+     * Takes a named option and its value out of the command line.
+     *
+     * @param args the arguments, from which the option is removed
+     * @param name the option, e.g. {@code --analytics}
+     * @return the option's value, or null if it is not given
+     * @throws IllegalArgumentException if the option has no value
+     */
+    static String removeOption(List<String> args, String name) {
+        int index = args.indexOf(name);
+        if (index < 0) {
+            return null;
+        }
+        if (index + 1 == args.size()) {
+            throw new IllegalArgumentException(name + " needs a value");
+        }
+        args.remove(index);
+        return args.remove(index);
+    }
+}
@@ -0,0 +1,36 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * A buy strategy: decides which card, if any, the current player buys.
+ * Implementations must be stateless or thread-safe, because one instance is
+ * shared by every game a simulation or tournament plays in parallel.
+ */
+interface Strategy {
+    /**
+     * Chooses the card to buy this turn.
+     *
+     * @param view the game as seen by the current player
+     * @return the ID of an affordable card with a non-empty pile, or -1 to buy nothing
+     */
+    int chooseCard(GameView view);
+    
+    /**
+     * Gets the fixed per-card scores this strategy buys by, if it has them.
+     * Engines compile a non-null scorer into a {@link BuyTable} and skip
+     * {@link #chooseCard(GameView)} entirely.
+     *
+     * @return the strategy's scorer, or null if its decisions need the full view
+     */
+    default CardScorer getScorer() {
+        return null;
+    }
+    
+    /**
+     * Gets a short name for reports.
+     *
+     * @return the strategy's name
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,499 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Evolutionary search for a strong {@link ParameterStrategy}. Each generation
+ * every candidate gene vector plays the same mirrored deals (as in
+ * {@link Tournament}) against every reference opponent, and its fitness is its
+ * mean score. The next generation keeps the best candidates unchanged and fills
+ * the rest with children of tournament-selected parents, by uniform crossover
+ * and Gaussian mutation.
+ *
+ * <p>Evaluation runs on one worker pool that lives as long as the optimizer.
+ * Each worker thread keeps one ParameterStrategy and the games around it for
+ * the whole run and only swaps in each candidate's genes, so fitness
+ * evaluation allocates no games. All randomness of a generation is derived from
+ * the seed and the generation number, so after each generation the population
+ * is written to a checkpoint file and a run resumed from it continues exactly
+ * as if it had never stopped.
+ */
+final class StrategyOptimizer implements AutoCloseable {
+    /** Deals per parallel task */
+    private static final int CHUNK = 250;
+    /** Candidates drawn for each tournament selection */
+    private static final int TOURNAMENT = 3;
+    /** Chance of mutating each gene of a child */
+    private static final double MUTATION_RATE = 0.15;
+    /** Standard deviation of a mutation, as a fraction of the gene's range */
+    private static final double MUTATION_SIZE = 0.1;
+    
+    /** The card types in play */
+    private final CardCatalog catalog;
+    /** The strategies every candidate is measured against */
+    private final List<Strategy> opponents;
+    /** Candidates per generation */
+    private final int populationSize;
+    /** Candidates copied unchanged into the next generation */
+    private final int elites;
+    /** Deals per candidate and opponent; each deal is two games */
+    private final int deals;
+    /** Smallest value of each gene */
+    private final double[] low;
+    /** Largest value of each gene */
+    private final double[] high;
+    /** The worker pool, reused by every generation */
+    private final ExecutorService pool;
+    /** Each worker thread's candidate strategy and games */
+    private final ThreadLocal<Evaluator> evaluators;
+    
+    /**
+     * Constructs an optimizer on the standard card set.
+     *
+     * @param opponents the reference strategies, at least one
+     * @param populationSize the candidates per generation, at least 2
+     * @param gamesPerCandidate games each candidate plays per generation, split
+     *        evenly over the opponents and rounded up to whole mirrored deals
+     * @param threads the number of worker threads, at least 1
+     */
+    StrategyOptimizer(List<Strategy> opponents, int populationSize, int gamesPerCandidate, int threads) {
+        if (opponents.isEmpty()) {
+            throw new IllegalArgumentException("At least one opponent is needed");
+        }
+        if (populationSize < 2) {
+            throw new IllegalArgumentException("populationSize must be at least 2");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.catalog = CardCatalog.STANDARD;
+        this.opponents = new ArrayList<>(opponents);
+        this.populationSize = populationSize;
+        this.elites = Math.max(1, populationSize / 10);
+        int perOpponent = (gamesPerCandidate + opponents.size() - 1) / opponents.size();
+        this.deals = Math.max(1, (perOpponent + 1) / 2);
+        int types = catalog.size();
+        low = new double[ParameterStrategy.geneCount(catalog)];
+        high = new double[low.length];
+        for (int id = 0; id < types; id++) {
+            low[id] = -1;
+            high[id] = 1;
+            low[types + id] = -1;
+            high[types + id] = 1;
+            high[2 * types + id] = catalog.getMaxCost() + 1;
+        }
+        high[3 * types] = 1;
+        pool = Executors.newFixedThreadPool(threads);
+        evaluators = ThreadLocal.withInitial(Evaluator::new);
+    }
+    
+    /**
+     * Evolves the population until the given generation, resuming from a
+     * checkpoint file if it exists and rewriting it after every generation.
+     *
+     * @param generations the generation to stop after, counting any already in the checkpoint
+     * @param seed the seed of a new run; a resumed run keeps its own
+     * @param checkpoint the checkpoint file, or null to keep nothing on disk
+     * @param progress where to report each generation, or null for silence
+     * @return the final state: the last population and the best candidate seen
+     * @throws IOException if the checkpoint cannot be read or written
+     */
+    Checkpoint run(int generations, long seed, Path checkpoint, PrintStream progress) throws IOException {
+        Checkpoint state = checkpoint != null && Files.exists(checkpoint)
+            ? Checkpoint.load(checkpoint) : initialState(seed);
+        if (state.population.length != populationSize || state.best.length != low.length) {
+            throw new IOException(checkpoint + ": checkpoint has a different population or gene count");
+        }
+        while (state.generation < generations) {
+            double[] fitness = evaluate(state.population, Tournament.mix(~(state.seed + state.generation)));
+            int[] ranked = rank(fitness);
+            if (fitness[ranked[0]] > state.bestFitness || state.generation == 0) {
+                state.best = state.population[ranked[0]].clone();
+                state.bestFitness = fitness[ranked[0]];
+            }
+            state.population = breed(state.population, fitness, ranked,
+                new SplittableRandom(Tournament.mix(state.seed + state.generation)));
+            state.generation++;
+            if (checkpoint != null) {
+                state.save(checkpoint);
+            }
+            if (progress != null) {
+                progress.printf("generation %d: best %.4f, median %.4f, best so far %.4f%n", state.generation,
+                    fitness[ranked[0]], fitness[ranked[ranked.length / 2]], state.bestFitness);
+            }
+        }
+        return state;
+    }
+    
+    /**
+     * Creates generation 0: the greedy heuristic, mutated copies of it for the
+     * first half of the population, and random candidates for the rest.
+     *
+     * @param seed the run's seed
+     * @return the initial state
+     */
+    private Checkpoint initialState(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] population = new double[populationSize][];
+        population[0] = ParameterStrategy.greedyGenes(catalog);
+        for (int c = 1; c < populationSize; c++) {
+            if (c < populationSize / 2) {
+                population[c] = population[0].clone();
+                mutate(population[c], random);
+            } else {
+                population[c] = new double[low.length];
+                for (int i = 0; i < low.length; i++) {
+                    population[c][i] = low[i] + random.nextDouble() * (high[i] - low[i]);
+                }
+            }
+        }
+        return new Checkpoint(seed, 0, population, population[0].clone(), 0);
+    }
+    
+    /**
+     * Measures every candidate on the same deals, in parallel.
+     *
+     * @param population the candidates' genes
+     * @param seed the seed the generation's deals are derived from
+     * @return each candidate's mean score against the opponents, in [0, 1]
+     */
+    double[] evaluate(double[][] population, long seed) {
+        try {
+            List<List<Future<Double>>> futures = new ArrayList<>();
+            for (double[] genes : population) {
+                List<Future<Double>> parts = new ArrayList<>();
+                for (int from = 0; from < deals; from += CHUNK) {
+                    int start = from;
+                    int end = Math.min(deals, from + CHUNK);
+                    parts.add(pool.submit(() -> evaluators.get().play(genes, seed, start, end)));
+                }
+                futures.add(parts);
+            }
+            double[] fitness = new double[population.length];
+            for (int c = 0; c < population.length; c++) {
+                double total = 0;
+                for (Future<Double> part : futures.get(c)) {
+                    total += part.get();
+                }
+                fitness[c] = total / ((double) deals * opponents.size());
+            }
+            return fitness;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Optimization interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Optimization failed", e.getCause());
+        }
+    }
+    
+    /**
+     * Orders candidates from fittest to least fit, ties by index.
+     *
+     * @param fitness each candidate's fitness
+     * @return candidate indices, best first
+     */
+    private static int[] rank(double[] fitness) {
+        Integer[] order = new Integer[fitness.length];
+        for (int c = 0; c < order.length; c++) {
+            order[c] = c;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(fitness[b], fitness[a]));
+        int[] ranked = new int[order.length];
+        for (int c = 0; c < ranked.length; c++) {
+            ranked[c] = order[c];
+        }
+        return ranked;
+    }
+    
+    /**
+     * Builds the next generation.
+     *
+     * @param population the current candidates
+     * @param fitness their fitness
+     * @param ranked their indices, best first
+     * @param random the generation's generator
+     * @return the new candidates
+     */
+    private double[][] breed(double[][] population, double[] fitness, int[] ranked, SplittableRandom random) {
+        double[][] next = new double[populationSize][];
+        for (int c = 0; c < elites; c++) {
+            next[c] = population[ranked[c]].clone();
+        }
+        for (int c = elites; c < populationSize; c++) {
+            double[] mother = population[select(fitness, random)];
+            double[] father = population[select(fitness, random)];
+            double[] child = new double[low.length];
+            for (int i = 0; i < child.length; i++) {
+                child[i] = random.nextBoolean() ? mother[i] : father[i];
+            }
+            mutate(child, random);
+            next[c] = child;
+        }
+        return next;
+    }
+    
+    /**
+     * Adds Gaussian noise to some of a candidate's genes, keeping each in its range.
+     *
+     * @param genes the genes to mutate in place
+     * @param random the generator
+     */
+    private void mutate(double[] genes, SplittableRandom random) {
+        for (int i = 0; i < genes.length; i++) {
+            if (random.nextDouble() < MUTATION_RATE) {
+                double range = high[i] - low[i];
+                genes[i] = Math.max(low[i], Math.min(high[i], genes[i] + random.nextGaussian() * MUTATION_SIZE * range));
+            }
+        }
+    }
+    
+    /**
+     * Picks the fittest of a few random candidates.
+     *
+     * @param fitness each candidate's fitness
+     * @param random the generator
+     * @return the chosen candidate's index
+     */
+    private static int select(double[] fitness, SplittableRandom random) {
+        int best = random.nextInt(fitness.length);
+        for (int k = 1; k < TOURNAMENT; k++) {
+            int c = random.nextInt(fitness.length);
+            if (fitness[c] > fitness[best]) {
+                best = c;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Shuts down the worker pool.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+    
+    /**
+     * One worker thread's reusable candidate and games: for each opponent, one
+     * game with the candidate in seat 0 and one with it in seat 1.
+     */
+    private final class Evaluator {
+        /** The candidate, whose genes are replaced for each evaluation */
+        final ParameterStrategy candidate = new ParameterStrategy("Candidate", catalog,
+            ParameterStrategy.greedyGenes(catalog));
+        /** Games with the candidate in seat 0, per opponent */
+        final CompactGame[] forward = new CompactGame[opponents.size()];
+        /** Games with the candidate in seat 1, per opponent */
+        final CompactGame[] swapped = new CompactGame[opponents.size()];
+        /** The candidate's scores in the two games of a deal */
+        final double[] scores = new double[2];
+        
+        /**
+         * Builds the games.
+         */
+        Evaluator() {
+            for (int o = 0; o < forward.length; o++) {
+                forward[o] = new CompactGame(catalog, candidate, opponents.get(o));
+                swapped[o] = new CompactGame(catalog, opponents.get(o), candidate);
+            }
+        }
+        
+        /**
+         * Plays a range of deals against every opponent.
+         *
+         * @param genes the candidate's genes
+         * @param seed the generation's deal seed
+         * @param from the first deal number, inclusive
+         * @param to the last deal number, exclusive
+         * @return the candidate's summed per-deal scores
+         */
+        double play(double[] genes, long seed, int from, int to) {
+            candidate.setGenes(genes);
+            double total = 0;
+            for (int o = 0; o < forward.length; o++) {
+                for (int deal = from; deal < to; deal++) {
+                    Tournament.playDeal(forward[o], swapped[o], seed, deal, scores);
+                    total += (scores[0] + scores[1]) / 2;
+                }
+            }
+            return total;
+        }
+    }
+    
+    /**
+     * The state of a run after a whole number of generations, as kept on disk.
+     * The file is text: {@code seed}, {@code generation} and {@code best} lines
+     * followed by one {@code candidate} line per member of the population, with
+     * every number written so that it reads back exactly.
+     */
+    static final class Checkpoint {
+        /** The run's seed */
+        final long seed;
+        /** Generations completed */
+        int generation;
+        /** The population to evaluate next */
+        double[][] population;
+        /** The fittest candidate evaluated so far */
+        double[] best;
+        /** Its fitness */
+        double bestFitness;
+        
+        /**
+         * Constructs a state.
+         *
+         * @param seed the run's seed
+         * @param generation generations completed
+         * @param population the population to evaluate next
+         * @param best the fittest candidate so far
+         * @param bestFitness its fitness
+         */
+        Checkpoint(long seed, int generation, double[][] population, double[] best, double bestFitness) {
+            this.seed = seed;
+            this.generation = generation;
+            this.population = population;
+            this.best = best;
+            this.bestFitness = bestFitness;
+        }
+        
+        /**
+         * Writes the state to a temporary file and moves it over the checkpoint,
+         * so an interrupted write leaves the previous checkpoint intact.
+         *
+         * @param file the checkpoint file
+         * @throws IOException if the file cannot be written
+         */
+        void save(Path file) throws IOException {
+            Path parent = file.toAbsolutePath().getParent();
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                out.write("# StrategyOptimizer checkpoint\n");
+                out.write("seed " + seed + "\n");
+                out.write("generation " + generation + "\n");
+                out.write("best " + bestFitness + join(best) + "\n");
+                for (double[] genes : population) {
+                    out.write("candidate" + join(genes) + "\n");
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        
+        /**
+         * Reads a state written by {@link #save(Path)}.
+         *
+         * @param file the checkpoint file
+         * @return the state
+         * @throws IOException if the file cannot be read or is malformed
+         */
+        static Checkpoint load(Path file) throws IOException {
+            Long seed = null;
+            Integer generation = null;
+            double[] best = null;
+            double bestFitness = 0;
+            List<double[]> population = new ArrayList<>();
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() || line.startsWith("#")) {
+                        continue;
+                    }
+                    String[] words = line.trim().split("\\s+");
+                    String where = file + ":" + lineNumber + ": ";
+                    try {
+                        if (words[0].equals("seed") && words.length == 2) {
+                            seed = Long.parseLong(words[1]);
+                        } else if (words[0].equals("generation") && words.length == 2) {
+                            generation = Integer.parseInt(words[1]);
+                        } else if (words[0].equals("best") && words.length > 2) {
+                            bestFitness = Double.parseDouble(words[1]);
+                            best = parseGenes(words, 2);
+                        } else if (words[0].equals("candidate") && words.length > 1) {
+                            population.add(parseGenes(words, 1));
+                        } else {
+                            throw new IOException(where + "unexpected line: " + line);
+                        }
+                    } catch (NumberFormatException e) {
+                        throw new IOException(where + "bad number in: " + line, e);
+                    }
+                }
+            }
+            if (seed == null || generation == null || best == null || population.isEmpty()) {
+                throw new IOException(file + ": incomplete checkpoint");
+            }
+            return new Checkpoint(seed, generation, population.toArray(new double[0][]), best, bestFitness);
+        }
+        
+        /**
+         * Parses the numbers of a line.
+         *
+         * @param words the line's words
+         * @param from the index of the first number
+         * @return the numbers
+         */
+        private static double[] parseGenes(String[] words, int from) {
+            double[] genes = new double[words.length - from];
+            for (int i = 0; i < genes.length; i++) {
+                genes[i] = Double.parseDouble(words[from + i]);
+            }
+            return genes;
+        }
+        
+        /**
+         * Formats numbers so that they read back exactly.
+         *
+         * @param genes the numbers
+         * @return each number preceded by a space
+         */
+        private static String join(double[] genes) {
+            StringBuilder sb = new StringBuilder();
+            for (double gene : genes) {
+                sb.append(' ').append(gene);
+            }
+            return sb.toString();
+        }
+    }
+    
+    /**
+     * Entry point for an optimization run against the built-in strategies.
+     * Usage: {@code StrategyOptimizer [generations] [population] [gamesPerCandidate] [checkpoint] [threads] [seed]}.
+     * Running again with the same checkpoint file resumes the run.
+     *
+     * @param args optional generation count (default 50), population size
+     *        (default 200), games per candidate and generation (default 10000),
+     *        checkpoint file (default {@code optimizer.checkpoint}), thread count and seed
+     * @throws IOException if the checkpoint cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int population = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        Path checkpoint = Path.of(args.length > 3 ? args[3] : "optimizer.checkpoint");
+        int threads = args.length > 4
+            ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+        
+        try (StrategyOptimizer optimizer = new StrategyOptimizer(
+                List.of(ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY), population, games, threads)) {
+            long start = System.nanoTime();
+            Checkpoint result = optimizer.run(generations, seed, checkpoint, System.out);
+            System.out.println(new ParameterStrategy("Best", CardCatalog.STANDARD, result.best));
+            System.out.printf("Fitness %.4f, %.1f s%n", result.bestFitness, (System.nanoTime() - start) / 1e9);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size histogram of non-negative integers in the style of
+ * HdrHistogram, safe to update from many threads at once. Values below
+ * {@code 2^precision} get a bucket each and are counted exactly; above that,
+ * every power-of-two range is split into {@code 2^precision} equal buckets, so
+ * a value is known to within a relative error of {@code 2^-precision}. Values
+ * above the largest trackable one share the last bucket. Memory is set at
+ * construction and never grows with the number of values recorded.
+ */
+final class StreamingHistogram {
+    /** Values below {@code 1 << precision} are counted exactly */
+    private final int precision;
+    /** Counts by bucket */
+    private final LongAdder[] buckets;
+    /** Number of values recorded */
+    private final LongAdder count = new LongAdder();
+    /** Sum of the values recorded */
+    private final LongAdder sum = new LongAdder();
+    /** Largest value recorded, or -1 */
+    private final LongAccumulator max = new LongAccumulator(Math::max, -1);
+    
+    /**
+     * Constructs an empty histogram.
+     *
+     * @param precision the number of sub-bucket bits, in [0, 16]
+     * @param maxValue the largest value to track without clamping
+     * @throws IllegalArgumentException if either argument is out of range
+     */
+    StreamingHistogram(int precision, long maxValue) {
+        if (precision < 0 || precision > 16 || maxValue < 0) {
+            throw new IllegalArgumentException("Bad histogram shape: precision " + precision + ", max " + maxValue);
+        }
+        this.precision = precision;
+        buckets = new LongAdder[bucketOf(maxValue) + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Records one value.
+     *
+     * @param value the value; negative values count as 0
+     */
+    void record(long value) {
+        long v = Math.max(value, 0);
+        buckets[Math.min(bucketOf(v), buckets.length - 1)].increment();
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+    
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return the count
+     */
+    long getCount() {
+        return count.sum();
+    }
+    
+    /**
+     * Gets the mean of the values recorded, which is exact even for clamped values.
+     *
+     * @return the mean, or 0 if nothing has been recorded
+     */
+    double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+    
+    /**
+     * Gets the largest value recorded, which is exact even if it was clamped.
+     *
+     * @return the maximum, or 0 if nothing has been recorded
+     */
+    long getMax() {
+        return Math.max(max.get(), 0);
+    }
+    
+    /**
+     * Estimates a quantile: the smallest value whose bucket brings the
+     * cumulative count to at least {@code q} of the total.
+     *
+     * @param q the quantile, in (0, 1]
+     * @return the lowest value of that bucket, or 0 if nothing has been recorded
+     */
+    long quantile(double q) {
+        long[] counts = getCounts();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        long rank = Math.max((long) Math.ceil(q * total), 1);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return lowestValue(i);
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Takes a snapshot of the bucket counts. Concurrent updates may land on
+     * either side of it.
+     *
+     * @return the count of each bucket, indexed like {@link #lowestValue(int)}
+     */
+    long[] getCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+    
+    /**
+     * Gets the smallest value that falls in a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the bucket's lower bound
+     */
+    long lowestValue(int bucket) {
+        int subBuckets = 1 << precision;
+        if (bucket < subBuckets) {
+            return bucket;
+        }
+        int shift = (bucket >>> precision) - 1;
+        return (long) ((bucket & (subBuckets - 1)) + subBuckets) << shift;
+    }
+    
+    /**
+     * Zeroes the histogram. Values recorded concurrently may be partly kept.
+     */
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+    
+    /**
+     * Finds the bucket of a value, ignoring the clamp.
+     *
+     * @param value a non-negative value
+     * @return the bucket index
+     */
+    private int bucketOf(long value) {
+        int subBuckets = 1 << precision;
+        if (value < subBuckets) {
+            return (int) value;
+        }
+        // The top precision + 1 bits pick the bucket; the rest are dropped
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - precision;
+        return ((shift + 1) << precision) + (int) (value >>> shift) - subBuckets;
+    }
+}
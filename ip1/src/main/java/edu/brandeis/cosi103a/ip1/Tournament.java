@@ -0,0 +1,176 @@
+package edu.brandeis.cosi103a.ip1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Round-robin tournament between buy strategies, played on {@link CompactGame}s.
+ * Every pair of strategies plays the same sequence of deals. A deal is one 64-bit
+ * seed that fixes the shuffle stream of each seat and the starting seat, and is played twice with the
+ * strategies swapping seats, so each strategy is dealt exactly the cards the other
+ * was dealt (common random numbers). Deals are split into chunks that run in
+ * parallel on a fixed worker pool; each chunk tallies locally and the tallies are
+ * merged at the end.
+ */
+class Tournament {
+    /** Number of deals per parallel task */
+    private static final int CHUNK = 1_000;
+    
+    /** The strategies taking part */
+    private final List<Strategy> strategies;
+    /** The card types in play */
+    private final CardCatalog catalog;
+    /** Number of deals per pair; each deal is two games */
+    private final int deals;
+    /** The number of worker threads */
+    private final int threads;
+    
+    /**
+     * Constructs a tournament on the standard card set.
+     *
+     * @param strategies the strategies taking part, at least two
+     * @param gamesPerPair games per pair of strategies, rounded up to an even number
+     * @param threads the number of worker threads, at least 1
+     */
+    Tournament(List<Strategy> strategies, int gamesPerPair, int threads) {
+        if (strategies.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two strategies");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.strategies = new ArrayList<>(strategies);
+        this.catalog = CardCatalog.STANDARD;
+        this.deals = (gamesPerPair + 1) / 2;
+        this.threads = threads;
+    }
+    
+    /**
+     * Plays every pair of strategies.
+     *
+     * @param seed the seed all deals are derived from
+     * @return the win-rate matrix
+     */
+    TournamentResult run(long seed) {
+        String[] names = new String[strategies.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = strategies.get(i).getName();
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<TournamentResult>> futures = new ArrayList<>();
+            for (int i = 0; i < names.length; i++) {
+                for (int j = i + 1; j < names.length; j++) {
+                    for (int from = 0; from < deals; from += CHUNK) {
+                        int a = i;
+                        int b = j;
+                        int start = from;
+                        int end = Math.min(deals, from + CHUNK);
+                        futures.add(pool.submit(() -> playDeals(names, a, b, seed, start, end)));
+                    }
+                }
+            }
+            TournamentResult total = new TournamentResult(names);
+            for (Future<TournamentResult> future : futures) {
+                total.merge(future.get());
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournament interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Plays a range of deals between two strategies on the calling thread.
+     *
+     * @param names the strategy names
+     * @param i the first strategy's index
+     * @param j the second strategy's index
+     * @param seed the tournament seed
+     * @param from the first deal number, inclusive
+     * @param to the last deal number, exclusive
+     * @return the tallies for these deals
+     */
+    private TournamentResult playDeals(String[] names, int i, int j, long seed, int from, int to) {
+        TournamentResult result = new TournamentResult(names);
+        CompactGame forward = new CompactGame(catalog, strategies.get(i), strategies.get(j));
+        CompactGame swapped = new CompactGame(catalog, strategies.get(j), strategies.get(i));
+        double[] scores = new double[2];
+        for (int deal = from; deal < to; deal++) {
+            playDeal(forward, swapped, seed, deal, scores);
+            result.record(i, j, (scores[0] + scores[1]) / 2);
+        }
+        return result;
+    }
+    
+    /**
+     * Plays both seatings of one deal.
+     *
+     * @param forward a game with the first strategy in seat 0
+     * @param swapped a game with the first strategy in seat 1
+     * @param seed the seed all deals are derived from
+     * @param deal the deal number
+     * @param scores receives the first strategy's score in the forward and the swapped game
+     */
+    static void playDeal(CompactGame forward, CompactGame swapped, long seed, long deal, double[] scores) {
+        long dealSeed = mix(seed + deal);
+        int startingSeat = (int) (dealSeed >>> 63);
+        
+        forward.reset(new SplittableRandom(dealSeed), new SplittableRandom(~dealSeed), startingSeat);
+        scores[0] = scoreOf(forward.playGame(), 0);
+        
+        swapped.reset(new SplittableRandom(dealSeed), new SplittableRandom(~dealSeed), startingSeat);
+        scores[1] = scoreOf(swapped.playGame(), 1);
+    }
+    
+    /**
+     * Scores a game from one seat's point of view.
+     *
+     * @param game the finished game
+     * @param seat the seat to score
+     * @return 1 for a win, 0.5 for a tie, 0 for a loss
+     */
+    private static double scoreOf(GameResult game, int seat) {
+        int winner = game.getWinner();
+        return winner < 0 ? 0.5 : winner == seat ? 1 : 0;
+    }
+    
+    /**
+     * Scrambles a seed so that consecutive inputs give unrelated outputs (SplitMix64 finalizer).
+     *
+     * @param z the value to scramble
+     * @return the scrambled value
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+    
+    /**
+     * Entry point for a tournament between the built-in strategies.
+     * Usage: {@code Tournament [gamesPerPair] [threads] [seed]}.
+     *
+     * @param args optional games per pair (default 10000), thread count and seed
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1
+            ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        
+        Tournament tournament = new Tournament(
+            List.of(ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY), games, threads);
+        System.out.println(tournament.run(seed));
+    }
+}
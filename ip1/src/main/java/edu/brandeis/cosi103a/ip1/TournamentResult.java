@@ -0,0 +1,161 @@
+package edu.brandeis.cosi103a.ip1;
+
+/**
+ * Head-to-head results of a round-robin {@link Tournament}.
+ * For each pair of strategies it keeps the score of the first over every deal
+ * (1 for a win, 0.5 for a tie, 0 for a loss, averaged over the two seatings of
+ * the deal), from which it derives a win-rate matrix with 95% confidence intervals.
+ * Because both seatings of a deal share the same shuffles, the per-deal scores
+ * vary much less than single-game outcomes and the intervals are correspondingly tighter.
+ */
+class TournamentResult {
+    /** z-score of a two-sided 95% confidence interval */
+    private static final double Z_95 = 1.96;
+    
+    /** Strategy names, indexed like the matrix */
+    private final String[] names;
+    /** Number of deals played by each pair (i, j), i &lt; j */
+    private final long[][] deals;
+    /** Sum of i's per-deal scores against j, i &lt; j */
+    private final double[][] scoreSum;
+    /** Sum of squared per-deal scores of i against j, i &lt; j */
+    private final double[][] scoreSumSq;
+    
+    /**
+     * Constructs an empty result for the given strategies.
+     *
+     * @param names the strategy names
+     */
+    TournamentResult(String[] names) {
+        int n = names.length;
+        this.names = names.clone();
+        deals = new long[n][n];
+        scoreSum = new double[n][n];
+        scoreSumSq = new double[n][n];
+    }
+    
+    /**
+     * Records one deal between two strategies.
+     *
+     * @param i the first strategy's index
+     * @param j the second strategy's index, greater than i
+     * @param score i's score averaged over both seatings of the deal, in [0, 1]
+     */
+    void record(int i, int j, double score) {
+        deals[i][j]++;
+        scoreSum[i][j] += score;
+        scoreSumSq[i][j] += score * score;
+    }
+    
+    /**
+     * Adds all deals from another result over the same strategies into this one.
+     *
+     * @param other the result to merge in
+     */
+    void merge(TournamentResult other) {
+        for (int i = 0; i < names.length; i++) {
+            for (int j = 0; j < names.length; j++) {
+                deals[i][j] += other.deals[i][j];
+                scoreSum[i][j] += other.scoreSum[i][j];
+                scoreSumSq[i][j] += other.scoreSumSq[i][j];
+            }
+        }
+    }
+    
+    /**
+     * Gets the number of strategies.
+     *
+     * @return the size of the matrix
+     */
+    int size() {
+        return names.length;
+    }
+    
+    /**
+     * Gets the name of a strategy.
+     *
+     * @param i the strategy's index
+     * @return its name
+     */
+    String getName(int i) {
+        return names[i];
+    }
+    
+    /**
+     * Gets the number of games played between two strategies (two per deal).
+     *
+     * @param i one strategy's index
+     * @param j the other strategy's index
+     * @return the number of games
+     */
+    long getGames(int i, int j) {
+        return 2 * (i < j ? deals[i][j] : deals[j][i]);
+    }
+    
+    /**
+     * Gets the win rate of one strategy against another, counting ties as half a win.
+     *
+     * @param i the strategy whose win rate is reported
+     * @param j the opponent
+     * @return the win rate in [0, 1], or 0.5 for a strategy against itself or an unplayed pair
+     */
+    double getWinRate(int i, int j) {
+        if (i == j) {
+            return 0.5;
+        }
+        long n = i < j ? deals[i][j] : deals[j][i];
+        if (n == 0) {
+            return 0.5;
+        }
+        double mean = (i < j ? scoreSum[i][j] : scoreSum[j][i]) / n;
+        return i < j ? mean : 1 - mean;
+    }
+    
+    /**
+     * Gets the half-width of the 95% confidence interval of {@link #getWinRate(int, int)}.
+     *
+     * @param i one strategy's index
+     * @param j the other strategy's index
+     * @return the interval half-width, or 0 if fewer than two deals were played
+     */
+    double getHalfWidth(int i, int j) {
+        int a = Math.min(i, j);
+        int b = Math.max(i, j);
+        long n = deals[a][b];
+        if (a == b || n < 2) {
+            return 0;
+        }
+        double mean = scoreSum[a][b] / n;
+        double variance = Math.max(0, (scoreSumSq[a][b] - n * mean * mean) / (n - 1));
+        return Z_95 * Math.sqrt(variance / n);
+    }
+    
+    /**
+     * Formats the win-rate matrix; row i, column j is i's win rate against j.
+     *
+     * @return the matrix with confidence intervals
+     */
+    @Override
+    public String toString() {
+        int width = 8;
+        for (String name : names) {
+            width = Math.max(width, name.length());
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-" + width + "s", ""));
+        for (String name : names) {
+            sb.append(String.format(" %18s", name));
+        }
+        for (int i = 0; i < names.length; i++) {
+            sb.append('\n').append(String.format("%-" + width + "s", names[i]));
+            for (int j = 0; j < names.length; j++) {
+                if (i == j) {
+                    sb.append(String.format(" %18s", "-"));
+                } else {
+                    sb.append(String.format(" %9.4f+/-%.4f", getWinRate(i, j), getHalfWidth(i, j)));
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -1,10 +1,13 @@
 package edu.brandeis.cosi103a.ip1;
 
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * Abstract base class representing a card in the game.
- * All cards have a name and cost, and can be copied.
+ * All cards have a name and cost, and can be copied. Cards are never modified
+ * once made, so the engine shares one instance per card type (see
+ * {@link CardCatalog#getCard(int)}).
  */
 abstract class Card {
     /** The name of the card */
@@ -150,26 +153,55 @@ class CryptocurrencyCard extends Card {
 /**
  * Represents the Supply pile containing all available cards that players can purchase.
  * Manages the inventory and availability of cards during the game.
+ * Quantities are kept in an array indexed by {@link CardCatalog} card ID, so the
+ * ID-based methods are constant-time and never box; the name-based methods
+ * resolve the name to an ID once and then delegate.
  */
 class Supply {
-    /** Map of cards to their quantities in the supply */
-    private Map<Card, Integer> cards;
+    /** The card types in this supply */
+    private final CardCatalog catalog;
+    /** Remaining quantity of each card, indexed by card ID */
+    private final int[] counts;
     
     /**
      * Constructs a Supply and initializes it with all game cards and quantities.
      * Sets up the initial deck composition with Automation and Cryptocurrency cards.
      */
     public Supply() {
-        cards = new HashMap<>();
-        // Add Automation cards
-        cards.put(new AutomationCard("Method", 2, 1), 14);
-        cards.put(new AutomationCard("Module", 5, 3), 8);
-        cards.put(new AutomationCard("Framework", 8, 6), 8);
-        
-        // Add Cryptocurrency cards
-        cards.put(new CryptocurrencyCard("Bitcoin", 0, 1), 60);
-        cards.put(new CryptocurrencyCard("Ethereum", 3, 2), 40);
-        cards.put(new CryptocurrencyCard("Dogecoin", 6, 3), 30);
+        this(CardCatalog.STANDARD);
+    }
+    
+    /**
+     * Constructs a Supply holding the initial quantities of every card in a catalog.
+     *
+     * @param catalog the card types and quantities to stock
+     */
+    Supply(CardCatalog catalog) {
+        this(catalog, CardCatalog.BASE_PLAYERS);
+    }
+    
+    /**
+     * Constructs a Supply for a game with the given number of players, holding
+     * each catalog quantity scaled by {@link CardCatalog#getQuantity(int, int)}.
+     *
+     * @param catalog the card types and quantities to stock
+     * @param players the number of players
+     */
+    Supply(CardCatalog catalog, int players) {
+        this.catalog = catalog;
+        counts = new int[catalog.size()];
+        for (int id = 0; id < counts.length; id++) {
+            counts[id] = catalog.getQuantity(id, players);
+        }
+    }
+    
+    /**
+     * Gets the catalog of card types in this supply.
+     *
+     * @return the card catalog
+     */
+    CardCatalog getCatalog() {
+        return catalog;
     }
     
     /**
@@ -179,12 +211,38 @@ class Supply {
      * @return the Card object if found, or null if not found
      */
     Card getCard(String name) {
-        for (Card card : cards.keySet()) {
-            if (card.getName().equals(name)) {
-                return card;
-            }
-        }
-        return null;
+        int id = catalog.indexOf(name);
+        return id < 0 ? null : catalog.getCard(id);
+    }
+    
+    /**
+     * Retrieves a card from the supply by ID.
+     *
+     * @param id the card ID
+     * @return the shared Card object for that ID
+     */
+    Card getCard(int id) {
+        return catalog.getCard(id);
+    }
+    
+    /**
+     * Gets the remaining quantity of a card.
+     *
+     * @param id the card ID
+     * @return the number of copies left in the supply
+     */
+    int getCount(int id) {
+        return counts[id];
+    }
+    
+    /**
+     * Sets the remaining quantity of a card, e.g. when restoring a saved position.
+     *
+     * @param id the card ID
+     * @param count the number of copies left in the supply
+     */
+    void setCount(int id, int count) {
+        counts[id] = count;
     }
     
     /**
@@ -194,21 +252,41 @@ class Supply {
      * @return true if the card exists in supply and has quantity > 0, false otherwise
      */
     boolean canBuyCard(String name) {
-        Card card = getCard(name);
-        return card != null && cards.get(card) > 0;
+        int id = catalog.indexOf(name);
+        return id >= 0 && counts[id] > 0;
+    }
+    
+    /**
+     * Checks if a card is available for purchase.
+     *
+     * @param id the card ID
+     * @return true if the card has quantity > 0
+     */
+    boolean canBuyCard(int id) {
+        return counts[id] > 0;
     }
     
     /**
      * Purchases a card from the supply and decrements its quantity.
      *
      * @param name the name of the card to purchase
-     * @return a copy of the purchased card, or null if unavailable
+     * @return the card type's shared Card, or null if unavailable
      */
     Card buyCard(String name) {
-        Card card = getCard(name);
-        if (card != null && cards.get(card) > 0) {
-            cards.put(card, cards.get(card) - 1);
-            return card.copy();
+        int id = catalog.indexOf(name);
+        return id < 0 ? null : buyCard(id);
+    }
+    
+    /**
+     * Purchases a card from the supply and decrements its quantity.
+     *
+     * @param id the card ID
+     * @return the card type's shared Card, or null if unavailable
+     */
+    Card buyCard(int id) {
+        if (counts[id] > 0) {
+            counts[id]--;
+            return catalog.getCard(id);
         }
         return null;
     }
@@ -221,8 +299,7 @@ class Supply {
      */
     boolean gameEnded() {
         // Game ends when all Framework cards have been purchased
-        Card framework = getCard("Framework");
-        return framework != null && cards.get(framework) == 0;
+        return counts[catalog.getEndCard()] == 0;
     }
     
     /**
@@ -232,9 +309,9 @@ class Supply {
      */
     Map<Card, Integer> getAvailableCards() {
         Map<Card, Integer> available = new HashMap<>();
-        for (Card card : cards.keySet()) {
-            if (cards.get(card) > 0) {
-                available.put(card, cards.get(card));
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                available.put(catalog.getCard(id), counts[id]);
             }
         }
         return available;
@@ -248,12 +325,29 @@ class Supply {
 class Deck {
     /** List of all cards in this deck */
     private List<Card> cards;
+    /** The catalog that card names are counted against */
+    private CardCatalog catalog;
+    /** Number of cards of each catalog type in this deck, indexed by card ID */
+    private int[] counts;
+    /** Running total of Automation Points, updated as cards are added */
+    private int automationPoints;
     
     /**
-     * Constructs an empty Deck.
+     * Constructs an empty Deck that counts cards against the standard catalog.
      */
     public Deck() {
+        this(CardCatalog.STANDARD);
+    }
+    
+    /**
+     * Constructs an empty Deck that counts cards against the given catalog.
+     *
+     * @param catalog the catalog used to resolve card types
+     */
+    Deck(CardCatalog catalog) {
+        this.catalog = catalog;
         cards = new ArrayList<>();
+        counts = new int[catalog.size()];
     }
     
     /**
@@ -262,7 +356,23 @@ class Deck {
      * @param card the card to add
      */
     void addCard(Card card) {
+        addCard(card, catalog.idOf(card));
+    }
+    
+    /**
+     * Adds a single card whose catalog ID is already known, skipping the name lookup.
+     *
+     * @param card the card to add
+     * @param id the card's ID, or -1 if it is not in the catalog
+     */
+    void addCard(Card card, int id) {
         cards.add(card);
+        if (card instanceof AutomationCard) {
+            automationPoints += card.getValue();
+        }
+        if (id >= 0) {
+            counts[id]++;
+        }
     }
     
     /**
@@ -271,22 +381,47 @@ class Deck {
      * @param newCards the list of cards to add
      */
     void addCards(List<Card> newCards) {
-        cards.addAll(newCards);
+        for (Card card : newCards) {
+            addCard(card);
+        }
+    }
+    
+    /**
+     * Removes every card from this deck and resets its counts.
+     */
+    void clear() {
+        cards.clear();
+        Arrays.fill(counts, 0);
+        automationPoints = 0;
     }
     
     /**
-     * Calculates the total Automation Points from all Automation cards in the deck.
+     * Gets the total Automation Points from all Automation cards in the deck.
+     * The total is kept up to date as cards are added, so this does not scan the deck.
      *
      * @return the sum of AP values from all AutomationCards
      */
     int getAutomationPoints() {
-        int ap = 0;
-        for (Card card : cards) {
-            if (card instanceof AutomationCard) {
-                ap += card.getValue();
-            }
-        }
-        return ap;
+        return automationPoints;
+    }
+    
+    /**
+     * Gets the number of cards of a catalog type in this deck.
+     *
+     * @param id the card ID
+     * @return the number of cards of that type
+     */
+    int getCount(int id) {
+        return counts[id];
+    }
+    
+    /**
+     * Gets the number of cards in this deck.
+     *
+     * @return the deck size
+     */
+    int size() {
+        return cards.size();
     }
     
     /**
@@ -302,18 +437,49 @@ class Deck {
 /**
  * Represents a player in the game.
  * Manages the player's deck, hand, draw pile, discard pile, and purchasing power.
+ *
+ * <p>The draw and discard piles share one backing array, growing towards each
+ * other from its two ends, and trade ends at every reshuffle: the discard pile
+ * is shuffled where it lies and becomes the draw pile, and the next discard
+ * pile starts from the end the old draw pile emptied. Dealing, discarding and
+ * reshuffling therefore move only boundaries and the cards themselves, never
+ * grow a list or copy a pile. Pile positions are given in list order (index 0
+ * is the bottom of the draw pile and the oldest discard), and the shuffle draws
+ * the same random numbers as {@link Collections#shuffle(List, RandomGenerator)}
+ * did on the old list piles, so seeds replay the same games.
  */
 class Player {
+    /** Initial capacity of the shared pile array */
+    private static final int INITIAL_CAPACITY = 16;
+    
     /** The name of this player */
     private String name;
+    /** The catalog that cards are counted against */
+    private final CardCatalog catalog;
     /** The complete deck of cards owned by this player */
     private Deck deck;
-    /** Cards available to draw during the turn */
-    private List<Card> drawPile;
-    /** Cards that have been played and are waiting to be reshuffled */
-    private List<Card> discardPile;
-    /** Cards currently in the player's hand */
-    private List<Card> hand;
+    /** The draw pile at one end and the discard pile at the other; the middle is free */
+    private Card[] piles;
+    /** Whether the draw pile is the one at the low end of {@link #piles} */
+    private boolean drawAtLow;
+    /** Number of cards available to draw during the turn */
+    private int drawSize;
+    /** Number of cards that have been played and are waiting to be reshuffled */
+    private int discardSize;
+    /** Number of cards of each catalog type in the draw pile, indexed by card ID */
+    private int[] drawCounts;
+    /** Number of cards of each catalog type in the discard pile, indexed by card ID */
+    private int[] discardCounts;
+    /** Cards currently in the player's hand, in the order they were dealt */
+    private Card[] hand;
+    /** Number of cards in the player's hand */
+    private int handSize;
+    /** Number of cards of each catalog type in the player's hand, indexed by card ID */
+    private final int[] handCounts;
+    /** Random number generator used to shuffle this player's draw pile */
+    private RandomGenerator random;
+    /** Coins provided by the cryptocurrency cards in hand, updated as the hand changes */
+    private int handCoins;
     
     /**
      * Constructs a Player with the given name and initializes empty piles and hand.
@@ -321,11 +487,39 @@ class Player {
      * @param name the name of the player
      */
     public Player(String name) {
+        this(name, new SplittableRandom());
+    }
+    
+    /**
+     * Constructs a Player that shuffles with the given random number generator.
+     * Simulations pass one generator per worker thread so that players never
+     * contend on the shared generator behind {@link Collections#shuffle(List)}.
+     *
+     * @param name the name of the player
+     * @param random the random number generator used for shuffling
+     */
+    public Player(String name, RandomGenerator random) {
+        this(name, random, CardCatalog.STANDARD);
+    }
+    
+    /**
+     * Constructs a Player whose deck counts cards against the given catalog.
+     *
+     * @param name the name of the player
+     * @param random the random number generator used for shuffling
+     * @param catalog the catalog used to count the player's cards by type
+     */
+    Player(String name, RandomGenerator random, CardCatalog catalog) {
         this.name = name;
-        deck = new Deck();
-        drawPile = new ArrayList<>();
-        discardPile = new ArrayList<>();
-        hand = new ArrayList<>();
+        this.random = random;
+        this.catalog = catalog;
+        deck = new Deck(catalog);
+        piles = new Card[INITIAL_CAPACITY];
+        drawAtLow = true;
+        hand = new Card[5];
+        handCounts = new int[catalog.size()];
+        drawCounts = new int[catalog.size()];
+        discardCounts = new int[catalog.size()];
     }
     
     /**
@@ -344,7 +538,8 @@ class Player {
      */
     void addCardToDeck(Card card) {
         deck.addCard(card);
-        discardPile.add(card);
+        discard(card);
+        countCard(discardCounts, card);
     }
     
     /**
@@ -353,34 +548,47 @@ class Player {
      * @param cards the list of cards to add
      */
     void addCardsToDiscard(List<Card> cards) {
-        discardPile.addAll(cards);
+        for (Card card : cards) {
+            discard(card);
+            countCard(discardCounts, card);
+        }
     }
     
     /**
-     * Sets up the player's starter deck with 7 Bitcoins and 3 Methods,
+     * Sets up the player's starter deck from the supply catalog's starter cards,
      * shuffles them, and deals the initial hand of 5 cards.
      *
      * @param supply the game supply to purchase cards from
      */
     void setupStarterDeck(Supply supply) {
-        // Add 7 Bitcoins and 3 Methods
-        for (int i = 0; i < 7; i++) {
-            Card bitcoin = supply.buyCard("Bitcoin");
-            if (bitcoin != null) {
-                addCardToDeck(bitcoin);
-            }
-        }
-        for (int i = 0; i < 3; i++) {
-            Card method = supply.buyCard("Method");
-            if (method != null) {
-                addCardToDeck(method);
+        // Buy the catalog's starter cards into the discard pile
+        CardCatalog catalog = supply.getCatalog();
+        for (int i = 0; i < catalog.getStarterSize(); i++) {
+            Card card = supply.buyCard(catalog.getStarterCard(i));
+            if (card != null) {
+                addCardToDeck(card);
             }
         }
         
         // Shuffle and deal initial hand
-        drawPile.addAll(discardPile);
-        discardPile.clear();
-        Collections.shuffle(drawPile);
+        if (drawSize > 0) {
+            // Only reachable if cards were dealt before setup: the discards go under the draw pile
+            if (2 * (drawSize + discardSize) > piles.length) {
+                grow(2 * (drawSize + discardSize));
+            }
+            for (int k = 0; k < discardSize; k++) {
+                piles[drawPosition(drawSize + k)] = piles[discardPosition(k)];
+            }
+            drawSize += discardSize;
+            discardSize = 0;
+            for (int id = 0; id < drawCounts.length; id++) {
+                drawCounts[id] += discardCounts[id];
+            }
+            Arrays.fill(discardCounts, 0);
+            shuffleDrawPile();
+        } else {
+            reshuffle();
+        }
         dealHand(5);
     }
     
@@ -391,10 +599,25 @@ class Player {
      * @param count the number of cards to deal
      */
     void dealHand(int count) {
-        hand.clear();
-        for (int i = 0; i < count && !drawPile.isEmpty(); i++) {
-            hand.add(drawPile.remove(drawPile.size() - 1));
+        if (hand.length < count) {
+            hand = new Card[count];
+        }
+        int dealt = Math.min(count, drawSize);
+        handCoins = 0;
+        Arrays.fill(handCounts, 0);
+        for (int i = 0; i < dealt; i++) {
+            Card card = piles[drawPosition(--drawSize)];
+            hand[i] = card;
+            int id = catalog.idOf(card);
+            if (id >= 0) {
+                drawCounts[id]--;
+                handCounts[id]++;
+            }
+            if (card instanceof CryptocurrencyCard) {
+                handCoins += ((CryptocurrencyCard) card).getCoinValue();
+            }
         }
+        handSize = dealt;
     }
     
     /**
@@ -402,22 +625,112 @@ class Player {
      */
     void cleanup() {
         // Move hand and played cards to discard
-        discardPile.addAll(hand);
-        hand.clear();
+        for (int i = 0; i < handSize; i++) {
+            discard(hand[i]);
+        }
+        for (int id = 0; id < handCounts.length; id++) {
+            discardCounts[id] += handCounts[id];
+        }
+        handSize = 0;
+        handCoins = 0;
+        Arrays.fill(handCounts, 0);
     }
     
     /**
      * Ends the current turn by reshuffling the deck if necessary and dealing a new hand.
      * If the draw pile is empty, the discard pile is shuffled and becomes the new draw pile.
+     *
+     * @return true if the discard pile was reshuffled
      */
-    void endTurn() {
+    boolean endTurn() {
         // Prepare for next turn
-        if (drawPile.isEmpty() && !discardPile.isEmpty()) {
-            drawPile.addAll(discardPile);
-            discardPile.clear();
-            Collections.shuffle(drawPile);
+        boolean reshuffle = drawSize == 0 && discardSize > 0;
+        if (reshuffle) {
+            reshuffle();
         }
         dealHand(5);
+        return reshuffle;
+    }
+    
+    /**
+     * Turns the discard pile into the draw pile, shuffled in place, when the draw
+     * pile is empty. The discard pile's positions become the draw pile's with the
+     * ends swapped, so list index {@code k} stays where it is, and the swaps are
+     * those of {@link Collections#shuffle(List, RandomGenerator)}. The empty draw
+     * pile's counts, all zero, become the discard pile's.
+     */
+    private void reshuffle() {
+        drawAtLow = !drawAtLow;
+        drawSize = discardSize;
+        discardSize = 0;
+        int[] counts = drawCounts;
+        drawCounts = discardCounts;
+        discardCounts = counts;
+        shuffleDrawPile();
+    }
+    
+    /**
+     * Shuffles the draw pile where it lies, with the swaps of
+     * {@link Collections#shuffle(List, RandomGenerator)} on the pile in list order.
+     */
+    private void shuffleDrawPile() {
+        Card[] cards = piles;
+        int base = drawAtLow ? 0 : cards.length - 1;
+        int step = drawAtLow ? 1 : -1;
+        for (int i = drawSize; i > 1; i--) {
+            int a = base + step * (i - 1);
+            int b = base + step * random.nextInt(i);
+            Card tmp = cards[a];
+            cards[a] = cards[b];
+            cards[b] = tmp;
+        }
+    }
+    
+    /**
+     * Puts a card on top of the discard pile, growing the shared array if the
+     * piles fill it.
+     *
+     * @param card the card to discard
+     */
+    private void discard(Card card) {
+        if (drawSize + discardSize == piles.length) {
+            grow(piles.length * 2);
+        }
+        piles[discardPosition(discardSize++)] = card;
+    }
+    
+    /**
+     * Moves the piles into a larger array, keeping each at its end.
+     *
+     * @param capacity the new array length
+     */
+    private void grow(int capacity) {
+        Card[] larger = new Card[capacity];
+        int low = drawAtLow ? drawSize : discardSize;
+        int high = drawAtLow ? discardSize : drawSize;
+        System.arraycopy(piles, 0, larger, 0, low);
+        System.arraycopy(piles, piles.length - high, larger, capacity - high, high);
+        piles = larger;
+    }
+    
+    /**
+     * Finds a draw pile card in the shared array.
+     *
+     * @param k the card's index in the draw pile, 0 being the bottom
+     * @return its position in {@link #piles}
+     */
+    private int drawPosition(int k) {
+        return drawAtLow ? k : piles.length - 1 - k;
+    }
+    
+    /**
+     * Finds a discard pile card in the shared array.
+     *
+     * @param k the card's index in the discard pile, 0 being the oldest
+     * @return its position in {@link #piles}
+     */
+    private int discardPosition(int k) {
+        return drawAtLow ? piles.length - 1 - k : k;
     }
     
     /**
@@ -426,7 +739,7 @@ class Player {
      * @return a list of cards currently in hand
      */
     List<Card> getHand() {
-        return new ArrayList<>(hand);
+        return new ArrayList<>(Arrays.asList(hand).subList(0, handSize));
     }
     
     /**
@@ -436,25 +749,95 @@ class Player {
      */
     List<Card> getCryptocurrencyCards() {
         List<Card> cryptoCards = new ArrayList<>();
-        for (Card card : hand) {
-            if (card instanceof CryptocurrencyCard) {
-                cryptoCards.add(card);
+        for (int i = 0; i < handSize; i++) {
+            if (hand[i] instanceof CryptocurrencyCard) {
+                cryptoCards.add(hand[i]);
             }
         }
         return cryptoCards;
     }
     
     /**
-     * Calculates the total coin value available from all Cryptocurrency cards in hand.
+     * Copies the card IDs of the player's hand, in deal order, into an array.
+     *
+     * @param catalog the catalog to resolve card names against
+     * @param ids the array to fill; must hold at least the hand size
+     * @return the number of cards in hand
+     * @throws IllegalArgumentException if a card in hand is not in the catalog
+     */
+    int copyHandIds(CardCatalog catalog, byte[] ids) {
+        for (int i = 0; i < handSize; i++) {
+            ids[i] = idIn(catalog, hand[i]);
+        }
+        return handSize;
+    }
+    
+    /**
+     * Finds the ID of a card that is being copied out of the game. Unlike the
+     * counting paths, which skip cards from outside the catalog, a copy has no
+     * ID to write for such a card.
+     *
+     * @param catalog the catalog to resolve card names against
+     * @param card the card
+     * @return the card's ID
+     * @throws IllegalArgumentException if the catalog has no card of that name
+     */
+    private static byte idIn(CardCatalog catalog, Card card) {
+        int id = catalog.idOf(card);
+        if (id < 0) {
+            throw new IllegalArgumentException("Card is not in the catalog: " + card.getName());
+        }
+        return (byte) id;
+    }
+    
+    /**
+     * Gets the number of cards in the player's hand.
+     *
+     * @return the hand size
+     */
+    int getHandSize() {
+        return handSize;
+    }
+    
+    /**
+     * Counts the cards of a catalog type in the player's hand. The counts are
+     * kept as the hand is dealt, so this does not scan the hand.
+     *
+     * @param id the card ID
+     * @return the number of cards of that type in hand
+     */
+    int countInHand(int id) {
+        return handCounts[id];
+    }
+    
+    /**
+     * Counts the cards of a catalog type in the player's draw pile.
+     *
+     * @param id the card ID
+     * @return the number of cards of that type left to draw
+     */
+    int countInDrawPile(int id) {
+        return drawCounts[id];
+    }
+    
+    /**
+     * Counts the cards of a catalog type in the player's discard pile.
+     *
+     * @param id the card ID
+     * @return the number of cards of that type waiting to be reshuffled
+     */
+    int countInDiscardPile(int id) {
+        return discardCounts[id];
+    }
+    
+    /**
+     * Gets the total coin value available from all Cryptocurrency cards in hand.
+     * The total is computed as the hand is dealt, so this does not copy or scan the hand.
      *
      * @return the sum of coins provided by all cryptocurrency cards
      */
     int getAvailableCoins() {
-        int coins = 0;
-        for (Card card : getCryptocurrencyCards()) {
-            coins += ((CryptocurrencyCard) card).getCoinValue();
-        }
-        return coins;
+        return handCoins;
     }
     
     /**
@@ -465,44 +848,300 @@ class Player {
     int getAutomationPoints() {
         return deck.getAutomationPoints();
     }
+    
+    /**
+     * Gets the number of cards of a catalog type that the player owns.
+     *
+     * @param id the card ID
+     * @return the number of owned cards of that type
+     */
+    int getDeckCount(int id) {
+        return deck.getCount(id);
+    }
+    
+    /**
+     * Writes the card IDs of this player's draw pile, discard pile and hand, each
+     * in list order, into a seat of a snapshot.
+     *
+     * @param snapshot the snapshot to fill
+     * @param seat the player's seat
+     * @throws IllegalArgumentException if a card is not in the player's catalog
+     */
+    void saveTo(GameSnapshot snapshot, int seat) {
+        for (int pile = GameSnapshot.DRAW; pile <= GameSnapshot.HAND; pile++) {
+            snapshot.setSize(seat, pile, copyIds(pile, snapshot.getCards(), snapshot.offset(seat, pile)));
+        }
+    }
+    
+    /**
+     * Writes the card IDs of this player's piles and hand straight into a seat
+     * of a compact game, without going through a snapshot.
+     *
+     * @param target the game to fill
+     * @param seat the player's seat
+     * @throws IllegalArgumentException if a card is not in the player's catalog
+     */
+    void copyInto(CompactGame target, int seat) {
+        for (int pile = GameSnapshot.DRAW; pile <= GameSnapshot.HAND; pile++) {
+            target.setPileSize(seat, pile, copyIds(pile, target.getPile(seat, pile), 0));
+        }
+    }
+    
+    /**
+     * Writes the card IDs of one pile, in list order, into an array.
+     *
+     * @param pile {@link GameSnapshot#DRAW}, {@link GameSnapshot#DISCARD} or {@link GameSnapshot#HAND}
+     * @param ids the array to fill
+     * @param offset where the pile starts in {@code ids}
+     * @return the number of cards written
+     * @throws IllegalArgumentException if a card in the pile is not in the catalog
+     */
+    private int copyIds(int pile, byte[] ids, int offset) {
+        if (pile == GameSnapshot.HAND) {
+            for (int i = 0; i < handSize; i++) {
+                ids[offset + i] = idIn(catalog, hand[i]);
+            }
+            return handSize;
+        }
+        int size = pile == GameSnapshot.DRAW ? drawSize : discardSize;
+        for (int k = 0; k < size; k++) {
+            Card card = piles[pile == GameSnapshot.DRAW ? drawPosition(k) : discardPosition(k)];
+            ids[offset + k] = idIn(catalog, card);
+        }
+        return size;
+    }
+    
+    /**
+     * Replaces this player's piles, hand and deck with a seat of a snapshot. The
+     * piles are refilled with the catalog's shared cards and the arrays are
+     * reused, so restoring allocates nothing once they have grown.
+     *
+     * @param snapshot the snapshot to read
+     * @param seat the player's seat
+     * @param supply the supply whose cards stand in for the player's
+     */
+    void restoreFrom(GameSnapshot snapshot, int seat, Supply supply) {
+        deck.clear();
+        int draw = snapshot.getSize(seat, GameSnapshot.DRAW);
+        int discards = snapshot.getSize(seat, GameSnapshot.DISCARD);
+        int held = snapshot.getSize(seat, GameSnapshot.HAND);
+        if (piles.length < draw + discards) {
+            piles = new Card[Math.max(piles.length * 2, draw + discards)];
+        }
+        if (hand.length < held) {
+            hand = new Card[held];
+        }
+        drawAtLow = true;
+        Arrays.fill(drawCounts, 0);
+        Arrays.fill(discardCounts, 0);
+        byte[] ids = snapshot.getCards();
+        int offset = snapshot.offset(seat, GameSnapshot.DRAW);
+        for (int k = 0; k < draw; k++) {
+            piles[drawPosition(k)] = restoreCard(ids[offset + k], supply);
+            drawCounts[ids[offset + k]]++;
+        }
+        offset = snapshot.offset(seat, GameSnapshot.DISCARD);
+        for (int k = 0; k < discards; k++) {
+            piles[discardPosition(k)] = restoreCard(ids[offset + k], supply);
+            discardCounts[ids[offset + k]]++;
+        }
+        offset = snapshot.offset(seat, GameSnapshot.HAND);
+        handCoins = 0;
+        Arrays.fill(handCounts, 0);
+        for (int i = 0; i < held; i++) {
+            Card card = restoreCard(ids[offset + i], supply);
+            hand[i] = card;
+            handCounts[ids[offset + i]]++;
+            if (card instanceof CryptocurrencyCard) {
+                handCoins += ((CryptocurrencyCard) card).getCoinValue();
+            }
+        }
+        drawSize = draw;
+        discardSize = discards;
+        handSize = held;
+    }
+    
+    /**
+     * Adds a card to a vector of per-type counts. Cards from outside the catalog
+     * are not counted.
+     *
+     * @param counts the counts, indexed by card ID
+     * @param card the card to count
+     */
+    private void countCard(int[] counts, Card card) {
+        int id = catalog.idOf(card);
+        if (id >= 0) {
+            counts[id]++;
+        }
+    }
+    
+    /**
+     * Looks up a restored card and adds it to the deck.
+     *
+     * @param id the card ID
+     * @param supply the supply whose cards stand in for the player's
+     * @return the shared card
+     */
+    private Card restoreCard(int id, Supply supply) {
+        Card card = supply.getCard(id);
+        deck.addCard(card, id);
+        return card;
+    }
 }
 
 /**
- * Main game controller for a 2-player Dominion-style card game.
+ * Main game controller for a Dominion-style card game of two or more players.
  * Manages game flow, player turns, card purchasing, and win conditions.
  * The game uses an automated AI strategy for card purchasing decisions.
  */
-public class domination {
-    /** The first player */
-    private Player player1;
-    /** The second player */
-    private Player player2;
-    /** The player whose turn it currently is */
-    private Player currentPlayer;
-    /** The player who is not currently taking a turn */
-    private Player otherPlayer;
+public class domination implements GameView {
+    /** The players, in seat order */
+    private Player[] players;
+    /** The seat of the player whose turn it currently is */
+    private int currentSeat;
     /** The supply containing all available cards for purchase */
     private Supply supply;
-    /** Random number generator for determining starting player */
-    private Random random;
+    /** Random number generator for determining starting player and shuffling */
+    private RandomGenerator random;
+    /** Where game events go; {@link GameEventSink#NONE} for silent games */
+    private GameEventSink events;
+    /** Whether the event sink wants each buy decision timed */
+    private boolean timing;
+    /** Scratch array for the current hand's card IDs, used only when logging */
+    private byte[] handIds = new byte[5];
+    /** The number of turns played so far */
+    private int turnCount;
+    /** The buy strategy of each seat */
+    private Strategy[] strategies;
+    /** Each seat's strategy compiled into a coins-to-card lookup table, or null */
+    private BuyTable[] buyTables;
     
     /**
      * Constructs a new Domination game and initializes both players, the supply,
      * and determines the starting player randomly.
      */
     public domination() {
-        player1 = new Player("Player 1");
-        player2 = new Player("Player 2");
-        supply = new Supply();
-        random = new Random();
+        this(new SplittableRandom(), false);
+    }
+    
+    /**
+     * Constructs a new Domination game that is fully determined by a 64-bit seed:
+     * the same seed always replays the same game.
+     *
+     * @param seed the seed for all shuffles and the starting player
+     * @param silent true to play without printing anything
+     */
+    domination(long seed, boolean silent) {
+        this(new SplittableRandom(seed), silent);
+    }
+    
+    /**
+     * Constructs a new Domination game that draws all randomness from the given
+     * generator and optionally suppresses all console output.
+     *
+     * @param random the random number generator for shuffles and the starting player
+     * @param silent true to play without printing anything
+     */
+    domination(RandomGenerator random, boolean silent) {
+        this(random, silent, ScoredStrategy.GREEDY, ScoredStrategy.GREEDY);
+    }
+    
+    /**
+     * Constructs a new Domination game for the given number of players, all of
+     * whom buy with the built-in heuristic.
+     *
+     * @param random the random number generator for shuffles and the starting player
+     * @param silent true to play without printing anything
+     * @param players the number of players, at least 2
+     */
+    domination(RandomGenerator random, boolean silent, int players) {
+        this(random, silent, Collections.nCopies(players, ScoredStrategy.GREEDY).toArray(new Strategy[0]));
+    }
+    
+    /**
+     * Constructs a new Domination game with one player per strategy, in seat order.
+     * The supply is scaled to the number of players.
+     *
+     * @param random the random number generator for shuffles and the starting player
+     * @param silent true to play without printing anything
+     * @param strategies the buy strategy of each seat, at least two
+     */
+    domination(RandomGenerator random, boolean silent, Strategy... strategies) {
+        this(random, silent, CardCatalog.STANDARD, strategies);
+    }
+    
+    /**
+     * Constructs a new Domination game over the given card set with one player
+     * per strategy, in seat order. The supply is scaled to the number of players.
+     *
+     * @param random the random number generator for shuffles and the starting player
+     * @param silent true to play without printing anything
+     * @param catalog the card types in play
+     * @param strategies the buy strategy of each seat, at least two
+     */
+    domination(RandomGenerator random, boolean silent, CardCatalog catalog, Strategy... strategies) {
+        if (strategies.length < 2) {
+            throw new IllegalArgumentException("A game needs at least two players");
+        }
+        this.random = random;
+        this.strategies = strategies.clone();
+        supply = new Supply(catalog, strategies.length);
+        events = silent ? GameEventSink.NONE : new ConsoleEventSink(System.out, supply.getCatalog());
         
         // Setup starter decks
-        player1.setupStarterDeck(supply);
-        player2.setupStarterDeck(supply);
+        players = new Player[strategies.length];
+        buyTables = new BuyTable[strategies.length];
+        for (int seat = 0; seat < players.length; seat++) {
+            players[seat] = new Player("Player " + (seat + 1), random, supply.getCatalog());
+            players[seat].setupStarterDeck(supply);
+        }
+        for (int seat = 0; seat < players.length; seat++) {
+            buyTables[seat] = BuyTable.compile(supply.getCatalog(), strategies[seat]);
+        }
+        for (int id = 0; id < supply.getCatalog().size(); id++) {
+            if (!supply.canBuyCard(id)) {
+                pileEmptied(id);
+            }
+        }
         
         // Choose random starting player
-        currentPlayer = random.nextBoolean() ? player1 : player2;
-        otherPlayer = currentPlayer == player1 ? player2 : player1;
+        currentSeat = chooseStartingSeat(random, players.length);
+    }
+    
+    /**
+     * Constructs an empty, silent game with the same players, strategies and
+     * catalog as another, for {@link #fork(RandomGenerator)} to restore into.
+     *
+     * @param source the game to copy the setup of
+     * @param random the random number generator the new game shuffles with
+     */
+    private domination(domination source, RandomGenerator random) {
+        this.random = random;
+        strategies = source.strategies;
+        CardCatalog catalog = source.getCatalog();
+        supply = new Supply(catalog, strategies.length);
+        events = GameEventSink.NONE;
+        players = new Player[strategies.length];
+        buyTables = new BuyTable[strategies.length];
+        for (int seat = 0; seat < players.length; seat++) {
+            players[seat] = new Player(source.players[seat].getName(), random, catalog);
+            buyTables[seat] = BuyTable.compile(catalog, strategies[seat]);
+        }
+    }
+    
+    /**
+     * Draws the starting seat. Two-player games draw a single boolean, as they
+     * always have, so that existing seeds keep replaying the same games.
+     *
+     * @param random the game's random number generator
+     * @param players the number of players
+     * @return the seat that takes the first turn
+     */
+    static int chooseStartingSeat(RandomGenerator random, int players) {
+        if (players == 2) {
+            return random.nextBoolean() ? 0 : 1;
+        }
+        return random.nextInt(players);
     }
     
     /**
@@ -512,37 +1151,60 @@ public class domination {
      * 2. Using AI strategy to choose and purchase a card
      * 3. Cleanup phase: moving hand to discard
      * 4. End of turn: reshuffling and dealing new hand
-     * 5. Switching to the other player
+     * 5. Passing the turn to the next seat
      */
     void playTurn() {
-        System.out.println("\n=== " + currentPlayer.getName() + "'s Turn ===");
-        System.out.println("Hand: " + handToString(currentPlayer.getHand()));
+        int seat = currentSeat;
+        Player currentPlayer = players[seat];
+        boolean logging = events != GameEventSink.NONE;
+        if (logging) {
+            events.turnStarted(turnCount, seat);
+            if (handIds.length < currentPlayer.getHandSize()) {
+                handIds = new byte[currentPlayer.getHandSize()];
+            }
+            events.handRevealed(seat, handIds, currentPlayer.copyHandIds(supply.getCatalog(), handIds));
+        }
         
         // Buy phase
         int availableCoins = currentPlayer.getAvailableCoins();
-        System.out.println("Available coins: " + availableCoins);
+        if (logging) {
+            events.coinsCounted(seat, availableCoins);
+        }
         
         // Choose a card to buy (AI strategy: buy best card affordable)
-        Card cardToBuy = chooseBestCard(availableCoins);
+        int cardToBuy;
+        if (timing) {
+            long start = System.nanoTime();
+            cardToBuy = chooseBestCardId(availableCoins);
+            events.decisionTimed(seat, System.nanoTime() - start);
+        } else {
+            cardToBuy = chooseBestCardId(availableCoins);
+        }
         
-        if (cardToBuy != null) {
-            Card bought = supply.buyCard(cardToBuy.getName());
+        if (cardToBuy >= 0) {
+            Card bought = supply.buyCard(cardToBuy);
+            if (!supply.canBuyCard(cardToBuy)) {
+                pileEmptied(cardToBuy);
+            }
             if (bought != null) {
                 currentPlayer.addCardToDeck(bought);
-                System.out.println("Bought: " + bought.getName());
+                if (logging) {
+                    events.cardBought(seat, cardToBuy);
+                }
             }
-        } else {
-            System.out.println("No affordable cards to buy");
+        } else if (logging) {
+            events.nothingBought(seat);
         }
         
         // Cleanup phase
         currentPlayer.cleanup();
-        currentPlayer.endTurn();
+        if (currentPlayer.endTurn() && logging) {
+            events.reshuffled(seat);
+        }
         
-        // Swap players
-        Player temp = currentPlayer;
-        currentPlayer = otherPlayer;
-        otherPlayer = temp;
+        // Pass the turn to the next seat
+        currentSeat = seat + 1 == players.length ? 0 : seat + 1;
+        turnCount++;
     }
     
     /**
@@ -554,22 +1216,98 @@ public class domination {
      * @return the best affordable Card, or null if no cards can be afforded
      */
     Card chooseBestCard(int availableCoins) {
-        Map<Card, Integer> available = supply.getAvailableCards();
-        Card bestCard = null;
-        int bestValue = -1;
-        
-        // Prefer high-value cards first, then high-cost cards
-        for (Card card : available.keySet()) {
-            if (card.getCost() <= availableCoins) {
-                int cardScore = card instanceof AutomationCard ? 
-                    card.getValue() * 100 : card.getCost();
-                if (cardScore > bestValue) {
-                    bestValue = cardScore;
-                    bestCard = card;
-                }
+        int id = chooseBestCardId(availableCoins);
+        return id < 0 ? null : supply.getCard(id);
+    }
+    
+    /**
+     * Chooses the current player's card to buy with that player's strategy, returning
+     * a card ID. Strategies with fixed card scores are precompiled into a
+     * {@link BuyTable} that tracks empty piles, so for them this is a single table lookup.
+     *
+     * @param availableCoins the number of coins available to spend
+     * @return the ID of the card to buy, or -1 if nothing should be bought
+     * @throws IllegalStateException if the strategy picks a card it cannot buy
+     */
+    int chooseBestCardId(int availableCoins) {
+        BuyTable table = buyTables[currentSeat];
+        if (table != null) {
+            return table.choose(availableCoins);
+        }
+        Strategy strategy = strategies[currentSeat];
+        int id = strategy.chooseCard(this);
+        if (id >= 0 && (id >= supply.getCatalog().size() || !supply.canBuyCard(id)
+                || supply.getCatalog().getCost(id) > availableCoins)) {
+            throw new IllegalStateException(strategy.getName() + " chose an unavailable card: " + id);
+        }
+        return id;
+    }
+    
+    /**
+     * Tells the compiled buy tables that a supply pile has run out.
+     *
+     * @param id the ID of the emptied card
+     */
+    private void pileEmptied(int id) {
+        for (BuyTable table : buyTables) {
+            if (table != null) {
+                table.pileEmptied(id);
             }
         }
-        return bestCard;
+    }
+    
+    /**
+     * Gets the player whose turn it is.
+     *
+     * @return the current player
+     */
+    Player getCurrentPlayer() {
+        return players[currentSeat];
+    }
+    
+    @Override
+    public CardCatalog getCatalog() {
+        return supply.getCatalog();
+    }
+    
+    @Override
+    public int getPlayerCount() {
+        return players.length;
+    }
+    
+    @Override
+    public int getCurrentSeat() {
+        return currentSeat;
+    }
+    
+    @Override
+    public int getAvailableCoins() {
+        return players[currentSeat].getAvailableCoins();
+    }
+    
+    @Override
+    public int getHandCount(int id) {
+        return players[currentSeat].countInHand(id);
+    }
+    
+    @Override
+    public int getDrawCount(int id) {
+        return players[currentSeat].countInDrawPile(id);
+    }
+    
+    @Override
+    public int getDiscardCount(int id) {
+        return players[currentSeat].countInDiscardPile(id);
+    }
+    
+    @Override
+    public int getSupplyCount(int id) {
+        return supply.getCount(id);
+    }
+    
+    @Override
+    public int getPoints(int seat) {
+        return players[seat].getAutomationPoints();
     }
     
     /**
@@ -582,33 +1320,149 @@ public class domination {
         return supply.gameEnded();
     }
     
+    /**
+     * Gets the number of turns played so far in this game.
+     *
+     * @return the number of completed turns
+     */
+    @Override
+    public int getTurnCount() {
+        return turnCount;
+    }
+    
     /**
      * Main game loop that plays until the game ends, then displays the winner.
-     * Alternates turns between players until the supply runs out of Framework cards.
-     * Calculates final Automation Points for both players and determines the winner.
+     * Passes the turn around the table until the supply runs out of Framework cards.
+     * Calculates final Automation Points for every player and determines the winner.
+     *
+     * @return the final scores and length of the game
      */
-    void playGame() {
-        System.out.println("Starting Dominion game...");
+    GameResult playGame() {
+        events.gameStarted(getPlayerCount());
         
         while (!isGameOver()) {
             playTurn();
         }
         
         // Game over - determine winner
-        int p1Points = player1.getAutomationPoints();
-        int p2Points = player2.getAutomationPoints();
-        
-        System.out.println("\n=== Game Over ===");
-        System.out.println("Player 1 Automation Points: " + p1Points);
-        System.out.println("Player 2 Automation Points: " + p2Points);
-        
-        if (p1Points > p2Points) {
-            System.out.println("Player 1 wins!");
-        } else if (p2Points > p1Points) {
-            System.out.println("Player 2 wins!");
-        } else {
-            System.out.println("It's a tie!");
+        int[] points = new int[players.length];
+        for (int seat = 0; seat < players.length; seat++) {
+            points[seat] = players[seat].getAutomationPoints();
+        }
+        GameResult result = new GameResult(points, turnCount);
+        events.gameEnded(result);
+        return result;
+    }
+    
+    /**
+     * Replaces the destination of this game's events, e.g. to log to a file
+     * instead of the console or to record the game.
+     *
+     * @param sink the new event sink, or {@link GameEventSink#NONE} to play silently
+     */
+    void setEventSink(GameEventSink sink) {
+        events = sink;
+        timing = sink.timesDecisions();
+    }
+    
+    /**
+     * Takes a snapshot of the whole game position.
+     *
+     * @return a new snapshot of this game
+     */
+    GameSnapshot snapshot() {
+        GameSnapshot snapshot = new GameSnapshot(supply.getCatalog(), players.length);
+        snapshot(snapshot);
+        return snapshot;
+    }
+    
+    /**
+     * Overwrites a snapshot with the whole game position: the supply, every
+     * player's piles in order, the seat to move and the turn count. Reusing one
+     * snapshot for many positions allocates nothing.
+     *
+     * @param into a snapshot for this game's catalog and number of players
+     * @throws IllegalArgumentException if the snapshot has a different shape
+     */
+    void snapshot(GameSnapshot into) {
+        CardCatalog catalog = supply.getCatalog();
+        into.checkShape(catalog, players.length);
+        for (int id = 0; id < catalog.size(); id++) {
+            into.setSupplyCount(id, supply.getCount(id));
+        }
+        for (int seat = 0; seat < players.length; seat++) {
+            players[seat].saveTo(into, seat);
+        }
+        into.setTurn(currentSeat, turnCount);
+    }
+    
+    /**
+     * Puts this game back into a snapshotted position. The game keeps its own
+     * strategies, random number generator and event sink, so restoring the same
+     * snapshot and playing on with differently seeded generators explores
+     * different futures from one position.
+     *
+     * @param snapshot a snapshot for this game's catalog and number of players
+     * @throws IllegalArgumentException if the snapshot has a different shape
+     */
+    void restore(GameSnapshot snapshot) {
+        CardCatalog catalog = supply.getCatalog();
+        snapshot.checkShape(catalog, players.length);
+        for (int id = 0; id < catalog.size(); id++) {
+            supply.setCount(id, snapshot.getSupplyCount(id));
+        }
+        for (int seat = 0; seat < players.length; seat++) {
+            players[seat].restoreFrom(snapshot, seat, supply);
+        }
+        currentSeat = snapshot.getCurrentSeat();
+        turnCount = snapshot.getTurnCount();
+        for (BuyTable table : buyTables) {
+            if (table != null) {
+                table.reset();
+            }
+        }
+        for (int id = 0; id < catalog.size(); id++) {
+            if (!supply.canBuyCard(id)) {
+                pileEmptied(id);
+            }
+        }
+    }
+    
+    /**
+     * Creates an independent, silent copy of this game in its current position
+     * that shuffles with the given generator. Searches that branch many times
+     * should fork once and then {@link #restore(GameSnapshot) restore} the fork.
+     *
+     * @param random the random number generator for the copy's shuffles
+     * @return the new game
+     */
+    domination fork(RandomGenerator random) {
+        domination copy = new domination(this, random);
+        copy.restore(snapshot());
+        return copy;
+    }
+    
+    /**
+     * Writes this game's position straight into a compact game's arrays, which
+     * allocates nothing, so a search can take its root position on every decision
+     * without garbage.
+     *
+     * @param target a game over the same catalog with the same number of players
+     * @throws IllegalArgumentException if the games are not compatible
+     */
+    @Override
+    public void copyInto(CompactGame target) {
+        CardCatalog catalog = supply.getCatalog();
+        if (target.getCatalog() != catalog || target.getPlayerCount() != players.length) {
+            throw new IllegalArgumentException("Games differ in catalog or player count");
+        }
+        for (int id = 0; id < catalog.size(); id++) {
+            target.setSupplyCount(id, supply.getCount(id));
+        }
+        for (int seat = 0; seat < players.length; seat++) {
+            players[seat].copyInto(target, seat);
         }
+        target.positionLoaded(currentSeat, turnCount);
     }
     
     /**
@@ -636,10 +1490,10 @@ public class domination {
      * Entry point for the Domination game application.
      * Creates a new game instance and begins gameplay.
      *
-     * @param args command-line arguments (not used)
+     * @param args optional seed, to replay a specific game
      */
     public static void main(String[] args) {
-        domination game = new domination();
+        domination game = args.length > 0 ? new domination(Long.parseLong(args[0]), false) : new domination();
         game.playGame();
     }
 }
@@ -0,0 +1,101 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class AdaptiveMatchTest {
+
+    @Test
+    public void testRunningStatsMatchTwoPassFormulas() {
+        SplittableRandom random = new SplittableRandom(1);
+        double[] values = new double[1_000];
+        RunningStats stats = new RunningStats();
+        RunningStats firstHalf = new RunningStats();
+        RunningStats secondHalf = new RunningStats();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1e6 + random.nextDouble();
+            stats.add(values[i]);
+            (i < 300 ? firstHalf : secondHalf).add(values[i]);
+        }
+        double mean = 0;
+        for (double v : values) {
+            mean += v / values.length;
+        }
+        double variance = 0;
+        for (double v : values) {
+            variance += (v - mean) * (v - mean) / (values.length - 1);
+        }
+        assertEquals(mean, stats.getMean(), 1e-6);
+        assertEquals(variance, stats.getVariance(), 1e-9);
+
+        firstHalf.merge(secondHalf);
+        assertEquals(values.length, firstHalf.getCount());
+        assertEquals(mean, firstHalf.getMean(), 1e-6);
+        assertEquals(variance, firstHalf.getVariance(), 1e-9);
+    }
+
+    @Test
+    public void testIntervalFormulas() {
+        assertEquals(1.959964, RunningStats.normalQuantile(0.975), 1e-6);
+        assertEquals(-2.326348, RunningStats.normalQuantile(0.01), 1e-6);
+        assertEquals(0, RunningStats.normalQuantile(0.5), 1e-12);
+        // Wilson interval of 8 successes in 10 trials at 95%
+        assertEquals(0.4902, RunningStats.wilsonLower(8, 10, 1.959964), 1e-4);
+        assertEquals(0.9433, RunningStats.wilsonUpper(8, 10, 1.959964), 1e-4);
+        assertEquals(0, RunningStats.wilsonLower(0, 0, 1.96), 0);
+    }
+
+    @Test
+    public void testEveryRuleStopsEarlyOnAClearDifference() {
+        TournamentResult reference = new Tournament(
+            List.of(ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY), 20_000, 2).run(5);
+        MatchResult.Verdict expected = reference.getWinRate(0, 1) > 0.5
+            ? MatchResult.Verdict.FIRST_BETTER : MatchResult.Verdict.SECOND_BETTER;
+
+        for (AdaptiveMatch.StopRule rule : AdaptiveMatch.StopRule.values()) {
+            MatchResult result = new AdaptiveMatch(
+                ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY, 100_000, 0.99, rule, 2).run(5);
+            assertEquals(rule.toString(), expected, result.getVerdict());
+            assertTrue(rule + " played " + result.getGames(), result.getGamesSaved() > 90_000);
+            assertEquals(100_000, result.getGames() + result.getGamesSaved());
+        }
+    }
+
+    @Test
+    public void testIntervalRulesOnlyLookWhenTheDealsHaveDoubled() {
+        for (AdaptiveMatch.StopRule rule : new AdaptiveMatch.StopRule[] {
+                AdaptiveMatch.StopRule.MEAN, AdaptiveMatch.StopRule.WILSON}) {
+            MatchResult result = new AdaptiveMatch(
+                ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY, 100_000, 0.99, rule, 3).run(7);
+            assertNotEquals(MatchResult.Verdict.UNDECIDED, result.getVerdict());
+            // Rounds are 300 deals; looks come after 300, 600, 1200, ... deals
+            long rounds = result.getGames() / (2 * 3 * AdaptiveMatch.BATCH);
+            assertEquals(rule.toString(), 1, Long.bitCount(rounds));
+        }
+    }
+
+    @Test
+    public void testIdenticalStrategiesRunToTheCap() {
+        for (AdaptiveMatch.StopRule rule : AdaptiveMatch.StopRule.values()) {
+            MatchResult result = new AdaptiveMatch(
+                ScoredStrategy.GREEDY, ScoredStrategy.GREEDY, 1_000, 0.95, rule, 1).run(3);
+            assertEquals(MatchResult.Verdict.UNDECIDED, result.getVerdict());
+            assertEquals(1_000, result.getGames());
+            assertEquals(0, result.getGamesSaved());
+            assertEquals(0.5, result.getWinRate(), 1e-12);
+        }
+    }
+
+    @Test
+    public void testRepeatableForASeed() {
+        MatchResult first = new AdaptiveMatch(
+            ScoredStrategy.BIG_MONEY, ScoredStrategy.GREEDY, 50_000, 0.95, AdaptiveMatch.StopRule.SPRT, 3).run(11);
+        MatchResult second = new AdaptiveMatch(
+            ScoredStrategy.BIG_MONEY, ScoredStrategy.GREEDY, 50_000, 0.95, AdaptiveMatch.StopRule.SPRT, 3).run(11);
+        assertEquals(first.getGames(), second.getGames());
+        assertEquals(first.getWins(), second.getWins());
+        assertEquals(first.getLogLikelihoodRatio(), second.getLogLikelihoodRatio(), 0);
+    }
+}
@@ -0,0 +1,89 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.Random;
+
+public class BuyTableTest {
+
+    private final CardCatalog catalog = CardCatalog.STANDARD;
+
+    /**
+     * Reference implementation: scans every card, as chooseBestCard originally did.
+     */
+    private int bruteForce(CardScorer scorer, long emptyPiles, int coins) {
+        int best = -1;
+        int bestValue = -1;
+        for (int id = 0; id < catalog.size(); id++) {
+            int score = scorer.score(catalog, id);
+            if ((emptyPiles & (1L << id)) == 0 && catalog.getCost(id) <= coins && score > bestValue) {
+                best = id;
+                bestValue = score;
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void testGreedyTableWithAllPiles() {
+        BuyTable table = new BuyTable(catalog, CardScorer.GREEDY);
+        assertEquals(CardCatalog.BITCOIN, table.choose(0));
+        assertEquals(CardCatalog.BITCOIN, table.choose(1));
+        assertEquals(CardCatalog.METHOD, table.choose(4));
+        assertEquals(CardCatalog.MODULE, table.choose(7));
+        assertEquals(CardCatalog.FRAMEWORK, table.choose(8));
+        assertEquals(CardCatalog.FRAMEWORK, table.choose(15));
+        assertEquals(-1, table.choose(-1));
+    }
+
+    @Test
+    public void testIncrementalUpdatesMatchBruteForceForEveryMask() {
+        // Empty the piles one at a time in a random order and compare every entry
+        Random random = new Random(3);
+        for (int trial = 0; trial < 50; trial++) {
+            BuyTable table = new BuyTable(catalog, CardScorer.GREEDY);
+            for (int step = 0; step < catalog.size(); step++) {
+                table.pileEmptied(random.nextInt(catalog.size()));
+                for (int coins = 0; coins <= 12; coins++) {
+                    assertEquals(bruteForce(CardScorer.GREEDY, table.getEmptyPiles(), coins),
+                        table.choose(coins));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testResetRestoresAllPiles() {
+        BuyTable table = new BuyTable(catalog, CardScorer.GREEDY);
+        table.pileEmptied(CardCatalog.FRAMEWORK);
+        assertEquals(CardCatalog.MODULE, table.choose(8));
+
+        table.reset();
+        assertEquals(0, table.getEmptyPiles());
+        assertEquals(CardCatalog.FRAMEWORK, table.choose(8));
+    }
+
+    @Test
+    public void testCustomScorerCompilesToTable() {
+        // Only ever buy treasure, most expensive first
+        CardScorer moneyOnly = (c, id) -> c.isAutomation(id) ? -1 : c.getCost(id);
+        BuyTable table = new BuyTable(catalog, moneyOnly);
+
+        assertEquals(CardCatalog.DOGECOIN, table.choose(8));
+        assertEquals(CardCatalog.ETHEREUM, table.choose(5));
+        table.pileEmptied(CardCatalog.BITCOIN);
+        assertEquals(-1, table.choose(2));
+    }
+
+    @Test
+    public void testCompactGameWithCustomScorer() {
+        CardScorer bigMoney = (c, id) -> id == CardCatalog.FRAMEWORK ? 100 : c.isAutomation(id) ? -1 : c.getCost(id);
+        Strategy strategy = new ScoredStrategy("BigMoney", bigMoney);
+        CompactGame game = new CompactGame(catalog, strategy, strategy);
+        game.reset(new Random(5));
+        GameResult result = game.playGame();
+
+        assertTrue(game.isGameOver());
+        assertEquals(48 + 6, result.getPoints(0) + result.getPoints(1));
+    }
+}
@@ -0,0 +1,93 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CachedStrategyTest {
+
+    /** Greedy play through the full view, counting how often it is asked */
+    private static final class CountingStrategy implements Strategy {
+        final Strategy greedy = new ParameterStrategy("Genes", CardCatalog.STANDARD,
+            ParameterStrategy.greedyGenes(CardCatalog.STANDARD));
+        final AtomicLong calls = new AtomicLong();
+
+        @Override
+        public int chooseCard(GameView view) {
+            calls.incrementAndGet();
+            return greedy.chooseCard(view);
+        }
+    }
+
+    @Test
+    public void testCachedPlayMatchesTheWrappedStrategy() {
+        // The parameter strategy decides on coins and supply counts only, so every hit is exact
+        CountingStrategy counting = new CountingStrategy();
+        CachedStrategy cached = new CachedStrategy(counting, CardCatalog.STANDARD, 100_000);
+        CompactGame plain = new CompactGame(CardCatalog.STANDARD, counting.greedy, ScoredStrategy.BIG_MONEY);
+        CompactGame memo = new CompactGame(CardCatalog.STANDARD, cached, ScoredStrategy.BIG_MONEY);
+        for (long seed = 0; seed < 300; seed++) {
+            plain.reset(new SplittableRandom(seed));
+            memo.reset(new SplittableRandom(seed));
+            GameResult expected = plain.playGame();
+            GameResult actual = memo.playGame();
+            assertEquals(expected.getTurns(), actual.getTurns());
+            assertEquals(expected.getPoints(0), actual.getPoints(0));
+            assertEquals(expected.getPoints(1), actual.getPoints(1));
+        }
+        assertEquals(cached.getMisses(), counting.calls.get());
+        assertEquals(cached.getMisses(), cached.size());
+        assertEquals(0, cached.getEvictions());
+        // Mid-game decks rarely repeat, but openings and endgames do
+        assertTrue(cached.toString(), cached.getHitRate() > 0.2);
+    }
+
+    @Test
+    public void testOpeningPositionsAreLookedUp() {
+        CountingStrategy counting = new CountingStrategy();
+        CachedStrategy cached = new CachedStrategy(counting, CardCatalog.STANDARD, 1000);
+        CompactGame game = new CompactGame(CardCatalog.STANDARD, cached, cached);
+        SplittableRandom random = new SplittableRandom(4);
+        for (int i = 0; i < 50; i++) {
+            game.reset(random);
+            // Both seats decide with the starter deck, the second after one purchase
+            game.playTurn();
+            game.playTurn();
+        }
+        // 7 Bitcoins and 3 Methods only deal 2 to 5 coins, and the first buy is one of three cards
+        assertTrue(cached.toString(), cached.getMisses() <= 4 + 4 * 3);
+        assertEquals(100, cached.getHits() + cached.getMisses());
+    }
+
+    @Test
+    public void testCapacityBoundsTheCache() {
+        CountingStrategy counting = new CountingStrategy();
+        CachedStrategy cached = new CachedStrategy(counting, CardCatalog.STANDARD, 32);
+        CompactGame game = new CompactGame(CardCatalog.STANDARD, cached, ScoredStrategy.GREEDY);
+        SplittableRandom random = new SplittableRandom(6);
+        for (int i = 0; i < 100; i++) {
+            game.reset(random);
+            game.playGame();
+        }
+        assertTrue(cached.size() <= 32);
+        assertTrue(cached.getEvictions() > 0);
+        assertEquals(cached.getMisses() - cached.size(), cached.getEvictions());
+    }
+
+    @Test
+    public void testSharedAcrossTournamentThreads() {
+        CountingStrategy counting = new CountingStrategy();
+        CachedStrategy cached = new CachedStrategy(counting, CardCatalog.STANDARD, 10_000);
+        new Tournament(List.of(cached, ScoredStrategy.BIG_MONEY), 400, 4).run(2);
+        assertTrue(cached.getHits() > 0);
+        assertEquals(counting.calls.get(), cached.getMisses() + cached.getBypasses());
+        assertEquals(counting.getName(), cached.getName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsEmptyCapacity() {
+        new CachedStrategy(new CountingStrategy(), CardCatalog.STANDARD, 0);
+    }
+}
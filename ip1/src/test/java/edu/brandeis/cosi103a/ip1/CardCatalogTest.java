@@ -0,0 +1,127 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.SplittableRandom;
+
+public class CardCatalogTest {
+
+    /** A smaller variant: two coin cards, two point cards, Gold ends the game */
+    private static final String VARIANT = String.join("\n",
+        "# variant",
+        "card Copper cryptocurrency 0 1 40",
+        "card Silver cryptocurrency 4 2 30",
+        "",
+        "card Estate  automation 2 1 10",
+        "card Gold    automation 7 5 6",
+        "starter Copper 6",
+        "starter Estate 4",
+        "end Gold");
+
+    private static CardCatalog parse(String text) throws IOException {
+        return CardCatalog.parse(new BufferedReader(new StringReader(text)), "test.cards");
+    }
+
+    @Test
+    public void testStandardCardFileMatchesTheOriginalSet() {
+        CardCatalog catalog = CardCatalog.STANDARD;
+        assertEquals(6, catalog.size());
+        String[] names = {"Method", "Module", "Framework", "Bitcoin", "Ethereum", "Dogecoin"};
+        int[] costs = {2, 5, 8, 0, 3, 6};
+        int[] points = {1, 3, 6, 0, 0, 0};
+        int[] coins = {0, 0, 0, 1, 2, 3};
+        int[] quantities = {14, 8, 8, 60, 40, 30};
+        for (int id = 0; id < names.length; id++) {
+            assertEquals(names[id], catalog.getName(id));
+            assertEquals(costs[id], catalog.getCost(id));
+            assertEquals(points[id], catalog.getPoints(id));
+            assertEquals(coins[id], catalog.getCoinValue(id));
+            assertEquals(quantities[id], catalog.getQuantity(id));
+        }
+        assertEquals(10, catalog.getStarterSize());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i < 7 ? CardCatalog.BITCOIN : CardCatalog.METHOD, catalog.getStarterCard(i));
+        }
+        assertEquals(CardCatalog.FRAMEWORK, catalog.getEndCard());
+    }
+
+    @Test
+    public void testVariantPlaysOnBothEngines() throws IOException {
+        CardCatalog variant = parse(VARIANT);
+        assertEquals(4, variant.size());
+        assertEquals(3, variant.getEndCard());
+        assertFalse(variant.isAutomation(1));
+        assertEquals(5, variant.getPoints(3));
+
+        Strategy[] strategies = {ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY};
+        domination objects = new domination(new SplittableRandom(9), true, variant, strategies);
+        GameResult expected = objects.playGame();
+        CompactGame compact = new CompactGame(variant, strategies);
+        compact.reset(new SplittableRandom(9));
+        GameResult actual = compact.playGame();
+
+        assertEquals(expected.getTurns(), actual.getTurns());
+        assertEquals(expected.getPoints(0), actual.getPoints(0));
+        assertEquals(expected.getPoints(1), actual.getPoints(1));
+        assertEquals(0, objects.getSupplyCount(3));
+    }
+
+    @Test
+    public void testMalformedLinesReportTheLine() {
+        String[] bad = {
+            "card Method automation 2 1\nend Method",
+            "card Method automaton 2 1 14\nend Method",
+            "card Method automation two 1 14\nend Method",
+            "card Method automation -2 1 14\nend Method",
+            "card Method automation 2 1 14\nstarter Bitcoin 7\nend Method",
+            "card Method automation 2 1 14\ncard Method automation 2 1 14\nend Method",
+            "card Method automation 2 1 14",
+        };
+        for (String text : bad) {
+            try {
+                parse(text);
+                fail("Accepted: " + text);
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().startsWith("test.cards"));
+            }
+        }
+        try {
+            parse("# comment\ncard Method automation 2 1 14\nbogus\nend Method");
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("test.cards:3: "));
+        }
+        try {
+            parse("card Method automation 2 1 14\ncard Bitcoin cryptocurrency 0 1 60\n"
+                + "card Method cryptocurrency 3 2 40\nend Method");
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith("Duplicate card name: Method"));
+        }
+    }
+
+    @Test
+    public void testPurchasesShareOneCardPerType() {
+        Supply supply = new Supply();
+        Card first = supply.buyCard(CardCatalog.DOGECOIN);
+        Card second = supply.buyCard("Dogecoin");
+        assertSame(first, second);
+        assertSame(CardCatalog.STANDARD.getCard(CardCatalog.DOGECOIN), first);
+        assertEquals(CardCatalog.DOGECOIN, CardCatalog.STANDARD.idOf(first));
+        // Cards made elsewhere are still found by name
+        assertEquals(CardCatalog.DOGECOIN, CardCatalog.STANDARD.idOf(first.copy()));
+    }
+
+    @Test
+    public void testDecksHoldTheSharedCards() {
+        Player player = new Player("P", new SplittableRandom(1), CardCatalog.STANDARD);
+        player.setupStarterDeck(new Supply());
+        assertEquals(5, player.getHand().size());
+        for (Card card : player.getHand()) {
+            assertSame(CardCatalog.STANDARD.getCard(CardCatalog.STANDARD.idOf(card)), card);
+        }
+    }
+}
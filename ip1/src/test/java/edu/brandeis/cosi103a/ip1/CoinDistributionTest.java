@@ -0,0 +1,128 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.SplittableRandom;
+
+public class CoinDistributionTest {
+    private static final CardCatalog CATALOG = CardCatalog.STANDARD;
+
+    private static int[] counts(int... idCountPairs) {
+        int[] counts = new int[CATALOG.size()];
+        for (int i = 0; i < idCountPairs.length; i += 2) {
+            counts[idCountPairs[i]] = idCountPairs[i + 1];
+        }
+        return counts;
+    }
+
+    @Test
+    public void testStarterDeckMatchesHypergeometric() {
+        double[] coins = new CoinDistribution(CATALOG).deal(counts(CardCatalog.BITCOIN, 7, CardCatalog.METHOD, 3));
+        // Five Bitcoins out of seven, with three Methods in the deck of ten
+        assertEquals(6, coins.length);
+        assertEquals(21.0 / 252, coins[5], 1e-12);
+        assertEquals(105.0 / 252, coins[4], 1e-12);
+        assertEquals(0, coins[1], 0);
+        assertEquals(3.5, CoinDistribution.mean(coins), 1e-12);
+        assertEquals(1, CoinDistribution.atLeast(coins, 0), 1e-12);
+    }
+
+    @Test
+    public void testShortDrawPileDealsAShortHand() {
+        double[] coins = new CoinDistribution(CATALOG).nextHand(
+            counts(CardCatalog.BITCOIN, 2, CardCatalog.DOGECOIN, 1),
+            counts(CardCatalog.ETHEREUM, 20));
+        assertEquals(1, coins[5], 0);
+        assertEquals(0, CoinDistribution.atLeast(coins, 6), 0);
+    }
+
+    @Test
+    public void testEmptyDrawPileDealsFromTheDiscards() {
+        double[] coins = new CoinDistribution(CATALOG).nextHand(counts(), counts(CardCatalog.ETHEREUM, 6));
+        assertEquals(1, coins[10], 0);
+    }
+
+    @Test
+    public void testCardsWithEqualCoinsShareAResult() {
+        CoinDistribution calculator = new CoinDistribution(CATALOG);
+        double[] methods = calculator.deal(counts(CardCatalog.METHOD, 4, CardCatalog.BITCOIN, 6));
+        double[] mixed = calculator.deal(counts(CardCatalog.FRAMEWORK, 1, CardCatalog.MODULE, 3, CardCatalog.BITCOIN, 6));
+        assertSame(methods, mixed);
+        assertEquals(1, calculator.getCacheSize());
+    }
+
+    @Test
+    public void testEnginesReportTheSamePiles() {
+        CoinDistribution calculator = new CoinDistribution(CATALOG);
+        domination game = new domination(new SplittableRandom(9), true);
+        CompactGame compact = new CompactGame(CATALOG);
+        compact.reset(new SplittableRandom(9));
+        for (int turn = 0; turn < 40; turn++) {
+            for (int id = 0; id < CATALOG.size(); id++) {
+                assertEquals(game.getDrawCount(id), compact.getDrawCount(id));
+                assertEquals(game.getDiscardCount(id), compact.getDiscardCount(id));
+            }
+            assertSame(calculator.nextHand(game, -1), calculator.nextHand(compact, -1));
+            game.playTurn();
+            compact.playTurn();
+        }
+    }
+
+    @Test
+    public void testMatchesSimulatedDeals() {
+        // Check one position for each way the next hand can be dealt:
+        // a full draw pile, a short draw pile, and a reshuffle of the discards
+        CoinDistribution calculator = new CoinDistribution(CATALOG);
+        boolean[] checked = new boolean[3];
+        domination game = new domination(new SplittableRandom(17), true);
+        while (!game.isGameOver() && !(checked[0] && checked[1] && checked[2])) {
+            int draw = 0;
+            for (int id = 0; id < CATALOG.size(); id++) {
+                draw += game.getDrawCount(id);
+            }
+            int kind = draw == 0 ? 0 : draw < CompactGame.HAND_SIZE ? 1 : 2;
+            if (!checked[kind] && game.getTurnCount() > 10) {
+                int bought = CardCatalog.BITCOIN + kind;
+                assertDistributionMatches(calculator.nextHand(game, bought), game, bought, kind);
+                checked[kind] = true;
+            }
+            game.playTurn();
+        }
+        assertTrue(checked[0] && checked[1] && checked[2]);
+    }
+
+    /**
+     * Plays the end of the current player's turn many times from the same
+     * position, with the draw pile in a fresh random order each time, and
+     * compares the coin histogram of the next hand with the exact distribution.
+     */
+    private static void assertDistributionMatches(double[] exact, domination game, int bought, long seed) {
+        int trials = 40_000;
+        SplittableRandom random = new SplittableRandom(seed);
+        GameSnapshot position = game.snapshot();
+        int seat = position.getCurrentSeat();
+        byte[] cards = position.getCards();
+        int offset = position.offset(seat, GameSnapshot.DRAW);
+        int size = position.getSize(seat, GameSnapshot.DRAW);
+        domination trial = game.fork(random);
+        int[] histogram = new int[CompactGame.HAND_SIZE * 3 + 1];
+        for (int t = 0; t < trials; t++) {
+            for (int i = size; i > 1; i--) {
+                int j = random.nextInt(i);
+                byte tmp = cards[offset + i - 1];
+                cards[offset + i - 1] = cards[offset + j];
+                cards[offset + j] = tmp;
+            }
+            trial.restore(position);
+            Player player = trial.getCurrentPlayer();
+            player.addCardToDeck(CATALOG.newCard(bought));
+            player.cleanup();
+            player.endTurn();
+            histogram[player.getAvailableCoins()]++;
+        }
+        for (int c = 0; c < histogram.length; c++) {
+            double expected = c < exact.length ? exact[c] : 0;
+            assertEquals("P(" + c + " coins)", expected, (double) histogram[c] / trials, 0.01);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.Random;
+
+public class CompactGameTest {
+
+    // ===== CardCatalog Tests =====
+    @Test
+    public void testStandardCatalogMatchesSupply() {
+        CardCatalog catalog = CardCatalog.STANDARD;
+        Supply supply = new Supply();
+
+        assertEquals(6, catalog.size());
+        for (int id = 0; id < catalog.size(); id++) {
+            Card card = supply.getCard(catalog.getName(id));
+            assertNotNull(card);
+            assertEquals(card.getCost(), catalog.getCost(id));
+            assertEquals(card.getValue(), catalog.getPoints(id));
+            assertEquals(card instanceof AutomationCard, catalog.isAutomation(id));
+        }
+    }
+
+    @Test
+    public void testCatalogLookupByName() {
+        assertEquals(CardCatalog.FRAMEWORK, CardCatalog.STANDARD.indexOf("Framework"));
+        assertEquals(-1, CardCatalog.STANDARD.indexOf("NonexistentCard"));
+    }
+
+    @Test
+    public void testCatalogNewCard() {
+        Card card = CardCatalog.STANDARD.newCard(CardCatalog.DOGECOIN);
+        assertTrue(card instanceof CryptocurrencyCard);
+        assertEquals(3, ((CryptocurrencyCard) card).getCoinValue());
+    }
+
+    @Test
+    public void testCatalogAffordableIndex() {
+        CardCatalog catalog = CardCatalog.STANDARD;
+
+        assertEquals(0, catalog.getAffordableCount(-1));
+        assertEquals(1, catalog.getAffordableCount(0));
+        assertEquals(CardCatalog.BITCOIN, catalog.getCardByCost(0));
+        assertEquals(3, catalog.getAffordableCount(4));
+        assertEquals(6, catalog.getAffordableCount(8));
+        assertEquals(6, catalog.getAffordableCount(100));
+        for (int i = 1; i < catalog.size(); i++) {
+            assertTrue(catalog.getCost(catalog.getCardByCost(i - 1))
+                <= catalog.getCost(catalog.getCardByCost(i)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCatalogRejectsInconsistentArrays() {
+        new CardCatalog(new String[] {"A"}, new byte[] {CardCatalog.AUTOMATION},
+            new int[] {1, 2}, new int[] {1}, new int[] {1}, new byte[0], 0);
+    }
+
+    // ===== CompactGame Tests =====
+    @Test
+    public void testResetDealsStarterHands() {
+        CompactGame game = new CompactGame(CardCatalog.STANDARD);
+        game.reset(new Random(1));
+
+        assertEquals(60 - 14, game.getSupplyCount(CardCatalog.BITCOIN));
+        assertEquals(14 - 6, game.getSupplyCount(CardCatalog.METHOD));
+        assertEquals(3, game.getPoints(0));
+        assertEquals(3, game.getPoints(1));
+        assertFalse(game.isGameOver());
+    }
+
+    @Test
+    public void testChooseBestCardMatchesDomination() {
+        CompactGame compact = new CompactGame(CardCatalog.STANDARD);
+        compact.reset(new Random(1));
+        domination game = new domination(new Random(1), true);
+
+        for (int coins = 0; coins <= 15; coins++) {
+            Card expected = game.chooseBestCard(coins);
+            assertEquals(expected.getName(),
+                CardCatalog.STANDARD.getName(compact.chooseBestCard(coins)));
+        }
+    }
+
+    @Test
+    public void testPlaysSameGameAsDomination() {
+        CompactGame compact = new CompactGame(CardCatalog.STANDARD);
+        for (long seed = 0; seed < 200; seed++) {
+            GameResult expected = new domination(new Random(seed), true).playGame();
+            compact.reset(new Random(seed));
+            GameResult actual = compact.playGame();
+
+            assertEquals(expected.getTurns(), actual.getTurns());
+            assertEquals(expected.getPoints(0), actual.getPoints(0));
+            assertEquals(expected.getPoints(1), actual.getPoints(1));
+        }
+    }
+
+    @Test
+    public void testPlaysSameMultiplayerGameAsDomination() {
+        for (int players = 3; players <= 6; players++) {
+            CompactGame compact = new CompactGame(CardCatalog.STANDARD, players);
+            for (long seed = 0; seed < 50; seed++) {
+                GameResult expected = new domination(new Random(seed), true, players).playGame();
+                compact.reset(new Random(seed));
+                GameResult actual = compact.playGame();
+
+                assertEquals(players, actual.getPlayerCount());
+                assertEquals(expected.getTurns(), actual.getTurns());
+                for (int seat = 0; seat < players; seat++) {
+                    assertEquals(expected.getPoints(seat), actual.getPoints(seat));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSupplyScalesWithPlayers() {
+        CardCatalog catalog = CardCatalog.STANDARD;
+        assertEquals(8, catalog.getQuantity(CardCatalog.FRAMEWORK, 2));
+        assertEquals(12, catalog.getQuantity(CardCatalog.FRAMEWORK, 3));
+        assertEquals(24, catalog.getQuantity(CardCatalog.FRAMEWORK, 6));
+        assertEquals(21, catalog.getQuantity(CardCatalog.METHOD, 3));
+        assertEquals(180, catalog.getQuantity(CardCatalog.BITCOIN, 6));
+
+        Supply supply = new Supply(catalog, 4);
+        assertEquals(16, supply.getCount(CardCatalog.FRAMEWORK));
+    }
+
+    @Test
+    public void testTurnsRotateThroughEverySeat() {
+        CompactGame game = new CompactGame(CardCatalog.STANDARD, 5);
+        game.reset(new Random(3));
+        int first = game.getCurrentSeat();
+        for (int turn = 1; turn <= 10; turn++) {
+            game.playTurn();
+            assertEquals((first + turn) % 5, game.getCurrentSeat());
+        }
+    }
+
+    @Test
+    public void testMultiplayerWinnerNeedsStrictlyMostPoints() {
+        assertEquals(2, new GameResult(new int[] {3, 3, 5}, 10).getWinner());
+        assertEquals(-1, new GameResult(new int[] {5, 3, 5}, 10).getWinner());
+        assertEquals(0, new GameResult(new int[] {6, 5, 5, 1}, 10).getWinner());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsSinglePlayer() {
+        new CompactGame(CardCatalog.STANDARD, 1);
+    }
+
+    @Test
+    public void testCompactSimulator() {
+        SimulationResult result = new Simulator(2, true).run(50);
+        assertEquals(50, result.getGames());
+        assertTrue(result.getAverageTurns() > 0);
+    }
+}
@@ -0,0 +1,169 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static edu.brandeis.cosi103a.ip1.StatsAssert.assertClose;
+import java.util.SplittableRandom;
+
+public class CountGameTest {
+
+    @Test
+    public void testCardsAreConservedEveryTurn() {
+        CardCatalog catalog = CardCatalog.STANDARD;
+        CountGame game = new CountGame(catalog, 3);
+        game.reset(new SplittableRandom(5));
+        int starter = catalog.getStarterSize();
+        int[] bought = new int[3];
+        while (!game.isGameOver()) {
+            int seat = game.getCurrentSeat();
+            int before = 0;
+            for (int id = 0; id < catalog.size(); id++) {
+                before += game.getSupplyCount(id);
+            }
+            game.playTurn();
+            int after = 0;
+            for (int id = 0; id < catalog.size(); id++) {
+                after += game.getSupplyCount(id);
+            }
+            bought[seat] += before - after;
+            for (int s = 0; s < 3; s++) {
+                assertEquals(starter + bought[s], game.getDeckSize(s));
+            }
+        }
+        assertEquals(0, game.getSupplyCount(CardCatalog.FRAMEWORK));
+    }
+
+    @Test
+    public void testViewCountsMatchTheHand() {
+        CountGame game = new CountGame(CardCatalog.STANDARD, 2);
+        game.reset(new SplittableRandom(8));
+        for (int turn = 0; turn < 30; turn++) {
+            int cards = 0;
+            int coins = 0;
+            for (int id = 0; id < CardCatalog.STANDARD.size(); id++) {
+                assertTrue(game.getDrawCount(id) >= 0);
+                assertTrue(game.getDiscardCount(id) >= 0);
+                cards += game.getHandCount(id);
+                coins += game.getHandCount(id) * CardCatalog.STANDARD.getCoinValue(id);
+            }
+            assertTrue(cards <= CompactGame.HAND_SIZE);
+            assertEquals(coins, game.getAvailableCoins());
+            game.playTurn();
+        }
+    }
+
+    @Test
+    public void testFirstHandFollowsTheHypergeometricDistribution() {
+        CardCatalog catalog = CardCatalog.STANDARD;
+        int[] starter = new int[catalog.size()];
+        for (int i = 0; i < catalog.getStarterSize(); i++) {
+            starter[catalog.getStarterCard(i)]++;
+        }
+        double[] expected = new CoinDistribution(catalog).deal(starter);
+
+        int games = 20_000;
+        double[] seen = new double[expected.length];
+        CountGame game = new CountGame(catalog, 2);
+        SplittableRandom random = new SplittableRandom(13);
+        for (int i = 0; i < games; i++) {
+            game.reset(random);
+            seen[game.getAvailableCoins(0)] += 1.0 / games;
+        }
+        for (int coins = 0; coins < expected.length; coins++) {
+            assertEquals("P(" + coins + " coins)", expected[coins], seen[coins], 0.015);
+        }
+    }
+
+    @Test
+    public void testOutcomesMatchTheOrderedEngine() {
+        int games = 3000;
+        RunningStats countTurns = new RunningStats();
+        RunningStats compactTurns = new RunningStats();
+        RunningStats countPoints = new RunningStats();
+        RunningStats compactPoints = new RunningStats();
+        CountGame counts = new CountGame(CardCatalog.STANDARD, ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY);
+        CompactGame ordered = new CompactGame(CardCatalog.STANDARD, ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY);
+        SplittableRandom random = new SplittableRandom(21);
+        for (int i = 0; i < games; i++) {
+            counts.reset(random);
+            GameResult a = counts.playGame();
+            countTurns.add(a.getTurns());
+            countPoints.add(a.getPoints(1) - a.getPoints(0));
+            ordered.reset(random);
+            GameResult b = ordered.playGame();
+            compactTurns.add(b.getTurns());
+            compactPoints.add(b.getPoints(1) - b.getPoints(0));
+        }
+        assertClose(countTurns, compactTurns);
+        assertClose(countPoints, compactPoints);
+    }
+
+    @Test
+    public void testReportsHandsAndReshuffles() {
+        int[] reshuffles = new int[1];
+        int[] coinMismatches = new int[1];
+        GameEventSink sink = new GameEventSink() {
+            private int handCoins;
+
+            @Override
+            public void handRevealed(int seat, byte[] hand, int size) {
+                handCoins = 0;
+                for (int i = 0; i < size; i++) {
+                    handCoins += CardCatalog.STANDARD.getCoinValue(hand[i]);
+                }
+            }
+
+            @Override
+            public void coinsCounted(int seat, int coins) {
+                if (coins != handCoins) {
+                    coinMismatches[0]++;
+                }
+            }
+
+            @Override
+            public void reshuffled(int seat) {
+                reshuffles[0]++;
+            }
+        };
+        CountGame game = new CountGame(CardCatalog.STANDARD, 2);
+        game.setEventSink(sink);
+        game.reset(new SplittableRandom(4));
+        GameResult result = game.playGame();
+        assertEquals(0, coinMismatches[0]);
+        assertTrue(reshuffles[0] > 0);
+        assertTrue(reshuffles[0] < result.getTurns());
+    }
+
+    @Test
+    public void testCopyIntoKeepsEveryCount() {
+        CardCatalog catalog = CardCatalog.STANDARD;
+        CountGame game = new CountGame(catalog, 3);
+        CompactGame copy = new CompactGame(catalog, 3);
+        game.reset(new SplittableRandom(12));
+        for (int turn = 0; turn < 40; turn++) {
+            game.playTurn();
+            game.copyInto(copy);
+            assertEquals(game.getCurrentSeat(), copy.getCurrentSeat());
+            assertEquals(game.getTurnCount(), copy.getTurnCount());
+            for (int seat = 0; seat < 3; seat++) {
+                assertEquals(game.getPoints(seat), copy.getPoints(seat));
+            }
+            for (int id = 0; id < catalog.size(); id++) {
+                assertEquals(game.getSupplyCount(id), copy.getSupplyCount(id));
+                assertEquals(game.getHandCount(id), copy.getHandCount(id));
+                assertEquals(game.getDrawCount(id), copy.getDrawCount(id));
+                assertEquals(game.getDiscardCount(id), copy.getDiscardCount(id));
+            }
+        }
+    }
+
+    @Test
+    public void testBulkOperations() {
+        int[] from = {9, 1, 2, 3, 9};
+        int[] to = {9, 10, 20, 30, 9};
+        CountGame.moveAll(from, to, 1, 3);
+        assertArrayEquals(new int[] {9, 0, 0, 0, 9}, from);
+        assertArrayEquals(new int[] {9, 11, 22, 33, 9}, to);
+        assertEquals(2 * 1 + 3 * 2, CountGame.dot(new int[] {7, 2, 3}, 1, new int[] {1, 2}, 2));
+    }
+}
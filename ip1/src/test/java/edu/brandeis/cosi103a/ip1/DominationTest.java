@@ -3,7 +3,11 @@ package edu.brandeis.cosi103a.ip1;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public class DominationTest {
 
@@ -112,6 +116,30 @@ public class DominationTest {
         assertTrue(supply.gameEnded());
     }
 
+    @Test
+    public void testSupplyBuyCardById() {
+        assertEquals(8, supply.getCount(CardCatalog.FRAMEWORK));
+        Card card = supply.buyCard(CardCatalog.FRAMEWORK);
+
+        assertEquals("Framework", card.getName());
+        assertEquals(7, supply.getCount(CardCatalog.FRAMEWORK));
+        assertTrue(supply.canBuyCard(CardCatalog.FRAMEWORK));
+    }
+
+    @Test
+    public void testSupplyBuyUnknownCardReturnsNull() {
+        assertNull(supply.buyCard("NonexistentCard"));
+        assertNull(supply.getCard("NonexistentCard"));
+    }
+
+    @Test
+    public void testChooseBestCardRespectsBudget() {
+        domination game = new domination(new Random(1), true);
+        assertEquals("Framework", game.chooseBestCard(8).getName());
+        assertEquals("Method", game.chooseBestCard(2).getName());
+        assertEquals("Bitcoin", game.chooseBestCard(1).getName());
+    }
+
     // ===== Deck Tests =====
     @Test
     public void testDeckAddCard() {
@@ -144,6 +172,21 @@ public class DominationTest {
         assertEquals(15, deck.getAutomationPoints());
     }
 
+    @Test
+    public void testDeckCountsByType() {
+        Deck deck = new Deck();
+        deck.addCards(Arrays.asList(
+            new AutomationCard("Framework", 8, 6),
+            new CryptocurrencyCard("Bitcoin", 0, 1),
+            new CryptocurrencyCard("Bitcoin", 0, 1)));
+        
+        assertEquals(3, deck.size());
+        assertEquals(1, deck.getCount(CardCatalog.FRAMEWORK));
+        assertEquals(2, deck.getCount(CardCatalog.BITCOIN));
+        assertEquals(0, deck.getCount(CardCatalog.METHOD));
+        assertEquals(6, deck.getAutomationPoints());
+    }
+
     // ===== Player Tests =====
     @Test
     public void testPlayerCreation() {
@@ -199,6 +242,35 @@ public class DominationTest {
         assertTrue(cryptoCards.size() >= 0 && cryptoCards.size() <= 4);
     }
 
+    @Test
+    public void testCopyHandIdsRejectsCardsOutsideTheCatalog() {
+        player.addCardToDeck(new AutomationCard("Cobol", 3, 2));
+        player.endTurn();
+        try {
+            player.copyHandIds(CardCatalog.STANDARD, new byte[5]);
+            fail("A card outside the catalog has no ID to copy");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("Cobol"));
+        }
+    }
+
+    @Test
+    public void testPileCopiesRejectCardsOutsideTheCatalog() {
+        player.addCardToDeck(new AutomationCard("Cobol", 3, 2));
+        try {
+            player.copyInto(new CompactGame(CardCatalog.STANDARD), 0);
+            fail("A card outside the catalog has no ID to copy");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("Cobol"));
+        }
+        try {
+            player.saveTo(new GameSnapshot(CardCatalog.STANDARD, 2), 0);
+            fail("A card outside the catalog has no ID to save");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("Cobol"));
+        }
+    }
+
     @Test
     public void testPlayerGetAvailableCoins() {
         player.addCardToDeck(new CryptocurrencyCard("Bitcoin", 0, 1));
@@ -210,6 +282,109 @@ public class DominationTest {
         // This tests the underlying logic for cryptocurrency cards
     }
 
+    @Test
+    public void testPlayerAvailableCoinsTracksHand() {
+        player.setupStarterDeck(supply);
+        for (int turn = 0; turn < 20; turn++) {
+            int coins = 0;
+            for (Card card : player.getCryptocurrencyCards()) {
+                coins += ((CryptocurrencyCard) card).getCoinValue();
+            }
+            assertEquals(coins, player.getAvailableCoins());
+            player.cleanup();
+            assertEquals(0, player.getAvailableCoins());
+            player.endTurn();
+        }
+        assertEquals(7, player.getDeckCount(CardCatalog.BITCOIN));
+        assertEquals(3, player.getDeckCount(CardCatalog.METHOD));
+    }
+
+    @Test
+    public void testSharedPilesDealLikeShuffledLists() {
+        // The list piles the player used to keep, driven by an identically seeded generator
+        Random random = new Random(5);
+        List<Card> draw = new ArrayList<>();
+        List<Card> discard = new ArrayList<>();
+        List<Card> hand = new ArrayList<>();
+        Player shared = new Player("Shared", new Random(5));
+        shared.setupStarterDeck(supply);
+        for (int i = 0; i < CardCatalog.STANDARD.getStarterSize(); i++) {
+            discard.add(CardCatalog.STANDARD.getCard(CardCatalog.STANDARD.getStarterCard(i)));
+        }
+        draw.addAll(discard);
+        discard.clear();
+        Collections.shuffle(draw, random);
+        deal(draw, hand);
+
+        int reshuffles = 0;
+        for (int turn = 0; turn < 200; turn++) {
+            assertEquals(hand, shared.getHand());
+            for (int id = 0; id < CardCatalog.STANDARD.size(); id++) {
+                String name = CardCatalog.STANDARD.getName(id);
+                assertEquals(count(hand, name), shared.countInHand(id));
+                assertEquals(count(draw, name), shared.countInDrawPile(id));
+                assertEquals(count(discard, name), shared.countInDiscardPile(id));
+            }
+            // Buy every other turn, so the deck outgrows the initial pile array
+            if (turn % 2 == 0) {
+                Card bought = CardCatalog.STANDARD.getCard(turn % 4 == 0 ? CardCatalog.ETHEREUM : CardCatalog.MODULE);
+                shared.addCardToDeck(bought);
+                discard.add(bought);
+            }
+            shared.cleanup();
+            discard.addAll(hand);
+            hand.clear();
+            boolean reshuffle = draw.isEmpty() && !discard.isEmpty();
+            if (reshuffle) {
+                draw.addAll(discard);
+                discard.clear();
+                Collections.shuffle(draw, random);
+                reshuffles++;
+            }
+            assertEquals(reshuffle, shared.endTurn());
+            deal(draw, hand);
+        }
+        assertTrue(reshuffles > 5);
+        assertEquals(110, shared.getHandSize() + draw.size() + discard.size());
+    }
+
+    @Test
+    public void testRepeatedSetupShufflesLeftoverDrawPile() {
+        // A second setup puts the new starters under the cards still to draw, as the list piles did
+        Random random = new Random(9);
+        Player shared = new Player("Shared", new Random(9));
+        List<Card> draw = new ArrayList<>();
+        for (int setup = 0; setup < 2; setup++) {
+            shared.setupStarterDeck(supply);
+            for (int i = 0; i < CardCatalog.STANDARD.getStarterSize(); i++) {
+                draw.add(CardCatalog.STANDARD.getCard(CardCatalog.STANDARD.getStarterCard(i)));
+            }
+            Collections.shuffle(draw, random);
+            List<Card> hand = new ArrayList<>();
+            deal(draw, hand);
+            assertEquals(hand, shared.getHand());
+            assertEquals(count(draw, "Bitcoin"), shared.countInDrawPile(CardCatalog.BITCOIN));
+            assertEquals(0, shared.countInDiscardPile(CardCatalog.BITCOIN));
+        }
+        assertEquals(10, draw.size());
+    }
+
+    private static void deal(List<Card> draw, List<Card> hand) {
+        for (int i = 0; i < 5 && !draw.isEmpty(); i++) {
+            hand.add(draw.remove(draw.size() - 1));
+        }
+    }
+
+    private static int count(List<Card> pile, String name) {
+        int count = 0;
+        for (Card card : pile) {
+            if (card.getName().equals(name)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     @Test
     public void testPlayerGetAutomationPoints() {
         player.addCardToDeck(new AutomationCard("Method", 2, 1));
@@ -0,0 +1,127 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class GameAnalyticsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testHistogramIsExactForSmallValuesAndCloseForLargeOnes() {
+        StreamingHistogram histogram = new StreamingHistogram(4, 1 << 20);
+        for (int v = 0; v < 16; v++) {
+            histogram.record(v);
+        }
+        assertEquals(0, histogram.quantile(1.0 / 16));
+        assertEquals(7, histogram.quantile(0.5));
+        assertEquals(15, histogram.quantile(1));
+
+        histogram.reset();
+        SplittableRandom random = new SplittableRandom(5);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong(1_000_000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double q : new double[] {0.1, 0.5, 0.9, 0.99}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            long estimate = histogram.quantile(q);
+            assertTrue(estimate <= exact);
+            assertTrue(exact - estimate <= exact / 16);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values.length, histogram.getCount());
+    }
+
+    @Test
+    public void testHistogramClampsWithoutGrowing() {
+        StreamingHistogram histogram = new StreamingHistogram(2, 100);
+        int buckets = histogram.getCounts().length;
+        histogram.record(-5);
+        histogram.record(1L << 40);
+        assertEquals(buckets, histogram.getCounts().length);
+        assertEquals(0, histogram.quantile(0.5));
+        assertEquals(1L << 40, histogram.getMax());
+        assertEquals(histogram.lowestValue(buckets - 1), histogram.quantile(1));
+    }
+
+    @Test
+    public void testAggregatesMatchTheGamesPlayed() {
+        CardCatalog catalog = CardCatalog.STANDARD;
+        GameAnalytics analytics = new GameAnalytics(catalog);
+        CompactGame game = new CompactGame(catalog, ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY);
+        game.setEventSink(analytics);
+        int[] turns = new int[500];
+        long totalPoints = 0;
+        for (int i = 0; i < turns.length; i++) {
+            game.reset(new SplittableRandom(i));
+            GameResult result = game.playGame();
+            turns[i] = result.getTurns();
+            totalPoints += result.getPoints(0) + result.getPoints(1);
+        }
+        Arrays.sort(turns);
+        assertEquals(turns.length, analytics.getGames());
+        assertEquals(turns[turns.length / 2 - 1], analytics.getTurns().quantile(0.5));
+        assertEquals(turns[turns.length - 1], analytics.getTurns().getMax());
+        assertEquals(2 * turns.length, analytics.getPoints().getCount());
+        assertEquals((double) totalPoints / (2 * turns.length), analytics.getPoints().getMean(), 1e-9);
+        assertEquals(2 * turns.length,
+            analytics.getFirstEndCardRounds().getCount() + analytics.getNeverBoughtEndCard());
+
+        // Every end card bought is counted by round, and no player can buy one before their first
+        long bought = 0;
+        for (int round = 0; round <= GameAnalytics.MAX_ROUND; round++) {
+            bought += analytics.getPurchases(catalog.getEndCard(), round);
+        }
+        assertEquals(turns.length * catalog.getQuantity(catalog.getEndCard(), 2), bought);
+        assertTrue(analytics.getFirstEndCardRounds().quantile(0.01) >= 1);
+    }
+
+    @Test
+    public void testConcurrentGamesAreAllCounted() {
+        GameAnalytics analytics = new GameAnalytics(CardCatalog.STANDARD);
+        Simulator simulator = new Simulator(4, true, 3);
+        simulator.setEventSink(analytics);
+        SimulationResult result = simulator.run(2000, 11);
+        assertEquals(2000, analytics.getGames());
+        assertEquals(6000, analytics.getPoints().getCount());
+        assertEquals(result.getAverageTurns(), analytics.getTurns().getMean(), 1e-9);
+    }
+
+    @Test
+    public void testSnapshotsAreExportedAsCsvAndJson() throws IOException {
+        GameAnalytics analytics = new GameAnalytics(CardCatalog.STANDARD);
+        GameMetrics metrics = new GameMetrics(CardCatalog.STANDARD);
+        Simulator.playCompactBatch(50, new SplittableRandom(1), 2, CardCatalog.STANDARD,
+            GameEventSink.both(metrics, analytics));
+        assertEquals(50, metrics.getGames());
+
+        Path csv = folder.getRoot().toPath().resolve("analytics.csv");
+        Path json = folder.getRoot().toPath().resolve("analytics.json");
+        try (AnalyticsExporter exporter = new AnalyticsExporter(analytics, csv, 0)) {
+            assertFalse(Files.exists(csv));
+        }
+        new AnalyticsExporter(analytics, json, 0).close();
+
+        String text = Files.readString(csv);
+        assertTrue(text.startsWith("metric,key,value\ngames,,50\n"));
+        assertTrue(text.contains("\nturns,p50," + analytics.getTurns().quantile(0.5) + "\n"));
+        assertTrue(text.contains("\npurchases.Framework,"));
+        String object = Files.readString(json);
+        assertTrue(object.startsWith("{\"games\":50,"));
+        assertTrue(object.contains("\"endCard\":\"Framework\""));
+        assertTrue(object.contains("\"turns\":{\"count\":50,"));
+        assertTrue(object.endsWith("}}"));
+        assertFalse(Files.exists(folder.getRoot().toPath().resolve("analytics.json.tmp")));
+    }
+}
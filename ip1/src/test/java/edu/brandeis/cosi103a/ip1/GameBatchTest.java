@@ -0,0 +1,122 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static edu.brandeis.cosi103a.ip1.StatsAssert.assertClose;
+import java.util.SplittableRandom;
+
+public class GameBatchTest {
+
+    @Test
+    public void testCardsAreConservedInEveryGame() {
+        CardCatalog catalog = CardCatalog.STANDARD;
+        int size = 16;
+        GameBatch batch = new GameBatch(catalog, 3, size);
+        SplittableRandom random = new SplittableRandom(3);
+        batch.resetAll(random);
+        for (int turn = 0; turn < 400; turn++) {
+            batch.step(random);
+            for (int g = 0; g < size; g++) {
+                int total = 0;
+                for (int seat = 0; seat < 3; seat++) {
+                    int deck = 0;
+                    for (int id = 0; id < catalog.size(); id++) {
+                        deck += batch.getCardCount(g, seat, id);
+                    }
+                    assertEquals(batch.getDeckSize(g, seat), deck);
+                    total += deck;
+                }
+                for (int id = 0; id < catalog.size(); id++) {
+                    total += batch.getSupplyCount(g, id);
+                }
+                int expected = 0;
+                for (int id = 0; id < catalog.size(); id++) {
+                    expected += catalog.getQuantity(id, 3);
+                }
+                assertEquals(expected, total);
+            }
+        }
+        for (int g = 0; g < size; g++) {
+            assertTrue(batch.isGameOver(g));
+        }
+    }
+
+    @Test
+    public void testFinishedGamesStandStill() {
+        GameBatch batch = new GameBatch(CardCatalog.STANDARD, 2, 4);
+        SplittableRandom random = new SplittableRandom(6);
+        batch.resetAll(random);
+        while (!batch.isGameOver(0)) {
+            batch.step(random);
+        }
+        int turns = batch.getTurnCount(0);
+        int[] points = batch.getPoints(0);
+        int deck = batch.getDeckSize(0, 0);
+        for (int i = 0; i < 50; i++) {
+            batch.step(random);
+        }
+        assertEquals(turns, batch.getTurnCount(0));
+        assertArrayEquals(points, batch.getPoints(0));
+        assertEquals(deck, batch.getDeckSize(0, 0));
+    }
+
+    @Test
+    public void testPlaysExactlyTheRequestedGames() {
+        GameBatch batch = new GameBatch(CardCatalog.STANDARD, 2, 32);
+        assertEquals(10, batch.play(10, new SplittableRandom(1)).getGames());
+        assertEquals(100, batch.play(100, new SplittableRandom(2)).getGames());
+        assertEquals(0, batch.play(0, new SplittableRandom(3)).getGames());
+    }
+
+    @Test
+    public void testOutcomesMatchTheGameEngines() {
+        Strategy[] strategies = {ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY};
+        int games = 3000;
+        RunningStats batchTurns = new RunningStats();
+        RunningStats batchMargin = new RunningStats();
+        GameBatch batch = new GameBatch(CardCatalog.STANDARD, 64, strategies);
+        SplittableRandom random = new SplittableRandom(17);
+        for (int round = 0; round < games / 64 + 1; round++) {
+            batch.resetAll(random);
+            for (int g = 0; g < 64; g++) {
+                while (!batch.isGameOver(g)) {
+                    batch.step(random);
+                }
+            }
+            for (int g = 0; g < 64; g++) {
+                int[] points = batch.getPoints(g);
+                batchTurns.add(batch.getTurnCount(g));
+                batchMargin.add(points[1] - points[0]);
+            }
+        }
+
+        RunningStats turns = new RunningStats();
+        RunningStats margin = new RunningStats();
+        CompactGame game = new CompactGame(CardCatalog.STANDARD, strategies);
+        for (int i = 0; i < games; i++) {
+            game.reset(random);
+            GameResult result = game.playGame();
+            turns.add(result.getTurns());
+            margin.add(result.getPoints(1) - result.getPoints(0));
+        }
+        assertClose(batchTurns, turns);
+        assertClose(batchMargin, margin);
+    }
+
+    @Test
+    public void testWinRatesMatchTheObjectRunner() {
+        SimulationResult batch = new GameBatch(CardCatalog.STANDARD, 2, 256).play(4000, new SplittableRandom(8));
+        SimulationResult objects = Simulator.playBatch(4000, new SplittableRandom(9));
+        for (int seat = 0; seat < 2; seat++) {
+            double p = objects.getWinRate(seat);
+            double se = Math.sqrt(2 * p * (1 - p) / 4000);
+            assertEquals(p, batch.getWinRate(seat), 4 * se);
+        }
+        assertEquals(objects.getAverageTurns(), batch.getAverageTurns(), 1.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsStrategiesWithoutScores() {
+        new GameBatch(CardCatalog.STANDARD, 8, ScoredStrategy.GREEDY, view -> -1);
+    }
+}
@@ -0,0 +1,183 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class GameEventSinkTest {
+
+    private static final String NL = System.lineSeparator();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Plays a seeded game through a console sink and returns everything it printed.
+     */
+    private String consoleText(long seed) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        domination game = new domination(seed, true);
+        game.setEventSink(new ConsoleEventSink(new PrintStream(bytes, true), CardCatalog.STANDARD));
+        game.playGame();
+        return bytes.toString();
+    }
+
+    /**
+     * Replays a seeded game silently and prints it the way playTurn/playGame used to.
+     */
+    private String legacyText(long seed) {
+        StringBuilder sb = new StringBuilder("Starting Dominion game..." + NL);
+        domination game = new domination(seed, true);
+        while (!game.isGameOver()) {
+            int coins = game.getAvailableCoins();
+            sb.append("\n=== Player ").append(game.getCurrentSeat() + 1).append("'s Turn ===").append(NL);
+            sb.append("Hand: ").append(game.handToString(game.getCurrentPlayer().getHand())).append(NL);
+            sb.append("Available coins: ").append(coins).append(NL);
+            Card card = game.chooseBestCard(coins);
+            sb.append(card == null ? "No affordable cards to buy" : "Bought: " + card.getName()).append(NL);
+            game.playTurn();
+        }
+        int p1 = game.getPoints(0);
+        int p2 = game.getPoints(1);
+        sb.append("\n=== Game Over ===").append(NL);
+        sb.append("Player 1 Automation Points: ").append(p1).append(NL);
+        sb.append("Player 2 Automation Points: ").append(p2).append(NL);
+        sb.append(p1 > p2 ? "Player 1 wins!" : p2 > p1 ? "Player 2 wins!" : "It's a tie!").append(NL);
+        return sb.toString();
+    }
+
+    // ===== Console Tests =====
+    @Test
+    public void testHandTextMatchesHandToString() {
+        domination game = new domination(1L, true);
+        SplittableRandom random = new SplittableRandom(9);
+        CardCatalog catalog = CardCatalog.STANDARD;
+        for (int trial = 0; trial < 500; trial++) {
+            byte[] ids = new byte[5];
+            List<Card> hand = new ArrayList<>();
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = (byte) random.nextInt(catalog.size());
+                hand.add(catalog.newCard(ids[i]));
+            }
+            StringBuilder sb = new StringBuilder();
+            GameText.appendHand(sb, catalog, ids, ids.length);
+            assertEquals("Hand: " + game.handToString(hand) + NL, sb.toString());
+        }
+    }
+
+    @Test
+    public void testConsoleSinkMatchesLegacyOutput() {
+        for (long seed = 0; seed < 5; seed++) {
+            assertEquals(legacyText(seed), consoleText(seed));
+        }
+    }
+
+    @Test
+    public void testCompactGameLogsSameText() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompactGame game = new CompactGame(CardCatalog.STANDARD);
+        game.setEventSink(new ConsoleEventSink(new PrintStream(bytes, true), CardCatalog.STANDARD));
+        game.reset(new SplittableRandom(3));
+        game.playGame();
+
+        assertEquals(consoleText(3), bytes.toString());
+    }
+
+    @Test
+    public void testEventsCoverEveryTurn() {
+        int[] counts = new int[4];
+        domination game = new domination(21L, true);
+        game.setEventSink(new GameEventSink() {
+            @Override
+            public void turnStarted(int turn, int seat) {
+                assertEquals(counts[0], turn);
+                counts[0]++;
+            }
+
+            @Override
+            public void cardBought(int seat, int cardId) {
+                counts[1]++;
+            }
+
+            @Override
+            public void reshuffled(int seat) {
+                counts[2]++;
+            }
+
+            @Override
+            public void gameEnded(GameResult result) {
+                counts[3]++;
+            }
+        });
+        GameResult result = game.playGame();
+
+        assertEquals(result.getTurns(), counts[0]);
+        assertEquals(result.getTurns(), counts[1]);
+        assertTrue(counts[2] > 0);
+        assertEquals(1, counts[3]);
+    }
+
+    // ===== Async File Tests =====
+    @Test
+    public void testAsyncFileSinkWritesConsoleText() throws Exception {
+        File file = folder.newFile("events.log");
+        StringBuilder expected = new StringBuilder();
+        // A tiny buffer forces many hand-offs to the writer thread
+        try (AsyncFileEventSink sink = new AsyncFileEventSink(file.toPath(), CardCatalog.STANDARD, 256)) {
+            for (long seed = 0; seed < 20; seed++) {
+                domination game = new domination(seed, true);
+                game.setEventSink(sink);
+                game.playGame();
+                expected.append(consoleText(seed));
+            }
+        }
+        String written = new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII);
+        assertEquals(expected.toString(), written);
+    }
+
+    @Test
+    public void testAsyncFileSinkWritesUtf8AndOversizedEvents() throws Exception {
+        String longName = "Stra\u00dfe" + "x".repeat(2 * AsyncFileEventSink.MIN_BUFFER_SIZE);
+        CardCatalog catalog = CardCatalog.parse(new BufferedReader(new StringReader(String.join("\n",
+            "card M\u00e9thode  automation      2  1  14",
+            "card " + longName + " automation 4  3   8",
+            "card \u26a1\ud83d\ude80 automation 8  6   8",
+            "card Bitcoin   cryptocurrency  0  1  60",
+            "starter Bitcoin 7",
+            "end Bitcoin"))), "unicode.cards");
+        File file = folder.newFile("unicode.log");
+        StringBuilder expected = new StringBuilder();
+        try (AsyncFileEventSink sink = new AsyncFileEventSink(file.toPath(), catalog,
+                AsyncFileEventSink.MIN_BUFFER_SIZE)) {
+            for (int id = 0; id < catalog.size(); id++) {
+                sink.cardBought(0, id);
+                GameText.appendBought(expected, catalog, id);
+            }
+        }
+        String written = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertEquals(expected.toString(), written);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAsyncFileSinkRejectsTinyBuffers() throws Exception {
+        new AsyncFileEventSink(folder.newFile().toPath(), CardCatalog.STANDARD, 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAsyncFileSinkRejectsEventsAfterClose() throws Exception {
+        AsyncFileEventSink sink = new AsyncFileEventSink(folder.newFile().toPath(), CardCatalog.STANDARD);
+        sink.close();
+        sink.nothingBought(0);
+    }
+}
@@ -0,0 +1,125 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class GameMetricsTest {
+
+    @Test
+    public void testCountsMatchThePlayedGames() {
+        GameMetrics metrics = new GameMetrics(CardCatalog.STANDARD);
+        CompactGame game = new CompactGame(CardCatalog.STANDARD);
+        game.setEventSink(metrics);
+        long turns = 0;
+        int[] lengths = new int[200];
+        for (int i = 0; i < 200; i++) {
+            game.reset(new SplittableRandom(i));
+            lengths[i] = game.playGame().getTurns();
+            turns += lengths[i];
+        }
+
+        assertEquals(200, metrics.getGames());
+        assertEquals(turns, metrics.getTurns());
+        assertEquals(turns, metrics.getDecisions());
+        assertEquals((double) turns / 200, metrics.getMeanDepletionTurn(), 1e-9);
+        long[] purchases = metrics.getPurchases();
+        // Every game runs until the last Framework is bought
+        assertEquals(200L * CardCatalog.STANDARD.getQuantity(CardCatalog.FRAMEWORK, 2),
+            purchases[CardCatalog.FRAMEWORK]);
+        long bought = metrics.getPasses();
+        for (long count : purchases) {
+            bought += count;
+        }
+        assertEquals(turns, bought);
+        assertTrue(metrics.getReshufflesPerGame() > 1);
+        // Game lengths are counted exactly
+        Arrays.sort(lengths);
+        assertEquals(lengths[99], metrics.getDepletionTurnP50());
+        assertEquals(lengths[179], metrics.getDepletionTurnP90());
+        assertTrue(metrics.getDecisionNanosP50() <= metrics.getDecisionNanosP99());
+        assertEquals("Framework", metrics.getCardNames()[CardCatalog.FRAMEWORK]);
+    }
+
+    @Test
+    public void testBothEnginesReportTheSameGame() {
+        GameMetrics object = new GameMetrics(CardCatalog.STANDARD);
+        GameMetrics compact = new GameMetrics(CardCatalog.STANDARD);
+        domination game = new domination(new SplittableRandom(4), true);
+        game.setEventSink(object);
+        game.playGame();
+        CompactGame twin = new CompactGame(CardCatalog.STANDARD);
+        twin.setEventSink(compact);
+        twin.reset(new SplittableRandom(4));
+        twin.playGame();
+
+        assertEquals(compact.getTurns(), object.getTurns());
+        assertEquals(compact.getDecisions(), object.getDecisions());
+        assertEquals(compact.getReshuffles(), object.getReshuffles());
+        assertArrayEquals(compact.getPurchases(), object.getPurchases());
+    }
+
+    @Test
+    public void testParallelSimulationLosesNoUpdates() {
+        GameMetrics metrics = new GameMetrics(CardCatalog.STANDARD);
+        Simulator simulator = new Simulator(4, true);
+        simulator.setEventSink(metrics);
+        SimulationResult result = simulator.run(30_000, 8);
+
+        assertEquals(30_000, metrics.getGames());
+        assertEquals(Math.round(result.getAverageTurns() * 30_000), metrics.getTurns());
+    }
+
+    @Test
+    public void testResetZeroesEverything() {
+        GameMetrics metrics = new GameMetrics(CardCatalog.STANDARD);
+        Simulator.playBatch(5, new SplittableRandom(1), 2, CardCatalog.STANDARD, metrics);
+        assertEquals(5, metrics.getGames());
+        metrics.reset();
+        assertEquals(0, metrics.getGames());
+        assertEquals(0, metrics.getTurns());
+        assertEquals(0, metrics.getDecisions());
+        assertEquals(0, metrics.getDepletionTurnP90());
+        assertEquals(0, metrics.getMeanDecisionNanos(), 0);
+    }
+
+    @Test
+    public void testPublishedOverJmx() throws Exception {
+        GameMetrics metrics = new GameMetrics(CardCatalog.STANDARD);
+        Simulator.playCompactBatch(3, new SplittableRandom(2), 2, CardCatalog.STANDARD, metrics);
+        metrics.register("test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("edu.brandeis.cosi103a.ip1:type=GameMetrics,name=test");
+            assertEquals(3L, server.getAttribute(name, "Games"));
+            assertEquals(metrics.getTurns(), server.getAttribute(name, "Turns"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "Games"));
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(
+            new ObjectName("edu.brandeis.cosi103a.ip1:type=GameMetrics,name=test")));
+    }
+
+    @Test
+    public void testReporterDumpsSnapshots() throws InterruptedException {
+        GameMetrics metrics = new GameMetrics(CardCatalog.STANDARD);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MetricsReporter reporter = new MetricsReporter(metrics, new PrintStream(bytes, true), 20)) {
+            Simulator.playCompactBatch(10, new SplittableRandom(3), 2, CardCatalog.STANDARD, metrics);
+            Thread.sleep(100);
+        }
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split("\n");
+        assertTrue(lines.length >= 2);
+        assertTrue(lines[lines.length - 1], lines[lines.length - 1].contains("games=10 "));
+        assertTrue(lines[lines.length - 1].contains("Framework=80"));
+    }
+}
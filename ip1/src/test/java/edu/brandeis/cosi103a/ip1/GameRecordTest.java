@@ -0,0 +1,153 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class GameRecordTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Rebuilds each game's final scores from its purchases.
+     */
+    private static class ScoreReplayer implements GameRecordVisitor {
+        final List<Long> seeds = new ArrayList<>();
+        final List<int[]> scores = new ArrayList<>();
+        final List<Integer> turns = new ArrayList<>();
+        int[] points;
+
+        @Override
+        public void gameStarted(long seed, int players, int startingSeat, int gameTurns) {
+            seeds.add(seed);
+            turns.add(gameTurns);
+            points = new int[players];
+            for (int seat = 0; seat < players; seat++) {
+                for (int i = 0; i < CardCatalog.STANDARD.getStarterSize(); i++) {
+                    points[seat] += CardCatalog.STANDARD.getPoints(CardCatalog.STANDARD.getStarterCard(i));
+                }
+            }
+        }
+
+        @Override
+        public void cardBought(int turn, int seat, int cardId, int coins) {
+            assertTrue(coins >= CardCatalog.STANDARD.getCost(cardId));
+            points[seat] += CardCatalog.STANDARD.getPoints(cardId);
+        }
+
+        @Override
+        public void gameEnded() {
+            scores.add(points);
+        }
+    }
+
+    private List<GameResult> record(Path file, long firstSeed, int games) throws IOException {
+        List<GameResult> results = new ArrayList<>();
+        CompactGame game = new CompactGame(CardCatalog.STANDARD);
+        try (GameRecordWriter writer = new GameRecordWriter(file, CardCatalog.STANDARD)) {
+            game.setEventSink(writer);
+            for (long seed = firstSeed; seed < firstSeed + games; seed++) {
+                writer.beginGame(seed);
+                game.reset(new SplittableRandom(seed));
+                results.add(game.playGame());
+            }
+        }
+        return results;
+    }
+
+    private void assertReplays(List<GameResult> expected, long firstSeed, ScoreReplayer replayer) {
+        assertEquals(expected.size(), replayer.scores.size());
+        for (int g = 0; g < expected.size(); g++) {
+            assertEquals(firstSeed + g, (long) replayer.seeds.get(g));
+            assertEquals(expected.get(g).getTurns(), (int) replayer.turns.get(g));
+            assertEquals(expected.get(g).getPoints(0), replayer.scores.get(g)[0]);
+            assertEquals(expected.get(g).getPoints(1), replayer.scores.get(g)[1]);
+        }
+    }
+
+    @Test
+    public void testRoundTripRebuildsScores() throws IOException {
+        Path file = folder.newFile("games.bin").toPath();
+        Files.delete(file);
+        List<GameResult> expected = record(file, 0, 200);
+
+        ScoreReplayer replayer = new ScoreReplayer();
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertEquals(6, reader.getCardTypes());
+            assertEquals(200, reader.read(replayer));
+        }
+        assertReplays(expected, 0, replayer);
+    }
+
+    @Test
+    public void testRecordsAreCompact() throws IOException {
+        Path file = folder.newFile("games.bin").toPath();
+        Files.delete(file);
+        List<GameResult> results = record(file, 0, 100);
+        long turns = 0;
+        for (GameResult result : results) {
+            turns += result.getTurns();
+        }
+        // About two bytes per turn plus a small fixed header per game
+        assertTrue(Files.size(file) < 2 * turns + 16 * results.size());
+    }
+
+    @Test
+    public void testSmallWindowRemapsAcrossRecords() throws IOException {
+        Path file = folder.newFile("games.bin").toPath();
+        Files.delete(file);
+        List<GameResult> expected = record(file, 10, 50);
+
+        ScoreReplayer replayer = new ScoreReplayer();
+        try (GameRecordReader reader = new GameRecordReader(file, 512)) {
+            assertEquals(50, reader.read(replayer));
+        }
+        assertReplays(expected, 10, replayer);
+    }
+
+    @Test
+    public void testAppendsToExistingFile() throws IOException {
+        Path file = folder.newFile("games.bin").toPath();
+        Files.delete(file);
+        List<GameResult> expected = record(file, 0, 5);
+        expected.addAll(record(file, 5, 5));
+
+        ScoreReplayer replayer = new ScoreReplayer();
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertEquals(10, reader.read(replayer));
+        }
+        assertReplays(expected, 0, replayer);
+    }
+
+    @Test
+    public void testSeedsReplayRecordedGames() throws IOException {
+        Path file = folder.newFile("games.bin").toPath();
+        Files.delete(file);
+        record(file, 100, 3);
+
+        ScoreReplayer replayer = new ScoreReplayer();
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            reader.read(replayer);
+        }
+        for (int g = 0; g < 3; g++) {
+            GameResult replay = new domination(replayer.seeds.get(g), true).playGame();
+            assertEquals(replay.getPoints(0), replayer.scores.get(g)[0]);
+            assertEquals(replay.getPoints(1), replayer.scores.get(g)[1]);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsForeignFile() throws IOException {
+        Path file = folder.newFile("notes.txt").toPath();
+        Files.write(file, "hello, world".getBytes());
+        new GameRecordReader(file).close();
+    }
+}
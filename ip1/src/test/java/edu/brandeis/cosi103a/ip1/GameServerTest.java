@@ -0,0 +1,142 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.SplittableRandom;
+
+public class GameServerTest {
+    private GameServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new GameServer(0, 8, 2_000, ScoredStrategy.GREEDY, 42);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    private LineChannel connect(GameServer target, int timeoutMillis) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), target.getPort());
+        socket.setSoTimeout(timeoutMillis);
+        return new LineChannel(socket);
+    }
+
+    @Test
+    public void testPassingClientPlaysToTheEnd() throws IOException {
+        try (LineChannel client = connect(server, 5_000)) {
+            assertEquals("HELLO domination 1", client.readLine());
+            client.writeLine("PLAY 7");
+            assertTrue(client.readLine().startsWith("GAME 7 "));
+            String line;
+            while ((line = client.readLine()).startsWith("TURN")) {
+                client.writeLine("PASS");
+            }
+            assertTrue(line, line.startsWith("END 3 "));
+            assertTrue(line, line.endsWith(" LOSS"));
+            client.writeLine("QUIT");
+            assertEquals("BYE", client.readLine());
+            assertNull(client.readLine());
+        }
+        assertEquals(1, server.getGamesPlayed());
+    }
+
+    @Test
+    public void testIllegalBuyIsRejected() throws IOException {
+        try (LineChannel client = connect(server, 5_000)) {
+            client.readLine();
+            client.writeLine("DEAL");
+            assertEquals("ERR expected PLAY or QUIT", client.readLine());
+            client.writeLine("PLAY 1");
+            client.readLine();
+            assertTrue(client.readLine().startsWith("TURN"));
+            client.writeLine("BUY Framework");
+            assertEquals("ERR cannot buy Framework", client.readLine());
+            client.writeLine("BUY Nothing");
+            assertEquals("ERR cannot buy Nothing", client.readLine());
+            client.writeLine("QUIT");
+            assertEquals("BYE", client.readLine());
+        }
+    }
+
+    @Test
+    public void testRemoteGreedyClientReplaysLocalGame() throws IOException {
+        long seed = 12345;
+        CompactGame local = new CompactGame(CardCatalog.STANDARD);
+        local.reset(new SplittableRandom(seed));
+        GameResult expected = local.playGame();
+
+        BuyTable table = new BuyTable(CardCatalog.STANDARD, CardScorer.GREEDY);
+        try (LineChannel client = connect(server, 5_000)) {
+            client.readLine();
+            client.writeLine("PLAY " + seed);
+            client.readLine();
+            String line;
+            int choice = -1;
+            int coins = 0;
+            while (!(line = client.readLine()).startsWith("END")) {
+                if (line.startsWith("ERR")) {
+                    table.pileEmptied(choice);
+                } else {
+                    coins = Integer.parseInt(line.split(" ")[2]);
+                }
+                choice = table.choose(coins);
+                client.writeLine(choice < 0 ? "PASS" : "BUY " + CardCatalog.STANDARD.getName(choice));
+            }
+            assertEquals("END " + expected.getPoints(0) + " " + expected.getPoints(1) + " " + expected.getTurns(),
+                line.substring(0, line.lastIndexOf(' ')));
+        }
+    }
+
+    @Test
+    public void testIdleClientIsDisconnected() throws IOException {
+        try (GameServer impatient = new GameServer(0, 1, 200, ScoredStrategy.GREEDY, 1)) {
+            impatient.start();
+            try (LineChannel client = connect(impatient, 5_000)) {
+                assertEquals("HELLO domination 1", client.readLine());
+                assertEquals("ERR idle timeout", client.readLine());
+                assertNull(client.readLine());
+            }
+        }
+    }
+
+    @Test
+    public void testSessionsBeyondLimitWait() throws IOException {
+        try (GameServer single = new GameServer(0, 1, 5_000, ScoredStrategy.GREEDY, 1)) {
+            single.start();
+            try (LineChannel first = connect(single, 5_000);
+                 LineChannel second = connect(single, 300)) {
+                assertEquals("HELLO domination 1", first.readLine());
+                try {
+                    second.readLine();
+                    fail("Second session started while the first was open");
+                } catch (SocketTimeoutException expected) {
+                    // Waiting in the backlog
+                }
+                first.writeLine("QUIT");
+                assertEquals("BYE", first.readLine());
+                second.getSocket().setSoTimeout(5_000);
+                assertEquals("HELLO domination 1", second.readLine());
+            }
+        }
+    }
+
+    @Test
+    public void testLoadGeneratorCompletesEverySession() throws InterruptedException {
+        LoadReport report = new LoadGenerator(InetAddress.getLoopbackAddress().getHostAddress(), server.getPort())
+            .run(100, 20, 9);
+        assertEquals(100, report.getSessions());
+        assertEquals(0, report.getFailures());
+        assertEquals(100, server.getGamesPlayed());
+        assertTrue(report.getLatencyPercentile(99) >= report.getLatencyPercentile(50));
+        assertTrue(report.getLatencyPercentile(50) > 0);
+    }
+}
@@ -0,0 +1,125 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.SplittableRandom;
+
+public class GameSnapshotTest {
+
+    private static domination midGame(long seed, int turns) {
+        domination game = new domination(new SplittableRandom(seed), true);
+        for (int i = 0; i < turns; i++) {
+            game.playTurn();
+        }
+        return game;
+    }
+
+    @Test
+    public void testRestoreRewindsTheGame() {
+        domination game = midGame(3, 20);
+        GameSnapshot before = game.snapshot();
+        int coins = game.getAvailableCoins();
+        int[] points = {game.getPoints(0), game.getPoints(1)};
+
+        for (int i = 0; i < 10; i++) {
+            game.playTurn();
+        }
+        assertNotEquals(before, game.snapshot());
+
+        game.restore(before);
+        assertEquals(before, game.snapshot());
+        assertEquals(20, game.getTurnCount());
+        assertEquals(coins, game.getAvailableCoins());
+        assertEquals(points[0], game.getPoints(0));
+        assertEquals(points[1], game.getPoints(1));
+        for (int id = 0; id < CardCatalog.STANDARD.size(); id++) {
+            assertEquals(before.getSupplyCount(id), game.getSupplyCount(id));
+        }
+    }
+
+    @Test
+    public void testForksWithEqualGeneratorsPlayEqualGames() {
+        domination game = midGame(8, 15);
+        GameResult first = game.fork(new SplittableRandom(1)).playGame();
+        GameResult second = game.fork(new SplittableRandom(1)).playGame();
+        assertEquals(first.getTurns(), second.getTurns());
+        assertEquals(first.getPoints(0), second.getPoints(0));
+        assertEquals(first.getPoints(1), second.getPoints(1));
+    }
+
+    @Test
+    public void testForkLeavesTheOriginalAlone() {
+        domination game = midGame(12, 9);
+        GameSnapshot before = game.snapshot();
+        game.fork(new SplittableRandom(2)).playGame();
+        assertEquals(before, game.snapshot());
+        assertFalse(game.isGameOver());
+    }
+
+    @Test
+    public void testEnginesContinueAForkedPositionIdentically() {
+        for (long seed = 0; seed < 20; seed++) {
+            domination game = midGame(seed, 25);
+            CompactGame compact = new CompactGame(CardCatalog.STANDARD);
+            compact.copyFrom(game.snapshot());
+            compact.setShuffler(new SplittableRandom(seed + 100));
+            assertEquals(game.getPoints(0), compact.getPoints(0));
+            assertEquals(game.getAvailableCoins(), compact.getAvailableCoins());
+
+            GameResult expected = game.fork(new SplittableRandom(seed + 100)).playGame();
+            GameResult actual = compact.playGame();
+            assertEquals(expected.getTurns(), actual.getTurns());
+            assertEquals(expected.getPoints(0), actual.getPoints(0));
+            assertEquals(expected.getPoints(1), actual.getPoints(1));
+        }
+    }
+
+    @Test
+    public void testCompactPositionRestoresIntoDomination() {
+        CompactGame compact = new CompactGame(CardCatalog.STANDARD, 3);
+        compact.reset(new SplittableRandom(6));
+        for (int i = 0; i < 30; i++) {
+            compact.playTurn();
+        }
+        GameSnapshot saved = new GameSnapshot(CardCatalog.STANDARD, 3);
+        compact.snapshot(saved);
+
+        domination game = new domination(new SplittableRandom(0), true, 3);
+        game.restore(saved);
+        assertEquals(saved, game.snapshot());
+        for (int seat = 0; seat < 3; seat++) {
+            assertEquals(compact.getPoints(seat), game.getPoints(seat));
+        }
+        assertEquals(compact.getCurrentSeat(), game.getCurrentSeat());
+    }
+
+    @Test
+    public void testCopyIntoMatchesTheSnapshot() {
+        domination game = new domination(new SplittableRandom(3), true, 3);
+        CompactGame compact = new CompactGame(CardCatalog.STANDARD, 3);
+        GameSnapshot copied = new GameSnapshot(CardCatalog.STANDARD, 3);
+        for (int turn = 0; turn < 60; turn++) {
+            game.copyInto(compact);
+            compact.snapshot(copied);
+            assertEquals(game.snapshot(), copied);
+            for (int seat = 0; seat < 3; seat++) {
+                assertEquals(game.getPoints(seat), compact.getPoints(seat));
+            }
+            game.playTurn();
+        }
+    }
+
+    @Test
+    public void testCopyFromBlitsAnotherSnapshot() {
+        GameSnapshot source = midGame(4, 11).snapshot();
+        GameSnapshot copy = new GameSnapshot(CardCatalog.STANDARD, 2);
+        copy.copyFrom(source);
+        assertEquals(source, copy);
+        assertEquals(source.hashCode(), copy.hashCode());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsASnapshotOfAnotherShape() {
+        midGame(1, 0).restore(new GameSnapshot(CardCatalog.STANDARD, 3));
+    }
+}
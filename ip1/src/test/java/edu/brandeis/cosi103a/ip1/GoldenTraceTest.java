@@ -0,0 +1,139 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
+
+public class GoldenTraceTest {
+
+    /** The standard cards with Module one coin cheaper, standing in for a behavior change */
+    private static final String CHEAP_MODULE = String.join("\n",
+        "card Method    automation      2  1  14",
+        "card Module    automation      4  3   8",
+        "card Framework automation      8  6   8",
+        "card Bitcoin   cryptocurrency  0  1  60",
+        "card Ethereum  cryptocurrency  3  2  40",
+        "card Dogecoin  cryptocurrency  6  3  30",
+        "starter Bitcoin 7",
+        "starter Method  3",
+        "end Framework");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEnginesReplayTheGoldenCorpus() throws IOException {
+        // Recorded before the player piles moved to a shared array; both engines must still match it
+        GoldenTrace trace;
+        try (InputStream in = getClass().getResourceAsStream("golden.trace")) {
+            trace = GoldenTrace.load(in, "golden.trace", CardCatalog.STANDARD);
+        }
+        assertEquals(500, trace.getGames());
+        assertNull(trace.check(false));
+        assertNull(trace.check(true));
+    }
+
+    @Test
+    public void testTraceSurvivesAFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("games.trace");
+        GoldenTrace.record(CardCatalog.STANDARD, 40, 3).save(file);
+        GoldenTrace trace = GoldenTrace.load(file, CardCatalog.STANDARD);
+        assertEquals(40, trace.getGames());
+        assertNull(trace.check(false));
+        assertNull(trace.check(true));
+    }
+
+    @Test
+    public void testReportsTheFirstDivergingTurn() throws IOException {
+        CardCatalog cheap = CardCatalog.parse(new BufferedReader(new StringReader(CHEAP_MODULE)), "cheap.cards");
+        Path file = folder.getRoot().toPath().resolve("games.trace");
+        GoldenTrace.record(CardCatalog.STANDARD, 20, 8).save(file);
+        GoldenTrace.Divergence divergence = GoldenTrace.load(file, cheap).check(false);
+        assertNotNull(divergence);
+        assertTrue(divergence.toString(), divergence.toString().contains("seed " + divergence.seed));
+
+        // Replay the reported game under both rules and find where the turns part ways
+        List<String> expected = turns(CardCatalog.STANDARD, divergence);
+        List<String> actual = turns(cheap, divergence);
+        int turn = 0;
+        while (expected.get(turn).equals(actual.get(turn))) {
+            turn++;
+        }
+        assertEquals(turn, divergence.turn);
+    }
+
+    @Test
+    public void testRejectsDamagedTraces() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("games.trace");
+        GoldenTrace.record(CardCatalog.STANDARD, 5, 1).save(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        try {
+            GoldenTrace.load(file, CardCatalog.STANDARD);
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+        Files.writeString(file, "not a trace");
+        try {
+            GoldenTrace.load(file, CardCatalog.STANDARD);
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+
+        // A well-formed record of a one-player game, which no engine can replay
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(GoldenTrace.MAGIC);
+            out.writeByte(GoldenTrace.VERSION);
+            out.writeByte(CardCatalog.STANDARD.size());
+            out.writeInt(1);
+            out.writeLong(7);
+            out.write(new byte[] {1, 0, 0, 0, 0});
+        }
+        try {
+            GoldenTrace.load(file, CardCatalog.STANDARD);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("has 1 players"));
+        }
+    }
+
+    private static List<String> turns(CardCatalog catalog, GoldenTrace.Divergence divergence) {
+        List<String> turns = new ArrayList<>();
+        domination game = new domination(new SplittableRandom(divergence.seed), true, catalog, divergence.strategies);
+        game.setEventSink(new GameEventSink() {
+            private String turn;
+
+            @Override
+            public void handRevealed(int seat, byte[] hand, int size) {
+                turn = seat + " " + Arrays.toString(Arrays.copyOf(hand, size));
+            }
+
+            @Override
+            public void cardBought(int seat, int cardId) {
+                turns.add(turn + " " + cardId);
+            }
+
+            @Override
+            public void nothingBought(int seat) {
+                turns.add(turn + " -");
+            }
+        });
+        game.playGame();
+        return turns;
+    }
+}
@@ -0,0 +1,138 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+public class MctsStrategyTest {
+
+    private static CompactGame midGame(long seed, int turns) {
+        CompactGame game = new CompactGame(CardCatalog.STANDARD);
+        game.reset(new Random(seed));
+        for (int i = 0; i < turns; i++) {
+            game.playTurn();
+        }
+        return game;
+    }
+
+    @Test
+    public void testCopyPlaysOnIdentically() {
+        CompactGame original = midGame(5, 17);
+        CompactGame copy = new CompactGame(CardCatalog.STANDARD);
+        copy.copyFrom(original);
+        assertEquals(original.getTurnCount(), copy.getTurnCount());
+        assertEquals(original.getCurrentSeat(), copy.getCurrentSeat());
+
+        original.determinize(0, new SplittableRandom(3));
+        copy.determinize(0, new SplittableRandom(3));
+        GameResult expected = original.playGame();
+        GameResult actual = copy.playGame();
+        assertEquals(expected.getTurns(), actual.getTurns());
+        assertEquals(expected.getPoints(0), actual.getPoints(0));
+        assertEquals(expected.getPoints(1), actual.getPoints(1));
+    }
+
+    @Test
+    public void testDeterminizeKeepsObserversHand() {
+        CompactGame game = midGame(11, 9);
+        int observer = game.getCurrentSeat();
+        int[] hand = new int[CardCatalog.STANDARD.size()];
+        for (int id = 0; id < hand.length; id++) {
+            hand[id] = game.getHandCount(id);
+        }
+        int coins = game.getAvailableCoins();
+
+        for (long seed = 0; seed < 20; seed++) {
+            game.determinize(observer, new SplittableRandom(seed));
+            assertEquals(coins, game.getAvailableCoins());
+            for (int id = 0; id < hand.length; id++) {
+                assertEquals(hand[id], game.getHandCount(id));
+            }
+        }
+    }
+
+    @Test
+    public void testChoosesLegalCardsForAWholeGame() {
+        try (MctsStrategy mcts = new MctsStrategy(Long.MAX_VALUE, 50, 1, 7)) {
+            CompactGame game = new CompactGame(CardCatalog.STANDARD, mcts, ScoredStrategy.GREEDY);
+            game.reset(new SplittableRandom(1));
+            GameResult result = game.playGame();
+
+            assertTrue(result.getTurns() > 0);
+            assertEquals(mcts.getDecisions() * 50, mcts.getRollouts());
+            assertTrue(mcts.getRolloutsPerSecond() > 0);
+        }
+    }
+
+    @Test
+    public void testSearchIsRepeatableWithARolloutLimit() {
+        CompactGame game = midGame(21, 30);
+        try (MctsStrategy first = new MctsStrategy(Long.MAX_VALUE, 200, 1, 99);
+             MctsStrategy second = new MctsStrategy(Long.MAX_VALUE, 200, 1, 99)) {
+            assertEquals(first.chooseCard(game), second.chooseCard(game));
+        }
+    }
+
+    @Test
+    public void testParallelSearchSharesTheRolloutLimit() {
+        CompactGame game = midGame(8, 12);
+        try (MctsStrategy mcts = new MctsStrategy(Long.MAX_VALUE, 301, 4, 1)) {
+            int choice = mcts.chooseCard(game);
+            assertTrue(choice >= -1 && choice < CardCatalog.STANDARD.size());
+            assertEquals(301, mcts.getRollouts());
+        }
+    }
+
+    @Test
+    public void testStaysWithinTimeBudget() {
+        CompactGame game = midGame(2, 4);
+        try (MctsStrategy mcts = new MctsStrategy(5_000_000, 1)) {
+            for (int i = 0; i < 10; i++) {
+                mcts.chooseCard(game);
+            }
+            assertTrue(mcts.getAverageDecisionNanos() < 50_000_000);
+            assertTrue(mcts.getRollouts() > 0);
+        }
+    }
+
+    @Test
+    public void testSearchesADominationGame() {
+        try (MctsStrategy mcts = new MctsStrategy(Long.MAX_VALUE, 50, 1, 3)) {
+            domination game = new domination(new SplittableRandom(4), true, mcts, ScoredStrategy.GREEDY);
+            GameResult result = game.playGame();
+
+            assertTrue(result.getTurns() > 0);
+            assertEquals(mcts.getDecisions() * 50, mcts.getRollouts());
+        }
+    }
+
+    @Test
+    public void testSearchesACountGame() {
+        try (MctsStrategy mcts = new MctsStrategy(Long.MAX_VALUE, 50, 1, 5)) {
+            CountGame game = new CountGame(CardCatalog.STANDARD, mcts, ScoredStrategy.GREEDY);
+            game.reset(new SplittableRandom(6));
+            GameResult result = game.playGame();
+
+            assertTrue(result.getTurns() > 0);
+            assertEquals(mcts.getDecisions() * 50, mcts.getRollouts());
+        }
+    }
+
+    @Test
+    public void testSearchesEveryEngineThroughACache() {
+        try (MctsStrategy mcts = new MctsStrategy(Long.MAX_VALUE, 20, 1, 9)) {
+            Strategy cached = new CachedStrategy(mcts, CardCatalog.STANDARD, 1000);
+            domination ordered = new domination(new SplittableRandom(1), true, cached, ScoredStrategy.GREEDY);
+            CompactGame compact = new CompactGame(CardCatalog.STANDARD, cached, ScoredStrategy.GREEDY);
+            compact.reset(new SplittableRandom(2));
+            CountGame counted = new CountGame(CardCatalog.STANDARD, cached, ScoredStrategy.GREEDY);
+            counted.reset(new SplittableRandom(3));
+
+            assertTrue(ordered.playGame().getTurns() > 0);
+            assertTrue(compact.playGame().getTurns() > 0);
+            assertTrue(counted.playGame().getTurns() > 0);
+            assertTrue(mcts.getDecisions() > 0);
+        }
+    }
+}
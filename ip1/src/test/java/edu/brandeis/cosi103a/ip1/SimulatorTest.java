@@ -0,0 +1,141 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+public class SimulatorTest {
+
+    // ===== GameResult Tests =====
+    @Test
+    public void testGameResultWinner() {
+        assertEquals(0, new GameResult(new int[] {30, 20}, 40).getWinner());
+        assertEquals(1, new GameResult(new int[] {20, 30}, 40).getWinner());
+    }
+
+    @Test
+    public void testGameResultTie() {
+        assertEquals(-1, new GameResult(new int[] {25, 25}, 40).getWinner());
+    }
+
+    // ===== Silent Game Tests =====
+    @Test
+    public void testSilentGameReturnsResult() {
+        domination game = new domination(new Random(42), true);
+        GameResult result = game.playGame();
+
+        assertTrue(game.isGameOver());
+        assertEquals(game.getTurnCount(), result.getTurns());
+        assertTrue(result.getTurns() > 0);
+        assertEquals(2, result.getPlayerCount());
+    }
+
+    @Test
+    public void testSeededGamesAreReproducible() {
+        GameResult first = new domination(new Random(7), true).playGame();
+        GameResult second = new domination(new Random(7), true).playGame();
+
+        assertEquals(first.getTurns(), second.getTurns());
+        assertEquals(first.getPoints(0), second.getPoints(0));
+        assertEquals(first.getPoints(1), second.getPoints(1));
+    }
+
+    @Test
+    public void testGameReplaysFromSeed() {
+        GameResult first = new domination(123456789L, true).playGame();
+        GameResult second = new domination(123456789L, true).playGame();
+
+        assertEquals(first.getTurns(), second.getTurns());
+        assertEquals(first.getPoints(0), second.getPoints(0));
+        assertEquals(first.getPoints(1), second.getPoints(1));
+    }
+
+    @Test
+    public void testSeededCompactGameMatchesSeededDomination() {
+        CompactGame compact = new CompactGame(CardCatalog.STANDARD);
+        for (long seed = 0; seed < 50; seed++) {
+            compact.reset(new SplittableRandom(seed));
+            GameResult expected = new domination(seed, true).playGame();
+            GameResult actual = compact.playGame();
+            assertEquals(expected.getTurns(), actual.getTurns());
+            assertEquals(expected.getPoints(0), actual.getPoints(0));
+        }
+    }
+
+    // ===== Simulator Tests =====
+    @Test
+    public void testSimulatorIsDeterministicForAnyThreadCount() {
+        SimulationResult one = new Simulator(1).run(12_000, 77);
+        SimulationResult four = new Simulator(4).run(12_000, 77);
+
+        assertEquals(one.getWins(0), four.getWins(0));
+        assertEquals(one.getWins(1), four.getWins(1));
+        assertEquals(one.getAverageTurns(), four.getAverageTurns(), 0);
+    }
+
+    @Test
+    public void testCompactSimulatorMatchesObjectSimulator() {
+        SimulationResult objects = new Simulator(2, false).run(500, 13);
+        SimulationResult compact = new Simulator(2, true).run(500, 13);
+
+        assertEquals(objects.getWins(0), compact.getWins(0));
+        assertEquals(objects.getWins(1), compact.getWins(1));
+        assertEquals(objects.getAverageTurns(), compact.getAverageTurns(), 0);
+    }
+
+    @Test
+    public void testSimulatorPlaysAllGames() {
+        SimulationResult result = new Simulator(3).run(100);
+
+        assertEquals(100, result.getGames());
+        double total = result.getWinRate(0) + result.getWinRate(1) + result.getTieRate();
+        assertEquals(1.0, total, 1e-9);
+        assertTrue(result.getAverageTurns() > 0);
+    }
+
+    @Test
+    public void testSimulatorMergesWorkerTallies() {
+        SimulationResult a = Simulator.playBatch(10, new SplittableRandom(1));
+        SimulationResult b = Simulator.playBatch(15, new SplittableRandom(2));
+        a.merge(b);
+
+        assertEquals(25, a.getGames());
+        assertEquals(a.getGames(), a.getWins(0) + a.getWins(1) + Math.round(a.getTieRate() * 25));
+    }
+
+    @Test
+    public void testMultiplayerSimulation() {
+        SimulationResult objects = new Simulator(2, false, 4).run(200, 5);
+        SimulationResult compact = new Simulator(2, true, 4).run(200, 5);
+
+        double total = compact.getTieRate();
+        for (int seat = 0; seat < 4; seat++) {
+            assertEquals(objects.getWins(seat), compact.getWins(seat));
+            total += compact.getWinRate(seat);
+        }
+        assertEquals(1.0, total, 1e-9);
+        assertEquals(objects.getAverageTurns(), compact.getAverageTurns(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSimulatorRejectsZeroThreads() {
+        new Simulator(0);
+    }
+
+    @Test
+    public void testOptionsAreTakenOutOfPositionalArguments() {
+        List<String> args = new ArrayList<>(Arrays.asList("1000", "--analytics", "out.csv", "4", "compact"));
+        assertEquals("out.csv", Simulator.removeOption(args, "--analytics"));
+        assertNull(Simulator.removeOption(args, "--analytics-period"));
+        assertEquals(Arrays.asList("1000", "4", "compact"), args);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOptionWithoutValueIsRejected() {
+        Simulator.removeOption(new ArrayList<>(Arrays.asList("1000", "--analytics-period")), "--analytics-period");
+    }
+}
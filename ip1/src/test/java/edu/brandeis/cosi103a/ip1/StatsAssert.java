@@ -0,0 +1,26 @@
+package edu.brandeis.cosi103a.ip1;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Assertions for tests that compare two engines by the statistics of the games
+ * they play rather than game by game.
+ */
+final class StatsAssert {
+
+    private StatsAssert() {
+    }
+
+    /**
+     * Asserts that two samples could come from the same distribution: the means
+     * within four standard errors of their difference and the variances within 15%.
+     *
+     * @param actual the sample under test
+     * @param expected the reference sample
+     */
+    static void assertClose(RunningStats actual, RunningStats expected) {
+        double se = Math.hypot(actual.getStandardError(), expected.getStandardError());
+        assertEquals(expected.getMean(), actual.getMean(), 4 * se);
+        assertEquals(expected.getVariance(), actual.getVariance(), 0.15 * expected.getVariance());
+    }
+}
@@ -0,0 +1,127 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class StrategyOptimizerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testGreedyGenesPlayLikeGreedy() {
+        CardCatalog catalog = CardCatalog.STANDARD;
+        Strategy genes = new ParameterStrategy("Genes", catalog, ParameterStrategy.greedyGenes(catalog));
+        CompactGame a = new CompactGame(catalog, genes, ScoredStrategy.BIG_MONEY);
+        CompactGame b = new CompactGame(catalog, ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY);
+        for (long seed = 0; seed < 50; seed++) {
+            a.reset(new SplittableRandom(seed));
+            b.reset(new SplittableRandom(seed));
+            GameResult x = a.playGame();
+            GameResult y = b.playGame();
+            assertEquals(y.getTurns(), x.getTurns());
+            assertEquals(y.getPoints(0), x.getPoints(0));
+            assertEquals(y.getPoints(1), x.getPoints(1));
+        }
+    }
+
+    @Test
+    public void testThresholdsAndPhaseChangeTheChoice() {
+        CardCatalog catalog = CardCatalog.STANDARD;
+        int types = catalog.size();
+        double[] genes = ParameterStrategy.greedyGenes(catalog);
+        // Never buy Method, and only buy Module with 7 coins or more
+        genes[CardCatalog.METHOD] = -1;
+        genes[types + CardCatalog.METHOD] = -1;
+        genes[2 * types + CardCatalog.MODULE] = 7;
+        ParameterStrategy strategy = new ParameterStrategy("Test", catalog, genes);
+        CompactGame game = new CompactGame(catalog, strategy, strategy);
+        game.reset(new SplittableRandom(2));
+        while (!game.isGameOver()) {
+            int coins = game.getAvailableCoins();
+            int card = strategy.chooseCard(game);
+            assertNotEquals(CardCatalog.METHOD, card);
+            if (card == CardCatalog.MODULE) {
+                assertTrue(coins >= 7);
+            }
+            game.playTurn(card);
+        }
+
+        // A phase switch of 1 makes the whole game late: Dogecoin over Framework
+        genes = ParameterStrategy.greedyGenes(catalog);
+        genes[types + CardCatalog.DOGECOIN] = 2;
+        genes[3 * types] = 1;
+        strategy.setGenes(genes);
+        game.reset(new SplittableRandom(3));
+        for (int turn = 0; turn < 60 && !game.isGameOver(); turn++) {
+            int card = strategy.chooseCard(game);
+            if (game.getAvailableCoins() >= 6) {
+                assertEquals(CardCatalog.DOGECOIN, card);
+            }
+            game.playTurn(card);
+        }
+    }
+
+    @Test
+    public void testGreedyScoresHalfAgainstItself() {
+        try (StrategyOptimizer optimizer = new StrategyOptimizer(List.of(ScoredStrategy.GREEDY), 2, 200, 2)) {
+            double[][] population = {ParameterStrategy.greedyGenes(CardCatalog.STANDARD),
+                ParameterStrategy.greedyGenes(CardCatalog.STANDARD)};
+            double[] fitness = optimizer.evaluate(population, 7);
+            assertEquals(0.5, fitness[0], 1e-12);
+            assertEquals(0.5, fitness[1], 1e-12);
+        }
+    }
+
+    @Test
+    public void testResumedRunMatchesUninterruptedRun() throws IOException {
+        List<Strategy> opponents = List.of(ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY);
+        Path file = folder.getRoot().toPath().resolve("run.checkpoint");
+        StrategyOptimizer.Checkpoint straight;
+        StrategyOptimizer.Checkpoint resumed;
+        try (StrategyOptimizer optimizer = new StrategyOptimizer(opponents, 8, 40, 2)) {
+            straight = optimizer.run(4, 99, null, null);
+        }
+        try (StrategyOptimizer optimizer = new StrategyOptimizer(opponents, 8, 40, 2)) {
+            optimizer.run(2, 99, file, null);
+        }
+        assertEquals(2, StrategyOptimizer.Checkpoint.load(file).generation);
+        try (StrategyOptimizer optimizer = new StrategyOptimizer(opponents, 8, 40, 1)) {
+            // The seed is ignored: the run continues with the checkpoint's own
+            resumed = optimizer.run(4, 12345, file, null);
+        }
+        assertEquals(4, resumed.generation);
+        assertEquals(straight.bestFitness, resumed.bestFitness, 0);
+        assertArrayEquals(straight.best, resumed.best, 0);
+        for (int c = 0; c < 8; c++) {
+            assertArrayEquals(straight.population[c], resumed.population[c], 0);
+        }
+        assertTrue(straight.bestFitness >= 0 && straight.bestFitness <= 1);
+    }
+
+    @Test
+    public void testRejectsBrokenCheckpoints() throws IOException {
+        Path file = folder.newFile("bad.checkpoint").toPath();
+        Files.writeString(file, "seed 1\ngeneration x\n");
+        try (StrategyOptimizer optimizer = new StrategyOptimizer(List.of(ScoredStrategy.GREEDY), 4, 10, 1)) {
+            optimizer.run(1, 0, file, null);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(":2: "));
+        }
+        Files.writeString(file, "seed 1\ngeneration 0\nbest 0 1 2\ncandidate 1 2\n");
+        try (StrategyOptimizer optimizer = new StrategyOptimizer(List.of(ScoredStrategy.GREEDY), 4, 10, 1)) {
+            optimizer.run(1, 0, file, null);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("different population"));
+        }
+    }
+}
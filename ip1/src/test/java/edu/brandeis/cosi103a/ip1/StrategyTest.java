@@ -0,0 +1,113 @@
+package edu.brandeis.cosi103a.ip1;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.List;
+import java.util.Random;
+
+public class StrategyTest {
+
+    /** A strategy without a scorer, so engines must call chooseCard */
+    private static final Strategy CHEAPEST = view -> {
+        CardCatalog catalog = view.getCatalog();
+        int affordable = catalog.getAffordableCount(view.getAvailableCoins());
+        for (int i = affordable - 1; i >= 0; i--) {
+            int id = catalog.getCardByCost(i);
+            if (view.getSupplyCount(id) > 0 && catalog.isAutomation(id)) {
+                return id;
+            }
+        }
+        return -1;
+    };
+
+    // ===== Strategy Tests =====
+    @Test
+    public void testScoredStrategyMatchesBuyTable() {
+        CompactGame game = new CompactGame(CardCatalog.STANDARD);
+        Random random = new Random(11);
+        for (int g = 0; g < 20; g++) {
+            game.reset(random);
+            while (!game.isGameOver()) {
+                assertEquals(game.chooseBestCard(game.getAvailableCoins()),
+                    ScoredStrategy.GREEDY.chooseCard(game));
+                game.playTurn();
+            }
+        }
+    }
+
+    @Test
+    public void testViewsAgreeBetweenEngines() {
+        domination game = new domination(new Random(4), true);
+        CompactGame compact = new CompactGame(CardCatalog.STANDARD);
+        compact.reset(new Random(4));
+
+        for (int turn = 0; turn < 30; turn++) {
+            assertEquals(game.getCurrentSeat(), compact.getCurrentSeat());
+            assertEquals(game.getAvailableCoins(), compact.getAvailableCoins());
+            for (int id = 0; id < CardCatalog.STANDARD.size(); id++) {
+                assertEquals(game.getHandCount(id), compact.getHandCount(id));
+                assertEquals(game.getSupplyCount(id), compact.getSupplyCount(id));
+            }
+            game.playTurn();
+            compact.playTurn();
+        }
+    }
+
+    @Test
+    public void testUncompiledStrategyPlaysInBothEngines() {
+        GameResult expected = new domination(new Random(8), true, CHEAPEST, ScoredStrategy.GREEDY).playGame();
+        CompactGame compact = new CompactGame(CardCatalog.STANDARD, CHEAPEST, ScoredStrategy.GREEDY);
+        compact.reset(new Random(8));
+        GameResult actual = compact.playGame();
+
+        assertEquals(expected.getTurns(), actual.getTurns());
+        assertEquals(expected.getPoints(0), actual.getPoints(0));
+        assertEquals(expected.getPoints(1), actual.getPoints(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testIllegalChoiceIsRejected() {
+        Strategy cheater = view -> CardCatalog.FRAMEWORK;
+        CompactGame game = new CompactGame(CardCatalog.STANDARD, cheater, cheater);
+        game.reset(new Random(1));
+        game.playGame();
+    }
+
+    // ===== Tournament Tests =====
+    @Test
+    public void testTournamentMatrix() {
+        Tournament tournament = new Tournament(
+            List.of(ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY, CHEAPEST), 400, 2);
+        TournamentResult result = tournament.run(99);
+
+        assertEquals(3, result.size());
+        assertEquals("BigMoney", result.getName(1));
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                if (i != j) {
+                    assertEquals(400, result.getGames(i, j));
+                    assertEquals(1.0, result.getWinRate(i, j) + result.getWinRate(j, i), 1e-9);
+                    assertEquals(result.getHalfWidth(i, j), result.getHalfWidth(j, i), 1e-12);
+                    assertTrue(result.getHalfWidth(i, j) < 0.1);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTournamentIsReproducible() {
+        List<Strategy> strategies = List.of(ScoredStrategy.GREEDY, ScoredStrategy.BIG_MONEY);
+        TournamentResult a = new Tournament(strategies, 200, 1).run(5);
+        TournamentResult b = new Tournament(strategies, 200, 3).run(5);
+        assertEquals(a.getWinRate(0, 1), b.getWinRate(0, 1), 1e-12);
+    }
+
+    @Test
+    public void testMirroredDealsCancelOutForIdenticalStrategies() {
+        // The same strategy in both seats gets every deal both ways round, so it scores exactly 0.5
+        TournamentResult result = new Tournament(
+            List.of(ScoredStrategy.GREEDY, new ScoredStrategy("Copy", CardScorer.GREEDY)), 100, 1).run(3);
+        assertEquals(0.5, result.getWinRate(0, 1), 1e-12);
+        assertEquals(0.0, result.getHalfWidth(0, 1), 1e-12);
+    }
+}